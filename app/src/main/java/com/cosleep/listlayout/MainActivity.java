@@ -17,8 +17,8 @@ import com.cosleep.listlayout.model.StringModel;
 import com.cosleeplib.listlayout.ListLayout;
 import com.cosleeplib.listlayout.multitype.ClassLinker;
 import com.cosleeplib.listlayout.multitype.ItemViewBinder;
-import com.cosleeplib.listlayout.multitype.Items;
 import com.cosleeplib.listlayout.multitype.MultiTypeAdapter;
+import com.cosleeplib.listlayout.multitype.PersistentItems;
 import com.scwang.smart.refresh.layout.SmartRefreshLayout;
 import com.scwang.smart.refresh.layout.api.RefreshLayout;
 import com.scwang.smart.refresh.layout.listener.OnLoadMoreListener;
@@ -29,7 +29,7 @@ public class MainActivity extends AppCompatActivity {
     private SmartRefreshLayout vRefreshLayout;
     private ListLayout vListLayout;
 
-    private final Items mListItems = new Items();
+    private PersistentItems mListItems = PersistentItems.empty();
     private final MultiTypeAdapter mListAdapter = new MultiTypeAdapter(mListItems);
 
     @Override
@@ -88,6 +88,8 @@ public class MainActivity extends AppCompatActivity {
                 return ImageCenterViewBinder.class;
             }
         });
+        //只为可见区域内的条目创建子View，加载更多后条目再多也不会卡顿
+        vListLayout.setVirtualizationEnabled(true);
         vListLayout.setAdapter(mListAdapter);
     }
 
@@ -96,28 +98,35 @@ public class MainActivity extends AppCompatActivity {
     }
 
     private void refresh() {
-        mListItems.clear();
+        PersistentItems.Builder items = PersistentItems.empty().builder();
         //一对多
-        mListItems.add(new ImageModel(ImageModel.TYPE_CENTER, R.mipmap.ic_launcher));
-        mListItems.add(new ImageModel(ImageModel.TYPE_LEFT, R.mipmap.ic_launcher));
-        mListItems.add(new ImageModel(ImageModel.TYPE_RIGHT, R.mipmap.ic_launcher));
+        items.add(new ImageModel(ImageModel.TYPE_CENTER, R.mipmap.ic_launcher));
+        items.add(new ImageModel(ImageModel.TYPE_LEFT, R.mipmap.ic_launcher));
+        items.add(new ImageModel(ImageModel.TYPE_RIGHT, R.mipmap.ic_launcher));
         //多类型
         for (int i = 0; i < 100; i++) {
             if (i % 2 == 0) {
-                mListItems.add(new StringModel("String：" + i));
+                items.add(new StringModel("String：" + i));
             } else {
-                mListItems.add(new NumberModel(i));
+                items.add(new NumberModel(i));
             }
         }
-        mListAdapter.notifyDataSetChanged();
+        //和当前数据做差异对比，只刷新变化了的条目
+        mListItems = items.build();
+        mListAdapter.submitItems(mListItems);
         vRefreshLayout.finishRefresh(true);
     }
 
     private void loadMore() {
+        int positionStart = mListItems.size();
+        PersistentItems.Builder items = mListItems.builder();
         for (int i = 1; i <= 5; i++) {
-            mListItems.add(new StringModel("LoadMore：" + i));
+            items.add(new StringModel("LoadMore：" + i));
         }
-        mListAdapter.notifyDataSetChanged();
+        //新的列表和旧的列表共用已有的条目，不需要复制
+        mListItems = items.build();
+        mListAdapter.swapItems(mListItems);
+        mListAdapter.notifyItemRangeInserted(positionStart, 5);
         vRefreshLayout.finishLoadMore(true);
     }
 }
\ No newline at end of file
@@ -26,12 +26,8 @@ public class ImageCenterViewBinder extends ItemViewBinder<ImageModel, ImageCente
     @NonNull
     @Override
     protected ViewHolder onCreateViewHolder(@NonNull LayoutInflater inflater, @NonNull ViewGroup parent) {
-        return new ViewHolder(inflater.inflate(R.layout.item_image_center, parent, false));
-    }
-
-    @Override
-    protected void onBindViewHolder(@NonNull ViewHolder holder, @NonNull ImageModel item) {
-        holder.vImage.setImageResource(item.getImgResId());
+        final ViewHolder holder = new ViewHolder(inflater.inflate(R.layout.item_image_center, parent, false));
+        //点击监听只在创建时设置一次，渲染时不再创建新的对象
         holder.itemView.setOnClickListener(new View.OnClickListener() {
             @Override
             public void onClick(View v) {
@@ -40,6 +36,12 @@ public class ImageCenterViewBinder extends ItemViewBinder<ImageModel, ImageCente
                 }
             }
         });
+        return holder;
+    }
+
+    @Override
+    protected void onBindViewHolder(@NonNull ViewHolder holder, @NonNull ImageModel item) {
+        holder.vImage.setImageResource(item.getImgResId());
     }
 
     static class ViewHolder extends ListLayout.ViewHolder {
@@ -27,12 +27,8 @@ public class ImageLeftViewBinder extends ItemViewBinder<ImageModel, ImageLeftVie
     @NonNull
     @Override
     protected ViewHolder onCreateViewHolder(@NonNull LayoutInflater inflater, @NonNull ViewGroup parent) {
-        return new ViewHolder(inflater.inflate(R.layout.item_image_left, parent, false));
-    }
-
-    @Override
-    protected void onBindViewHolder(@NonNull ViewHolder holder, @NonNull ImageModel item) {
-        holder.vImage.setImageResource(item.getImgResId());
+        final ViewHolder holder = new ViewHolder(inflater.inflate(R.layout.item_image_left, parent, false));
+        //点击监听只在创建时设置一次，渲染时不再创建新的对象
         holder.itemView.setOnClickListener(new View.OnClickListener() {
             @Override
             public void onClick(View v) {
@@ -41,6 +37,12 @@ public class ImageLeftViewBinder extends ItemViewBinder<ImageModel, ImageLeftVie
                 }
             }
         });
+        return holder;
+    }
+
+    @Override
+    protected void onBindViewHolder(@NonNull ViewHolder holder, @NonNull ImageModel item) {
+        holder.vImage.setImageResource(item.getImgResId());
     }
 
     static class ViewHolder extends ListLayout.ViewHolder {
@@ -24,12 +24,8 @@ public final class NumberViewBinder extends ItemViewBinder<NumberModel, NumberVi
     @NonNull
     @Override
     protected ViewHolder onCreateViewHolder(@NonNull LayoutInflater inflater, @NonNull ViewGroup parent) {
-        return new ViewHolder(inflater.inflate(R.layout.item_view_number, parent, false));
-    }
-
-    @Override
-    protected void onBindViewHolder(@NonNull ViewHolder holder, @NonNull NumberModel item) {
-        holder.vItem.setText(String.valueOf(item.getValue()));
+        final ViewHolder holder = new ViewHolder(inflater.inflate(R.layout.item_view_number, parent, false));
+        //点击监听只在创建时设置一次，渲染时不再创建新的对象
         holder.itemView.setOnClickListener(new View.OnClickListener() {
             @Override
             public void onClick(View v) {
@@ -38,6 +34,12 @@ public final class NumberViewBinder extends ItemViewBinder<NumberModel, NumberVi
                 }
             }
         });
+        return holder;
+    }
+
+    @Override
+    protected void onBindViewHolder(@NonNull ViewHolder holder, @NonNull NumberModel item) {
+        holder.vItem.setText(String.valueOf(item.getValue()));
     }
 
     static class ViewHolder extends ListLayout.ViewHolder {
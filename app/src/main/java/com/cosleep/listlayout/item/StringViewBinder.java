@@ -24,12 +24,8 @@ public class StringViewBinder extends ItemViewBinder<StringModel, StringViewBind
     @NonNull
     @Override
     protected ViewHolder onCreateViewHolder(@NonNull LayoutInflater inflater, @NonNull ViewGroup parent) {
-        return new ViewHolder(inflater.inflate(R.layout.item_view_string, parent, false));
-    }
-
-    @Override
-    protected void onBindViewHolder(@NonNull ViewHolder holder, @NonNull StringModel item) {
-        holder.vItem.setText(item.getValue());
+        final ViewHolder holder = new ViewHolder(inflater.inflate(R.layout.item_view_string, parent, false));
+        //点击监听只在创建时设置一次，渲染时不再创建新的对象
         holder.itemView.setOnClickListener(new View.OnClickListener() {
             @Override
             public void onClick(View v) {
@@ -38,6 +34,12 @@ public class StringViewBinder extends ItemViewBinder<StringModel, StringViewBind
                 }
             }
         });
+        return holder;
+    }
+
+    @Override
+    protected void onBindViewHolder(@NonNull ViewHolder holder, @NonNull StringModel item) {
+        holder.vItem.setText(item.getValue());
     }
 
     static class ViewHolder extends ListLayout.ViewHolder {
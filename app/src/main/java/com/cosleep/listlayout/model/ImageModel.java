@@ -48,6 +48,23 @@ public class ImageModel {
         this.imgResId = imgResId;
     }
 
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        ImageModel that = (ImageModel) o;
+        return type == that.type && imgResId == that.imgResId;
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * type + imgResId;
+    }
+
     @Override
     public String toString() {
         return "ImageModel{" +
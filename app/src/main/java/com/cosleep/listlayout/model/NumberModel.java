@@ -1,5 +1,7 @@
 package com.cosleep.listlayout.model;
 
+import java.util.Objects;
+
 public class NumberModel {
     private Number value;
 
@@ -15,6 +17,23 @@ public class NumberModel {
         this.value = value;
     }
 
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        NumberModel that = (NumberModel) o;
+        return Objects.equals(value, that.value);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hashCode(value);
+    }
+
     @Override
     public String toString() {
         return "NumberModel{" +
@@ -0,0 +1,151 @@
+package com.cosleep.listlayout;
+
+import android.os.Looper;
+
+import com.cosleeplib.listlayout.ListLayout;
+import com.cosleeplib.listlayout.multitype.MultiTypeAdapter;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.robolectric.Shadows.shadowOf;
+
+/**
+ * 后台线程替换数据后直接调用notify系列方法，数据修改和通知一起切换到主线程按顺序执行，观察者收到通知时读到的数据和通知一致
+ * 没有观察者时不切换线程，也不抛出异常
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 32)
+public class BackgroundNotifyTest {
+    private MultiTypeAdapter mAdapter;
+    /**
+     * 按顺序记录的通知，以及收到通知时Adapter的条目数量
+     */
+    private final List<String> mEvents = new ArrayList<>();
+    private final List<Thread> mThreads = new ArrayList<>();
+    private final ListLayout.AdapterDataObserver mObserver = new ListLayout.AdapterDataObserver() {
+        @Override
+        public void onChanged() {
+            record("changed");
+        }
+
+        @Override
+        public void onItemRangeInserted(int positionStart, int itemCount) {
+            record("inserted " + positionStart + "," + itemCount);
+        }
+
+        @Override
+        public void onItemRangeRemoved(int positionStart, int itemCount) {
+            record("removed " + positionStart + "," + itemCount);
+        }
+    };
+
+    @Before
+    public void setUp() {
+        mAdapter = new MultiTypeAdapter(items(10));
+    }
+
+    @Test
+    public void notifyFromBackgroundThreadRunsOnMainThreadWithItsData() throws InterruptedException {
+        mAdapter.registerAdapterDataObserver(mObserver);
+        runInBackground(new Runnable() {
+            @Override
+            public void run() {
+                mAdapter.setItems(items(12));
+                mAdapter.notifyItemRangeInserted(10, 2);
+                mAdapter.swapItems(items(11));
+                mAdapter.notifyItemRemoved(0);
+                mAdapter.setItems(items(3));
+                mAdapter.notifyDataSetChanged();
+            }
+        });
+        //数据和通知都还没有提交
+        assertTrue(mEvents.isEmpty());
+        assertEquals(10, mAdapter.getItemCount());
+
+        shadowOf(Looper.getMainLooper()).idle();
+        assertEquals(Arrays.asList("inserted 10,2 -> 12", "removed 0,1 -> 11", "changed -> 3"), mEvents);
+        for (Thread thread : mThreads) {
+            assertEquals(Looper.getMainLooper().getThread(), thread);
+        }
+    }
+
+    @Test
+    public void notifyWithoutObserversDoesNotThrow() throws InterruptedException {
+        final List<Throwable> errors = new ArrayList<>();
+        runInBackground(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    mAdapter.setItems(items(3));
+                    mAdapter.notifyDataSetChanged();
+                } catch (RuntimeException e) {
+                    errors.add(e);
+                }
+            }
+        });
+        assertTrue(errors.isEmpty());
+        //没有观察者时数据在当前线程直接替换
+        assertEquals(3, mAdapter.getItemCount());
+    }
+
+    @Test
+    public void updatesFromBackgroundThreadRunInOneTask() throws InterruptedException {
+        mAdapter.registerAdapterDataObserver(mObserver);
+        runInBackground(new Runnable() {
+            @Override
+            public void run() {
+                mAdapter.postUpdate(new Runnable() {
+                    @Override
+                    public void run() {
+                        mAdapter.setItems(items(12));
+                        mAdapter.notifyItemRangeInserted(10, 2);
+                        mAdapter.notifyItemRemoved(0);
+                        mAdapter.notifyItemRangeInserted(10, 1);
+                    }
+                });
+            }
+        });
+        assertTrue(mEvents.isEmpty());
+
+        shadowOf(Looper.getMainLooper()).idle();
+        assertEquals(Arrays.asList("inserted 10,2 -> 12", "removed 0,1 -> 12", "inserted 10,1 -> 12"), mEvents);
+    }
+
+    @Test
+    public void notifyOnMainThreadIsDispatchedImmediately() {
+        mAdapter.registerAdapterDataObserver(mObserver);
+        mAdapter.setItems(items(3));
+        mAdapter.notifyDataSetChanged();
+        assertEquals(Collections.singletonList("changed -> 3"), mEvents);
+    }
+
+    private void record(String event) {
+        mThreads.add(Thread.currentThread());
+        mEvents.add(event + " -> " + mAdapter.getItemCount());
+    }
+
+    private static void runInBackground(Runnable runnable) throws InterruptedException {
+        Thread background = new Thread(runnable);
+        background.start();
+        background.join();
+    }
+
+    private static List<Integer> items(int count) {
+        List<Integer> items = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            items.add(i);
+        }
+        return items;
+    }
+}
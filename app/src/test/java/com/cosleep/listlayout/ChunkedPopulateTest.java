@@ -0,0 +1,145 @@
+package com.cosleep.listlayout;
+
+import android.app.Activity;
+import android.os.Looper;
+import android.widget.ScrollView;
+
+import com.cosleeplib.listlayout.ListLayout;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.Robolectric;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.robolectric.Shadows.shadowOf;
+
+/**
+ * 分帧填充：每帧只填充时间预算内的条目，从可见区域的第一个条目开始先向下再向上，最终和一次填充的结果一致
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 32)
+public class ChunkedPopulateTest {
+    private ScrollView mScrollView;
+    private ListLayout mListLayout;
+    /**
+     * 按顺序记录的填充进度，例如"1/5"，填充完成时为"complete"
+     */
+    private final List<String> mProgress = new ArrayList<>();
+
+    @Before
+    public void setUp() {
+        Activity activity = Robolectric.buildActivity(Activity.class).setup().get();
+        mScrollView = new ScrollView(activity);
+        mListLayout = new ListLayout(activity);
+        mScrollView.addView(mListLayout);
+        activity.setContentView(mScrollView);
+        mListLayout.setOnPopulateListener(new ListLayout.OnPopulateListener() {
+            @Override
+            public void onPopulateProgress(int populatedCount, int totalCount) {
+                mProgress.add(populatedCount + "/" + totalCount);
+            }
+
+            @Override
+            public void onPopulateComplete() {
+                mProgress.add("complete");
+            }
+        });
+    }
+
+    @Test
+    public void populatesOneChunkPerFrame() {
+        //预算只有1纳秒，每帧只填充一个条目
+        mListLayout.setIncrementalPopulateEnabled(true);
+        mListLayout.setPopulateFrameBudgetNanos(1);
+        TestAdapter adapter = new TestAdapter(5);
+        mListLayout.setAdapter(adapter);
+        //第一部分马上填充
+        assertEquals(1, mListLayout.getChildCount());
+        assertEquals(Collections.singletonList("bind 0"), bindEvents(adapter));
+
+        shadowOf(Looper.getMainLooper()).idleFor(Duration.ofSeconds(1));
+        assertEquals(Arrays.asList("1/5", "2/5", "3/5", "4/5", "5/5", "complete"), mProgress);
+        assertEquals(Arrays.asList("bind 0", "bind 1", "bind 2", "bind 3", "bind 4"), bindEvents(adapter));
+        assertChildrenInOrder(adapter);
+    }
+
+    @Test
+    public void startsFromFirstVisibleItem() {
+        TestAdapter adapter = new TestAdapter(100);
+        mListLayout.setAdapter(adapter);
+        //等待布局完成，之后才能滚动
+        shadowOf(Looper.getMainLooper()).idleFor(Duration.ofMillis(100));
+        //每个条目20px，滚动400px后，第一个可见的条目是20
+        mScrollView.scrollTo(0, 400);
+        mListLayout.setIncrementalPopulateEnabled(true);
+        mListLayout.setPopulateFrameBudgetNanos(1);
+        adapter.reset();
+        mProgress.clear();
+
+        adapter.notifyDataSetChanged();
+        mListLayout.flushPendingUpdates();
+        shadowOf(Looper.getMainLooper()).idleFor(Duration.ofSeconds(3));
+        List<String> expected = new ArrayList<>();
+        for (int position = 20; position < 100; position++) {
+            expected.add("bind " + position);
+        }
+        for (int position = 19; position >= 0; position--) {
+            expected.add("bind " + position);
+        }
+        assertEquals(expected, bindEvents(adapter));
+        assertEquals("complete", mProgress.get(mProgress.size() - 1));
+        assertChildrenInOrder(adapter);
+    }
+
+    @Test
+    public void localUpdateCompletesPendingChunks() {
+        mListLayout.setIncrementalPopulateEnabled(true);
+        mListLayout.setPopulateFrameBudgetNanos(1);
+        TestAdapter adapter = new TestAdapter(5);
+        mListLayout.setAdapter(adapter);
+        assertEquals(1, mListLayout.getChildCount());
+
+        //占位对应的位置跟着通知一起变化，之后同步填充完剩下的条目
+        adapter.items.add(0, 100L);
+        adapter.notifyItemInserted(0);
+        mListLayout.flushPendingUpdates();
+        assertEquals(6, mListLayout.getChildCount());
+        assertChildrenInOrder(adapter);
+        assertTrue(mProgress.contains("complete"));
+        adapter.reset();
+        shadowOf(Looper.getMainLooper()).idleFor(Duration.ofSeconds(1));
+        assertEquals(0, adapter.bindCount);
+    }
+
+    private static List<String> bindEvents(TestAdapter adapter) {
+        List<String> binds = new ArrayList<>();
+        for (String event : adapter.events) {
+            if (event.startsWith("bind")) {
+                binds.add(event);
+            }
+        }
+        return binds;
+    }
+
+    /**
+     * 填充完成后，子View按条目顺序排列，渲染的数据和Adapter的数据一致
+     */
+    private void assertChildrenInOrder(TestAdapter adapter) {
+        assertEquals(adapter.getItemCount(), mListLayout.getChildCount());
+        for (int i = 0; i < mListLayout.getChildCount(); i++) {
+            TestAdapter.Holder holder = TestAdapter.holderAt(mListLayout, i);
+            assertEquals(i, holder.getAdapterPosition());
+            assertEquals((long) adapter.items.get(i), holder.id);
+        }
+    }
+}
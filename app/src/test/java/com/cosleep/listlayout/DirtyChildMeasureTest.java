@@ -0,0 +1,82 @@
+package com.cosleep.listlayout;
+
+import android.view.View;
+
+import com.cosleeplib.listlayout.ListLayout;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.annotation.Config;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * 重新测量时只测量请求了重新布局的子View，后面的子View只平移，测量约束变了才全部重新测量
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 32)
+public class DirtyChildMeasureTest {
+    private ListLayout mListLayout;
+
+    @Before
+    public void setUp() {
+        mListLayout = new ListLayout(RuntimeEnvironment.getApplication());
+        //测量缓存单独测试，这里只看请求了重新布局的子View
+        mListLayout.setMeasureCacheSize(0);
+        mListLayout.setAdapter(new TestAdapter(5));
+        TestAdapter.measureAndLayout(mListLayout);
+        resetMeasureCounts();
+    }
+
+    @Test
+    public void onlyDirtyChildIsRemeasured() {
+        TestAdapter.holderAt(mListLayout, 2).view.setContentHeight(40);
+        TestAdapter.measureAndLayout(mListLayout);
+        assertMeasureCounts(0, 0, 1, 0, 0);
+        //后面的子View跟着下移
+        assertEquals(40, mListLayout.getChildAt(2).getTop());
+        assertEquals(80, mListLayout.getChildAt(3).getTop());
+        assertEquals(100, mListLayout.getChildAt(4).getTop());
+        assertEquals(120, mListLayout.getMeasuredHeight());
+    }
+
+    @Test
+    public void shrinkingChildMovesFollowingChildrenUp() {
+        TestAdapter.holderAt(mListLayout, 0).view.setContentHeight(5);
+        TestAdapter.measureAndLayout(mListLayout);
+        assertMeasureCounts(1, 0, 0, 0, 0);
+        assertEquals(5, mListLayout.getChildAt(1).getTop());
+        assertEquals(85, mListLayout.getMeasuredHeight());
+    }
+
+    @Test
+    public void cleanChildrenAreNotRemeasured() {
+        mListLayout.requestLayout();
+        TestAdapter.measureAndLayout(mListLayout);
+        assertMeasureCounts(0, 0, 0, 0, 0);
+        assertEquals(100, mListLayout.getMeasuredHeight());
+    }
+
+    @Test
+    public void widthChangeRemeasuresEveryChild() {
+        mListLayout.measure(View.MeasureSpec.makeMeasureSpec(TestAdapter.WIDTH / 2, View.MeasureSpec.EXACTLY),
+                View.MeasureSpec.makeMeasureSpec(0, View.MeasureSpec.UNSPECIFIED));
+        assertMeasureCounts(1, 1, 1, 1, 1);
+    }
+
+    private void resetMeasureCounts() {
+        for (int i = 0; i < mListLayout.getChildCount(); i++) {
+            TestAdapter.holderAt(mListLayout, i).view.measureCount = 0;
+        }
+    }
+
+    private void assertMeasureCounts(int... expected) {
+        assertEquals(expected.length, mListLayout.getChildCount());
+        for (int i = 0; i < expected.length; i++) {
+            assertEquals("child " + i, expected[i], TestAdapter.holderAt(mListLayout, i).view.measureCount);
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package com.cosleep.listlayout;
+
+import com.cosleeplib.listlayout.ListLayout;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.annotation.Config;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * 网格模式测量时不处理还没处理的通知，行的划分按换算后的条目位置计算，被移除的条目沿用上一次的列
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 32)
+public class GridPendingUpdatesTest {
+    private ListLayout mListLayout;
+    private TestAdapter mAdapter;
+
+    @Before
+    public void setUp() {
+        mListLayout = new ListLayout(RuntimeEnvironment.getApplication());
+        mListLayout.setSpanCount(2);
+        mAdapter = new TestAdapter(6);
+        mListLayout.setAdapter(mAdapter);
+        TestAdapter.measureAndLayout(mListLayout);
+    }
+
+    @Test
+    public void measureDoesNotFlushPendingUpdates() {
+        mAdapter.items.add(0, 100L);
+        mAdapter.notifyItemInserted(0);
+        TestAdapter.measureAndLayout(mListLayout);
+        assertTrue(mListLayout.hasPendingUpdates());
+        assertEquals(6, mListLayout.getChildCount());
+        //原来的第一个条目换算后在位置1，排在第二列，下一个条目换到下一行的第一列
+        assertEquals(TestAdapter.WIDTH / 2, mListLayout.getChildAt(0).getLeft());
+        assertEquals(0, mListLayout.getChildAt(1).getLeft());
+        assertEquals(TestAdapter.ITEM_HEIGHT, mListLayout.getChildAt(1).getTop());
+
+        mListLayout.flushPendingUpdates();
+        TestAdapter.measureAndLayout(mListLayout);
+        assertEquals(7, mListLayout.getChildCount());
+        assertEquals(0, mListLayout.getChildAt(0).getLeft());
+        assertEquals(TestAdapter.WIDTH / 2, mListLayout.getChildAt(1).getLeft());
+        assertEquals(4 * TestAdapter.ITEM_HEIGHT, mListLayout.getMeasuredHeight());
+    }
+
+    @Test
+    public void removedItemsKeepTheirCellsUntilFlushed() {
+        mAdapter.items.subList(4, 6).clear();
+        mAdapter.notifyItemRangeRemoved(4, 2);
+        TestAdapter.measureAndLayout(mListLayout);
+        assertEquals(6, mListLayout.getChildCount());
+        assertEquals(ListLayout.NO_POSITION, TestAdapter.holderAt(mListLayout, 5).getAdapterPosition());
+        assertEquals(TestAdapter.WIDTH / 2, mListLayout.getChildAt(5).getLeft());
+        assertEquals(2 * TestAdapter.ITEM_HEIGHT, mListLayout.getChildAt(5).getTop());
+
+        mListLayout.flushPendingUpdates();
+        TestAdapter.measureAndLayout(mListLayout);
+        assertEquals(4, mListLayout.getChildCount());
+        assertEquals(2 * TestAdapter.ITEM_HEIGHT, mListLayout.getMeasuredHeight());
+    }
+}
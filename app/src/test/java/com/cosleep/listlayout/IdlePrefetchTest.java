@@ -0,0 +1,113 @@
+package com.cosleep.listlayout;
+
+import android.app.Activity;
+import android.os.Looper;
+
+import com.cosleeplib.listlayout.ListLayout;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.Robolectric;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import java.util.Arrays;
+
+import static org.junit.Assert.assertEquals;
+import static org.robolectric.Shadows.shadowOf;
+
+/**
+ * 主线程空闲时按条目类型的出现频率预创建ViewHolder，之后插入的条目直接从回收池复用
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 32)
+public class IdlePrefetchTest {
+    private Activity mActivity;
+    private ListLayout mListLayout;
+    private ListLayout.RecycledViewPool mPool;
+
+    @Before
+    public void setUp() {
+        mActivity = Robolectric.buildActivity(Activity.class).setup().get();
+        mListLayout = new ListLayout(mActivity);
+        mListLayout.setIdlePrefetchEnabled(true);
+        mListLayout.setIdlePrefetchLimits(4, 3);
+        mPool = mListLayout.getRecycledViewPool();
+    }
+
+    @Test
+    public void prefetchesByViewTypeFrequency() {
+        //类型0出现6次，类型1出现2次，4个预创建名额按比例分成3个和1个
+        TestAdapter adapter = new TestAdapter(0, 2);
+        adapter.items.addAll(Arrays.asList(0L, 2L, 4L, 6L, 8L, 10L, 1L, 3L));
+        mActivity.setContentView(mListLayout);
+        mListLayout.setAdapter(adapter);
+        adapter.reset();
+
+        idleUntilStable();
+        assertEquals(3, mPool.getRecycledViewCount(0));
+        assertEquals(1, mPool.getRecycledViewCount(1));
+        assertEquals(4, adapter.createCount);
+        //先预创建出现次数最多的类型
+        assertEquals(Arrays.asList("create 0", "create 0", "create 0", "create 1"), adapter.events);
+    }
+
+    @Test
+    public void insertedItemsReusePrefetchedHolders() {
+        TestAdapter adapter = new TestAdapter(6);
+        mActivity.setContentView(mListLayout);
+        mListLayout.setAdapter(adapter);
+        idleUntilStable();
+        assertEquals(3, mPool.getRecycledViewCount(0));
+        adapter.reset();
+        mPool.resetStats();
+
+        adapter.items.addAll(Arrays.asList(100L, 101L, 102L));
+        adapter.notifyItemRangeInserted(6, 3);
+        mListLayout.flushPendingUpdates();
+        assertEquals(9, mListLayout.getChildCount());
+        assertEquals(0, adapter.createCount);
+        assertEquals(3, mPool.getHitCount());
+        assertEquals(0, mPool.getMissCount());
+    }
+
+    @Test
+    public void prefetchStopsWhenPoolIsFull() {
+        mPool.setMaxRecycledViews(0, 1);
+        TestAdapter adapter = new TestAdapter(6);
+        mActivity.setContentView(mListLayout);
+        mListLayout.setAdapter(adapter);
+        adapter.reset();
+
+        idleUntilStable();
+        assertEquals(1, mPool.getRecycledViewCount(0));
+        assertEquals(1, adapter.createCount);
+    }
+
+    @Test
+    public void nothingIsPrefetchedWhileDetachedOrDisabled() {
+        TestAdapter adapter = new TestAdapter(6);
+        mListLayout.setAdapter(adapter);
+        adapter.reset();
+        idleUntilStable();
+        assertEquals(0, adapter.createCount);
+
+        mListLayout.setIdlePrefetchEnabled(false);
+        mActivity.setContentView(mListLayout);
+        idleUntilStable();
+        assertEquals(0, adapter.createCount);
+        assertEquals(0, mPool.getPoolSize());
+    }
+
+    /**
+     * 每次空闲只预创建一个，反复让主线程空闲，直到不再有新的ViewHolder
+     */
+    private void idleUntilStable() {
+        int poolSize;
+        do {
+            poolSize = mPool.getPoolSize();
+            shadowOf(Looper.getMainLooper()).idle();
+        } while (mPool.getPoolSize() != poolSize);
+    }
+}
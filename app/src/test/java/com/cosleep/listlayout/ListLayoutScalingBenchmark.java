@@ -0,0 +1,268 @@
+package com.cosleep.listlayout;
+
+import android.content.Context;
+import android.os.Looper;
+import android.view.View;
+import android.view.ViewGroup;
+import android.widget.ScrollView;
+
+import com.cosleeplib.listlayout.ListLayout;
+import com.cosleeplib.listlayout.ListLayoutMetrics;
+import com.cosleeplib.listlayout.multitype.Items;
+import com.cosleeplib.listlayout.multitype.MultiTypeAdapter;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.annotation.Config;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+
+import static org.junit.Assume.assumeTrue;
+import static org.robolectric.Shadows.shadowOf;
+
+/**
+ * ListLayout填充性能随条目数量、条目类型组合变化的基准测试，使用示例中的ItemViewBinder，在JVM上通过Robolectric运行
+ * 每个用例依次跑3个场景：setAdapter()首次填充、加载更多追加一页、notifyDataSetChanged()刷新，
+ * 记录每个场景的耗时，以及创建（inflate）、渲染的ViewHolder数量，结果写到CSV和JSON文件，方便不同版本之间对比
+ * <p>
+ * 默认跳过，运行：./gradlew :app:testDebugUnitTest --tests '*ListLayoutScalingBenchmark' -Plistlayout.benchmark=true
+ * 可选参数：-Plistlayout.benchmark.itemCounts=100,1000（条目数量）、-Plistlayout.benchmark.runs=5（计时次数）
+ * 结果输出到app/build/reports/listlayout-benchmark/
+ * <p>
+ * 注意：Robolectric的耗时和真机不同，只用于同一台机器上的前后对比，创建、渲染数量则和真机一致
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 32, qualifiers = "w360dp-h640dp-xxhdpi")
+public class ListLayoutScalingBenchmark {
+    private static final String SCENARIO_POPULATE = "populate";
+    private static final String SCENARIO_LOAD_MORE = "loadMore";
+    private static final String SCENARIO_REFRESH = "refresh";
+    /**
+     * 加载更多时，每页的条目数量，和示例一致
+     */
+    private static final int LOAD_MORE_PAGE_SIZE = 5;
+    /**
+     * 预热的次数，不计入结果
+     */
+    private static final int WARMUP_RUNS = 1;
+
+    private Context mContext;
+    private int mWidth;
+    private int mHeight;
+
+    @Before
+    public void setUp() {
+        assumeTrue("Skipped, pass -Plistlayout.benchmark=true to run", Boolean.getBoolean("listlayout.benchmark"));
+        mContext = RuntimeEnvironment.getApplication();
+        mWidth = mContext.getResources().getDisplayMetrics().widthPixels;
+        mHeight = mContext.getResources().getDisplayMetrics().heightPixels;
+    }
+
+    @Test
+    public void scaling() throws IOException {
+        int[] itemCounts = parseItemCounts(System.getProperty("listlayout.benchmark.itemCounts", "100,1000,10000"));
+        int runs = Integer.parseInt(System.getProperty("listlayout.benchmark.runs", "3"));
+        List<Result> results = new ArrayList<>();
+        for (int itemCount : itemCounts) {
+            for (String mix : new String[]{
+                    SampleAdapters.MIX_SINGLE, SampleAdapters.MIX_MIXED, SampleAdapters.MIX_ONE_TO_MANY}) {
+                for (boolean virtualized : new boolean[]{false, true}) {
+                    results.addAll(runCase(itemCount, mix, virtualized, runs));
+                }
+            }
+        }
+        File outputDir = new File(System.getProperty("listlayout.benchmark.output", "build/reports/listlayout-benchmark"));
+        if (!outputDir.isDirectory() && !outputDir.mkdirs()) {
+            throw new IOException("Can not create " + outputDir);
+        }
+        write(new File(outputDir, "scaling.csv"), toCsv(results));
+        write(new File(outputDir, "scaling.json"), toJson(results));
+        System.out.print(toCsv(results));
+    }
+
+    /**
+     * 跑一个用例，每次都用新的ListLayout依次跑3个场景，返回各场景的结果
+     */
+    private List<Result> runCase(int itemCount, String mix, boolean virtualized, int runs) {
+        Result populate = new Result(SCENARIO_POPULATE, itemCount, mix, virtualized, runs);
+        Result loadMore = new Result(SCENARIO_LOAD_MORE, itemCount, mix, virtualized, runs);
+        Result refresh = new Result(SCENARIO_REFRESH, itemCount, mix, virtualized, runs);
+        for (int run = -WARMUP_RUNS; run < runs; run++) {
+            ListLayoutMetrics.Recorder recorder = new ListLayoutMetrics.Recorder();
+            ListLayout listLayout = new ListLayout(mContext);
+            listLayout.setVirtualizationEnabled(virtualized);
+            listLayout.setMetrics(recorder);
+            //和示例一样放在滚动容器中，开启虚拟化时只填充可见区域附近的条目
+            ScrollView host = new ScrollView(mContext);
+            host.addView(listLayout, new ViewGroup.LayoutParams(
+                    ViewGroup.LayoutParams.MATCH_PARENT, ViewGroup.LayoutParams.WRAP_CONTENT));
+            Items items = SampleAdapters.createItems(0, itemCount, mix);
+            MultiTypeAdapter adapter = SampleAdapters.create(items);
+
+            //首次填充
+            long start = System.nanoTime();
+            listLayout.setAdapter(adapter);
+            settle(host, listLayout);
+            populate.record(run, System.nanoTime() - start, recorder, listLayout);
+
+            //加载更多，在末尾追加一页
+            recorder.reset();
+            start = System.nanoTime();
+            int positionStart = items.size();
+            items.addAll(SampleAdapters.createItems(positionStart, LOAD_MORE_PAGE_SIZE, mix));
+            adapter.notifyItemRangeInserted(positionStart, LOAD_MORE_PAGE_SIZE);
+            settle(host, listLayout);
+            loadMore.record(run, System.nanoTime() - start, recorder, listLayout);
+
+            //下拉刷新，替换为同样数量的新数据
+            recorder.reset();
+            start = System.nanoTime();
+            adapter.setItems(SampleAdapters.createItems(0, itemCount, mix));
+            adapter.notifyDataSetChanged();
+            settle(host, listLayout);
+            refresh.record(run, System.nanoTime() - start, recorder, listLayout);
+        }
+        return Arrays.asList(populate, loadMore, refresh);
+    }
+
+    /**
+     * 处理数据变化通知，测量、布局，再执行主线程上积压的任务，包括空闲时预创建ViewHolder
+     */
+    private void settle(View host, ListLayout listLayout) {
+        listLayout.flushPendingUpdates();
+        host.measure(View.MeasureSpec.makeMeasureSpec(mWidth, View.MeasureSpec.EXACTLY),
+                View.MeasureSpec.makeMeasureSpec(mHeight, View.MeasureSpec.EXACTLY));
+        host.layout(0, 0, mWidth, mHeight);
+        shadowOf(Looper.getMainLooper()).idle();
+    }
+
+    private static int[] parseItemCounts(String value) {
+        String[] parts = value.split(",");
+        int[] itemCounts = new int[parts.length];
+        for (int i = 0; i < parts.length; i++) {
+            itemCounts[i] = Integer.parseInt(parts[i].trim());
+        }
+        return itemCounts;
+    }
+
+    private static String toCsv(List<Result> results) {
+        StringBuilder builder = new StringBuilder(
+                "scenario,itemCount,mix,virtualized,medianMs,minMs,maxMs,inflations,binds,childCount\n");
+        for (Result result : results) {
+            builder.append(result.scenario).append(',')
+                    .append(result.itemCount).append(',')
+                    .append(result.mix).append(',')
+                    .append(result.virtualized).append(',')
+                    .append(formatMillis(result.medianNanos())).append(',')
+                    .append(formatMillis(result.minNanos())).append(',')
+                    .append(formatMillis(result.maxNanos())).append(',')
+                    .append(result.inflations).append(',')
+                    .append(result.binds).append(',')
+                    .append(result.childCount).append('\n');
+        }
+        return builder.toString();
+    }
+
+    private static String toJson(List<Result> results) {
+        StringBuilder builder = new StringBuilder("[\n");
+        for (int i = 0; i < results.size(); i++) {
+            Result result = results.get(i);
+            builder.append("  {\"scenario\": \"").append(result.scenario)
+                    .append("\", \"itemCount\": ").append(result.itemCount)
+                    .append(", \"mix\": \"").append(result.mix)
+                    .append("\", \"virtualized\": ").append(result.virtualized)
+                    .append(", \"medianMs\": ").append(formatMillis(result.medianNanos()))
+                    .append(", \"minMs\": ").append(formatMillis(result.minNanos()))
+                    .append(", \"maxMs\": ").append(formatMillis(result.maxNanos()))
+                    .append(", \"inflations\": ").append(result.inflations)
+                    .append(", \"binds\": ").append(result.binds)
+                    .append(", \"childCount\": ").append(result.childCount)
+                    .append('}').append(i < results.size() - 1 ? ",\n" : "\n");
+        }
+        return builder.append("]\n").toString();
+    }
+
+    private static String formatMillis(long nanos) {
+        return String.format(Locale.US, "%.3f", nanos / 1000000.0);
+    }
+
+    private static void write(File file, String content) throws IOException {
+        try (Writer writer = new OutputStreamWriter(new FileOutputStream(file), StandardCharsets.UTF_8)) {
+            writer.write(content);
+        }
+    }
+
+    /**
+     * 一个场景的结果，耗时取多次运行的中位数，创建、渲染数量每次都一样，取最后一次
+     */
+    private static class Result {
+        final String scenario;
+        final int itemCount;
+        final String mix;
+        final boolean virtualized;
+        final long[] durations;
+        int inflations;
+        int binds;
+        int childCount;
+
+        Result(String scenario, int itemCount, String mix, boolean virtualized, int runs) {
+            this.scenario = scenario;
+            this.itemCount = itemCount;
+            this.mix = mix;
+            this.virtualized = virtualized;
+            this.durations = new long[runs];
+        }
+
+        /**
+         * 记录一次运行的结果，run小于0时为预热，不记录
+         */
+        void record(int run, long durationNanos, ListLayoutMetrics.Recorder recorder, ListLayout listLayout) {
+            if (run < 0) {
+                return;
+            }
+            durations[run] = durationNanos;
+            inflations = 0;
+            binds = 0;
+            for (int i = 0; i < recorder.getTypeCount(); i++) {
+                ListLayoutMetrics.TypeStats stats = recorder.getTypeStatsAt(i);
+                inflations += stats.createCount;
+                binds += stats.bindCount;
+            }
+            childCount = listLayout.getChildCount();
+        }
+
+        long medianNanos() {
+            long[] sorted = durations.clone();
+            Arrays.sort(sorted);
+            return sorted[sorted.length / 2];
+        }
+
+        long minNanos() {
+            long min = Long.MAX_VALUE;
+            for (long duration : durations) {
+                min = Math.min(min, duration);
+            }
+            return min;
+        }
+
+        long maxNanos() {
+            long max = 0;
+            for (long duration : durations) {
+                max = Math.max(max, duration);
+            }
+            return max;
+        }
+    }
+}
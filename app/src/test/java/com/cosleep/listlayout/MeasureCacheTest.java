@@ -0,0 +1,130 @@
+package com.cosleep.listlayout;
+
+import android.app.Activity;
+import android.os.Looper;
+import android.widget.ScrollView;
+
+import com.cosleeplib.listlayout.ListLayout;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.Robolectric;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.annotation.Config;
+
+import java.time.Duration;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.robolectric.Shadows.shadowOf;
+
+/**
+ * 测量缓存用于刚渲染过的条目，例如虚拟化时滚动回来重新渲染的条目，以及没有重新渲染只是需要重新测量的条目，
+ * 子View上一次就是按同一个条目测量的，不再测量；子View自己请求重新布局时按新的高度测量并更新缓存
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 32)
+public class MeasureCacheTest {
+    private ScrollView mScrollView;
+    private ListLayout mListLayout;
+    private TestAdapter mAdapter;
+
+    @Before
+    public void setUp() {
+        Activity activity = Robolectric.buildActivity(Activity.class).setup().get();
+        mScrollView = new ScrollView(activity);
+        mListLayout = new ListLayout(activity);
+        mListLayout.setMeasureCacheSize(128);
+        mListLayout.setVirtualizationEnabled(true);
+        mListLayout.setVirtualizationExtraSpace(0);
+        mScrollView.addView(mListLayout);
+        activity.setContentView(mScrollView);
+        mAdapter = new TestAdapter(100);
+        mListLayout.setAdapter(mAdapter);
+        settle();
+        mListLayout.resetMeasureCacheStats();
+    }
+
+    @Test
+    public void itemsScrolledBackUseCachedHeight() {
+        //滚出窗口的条目被回收，滚动回来时重新渲染，内容没变，按缓存的高度测量
+        scrollTo(1300);
+        assertTrue(mListLayout.getFirstAttachedPosition() > 0);
+        mListLayout.resetMeasureCacheStats();
+        scrollTo(0);
+        assertEquals(0, mListLayout.getFirstAttachedPosition());
+        assertEquals(mListLayout.getAttachedItemCount(), mListLayout.getMeasureCacheHitCount());
+        assertEquals(0, mListLayout.getMeasureCacheMissCount());
+    }
+
+    @Test
+    public void unchangedRowsAreNotMeasuredAgain() {
+        int[] measureCounts = new int[mListLayout.getChildCount()];
+        for (int i = 0; i < measureCounts.length; i++) {
+            measureCounts[i] = TestAdapter.holderAt(mListLayout, i).view.measureCount;
+        }
+        //上下内边距变了，需要重新测量所有子View，条目没有重新渲染，缓存的高度仍然有效
+        mListLayout.setPadding(0, 10, 0, 0);
+        settle();
+        assertEquals(measureCounts.length, mListLayout.getMeasureCacheHitCount());
+        for (int i = 0; i < measureCounts.length; i++) {
+            TestAdapter.SizedView view = TestAdapter.holderAt(mListLayout, i).view;
+            assertEquals(measureCounts[i], view.measureCount);
+            assertEquals(TestAdapter.ITEM_HEIGHT, view.getHeight());
+        }
+    }
+
+    @Test
+    public void selfResizingRowIsMeasuredWithNewHeight() {
+        TestAdapter.holderAt(mListLayout, 2).view.setContentHeight(40);
+        settle();
+        //没有重新渲染，不使用缓存
+        assertEquals(0, mListLayout.getMeasureCacheHitCount());
+        assertEquals(40, mListLayout.getChildAt(2).getHeight());
+        assertEquals(80, mListLayout.getChildAt(3).getTop() - mListLayout.getChildAt(0).getTop());
+
+        //缓存已经更新成新的高度，滚动回来重新渲染后仍然是40
+        scrollTo(1300);
+        scrollTo(0);
+        assertTrue(mListLayout.getMeasureCacheHitCount() > 0);
+        assertEquals(2L, TestAdapter.holderAt(mListLayout, 2).id);
+        assertEquals(40, mListLayout.getChildAt(2).getHeight());
+    }
+
+    @Test
+    public void changedItemIsMeasuredAgain() {
+        TestAdapter.holderAt(mListLayout, 1).view.height = 30;
+        mAdapter.notifyItemChanged(1);
+        mListLayout.flushPendingUpdates();
+        settle();
+        assertEquals(1, mListLayout.getMeasureCacheMissCount());
+        assertEquals(30, mListLayout.getChildAt(1).getHeight());
+    }
+
+    @Test
+    public void cacheIsOffByDefault() {
+        ListLayout listLayout = new ListLayout(RuntimeEnvironment.getApplication());
+        TestAdapter adapter = new TestAdapter(5);
+        listLayout.setAdapter(adapter);
+        TestAdapter.measureAndLayout(listLayout);
+        adapter.notifyItemChanged(0);
+        listLayout.flushPendingUpdates();
+        TestAdapter.measureAndLayout(listLayout);
+        assertEquals(0, listLayout.getMeasureCacheHitCount());
+        assertEquals(0, listLayout.getMeasureCacheMissCount());
+    }
+
+    private void scrollTo(int y) {
+        mScrollView.scrollTo(0, y);
+        settle();
+    }
+
+    /**
+     * 执行完布局以及布局后的窗口更新
+     */
+    private void settle() {
+        shadowOf(Looper.getMainLooper()).idleFor(Duration.ofMillis(100));
+    }
+}
@@ -0,0 +1,134 @@
+package com.cosleep.listlayout;
+
+import android.app.Activity;
+import android.os.Looper;
+
+import com.cosleeplib.listlayout.ListLayout;
+import com.cosleeplib.listlayout.ListLayoutMetrics;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.Robolectric;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.annotation.Config;
+
+import java.time.Duration;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.robolectric.Shadows.shadowOf;
+
+/**
+ * 性能指标回调：按条目类型统计获取类型、创建、渲染、复用的次数，以及重新填充的次数
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 32)
+public class MetricsCallbackTest {
+    private ListLayout mListLayout;
+    private ListLayoutMetrics.Recorder mRecorder;
+
+    @Before
+    public void setUp() {
+        mListLayout = new ListLayout(RuntimeEnvironment.getApplication());
+        mRecorder = new ListLayoutMetrics.Recorder();
+        mListLayout.setMetrics(mRecorder);
+    }
+
+    @Test
+    public void firstPopulateCountsEveryStep() {
+        mListLayout.setAdapter(new TestAdapter(6, 2));
+        assertEquals(1, mRecorder.getPopulateCount());
+        assertEquals(6, mRecorder.getLastChildCount());
+        assertEquals(6, mRecorder.getLastItemCount());
+        assertEquals(2, mRecorder.getTypeCount());
+        for (int itemViewType = 0; itemViewType < 2; itemViewType++) {
+            ListLayoutMetrics.TypeStats stats = mRecorder.getTypeStats(itemViewType);
+            assertEquals(3, stats.resolveCount);
+            assertEquals(3, stats.createCount);
+            assertEquals(3, stats.bindCount);
+            assertEquals(0, stats.poolHitCount);
+            assertEquals(3, stats.poolMissCount);
+        }
+    }
+
+    @Test
+    public void repopulateCountsReusedHolders() {
+        TestAdapter adapter = new TestAdapter(6, 2);
+        mListLayout.setAdapter(adapter);
+        mRecorder.reset();
+
+        adapter.notifyDataSetChanged();
+        mListLayout.flushPendingUpdates();
+        assertEquals(1, mRecorder.getPopulateCount());
+        ListLayoutMetrics.TypeStats stats = mRecorder.getTypeStats(0);
+        assertEquals(0, stats.createCount);
+        assertEquals(3, stats.bindCount);
+        assertEquals(3, stats.poolHitCount);
+        assertEquals(0, stats.poolMissCount);
+    }
+
+    @Test
+    public void partialUpdateCountsOnlyChangedItems() {
+        TestAdapter adapter = new TestAdapter(6, 2);
+        mListLayout.setAdapter(adapter);
+        mRecorder.reset();
+
+        adapter.notifyItemChanged(1, "progress");
+        mListLayout.flushPendingUpdates();
+        assertNull(mRecorder.getTypeStats(0));
+        assertEquals(1, mRecorder.getTypeStats(1).bindCount);
+        assertEquals(0, mRecorder.getTypeStats(1).createCount);
+    }
+
+    @Test
+    public void chunkedPopulateIsReportedOnceWhenFinished() {
+        Activity activity = Robolectric.buildActivity(Activity.class).setup().get();
+        mListLayout = new ListLayout(activity);
+        mListLayout.setMetrics(mRecorder);
+        mListLayout.setIncrementalPopulateEnabled(true);
+        mListLayout.setPopulateFrameBudgetNanos(1);
+        activity.setContentView(mListLayout);
+        mListLayout.setAdapter(new TestAdapter(4));
+        assertEquals(0, mRecorder.getPopulateCount());
+
+        shadowOf(Looper.getMainLooper()).idleFor(Duration.ofSeconds(1));
+        assertEquals(1, mRecorder.getPopulateCount());
+        assertEquals(4, mRecorder.getLastChildCount());
+        assertEquals(4, mRecorder.getTypeStats(0).bindCount);
+    }
+
+    @Test
+    public void idlePrefetchCountsCreateWithoutObtain() {
+        Activity activity = Robolectric.buildActivity(Activity.class).setup().get();
+        mListLayout = new ListLayout(activity);
+        mListLayout.setMetrics(mRecorder);
+        mListLayout.setIdlePrefetchEnabled(true);
+        mListLayout.setIdlePrefetchLimits(2, 2);
+        activity.setContentView(mListLayout);
+        mListLayout.setAdapter(new TestAdapter(4));
+        mRecorder.reset();
+
+        for (int i = 0; i < 4; i++) {
+            shadowOf(Looper.getMainLooper()).idle();
+        }
+        ListLayoutMetrics.TypeStats stats = mRecorder.getTypeStats(0);
+        assertEquals(2, stats.createCount);
+        assertEquals(0, stats.poolMissCount);
+        assertEquals(0, stats.bindCount);
+    }
+
+    @Test
+    public void nothingIsRecordedAfterMetricsAreRemoved() {
+        TestAdapter adapter = new TestAdapter(6);
+        mListLayout.setAdapter(adapter);
+        mListLayout.setMetrics(null);
+        mRecorder.reset();
+
+        adapter.notifyDataSetChanged();
+        mListLayout.flushPendingUpdates();
+        assertEquals(0, mRecorder.getPopulateCount());
+        assertEquals(0, mRecorder.getTypeCount());
+    }
+}
@@ -0,0 +1,84 @@
+package com.cosleep.listlayout;
+
+import com.cosleeplib.listlayout.ListLayout;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.annotation.Config;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+/**
+ * 带payload的局部更新，同一帧内的payload合并后传给onBindViewHolder()，有不带payload的更新时完整渲染
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 32)
+public class PayloadRebindTest {
+    private ListLayout mListLayout;
+    private TestAdapter mAdapter;
+
+    @Before
+    public void setUp() {
+        mListLayout = new ListLayout(RuntimeEnvironment.getApplication());
+        mAdapter = new TestAdapter(4);
+        mListLayout.setAdapter(mAdapter);
+        mAdapter.reset();
+    }
+
+    @Test
+    public void payloadIsPassedToBinder() {
+        TestAdapter.Holder holder = TestAdapter.holderAt(mListLayout, 1);
+        mAdapter.notifyItemChanged(1, "progress");
+        mListLayout.flushPendingUpdates();
+        assertEquals(Collections.singletonList("bind 1 [progress]"), mAdapter.events);
+        //局部更新复用原来的ViewHolder
+        assertSame(holder, TestAdapter.holderAt(mListLayout, 1));
+        assertEquals(0, mAdapter.createCount);
+    }
+
+    @Test
+    public void payloadsInOneFrameAreMerged() {
+        mAdapter.notifyItemChanged(1, "progress");
+        mAdapter.notifyItemChanged(1, "title");
+        mAdapter.notifyItemRangeChanged(2, 2, "progress");
+        mListLayout.flushPendingUpdates();
+        assertEquals(Arrays.asList("bind 1 [progress, title]", "bind 2 [progress]", "bind 3 [progress]"),
+                mAdapter.events);
+    }
+
+    @Test
+    public void updateWithoutPayloadForcesFullBind() {
+        mAdapter.notifyItemChanged(1, "progress");
+        mAdapter.notifyItemChanged(1);
+        mAdapter.notifyItemChanged(1, "title");
+        mListLayout.flushPendingUpdates();
+        assertEquals(Collections.singletonList("bind 1"), mAdapter.events);
+    }
+
+    @Test
+    public void payloadsAreClearedAfterBind() {
+        mAdapter.notifyItemChanged(1, "progress");
+        mListLayout.flushPendingUpdates();
+        mAdapter.reset();
+        mAdapter.notifyItemChanged(1, "title");
+        mListLayout.flushPendingUpdates();
+        assertEquals(Collections.singletonList("bind 1 [title]"), mAdapter.events);
+    }
+
+    @Test
+    public void payloadFollowsMovedItem() {
+        mAdapter.notifyItemChanged(0, "progress");
+        mAdapter.items.add(2, mAdapter.items.remove(0));
+        mAdapter.notifyItemMoved(0, 2);
+        mListLayout.flushPendingUpdates();
+        assertEquals(Collections.singletonList("bind 2 [progress]"), mAdapter.events);
+        assertEquals(0L, TestAdapter.holderAt(mListLayout, 2).id);
+    }
+}
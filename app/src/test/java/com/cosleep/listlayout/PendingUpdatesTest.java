@@ -0,0 +1,140 @@
+package com.cosleep.listlayout;
+
+import android.app.Activity;
+import android.os.Looper;
+import android.widget.FrameLayout;
+
+import com.cosleeplib.listlayout.ListLayout;
+import com.cosleeplib.listlayout.ListLayoutMetrics;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.Robolectric;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import java.time.Duration;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.robolectric.Shadows.shadowOf;
+
+/**
+ * 同一帧内的通知在下一帧合并处理，处理之前ViewHolder的位置按通知换算，离开窗口时不再处理，重新添加到窗口后继续
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 32)
+public class PendingUpdatesTest {
+    private FrameLayout mContainer;
+    private ListLayout mListLayout;
+    private ListLayoutMetrics.Recorder mRecorder;
+    private TestAdapter mAdapter;
+
+    @Before
+    public void setUp() {
+        Activity activity = Robolectric.buildActivity(Activity.class).setup().get();
+        mContainer = new FrameLayout(activity);
+        mListLayout = new ListLayout(activity);
+        mRecorder = new ListLayoutMetrics.Recorder();
+        mListLayout.setMetrics(mRecorder);
+        mContainer.addView(mListLayout);
+        activity.setContentView(mContainer);
+        mAdapter = new TestAdapter(6);
+        mListLayout.setAdapter(mAdapter);
+        nextFrame();
+        mRecorder.reset();
+        mAdapter.reset();
+    }
+
+    @Test
+    public void dataSetChangesInOneFramePopulateOnce() {
+        mAdapter.notifyDataSetChanged();
+        mAdapter.notifyDataSetChanged();
+        mAdapter.notifyDataSetChanged();
+        assertEquals(0, mRecorder.getPopulateCount());
+        assertTrue(mListLayout.hasPendingUpdates());
+
+        nextFrame();
+        assertEquals(1, mRecorder.getPopulateCount());
+        assertEquals(6, mAdapter.bindCount);
+        assertFalse(mListLayout.hasPendingUpdates());
+    }
+
+    @Test
+    public void adapterPositionIsTranslatedBeforeUpdatesAreApplied() {
+        TestAdapter.Holder first = TestAdapter.holderAt(mListLayout, 0);
+        TestAdapter.Holder third = TestAdapter.holderAt(mListLayout, 2);
+        TestAdapter.Holder fourth = TestAdapter.holderAt(mListLayout, 3);
+        TestAdapter.Holder last = TestAdapter.holderAt(mListLayout, 5);
+
+        mAdapter.items.add(0, 100L);
+        mAdapter.notifyItemInserted(0);
+        mAdapter.items.remove(4);
+        mAdapter.notifyItemRemoved(4);
+        mAdapter.items.add(0, mAdapter.items.remove(5));
+        mAdapter.notifyItemMoved(5, 0);
+        //子View还没变，按通知换算出数据中的当前位置
+        assertEquals(2, first.getAdapterPosition());
+        assertEquals(4, third.getAdapterPosition());
+        assertEquals(ListLayout.NO_POSITION, fourth.getAdapterPosition());
+        assertEquals(0, last.getAdapterPosition());
+        assertEquals(2, third.getLayoutPosition());
+        for (TestAdapter.Holder holder : new TestAdapter.Holder[]{first, third, last}) {
+            assertEquals(holder.id, (long) mAdapter.items.get(holder.getAdapterPosition()));
+        }
+
+        mAdapter.notifyDataSetChanged();
+        assertEquals(ListLayout.NO_POSITION, first.getAdapterPosition());
+
+        nextFrame();
+        assertEquals(mAdapter.getItemCount(), mListLayout.getChildCount());
+        for (int i = 0; i < mListLayout.getChildCount(); i++) {
+            TestAdapter.Holder holder = TestAdapter.holderAt(mListLayout, i);
+            assertEquals(i, holder.getAdapterPosition());
+            assertEquals(i, holder.getLayoutPosition());
+        }
+    }
+
+    @Test
+    public void detachedListLayoutDefersUpdatesUntilAttached() {
+        mAdapter.items.add(100L);
+        mAdapter.notifyItemInserted(6);
+        mContainer.removeView(mListLayout);
+        nextFrame();
+        assertTrue(mListLayout.hasPendingUpdates());
+        assertEquals(6, mListLayout.getChildCount());
+
+        mContainer.addView(mListLayout);
+        nextFrame();
+        assertFalse(mListLayout.hasPendingUpdates());
+        assertEquals(7, mListLayout.getChildCount());
+    }
+
+    @Test
+    public void detachedListLayoutPausesChunkedPopulate() {
+        //预算只有1纳秒，每帧只填充一个条目
+        mListLayout.setIncrementalPopulateEnabled(true);
+        mListLayout.setPopulateFrameBudgetNanos(1);
+        mAdapter.notifyDataSetChanged();
+        mListLayout.flushPendingUpdates();
+        assertEquals(1, mListLayout.getChildCount());
+        mContainer.removeView(mListLayout);
+        nextFrame();
+        assertTrue(mListLayout.isPopulating());
+        assertEquals(1, mListLayout.getChildCount());
+
+        mContainer.addView(mListLayout);
+        shadowOf(Looper.getMainLooper()).idleFor(Duration.ofSeconds(1));
+        assertFalse(mListLayout.isPopulating());
+        assertEquals(6, mListLayout.getChildCount());
+    }
+
+    /**
+     * 执行下一帧的回调和布局
+     */
+    private void nextFrame() {
+        shadowOf(Looper.getMainLooper()).idleFor(Duration.ofMillis(100));
+    }
+}
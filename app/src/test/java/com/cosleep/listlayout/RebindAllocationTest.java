@@ -0,0 +1,320 @@
+package com.cosleep.listlayout;
+
+import android.content.Context;
+import android.os.Looper;
+import android.view.LayoutInflater;
+import android.view.View;
+import android.view.ViewGroup;
+import android.widget.ScrollView;
+
+import com.cosleeplib.listlayout.ListLayout;
+import com.cosleeplib.listlayout.ListLayoutMetrics;
+import com.cosleeplib.listlayout.multitype.ItemViewBinder;
+import com.cosleeplib.listlayout.multitype.Items;
+import com.cosleeplib.listlayout.multitype.MultiTypeAdapter;
+import com.google.monitoring.runtime.instrumentation.AllocationRecorder;
+import com.google.monitoring.runtime.instrumentation.Sampler;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.model.FrameworkMethod;
+import org.junit.runners.model.InitializationError;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.annotation.Config;
+import org.robolectric.internal.bytecode.InstrumentationConfiguration;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Locale;
+import java.util.Properties;
+
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assume.assumeTrue;
+import static org.robolectric.Shadows.shadowOf;
+
+/**
+ * 稳态下重新渲染时的对象分配检查，超出allocation-budget.properties中的预算时失败
+ * 通过java-allocation-instrumenter统计分配，需要以-javaagent加载。普通的单元测试不运行该测试，
+ * 运行./gradlew :app:testDebugUnitTest -Plistlayout.allocation时，app/build.gradle只运行该测试并加载agent，
+ * 没有加载时（例如在IDE中直接运行）跳过
+ * <p>
+ * 先填充、预热几轮，让暂存区、回收池、测量缓存等都达到稳定状态，再统计多轮重新渲染的分配次数，除以渲染的条目数量
+ */
+@RunWith(RebindAllocationTest.AllocationTestRunner.class)
+@Config(sdk = 32, qualifiers = "w360dp-h640dp-xxhdpi")
+public class RebindAllocationTest {
+    private static final String BUDGET_FILE = "allocation-budget.properties";
+    private static final String LIBRARY_PACKAGE = "com.cosleeplib.listlayout.";
+    private static final int ITEM_COUNT = 50;
+    private static final int WARMUP_REBINDS = 3;
+    private static final int REBINDS = 10;
+
+    private final Properties mBudgets = new Properties();
+    private AllocationCounter mCounter;
+    private Context mContext;
+    private ScrollView mHost;
+    private ListLayout mListLayout;
+    private Object mProbe;
+
+    @Before
+    public void setUp() throws IOException {
+        try (InputStream input = getClass().getClassLoader().getResourceAsStream(BUDGET_FILE)) {
+            assertTrue(BUDGET_FILE + " not found", input != null);
+            mBudgets.load(input);
+        }
+        mCounter = new AllocationCounter(Thread.currentThread());
+        AllocationRecorder.addSampler(mCounter);
+        assumeTrue("Skipped, the allocation instrumenter agent is not loaded", isInstrumented());
+        mContext = RuntimeEnvironment.getApplication();
+        mListLayout = new ListLayout(mContext);
+        mHost = new ScrollView(mContext);
+        mHost.addView(mListLayout, new ViewGroup.LayoutParams(
+                ViewGroup.LayoutParams.MATCH_PARENT, ViewGroup.LayoutParams.WRAP_CONTENT));
+    }
+
+    @After
+    public void tearDown() {
+        if (mCounter != null) {
+            AllocationRecorder.removeSampler(mCounter);
+        }
+    }
+
+    @Test
+    public void library_notifyItemRangeChanged() {
+        final MultiTypeAdapter adapter = createLibraryAdapter(false);
+        assertLibraryBudget("library.notifyItemRangeChanged", adapter, new Runnable() {
+            @Override
+            public void run() {
+                adapter.notifyItemRangeChanged(0, ITEM_COUNT);
+            }
+        });
+    }
+
+    @Test
+    public void library_notifyDataSetChanged() {
+        final MultiTypeAdapter adapter = createLibraryAdapter(false);
+        assertLibraryBudget("library.notifyDataSetChanged", adapter, new Runnable() {
+            @Override
+            public void run() {
+                adapter.notifyDataSetChanged();
+            }
+        });
+    }
+
+    @Test
+    public void library_notifyDataSetChanged_stableIds() {
+        final MultiTypeAdapter adapter = createLibraryAdapter(true);
+        assertLibraryBudget("library.notifyDataSetChanged.stableIds", adapter, new Runnable() {
+            @Override
+            public void run() {
+                adapter.notifyDataSetChanged();
+            }
+        });
+    }
+
+    @Test
+    public void sample_bindersDoNotCreateClickListeners() {
+        final MultiTypeAdapter adapter = SampleAdapters.create(
+                SampleAdapters.createItems(0, ITEM_COUNT, SampleAdapters.MIX_ONE_TO_MANY));
+        ListLayoutMetrics.Recorder recorder = new ListLayoutMetrics.Recorder();
+        mListLayout.setMetrics(recorder);
+        mListLayout.setAdapter(adapter);
+        settle();
+        Runnable rebind = new Runnable() {
+            @Override
+            public void run() {
+                adapter.notifyItemRangeChanged(0, ITEM_COUNT);
+            }
+        };
+        warmUp(rebind);
+        recorder.reset();
+        record(rebind);
+        int binds = 0;
+        for (int i = 0; i < recorder.getTypeCount(); i++) {
+            binds += recorder.getTypeStatsAt(i).bindCount;
+        }
+        assertWithinBudget("sample.clickListeners", mCounter.mClickListenerCount, binds);
+    }
+
+    /**
+     * 创建只包含空View条目的Adapter，ItemViewBinder不做任何事，统计到的都是库代码自身的分配
+     */
+    private MultiTypeAdapter createLibraryAdapter(boolean stableIds) {
+        Items items = new Items();
+        for (int i = 0; i < ITEM_COUNT; i++) {
+            items.add(new Item(i));
+        }
+        MultiTypeAdapter adapter = new MultiTypeAdapter(items);
+        adapter.register(Item.class, new ItemBinder());
+        adapter.setHasStableIds(stableIds);
+        return adapter;
+    }
+
+    private void assertLibraryBudget(String key, MultiTypeAdapter adapter, Runnable rebind) {
+        ItemBinder binder = (ItemBinder) adapter.getTypePool().getItemViewBinder(0);
+        mListLayout.setAdapter(adapter);
+        settle();
+        warmUp(rebind);
+        binder.mBindCount = 0;
+        record(rebind);
+        assertWithinBudget(key, mCounter.mLibraryCount, binder.mBindCount);
+    }
+
+    private void warmUp(Runnable rebind) {
+        for (int i = 0; i < WARMUP_REBINDS; i++) {
+            rebind.run();
+            settle();
+        }
+    }
+
+    /**
+     * 统计多轮重新渲染中的分配
+     */
+    private void record(Runnable rebind) {
+        mCounter.reset();
+        mCounter.mRecording = true;
+        for (int i = 0; i < REBINDS; i++) {
+            rebind.run();
+            settle();
+        }
+        mCounter.mRecording = false;
+    }
+
+    private void assertWithinBudget(String key, int allocations, int binds) {
+        String value = mBudgets.getProperty(key);
+        assertTrue("No budget for " + key + " in " + BUDGET_FILE, value != null);
+        assertTrue(key + ": nothing was bound", binds > 0);
+        double budget = Double.parseDouble(value);
+        double perItem = (double) allocations / binds;
+        String message = String.format(Locale.US, "%s: %.3f allocations per bound item (%d / %d), budget %s",
+                key, perItem, allocations, binds, value);
+        System.out.println(message);
+        assertTrue(message, perItem <= budget);
+    }
+
+    /**
+     * 处理数据变化通知，测量、布局，再执行主线程上积压的任务
+     */
+    private void settle() {
+        mListLayout.flushPendingUpdates();
+        int width = mContext.getResources().getDisplayMetrics().widthPixels;
+        int height = mContext.getResources().getDisplayMetrics().heightPixels;
+        mHost.measure(View.MeasureSpec.makeMeasureSpec(width, View.MeasureSpec.EXACTLY),
+                View.MeasureSpec.makeMeasureSpec(height, View.MeasureSpec.EXACTLY));
+        mHost.layout(0, 0, width, height);
+        shadowOf(Looper.getMainLooper()).idle();
+    }
+
+    /**
+     * 分配一个对象，确认agent已经生效
+     */
+    private boolean isInstrumented() {
+        mCounter.reset();
+        mCounter.mRecording = true;
+        mProbe = new Object();
+        mCounter.mRecording = false;
+        return mCounter.mTotalCount > 0;
+    }
+
+    private static class Item {
+        final long id;
+
+        Item(long id) {
+            this.id = id;
+        }
+    }
+
+    private static class ItemBinder extends ItemViewBinder<Item, ListLayout.ViewHolder> {
+        int mBindCount;
+
+        @Override
+        protected ListLayout.ViewHolder onCreateViewHolder(LayoutInflater inflater, ViewGroup parent) {
+            View itemView = new View(parent.getContext());
+            itemView.setMinimumHeight(48);
+            return new ListLayout.ViewHolder(itemView) {
+            };
+        }
+
+        @Override
+        protected void onBindViewHolder(ListLayout.ViewHolder holder, Item item) {
+            mBindCount++;
+        }
+
+        @Override
+        protected long getItemId(Item item) {
+            return item.id;
+        }
+    }
+
+    /**
+     * 统计当前线程的分配，按分配发生的位置区分库代码，以及View.OnClickListener的分配
+     */
+    private static class AllocationCounter implements Sampler {
+        private final Thread mThread;
+        volatile boolean mRecording;
+        int mTotalCount;
+        int mLibraryCount;
+        int mClickListenerCount;
+
+        AllocationCounter(Thread thread) {
+            mThread = thread;
+        }
+
+        void reset() {
+            mTotalCount = 0;
+            mLibraryCount = 0;
+            mClickListenerCount = 0;
+        }
+
+        @Override
+        public void sampleAllocation(int count, String desc, Object newObj, long size) {
+            if (!mRecording || Thread.currentThread() != mThread) {
+                return;
+            }
+            mTotalCount++;
+            if (newObj instanceof View.OnClickListener) {
+                mClickListenerCount++;
+            }
+            if (isLibraryAllocation()) {
+                mLibraryCount++;
+            }
+        }
+
+        /**
+         * 分配是否发生在库代码中，JDK内部的分配（例如ArrayList扩容、自动装箱）算到调用它的代码上
+         */
+        private static boolean isLibraryAllocation() {
+            for (StackTraceElement element : new Throwable().getStackTrace()) {
+                String className = element.getClassName();
+                if (className.startsWith("com.google.monitoring.")
+                        || className.equals(AllocationCounter.class.getName())
+                        || className.startsWith("java.")
+                        || className.startsWith("sun.")
+                        || className.startsWith("jdk.")) {
+                    continue;
+                }
+                return className.startsWith(LIBRARY_PACKAGE);
+            }
+            return false;
+        }
+    }
+
+    /**
+     * 统计分配的类需要和agent共用，不能被Robolectric的ClassLoader重新加载
+     */
+    public static class AllocationTestRunner extends RobolectricTestRunner {
+        public AllocationTestRunner(Class<?> testClass) throws InitializationError {
+            super(testClass);
+        }
+
+        @Override
+        protected InstrumentationConfiguration createClassLoaderConfig(FrameworkMethod method) {
+            return new InstrumentationConfiguration.Builder(super.createClassLoaderConfig(method))
+                    .doNotAcquirePackage("com.google.monitoring")
+                    .build();
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package com.cosleep.listlayout;
+
+import com.cosleep.listlayout.item.ImageCenterViewBinder;
+import com.cosleep.listlayout.item.ImageLeftViewBinder;
+import com.cosleep.listlayout.item.ImageRightViewBinder;
+import com.cosleep.listlayout.item.NumberViewBinder;
+import com.cosleep.listlayout.item.StringViewBinder;
+import com.cosleep.listlayout.model.ImageModel;
+import com.cosleep.listlayout.model.NumberModel;
+import com.cosleep.listlayout.model.StringModel;
+import com.cosleeplib.listlayout.multitype.ClassLinker;
+import com.cosleeplib.listlayout.multitype.ItemViewBinder;
+import com.cosleeplib.listlayout.multitype.Items;
+import com.cosleeplib.listlayout.multitype.MultiTypeAdapter;
+
+/**
+ * 单元测试中使用示例的ItemViewBinder，注册方式和MainActivity一致
+ */
+final class SampleAdapters {
+    /**
+     * 条目类型组合：只有一种类型、两种类型交替、再加上一对多的图片类型
+     */
+    static final String MIX_SINGLE = "single";
+    static final String MIX_MIXED = "mixed";
+    static final String MIX_ONE_TO_MANY = "oneToMany";
+
+    private SampleAdapters() {
+    }
+
+    /**
+     * 创建注册了示例中所有ItemViewBinder的Adapter
+     */
+    static MultiTypeAdapter create(Items items) {
+        MultiTypeAdapter adapter = new MultiTypeAdapter(items);
+        OnItemClickListener onItemClickListener = new OnItemClickListener() {
+            @Override
+            public void onItemClick(int position) {
+            }
+        };
+        adapter.register(StringModel.class, new StringViewBinder(onItemClickListener));
+        adapter.register(NumberModel.class, new NumberViewBinder(onItemClickListener));
+        adapter.register(ImageModel.class).to(
+                new ImageCenterViewBinder(onItemClickListener),
+                new ImageLeftViewBinder(onItemClickListener),
+                new ImageRightViewBinder(onItemClickListener)
+        ).withClassLinker(new ClassLinker<ImageModel>() {
+            @Override
+            public Class<? extends ItemViewBinder<ImageModel, ?>> index(int position, ImageModel model) {
+                if (model.getType() == ImageModel.TYPE_LEFT) {
+                    return ImageLeftViewBinder.class;
+                } else if (model.getType() == ImageModel.TYPE_RIGHT) {
+                    return ImageRightViewBinder.class;
+                }
+                return ImageCenterViewBinder.class;
+            }
+        });
+        return adapter;
+    }
+
+    /**
+     * 按类型组合创建条目，start为第一个条目的序号
+     */
+    static Items createItems(int start, int count, String mix) {
+        Items items = new Items();
+        for (int i = start; i < start + count; i++) {
+            switch (mix) {
+                case MIX_SINGLE:
+                    items.add(new StringModel("String：" + i));
+                    break;
+                case MIX_MIXED:
+                    items.add(i % 2 == 0 ? new StringModel("String：" + i) : new NumberModel(i));
+                    break;
+                case MIX_ONE_TO_MANY:
+                    int kind = i % 5;
+                    if (kind == 0) {
+                        items.add(new StringModel("String：" + i));
+                    } else if (kind == 1) {
+                        items.add(new NumberModel(i));
+                    } else {
+                        items.add(new ImageModel(ImageModel.TYPE_CENTER + kind - 2, R.mipmap.ic_launcher));
+                    }
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown mix: " + mix);
+            }
+        }
+        return items;
+    }
+}
@@ -0,0 +1,96 @@
+package com.cosleep.listlayout;
+
+import com.cosleeplib.listlayout.ListLayout;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.annotation.Config;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+
+/**
+ * 有稳定Id时，notifyDataSetChanged()按条目Id复用原来的ViewHolder，只重新渲染
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 32)
+public class StableIdReuseTest {
+    private ListLayout mListLayout;
+    private TestAdapter mAdapter;
+
+    @Before
+    public void setUp() {
+        mListLayout = new ListLayout(RuntimeEnvironment.getApplication());
+        mAdapter = new TestAdapter(6, 2);
+        mAdapter.setHasStableIds(true);
+        mListLayout.setAdapter(mAdapter);
+    }
+
+    @Test
+    public void reorderedItemsKeepTheirHolders() {
+        Map<Long, TestAdapter.Holder> holders = holdersById();
+        mAdapter.reset();
+        Collections.reverse(mAdapter.items);
+        mAdapter.notifyDataSetChanged();
+        mListLayout.flushPendingUpdates();
+        assertEquals(0, mAdapter.createCount);
+        assertEquals(6, mAdapter.bindCount);
+        for (int i = 0; i < mListLayout.getChildCount(); i++) {
+            TestAdapter.Holder holder = TestAdapter.holderAt(mListLayout, i);
+            assertSame(holders.get(mAdapter.items.get(i)), holder);
+            assertEquals(i, holder.getAdapterPosition());
+        }
+    }
+
+    @Test
+    public void onlyNewIdsGetOtherHolders() {
+        Map<Long, TestAdapter.Holder> holders = holdersById();
+        TestAdapter.Holder removed = holders.get(2L);
+        mAdapter.reset();
+        //移除条目2，在最前面插入条目10，和条目2的类型相同，复用它的ViewHolder
+        mAdapter.items.remove(2L);
+        mAdapter.items.add(0, 10L);
+        mAdapter.notifyDataSetChanged();
+        mListLayout.flushPendingUpdates();
+        assertEquals(0, mAdapter.createCount);
+        assertSame(removed, TestAdapter.holderAt(mListLayout, 0));
+        assertEquals(10L, removed.id);
+        for (int i = 1; i < mListLayout.getChildCount(); i++) {
+            assertSame(holders.get(mAdapter.items.get(i)), TestAdapter.holderAt(mListLayout, i));
+        }
+    }
+
+    @Test
+    public void removedIdsAreRecycled() {
+        TestAdapter.Holder removed = holdersById().get(5L);
+        mAdapter.items.remove(5L);
+        mAdapter.notifyDataSetChanged();
+        mListLayout.flushPendingUpdates();
+        assertEquals(5, mListLayout.getChildCount());
+        assertFalse(removed.view.getParent() == mListLayout);
+        assertEquals(ListLayout.NO_POSITION, removed.getAdapterPosition());
+        assertEquals(1, mListLayout.getRecycledViewPool().getRecycledViewCount(1));
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void stableIdsCannotChangeWhileObserved() {
+        mAdapter.setHasStableIds(false);
+    }
+
+    private Map<Long, TestAdapter.Holder> holdersById() {
+        Map<Long, TestAdapter.Holder> holders = new HashMap<>();
+        for (int i = 0; i < mListLayout.getChildCount(); i++) {
+            TestAdapter.Holder holder = TestAdapter.holderAt(mListLayout, i);
+            holders.put(holder.id, holder);
+        }
+        return holders;
+    }
+}
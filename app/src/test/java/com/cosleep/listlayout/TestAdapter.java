@@ -0,0 +1,144 @@
+package com.cosleep.listlayout;
+
+import android.content.Context;
+import android.view.View;
+import android.view.ViewGroup;
+
+import com.cosleeplib.listlayout.ListLayout;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 单元测试中使用的Adapter，条目就是条目Id，条目类型为Id对类型数量取余，记录创建、渲染ViewHolder的过程
+ */
+final class TestAdapter extends ListLayout.Adapter<TestAdapter.Holder> {
+    /**
+     * 条目的默认高度，单位px
+     */
+    static final int ITEM_HEIGHT = 20;
+    /**
+     * 测量时ListLayout的宽度，单位px
+     */
+    static final int WIDTH = 360;
+
+    final List<Long> items = new ArrayList<>();
+    /**
+     * 按顺序记录的创建、渲染过程，例如"create 0"、"bind 3"、"bind 3 [payload]"
+     */
+    final List<String> events = new ArrayList<>();
+    int createCount;
+    int bindCount;
+    private final int mViewTypeCount;
+
+    TestAdapter(int itemCount) {
+        this(itemCount, 1);
+    }
+
+    TestAdapter(int itemCount, int viewTypeCount) {
+        mViewTypeCount = viewTypeCount;
+        for (long i = 0; i < itemCount; i++) {
+            items.add(i);
+        }
+    }
+
+    @Override
+    public Holder onCreateViewHolder(ViewGroup parent, int itemType) {
+        createCount++;
+        events.add("create " + itemType);
+        return new Holder(new SizedView(parent.getContext()));
+    }
+
+    @Override
+    public void onBindViewHolder(Holder holder, int position) {
+        onBindViewHolder(holder, position, Collections.emptyList());
+    }
+
+    @Override
+    public void onBindViewHolder(Holder holder, int position, List<Object> payloads) {
+        bindCount++;
+        holder.id = items.get(position);
+        //和TextView.setText()一样，渲染后请求重新布局
+        holder.view.requestLayout();
+        events.add(payloads.isEmpty() ? "bind " + position : "bind " + position + " " + payloads);
+    }
+
+    @Override
+    public int getItemViewType(int position) {
+        return (int) (items.get(position) % mViewTypeCount);
+    }
+
+    @Override
+    public long getItemId(int position) {
+        return items.get(position);
+    }
+
+    @Override
+    public int getItemCount() {
+        return items.size();
+    }
+
+    /**
+     * 清空记录
+     */
+    void reset() {
+        events.clear();
+        createCount = 0;
+        bindCount = 0;
+    }
+
+    /**
+     * 获取第index个子View对应的ViewHolder
+     */
+    static Holder holderAt(ListLayout listLayout, int index) {
+        return (Holder) listLayout.getChildAt(index).getTag();
+    }
+
+    /**
+     * 按固定宽度、不限高度测量，再布局
+     */
+    static void measureAndLayout(ListLayout listLayout) {
+        listLayout.measure(View.MeasureSpec.makeMeasureSpec(WIDTH, View.MeasureSpec.EXACTLY),
+                View.MeasureSpec.makeMeasureSpec(0, View.MeasureSpec.UNSPECIFIED));
+        listLayout.layout(0, 0, listLayout.getMeasuredWidth(), listLayout.getMeasuredHeight());
+    }
+
+    static final class Holder extends ListLayout.ViewHolder {
+        final SizedView view;
+        long id = -1;
+
+        Holder(SizedView itemView) {
+            super(itemView);
+            view = itemView;
+            itemView.setTag(this);
+        }
+    }
+
+    /**
+     * 高度可以修改的条目View，记录测量次数
+     */
+    static final class SizedView extends View {
+        int height = ITEM_HEIGHT;
+        int measureCount;
+
+        SizedView(Context context) {
+            super(context);
+        }
+
+        /**
+         * 内容变了，高度跟着变，和TextView修改文字一样自己请求重新布局
+         */
+        void setContentHeight(int height) {
+            this.height = height;
+            requestLayout();
+        }
+
+        @Override
+        protected void onMeasure(int widthMeasureSpec, int heightMeasureSpec) {
+            measureCount++;
+            setMeasuredDimension(getDefaultSize(getSuggestedMinimumWidth(), widthMeasureSpec),
+                    resolveSize(height, heightMeasureSpec));
+        }
+    }
+}
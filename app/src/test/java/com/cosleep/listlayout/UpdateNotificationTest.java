@@ -0,0 +1,109 @@
+package com.cosleep.listlayout;
+
+import com.cosleeplib.listlayout.ListLayout;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.annotation.Config;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+/**
+ * 局部的增删改移通知，只处理变化的条目，其余子View保留，ViewHolder的位置和数据保持一致
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 32)
+public class UpdateNotificationTest {
+    private ListLayout mListLayout;
+    private TestAdapter mAdapter;
+
+    @Before
+    public void setUp() {
+        mListLayout = new ListLayout(RuntimeEnvironment.getApplication());
+        mAdapter = new TestAdapter(6);
+        mListLayout.setAdapter(mAdapter);
+        mAdapter.reset();
+    }
+
+    @Test
+    public void insertKeepsExistingChildren() {
+        TestAdapter.Holder third = TestAdapter.holderAt(mListLayout, 2);
+        mAdapter.items.addAll(2, Arrays.asList(100L, 101L));
+        mAdapter.notifyItemRangeInserted(2, 2);
+        mListLayout.flushPendingUpdates();
+        assertEquals(Arrays.asList("create 0", "bind 2", "create 0", "bind 3"), mAdapter.events);
+        assertSame(third, TestAdapter.holderAt(mListLayout, 4));
+        assertPositionsMatchItems();
+    }
+
+    @Test
+    public void removeRecyclesOnlyRemovedChildren() {
+        TestAdapter.Holder last = TestAdapter.holderAt(mListLayout, 5);
+        mAdapter.items.subList(1, 3).clear();
+        mAdapter.notifyItemRangeRemoved(1, 2);
+        mListLayout.flushPendingUpdates();
+        assertEquals(Collections.<String>emptyList(), mAdapter.events);
+        assertEquals(4, mListLayout.getChildCount());
+        assertSame(last, TestAdapter.holderAt(mListLayout, 3));
+        assertPositionsMatchItems();
+    }
+
+    @Test
+    public void moveReordersChildrenWithoutRebinding() {
+        TestAdapter.Holder first = TestAdapter.holderAt(mListLayout, 0);
+        mAdapter.items.add(4, mAdapter.items.remove(0));
+        mAdapter.notifyItemMoved(0, 4);
+        mListLayout.flushPendingUpdates();
+        assertEquals(Collections.<String>emptyList(), mAdapter.events);
+        assertSame(first, TestAdapter.holderAt(mListLayout, 4));
+        assertEquals(4, first.getAdapterPosition());
+        assertPositionsMatchItems();
+    }
+
+    @Test
+    public void changeRebindsOnlyChangedItems() {
+        mAdapter.items.set(3, 300L);
+        mAdapter.items.set(4, 400L);
+        mAdapter.notifyItemRangeChanged(3, 2);
+        mListLayout.flushPendingUpdates();
+        assertEquals(Arrays.asList("bind 3", "bind 4"), mAdapter.events);
+        assertPositionsMatchItems();
+    }
+
+    @Test
+    public void mixedNotificationsAreAppliedInOrder() {
+        //插入、移除、移动、更新交替进行，每次通知对应当时的数据
+        mAdapter.items.add(0, 100L);
+        mAdapter.notifyItemInserted(0);
+        mAdapter.items.remove(3);
+        mAdapter.notifyItemRemoved(3);
+        mAdapter.items.add(0, mAdapter.items.remove(5));
+        mAdapter.notifyItemMoved(5, 0);
+        mAdapter.items.set(2, 200L);
+        mAdapter.notifyItemChanged(2);
+        mAdapter.items.add(100L + mAdapter.items.size());
+        mAdapter.notifyItemInserted(mAdapter.items.size() - 1);
+        mListLayout.flushPendingUpdates();
+        assertEquals(7, mListLayout.getChildCount());
+        assertPositionsMatchItems();
+    }
+
+    /**
+     * 每个子View的ViewHolder的位置等于子View的下标，渲染的数据和Adapter的数据一致
+     */
+    private void assertPositionsMatchItems() {
+        assertEquals(mAdapter.getItemCount(), mListLayout.getChildCount());
+        for (int i = 0; i < mListLayout.getChildCount(); i++) {
+            TestAdapter.Holder holder = TestAdapter.holderAt(mListLayout, i);
+            assertEquals(i, holder.getAdapterPosition());
+            assertEquals((long) mAdapter.items.get(i), holder.id);
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package com.cosleep.listlayout;
+
+import com.cosleeplib.listlayout.ListLayout;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.annotation.Config;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+/**
+ * 重新填充时按条目类型复用ViewHolder，回收池的命中、未命中统计
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 32)
+public class ViewHolderRecyclingTest {
+    private ListLayout mListLayout;
+    private ListLayout.RecycledViewPool mPool;
+
+    @Before
+    public void setUp() {
+        mListLayout = new ListLayout(RuntimeEnvironment.getApplication());
+        mPool = mListLayout.getRecycledViewPool();
+    }
+
+    @Test
+    public void firstPopulateCreatesEveryHolder() {
+        TestAdapter adapter = new TestAdapter(10, 2);
+        mListLayout.setAdapter(adapter);
+        assertEquals(10, mListLayout.getChildCount());
+        assertEquals(10, adapter.createCount);
+        assertEquals(0, mPool.getHitCount());
+        assertEquals(10, mPool.getMissCount());
+    }
+
+    @Test
+    public void repopulateReusesHoldersOfTheSameType() {
+        TestAdapter adapter = new TestAdapter(10, 2);
+        mListLayout.setAdapter(adapter);
+        TestAdapter.Holder first = TestAdapter.holderAt(mListLayout, 0);
+        adapter.reset();
+        mPool.resetStats();
+
+        adapter.notifyDataSetChanged();
+        mListLayout.flushPendingUpdates();
+        assertEquals(10, mListLayout.getChildCount());
+        assertEquals(0, adapter.createCount);
+        assertEquals(10, adapter.bindCount);
+        assertEquals(10, mPool.getHitCount());
+        assertEquals(0, mPool.getMissCount());
+        //同一种类型的ViewHolder互相复用，不同类型的不会混用
+        for (int i = 0; i < mListLayout.getChildCount(); i++) {
+            TestAdapter.Holder holder = TestAdapter.holderAt(mListLayout, i);
+            assertEquals(adapter.getItemViewType(i), holder.getItemViewType());
+        }
+        assertEquals(first.getItemViewType(), TestAdapter.holderAt(mListLayout, 0).getItemViewType());
+    }
+
+    @Test
+    public void removedHoldersAreReusedByLaterInserts() {
+        TestAdapter adapter = new TestAdapter(6);
+        mListLayout.setAdapter(adapter);
+        TestAdapter.Holder removed = TestAdapter.holderAt(mListLayout, 5);
+        adapter.items.remove(5);
+        adapter.notifyItemRemoved(5);
+        mListLayout.flushPendingUpdates();
+        assertEquals(1, mPool.getRecycledViewCount(0));
+        assertEquals(ListLayout.NO_POSITION, removed.getAdapterPosition());
+        adapter.reset();
+        mPool.resetStats();
+
+        adapter.items.add(0, 100L);
+        adapter.items.add(0, 101L);
+        adapter.notifyItemRangeInserted(0, 2);
+        mListLayout.flushPendingUpdates();
+        //第一个从回收池取出，第二个只能新建
+        assertEquals(1, mPool.getHitCount());
+        assertEquals(1, mPool.getMissCount());
+        assertEquals(1, adapter.createCount);
+        assertEquals(0, mPool.getRecycledViewCount(0));
+        assertSame(removed, TestAdapter.holderAt(mListLayout, 0));
+        assertEquals(0, removed.getAdapterPosition());
+    }
+
+    @Test
+    public void poolKeepsAtMostMaxRecycledViewsPerType() {
+        TestAdapter adapter = new TestAdapter(10, 2);
+        mPool.setMaxRecycledViews(0, 2);
+        mListLayout.setAdapter(adapter);
+        mListLayout.setAdapter(null);
+        assertEquals(0, mListLayout.getChildCount());
+        //换了Adapter，没有其他ListLayout在使用回收池时，旧的ViewHolder都不能再用了
+        assertEquals(0, mPool.getPoolSize());
+
+        mListLayout.setAdapter(adapter);
+        adapter.items.subList(0, 8).clear();
+        adapter.notifyItemRangeRemoved(0, 8);
+        mListLayout.flushPendingUpdates();
+        assertEquals(2, mPool.getRecycledViewCount(0));
+        assertEquals(4, mPool.getRecycledViewCount(1));
+        assertEquals(6, mPool.getPoolSize());
+    }
+}
@@ -0,0 +1,84 @@
+package com.cosleeplib.listlayout.multitype;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.List;
+
+/**
+ * MultiTypeAdapter.getItemViewType()、getItemId()的单个条目耗时
+ * fanOut为1时一对一注册，大于1时每种模型类一对多注册fanOut个ItemViewBinder，通过ClassLinker按位置轮流选择
+ * 条目类型和条目Id会缓存在TypeIdTable中，每次调用前先通过setItems()清空，和换了数据之后第一次获取一样，
+ * 测量的是查找ItemViewBinder并写入缓存的耗时，而不是读缓存；indexInTypesOf()只测量查找本身
+ */
+@State(Scope.Thread)
+public class AdapterBenchmark {
+    static final int ITEM_COUNT = 1024;
+
+    @Param({"MultiTypePool", "IndexedTypePool"})
+    public String poolType;
+
+    @Param({"1", "8", "32"})
+    public int typeCount;
+
+    @Param({"0", "3"})
+    public int depth;
+
+    @Param({"1", "4"})
+    public int fanOut;
+
+    private List<?> items;
+    private MultiTypeAdapter adapter;
+
+    @Setup
+    public void setup() {
+        items = Fixtures.items(ITEM_COUNT, typeCount, depth);
+        adapter = new MultiTypeAdapter(items, TypePoolBenchmark.newTypePool(poolType));
+        for (int i = 0; i < typeCount; i++) {
+            Class<?> modelClass = Fixtures.modelClass(i);
+            if (fanOut == 1) {
+                adapter.register(modelClass, new Fixtures.NoOpBinder());
+            } else {
+                adapter.<Object>register(modelClass)
+                        .to(Fixtures.binders(fanOut))
+                        .withClassLinker(Fixtures.classLinker(fanOut));
+            }
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ITEM_COUNT)
+    public int getItemViewType() {
+        adapter.setItems(items);
+        int sum = 0;
+        for (int position = 0; position < ITEM_COUNT; position++) {
+            sum += adapter.getItemViewType(position);
+        }
+        return sum;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ITEM_COUNT)
+    public long getItemId() {
+        adapter.setItems(items);
+        long sum = 0;
+        for (int position = 0; position < ITEM_COUNT; position++) {
+            sum += adapter.getItemId(position);
+        }
+        return sum;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ITEM_COUNT)
+    public int indexInTypesOf() {
+        int sum = 0;
+        for (int position = 0; position < ITEM_COUNT; position++) {
+            sum += adapter.indexInTypesOf(position, items.get(position));
+        }
+        return sum;
+    }
+}
@@ -0,0 +1,41 @@
+package com.cosleeplib.listlayout.multitype;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.List;
+
+/**
+ * ClassLinkerWrapper.index()的单次耗时，即从ClassLinker返回的ItemViewBinder类型换算成下标
+ */
+@State(Scope.Thread)
+public class ClassLinkerBenchmark {
+    static final int ITEM_COUNT = 1024;
+
+    @Param({"2", "4", "8"})
+    public int fanOut;
+
+    private ClassLinkerWrapper<Object> linker;
+    private Object[] items;
+
+    @Setup
+    public void setup() {
+        linker = ClassLinkerWrapper.wrap(Fixtures.classLinker(fanOut), Fixtures.binders(fanOut));
+        List<Object> list = Fixtures.items(ITEM_COUNT, 1, 0);
+        items = list.toArray();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ITEM_COUNT)
+    public int index() {
+        int sum = 0;
+        for (int position = 0; position < ITEM_COUNT; position++) {
+            sum += linker.index(position, items[position]);
+        }
+        return sum;
+    }
+}
@@ -0,0 +1,477 @@
+package com.cosleeplib.listlayout.multitype;
+
+import android.view.LayoutInflater;
+import android.view.ViewGroup;
+
+import com.cosleeplib.listlayout.ListLayout;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 基准测试用的模型类和ItemViewBinder
+ * 每种模型类有3层子类，T00_3 extends T00_2 extends T00_1 extends T00，用来测试按父类查找的开销
+ */
+final class Fixtures {
+    /**
+     * 最多的模型类数量
+     */
+    static final int MAX_TYPE_COUNT = 32;
+    /**
+     * 最深的继承层级
+     */
+    static final int MAX_DEPTH = 3;
+    /**
+     * 一对多时，最多的ItemViewBinder数量
+     */
+    static final int MAX_FAN_OUT = 8;
+
+    private Fixtures() {
+    }
+
+    static class T00 {
+    }
+    static class T00_1 extends T00 {
+    }
+    static class T00_2 extends T00_1 {
+    }
+    static class T00_3 extends T00_2 {
+    }
+
+    static class T01 {
+    }
+    static class T01_1 extends T01 {
+    }
+    static class T01_2 extends T01_1 {
+    }
+    static class T01_3 extends T01_2 {
+    }
+
+    static class T02 {
+    }
+    static class T02_1 extends T02 {
+    }
+    static class T02_2 extends T02_1 {
+    }
+    static class T02_3 extends T02_2 {
+    }
+
+    static class T03 {
+    }
+    static class T03_1 extends T03 {
+    }
+    static class T03_2 extends T03_1 {
+    }
+    static class T03_3 extends T03_2 {
+    }
+
+    static class T04 {
+    }
+    static class T04_1 extends T04 {
+    }
+    static class T04_2 extends T04_1 {
+    }
+    static class T04_3 extends T04_2 {
+    }
+
+    static class T05 {
+    }
+    static class T05_1 extends T05 {
+    }
+    static class T05_2 extends T05_1 {
+    }
+    static class T05_3 extends T05_2 {
+    }
+
+    static class T06 {
+    }
+    static class T06_1 extends T06 {
+    }
+    static class T06_2 extends T06_1 {
+    }
+    static class T06_3 extends T06_2 {
+    }
+
+    static class T07 {
+    }
+    static class T07_1 extends T07 {
+    }
+    static class T07_2 extends T07_1 {
+    }
+    static class T07_3 extends T07_2 {
+    }
+
+    static class T08 {
+    }
+    static class T08_1 extends T08 {
+    }
+    static class T08_2 extends T08_1 {
+    }
+    static class T08_3 extends T08_2 {
+    }
+
+    static class T09 {
+    }
+    static class T09_1 extends T09 {
+    }
+    static class T09_2 extends T09_1 {
+    }
+    static class T09_3 extends T09_2 {
+    }
+
+    static class T10 {
+    }
+    static class T10_1 extends T10 {
+    }
+    static class T10_2 extends T10_1 {
+    }
+    static class T10_3 extends T10_2 {
+    }
+
+    static class T11 {
+    }
+    static class T11_1 extends T11 {
+    }
+    static class T11_2 extends T11_1 {
+    }
+    static class T11_3 extends T11_2 {
+    }
+
+    static class T12 {
+    }
+    static class T12_1 extends T12 {
+    }
+    static class T12_2 extends T12_1 {
+    }
+    static class T12_3 extends T12_2 {
+    }
+
+    static class T13 {
+    }
+    static class T13_1 extends T13 {
+    }
+    static class T13_2 extends T13_1 {
+    }
+    static class T13_3 extends T13_2 {
+    }
+
+    static class T14 {
+    }
+    static class T14_1 extends T14 {
+    }
+    static class T14_2 extends T14_1 {
+    }
+    static class T14_3 extends T14_2 {
+    }
+
+    static class T15 {
+    }
+    static class T15_1 extends T15 {
+    }
+    static class T15_2 extends T15_1 {
+    }
+    static class T15_3 extends T15_2 {
+    }
+
+    static class T16 {
+    }
+    static class T16_1 extends T16 {
+    }
+    static class T16_2 extends T16_1 {
+    }
+    static class T16_3 extends T16_2 {
+    }
+
+    static class T17 {
+    }
+    static class T17_1 extends T17 {
+    }
+    static class T17_2 extends T17_1 {
+    }
+    static class T17_3 extends T17_2 {
+    }
+
+    static class T18 {
+    }
+    static class T18_1 extends T18 {
+    }
+    static class T18_2 extends T18_1 {
+    }
+    static class T18_3 extends T18_2 {
+    }
+
+    static class T19 {
+    }
+    static class T19_1 extends T19 {
+    }
+    static class T19_2 extends T19_1 {
+    }
+    static class T19_3 extends T19_2 {
+    }
+
+    static class T20 {
+    }
+    static class T20_1 extends T20 {
+    }
+    static class T20_2 extends T20_1 {
+    }
+    static class T20_3 extends T20_2 {
+    }
+
+    static class T21 {
+    }
+    static class T21_1 extends T21 {
+    }
+    static class T21_2 extends T21_1 {
+    }
+    static class T21_3 extends T21_2 {
+    }
+
+    static class T22 {
+    }
+    static class T22_1 extends T22 {
+    }
+    static class T22_2 extends T22_1 {
+    }
+    static class T22_3 extends T22_2 {
+    }
+
+    static class T23 {
+    }
+    static class T23_1 extends T23 {
+    }
+    static class T23_2 extends T23_1 {
+    }
+    static class T23_3 extends T23_2 {
+    }
+
+    static class T24 {
+    }
+    static class T24_1 extends T24 {
+    }
+    static class T24_2 extends T24_1 {
+    }
+    static class T24_3 extends T24_2 {
+    }
+
+    static class T25 {
+    }
+    static class T25_1 extends T25 {
+    }
+    static class T25_2 extends T25_1 {
+    }
+    static class T25_3 extends T25_2 {
+    }
+
+    static class T26 {
+    }
+    static class T26_1 extends T26 {
+    }
+    static class T26_2 extends T26_1 {
+    }
+    static class T26_3 extends T26_2 {
+    }
+
+    static class T27 {
+    }
+    static class T27_1 extends T27 {
+    }
+    static class T27_2 extends T27_1 {
+    }
+    static class T27_3 extends T27_2 {
+    }
+
+    static class T28 {
+    }
+    static class T28_1 extends T28 {
+    }
+    static class T28_2 extends T28_1 {
+    }
+    static class T28_3 extends T28_2 {
+    }
+
+    static class T29 {
+    }
+    static class T29_1 extends T29 {
+    }
+    static class T29_2 extends T29_1 {
+    }
+    static class T29_3 extends T29_2 {
+    }
+
+    static class T30 {
+    }
+    static class T30_1 extends T30 {
+    }
+    static class T30_2 extends T30_1 {
+    }
+    static class T30_3 extends T30_2 {
+    }
+
+    static class T31 {
+    }
+    static class T31_1 extends T31 {
+    }
+    static class T31_2 extends T31_1 {
+    }
+    static class T31_3 extends T31_2 {
+    }
+
+    /**
+     * 第一维为模型类，第二维为继承层级，0为注册的模型类本身
+     */
+    private static final Class<?>[][] MODEL_CLASSES = {
+            {T00.class, T00_1.class, T00_2.class, T00_3.class},
+            {T01.class, T01_1.class, T01_2.class, T01_3.class},
+            {T02.class, T02_1.class, T02_2.class, T02_3.class},
+            {T03.class, T03_1.class, T03_2.class, T03_3.class},
+            {T04.class, T04_1.class, T04_2.class, T04_3.class},
+            {T05.class, T05_1.class, T05_2.class, T05_3.class},
+            {T06.class, T06_1.class, T06_2.class, T06_3.class},
+            {T07.class, T07_1.class, T07_2.class, T07_3.class},
+            {T08.class, T08_1.class, T08_2.class, T08_3.class},
+            {T09.class, T09_1.class, T09_2.class, T09_3.class},
+            {T10.class, T10_1.class, T10_2.class, T10_3.class},
+            {T11.class, T11_1.class, T11_2.class, T11_3.class},
+            {T12.class, T12_1.class, T12_2.class, T12_3.class},
+            {T13.class, T13_1.class, T13_2.class, T13_3.class},
+            {T14.class, T14_1.class, T14_2.class, T14_3.class},
+            {T15.class, T15_1.class, T15_2.class, T15_3.class},
+            {T16.class, T16_1.class, T16_2.class, T16_3.class},
+            {T17.class, T17_1.class, T17_2.class, T17_3.class},
+            {T18.class, T18_1.class, T18_2.class, T18_3.class},
+            {T19.class, T19_1.class, T19_2.class, T19_3.class},
+            {T20.class, T20_1.class, T20_2.class, T20_3.class},
+            {T21.class, T21_1.class, T21_2.class, T21_3.class},
+            {T22.class, T22_1.class, T22_2.class, T22_3.class},
+            {T23.class, T23_1.class, T23_2.class, T23_3.class},
+            {T24.class, T24_1.class, T24_2.class, T24_3.class},
+            {T25.class, T25_1.class, T25_2.class, T25_3.class},
+            {T26.class, T26_1.class, T26_2.class, T26_3.class},
+            {T27.class, T27_1.class, T27_2.class, T27_3.class},
+            {T28.class, T28_1.class, T28_2.class, T28_3.class},
+            {T29.class, T29_1.class, T29_2.class, T29_3.class},
+            {T30.class, T30_1.class, T30_2.class, T30_3.class},
+            {T31.class, T31_1.class, T31_2.class, T31_3.class},
+    };
+
+    /**
+     * 一对多时使用的ItemViewBinder，ClassLinker按类型区分，所以每个都是不同的类
+     */
+    @SuppressWarnings("unchecked")
+    private static final Class<? extends ItemViewBinder<Object, ?>>[] BINDER_CLASSES = new Class[]{
+            Binder0.class, Binder1.class, Binder2.class, Binder3.class,
+            Binder4.class, Binder5.class, Binder6.class, Binder7.class
+    };
+
+    /**
+     * 注册的模型类
+     */
+    static Class<?> modelClass(int type) {
+        return MODEL_CLASSES[type][0];
+    }
+
+    /**
+     * 查找的模型类，depth为相对注册的模型类的继承层级
+     */
+    static Class<?> itemClass(int type, int depth) {
+        return MODEL_CLASSES[type][depth];
+    }
+
+    /**
+     * 创建size个条目，各种模型类交替出现
+     */
+    static List<Object> items(int size, int typeCount, int depth) {
+        checkRange(typeCount, MAX_TYPE_COUNT);
+        checkRange(depth + 1, MAX_DEPTH + 1);
+        List<Object> items = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            try {
+                items.add(itemClass(i % typeCount, depth).getDeclaredConstructor().newInstance());
+            } catch (ReflectiveOperationException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+        return items;
+    }
+
+    /**
+     * 创建一对多的ItemViewBinder数组
+     */
+    static ItemViewBinder<Object, ?>[] binders(int fanOut) {
+        checkRange(fanOut, MAX_FAN_OUT);
+        @SuppressWarnings("unchecked")
+        ItemViewBinder<Object, ?>[] binders = new ItemViewBinder[fanOut];
+        for (int i = 0; i < fanOut; i++) {
+            try {
+                binders[i] = BINDER_CLASSES[i].getDeclaredConstructor().newInstance();
+            } catch (ReflectiveOperationException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+        return binders;
+    }
+
+    /**
+     * 按条目位置轮流选择ItemViewBinder的ClassLinker
+     */
+    static ClassLinker<Object> classLinker(final int fanOut) {
+        checkRange(fanOut, MAX_FAN_OUT);
+        return new ClassLinker<Object>() {
+            @Override
+            public Class<? extends ItemViewBinder<Object, ?>> index(int position, Object item) {
+                return BINDER_CLASSES[position % fanOut];
+            }
+        };
+    }
+
+    private static void checkRange(int value, int max) {
+        if (value < 1 || value > max) {
+            throw new IllegalArgumentException("Value " + value + " is out of range [1, " + max + "]");
+        }
+    }
+
+    /**
+     * 不创建View的ItemViewBinder，只用于类型查找
+     */
+    static class NoOpBinder extends ItemViewBinder<Object, ListLayout.ViewHolder> {
+        @Override
+        protected ListLayout.ViewHolder onCreateViewHolder(LayoutInflater inflater, ViewGroup parent) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        protected void onBindViewHolder(ListLayout.ViewHolder holder, Object item) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        protected long getItemId(Object item) {
+            return System.identityHashCode(item);
+        }
+    }
+
+    static class Binder0 extends NoOpBinder {
+    }
+
+    static class Binder1 extends NoOpBinder {
+    }
+
+    static class Binder2 extends NoOpBinder {
+    }
+
+    static class Binder3 extends NoOpBinder {
+    }
+
+    static class Binder4 extends NoOpBinder {
+    }
+
+    static class Binder5 extends NoOpBinder {
+    }
+
+    static class Binder6 extends NoOpBinder {
+    }
+
+    static class Binder7 extends NoOpBinder {
+    }
+}
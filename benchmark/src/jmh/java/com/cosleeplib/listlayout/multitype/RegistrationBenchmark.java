@@ -0,0 +1,60 @@
+package com.cosleeplib.listlayout.multitype;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.Collections;
+
+/**
+ * 在新的MultiTypeAdapter上注册typeCount种模型类的耗时，包括OneToManyBuilder一对多注册
+ * 注册后查找一次，把IndexedTypePool等延迟建立的索引也算进来
+ */
+@State(Scope.Thread)
+public class RegistrationBenchmark {
+    @Param({"MultiTypePool", "IndexedTypePool"})
+    public String poolType;
+
+    @Param({"8", "32"})
+    public int typeCount;
+
+    @Param({"1", "4", "8"})
+    public int fanOut;
+
+    private ItemViewBinder<Object, ?>[][] binders;
+    private ClassLinker<Object> classLinker;
+
+    @Setup
+    @SuppressWarnings("unchecked")
+    public void setup() {
+        binders = new ItemViewBinder[typeCount][];
+        for (int i = 0; i < typeCount; i++) {
+            binders[i] = Fixtures.binders(fanOut);
+        }
+        classLinker = Fixtures.classLinker(fanOut);
+    }
+
+    @Benchmark
+    public int registerOneToOne() {
+        MultiTypeAdapter adapter = new MultiTypeAdapter(Collections.emptyList(),
+                TypePoolBenchmark.newTypePool(poolType));
+        for (int i = 0; i < typeCount; i++) {
+            adapter.register(Fixtures.modelClass(i), binders[i][0]);
+        }
+        return adapter.getTypePool().firstIndexOf(Fixtures.modelClass(typeCount - 1));
+    }
+
+    @Benchmark
+    public int registerOneToMany() {
+        MultiTypeAdapter adapter = new MultiTypeAdapter(Collections.emptyList(),
+                TypePoolBenchmark.newTypePool(poolType));
+        for (int i = 0; i < typeCount; i++) {
+            adapter.<Object>register(Fixtures.modelClass(i))
+                    .to(binders[i])
+                    .withClassLinker(classLinker);
+        }
+        return adapter.getTypePool().firstIndexOf(Fixtures.modelClass(typeCount - 1));
+    }
+}
@@ -0,0 +1,63 @@
+package com.cosleeplib.listlayout.multitype;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * TypePool.firstIndexOf()的单次查找耗时
+ * 每次调用查找ITEM_COUNT个条目的模型类，各种模型类交替出现，depth大于0时查找的是注册的模型类的子类
+ */
+@State(Scope.Thread)
+public class TypePoolBenchmark {
+    static final int ITEM_COUNT = 1024;
+
+    @Param({"MultiTypePool", "IndexedTypePool"})
+    public String poolType;
+
+    @Param({"1", "8", "32"})
+    public int typeCount;
+
+    @Param({"0", "1", "3"})
+    public int depth;
+
+    private TypePool pool;
+    private Class<?>[] itemClasses;
+
+    @Setup
+    public void setup() {
+        pool = newTypePool(poolType);
+        Fixtures.NoOpBinder binder = new Fixtures.NoOpBinder();
+        for (int i = 0; i < typeCount; i++) {
+            pool.register(Fixtures.modelClass(i), binder, new DefaultLinker<>());
+        }
+        itemClasses = new Class<?>[ITEM_COUNT];
+        for (int i = 0; i < ITEM_COUNT; i++) {
+            itemClasses[i] = Fixtures.itemClass(i % typeCount, depth);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ITEM_COUNT)
+    public int firstIndexOf() {
+        int sum = 0;
+        for (Class<?> itemClass : itemClasses) {
+            sum += pool.firstIndexOf(itemClass);
+        }
+        return sum;
+    }
+
+    static TypePool newTypePool(String poolType) {
+        switch (poolType) {
+            case "MultiTypePool":
+                return new MultiTypePool();
+            case "IndexedTypePool":
+                return new IndexedTypePool();
+            default:
+                throw new IllegalArgumentException("Unknown pool type: " + poolType);
+        }
+    }
+}
@@ -0,0 +1,11 @@
+package android.content;
+
+import android.content.res.Resources;
+import android.content.res.TypedArray;
+import android.util.AttributeSet;
+
+public class Context {
+    public Resources getResources() { throw new RuntimeException("Stub!"); }
+
+    public final TypedArray obtainStyledAttributes(AttributeSet set, int[] attrs) { throw new RuntimeException("Stub!"); }
+}
@@ -0,0 +1,7 @@
+package android.content.res;
+
+public class TypedArray {
+    public int getInt(int index, int defValue) { throw new RuntimeException("Stub!"); }
+
+    public void recycle() { throw new RuntimeException("Stub!"); }
+}
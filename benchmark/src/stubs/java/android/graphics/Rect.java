@@ -0,0 +1,14 @@
+package android.graphics;
+
+public final class Rect {
+    public int left;
+    public int top;
+    public int right;
+    public int bottom;
+
+    public void set(int left, int top, int right, int bottom) { throw new RuntimeException("Stub!"); }
+
+    public int width() { throw new RuntimeException("Stub!"); }
+
+    public int height() { throw new RuntimeException("Stub!"); }
+}
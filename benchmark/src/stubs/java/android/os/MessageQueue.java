@@ -0,0 +1,11 @@
+package android.os;
+
+public final class MessageQueue {
+    public void addIdleHandler(IdleHandler handler) { throw new RuntimeException("Stub!"); }
+
+    public void removeIdleHandler(IdleHandler handler) { throw new RuntimeException("Stub!"); }
+
+    public interface IdleHandler {
+        boolean queueIdle();
+    }
+}
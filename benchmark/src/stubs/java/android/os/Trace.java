@@ -0,0 +1,12 @@
+package android.os;
+
+/**
+ * 基准测试中不抓取Trace，直接忽略
+ */
+public final class Trace {
+    public static void beginSection(String sectionName) {
+    }
+
+    public static void endSection() {
+    }
+}
@@ -0,0 +1,22 @@
+package android.util;
+
+/**
+ * 重复注册等场景会打印日志，基准测试中直接忽略
+ */
+public final class Log {
+    public static int d(String tag, String msg) {
+        return 0;
+    }
+
+    public static int w(String tag, String msg) {
+        return 0;
+    }
+
+    public static int e(String tag, String msg) {
+        return 0;
+    }
+
+    public static int e(String tag, String msg, Throwable tr) {
+        return 0;
+    }
+}
@@ -0,0 +1,29 @@
+package android.util;
+
+public class LongSparseArray<E> {
+    public LongSparseArray() { throw new RuntimeException("Stub!"); }
+
+    public LongSparseArray(int initialCapacity) { throw new RuntimeException("Stub!"); }
+
+    public E get(long key) { throw new RuntimeException("Stub!"); }
+
+    public E get(long key, E valueIfKeyNotFound) { throw new RuntimeException("Stub!"); }
+
+    public void put(long key, E value) { throw new RuntimeException("Stub!"); }
+
+    public void remove(long key) { throw new RuntimeException("Stub!"); }
+
+    public void delete(long key) { throw new RuntimeException("Stub!"); }
+
+    public void removeAt(int index) { throw new RuntimeException("Stub!"); }
+
+    public int size() { throw new RuntimeException("Stub!"); }
+
+    public long keyAt(int index) { throw new RuntimeException("Stub!"); }
+
+    public E valueAt(int index) { throw new RuntimeException("Stub!"); }
+
+    public int indexOfKey(long key) { throw new RuntimeException("Stub!"); }
+
+    public void clear() { throw new RuntimeException("Stub!"); }
+}
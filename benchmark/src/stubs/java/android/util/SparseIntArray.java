@@ -0,0 +1,28 @@
+package android.util;
+
+public class SparseIntArray implements Cloneable {
+    public SparseIntArray() { throw new RuntimeException("Stub!"); }
+
+    public SparseIntArray(int initialCapacity) { throw new RuntimeException("Stub!"); }
+
+    public int get(int key) { throw new RuntimeException("Stub!"); }
+
+    public int get(int key, int valueIfKeyNotFound) { throw new RuntimeException("Stub!"); }
+
+    public void put(int key, int value) { throw new RuntimeException("Stub!"); }
+
+    public void delete(int key) { throw new RuntimeException("Stub!"); }
+
+    public int size() { throw new RuntimeException("Stub!"); }
+
+    public int keyAt(int index) { throw new RuntimeException("Stub!"); }
+
+    public int valueAt(int index) { throw new RuntimeException("Stub!"); }
+
+    public int indexOfKey(int key) { throw new RuntimeException("Stub!"); }
+
+    public void clear() { throw new RuntimeException("Stub!"); }
+
+    @Override
+    public SparseIntArray clone() { throw new RuntimeException("Stub!"); }
+}
@@ -0,0 +1,15 @@
+package android.view;
+
+public final class Choreographer {
+    public static Choreographer getInstance() { throw new RuntimeException("Stub!"); }
+
+    public void postFrameCallback(FrameCallback callback) { throw new RuntimeException("Stub!"); }
+
+    public void postFrameCallbackDelayed(FrameCallback callback, long delayMillis) { throw new RuntimeException("Stub!"); }
+
+    public void removeFrameCallback(FrameCallback callback) { throw new RuntimeException("Stub!"); }
+
+    public interface FrameCallback {
+        void doFrame(long frameTimeNanos);
+    }
+}
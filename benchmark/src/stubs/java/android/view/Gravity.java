@@ -0,0 +1,13 @@
+package android.view;
+
+public class Gravity {
+    public static final int CENTER_HORIZONTAL = 0x01;
+    public static final int LEFT = 0x03;
+    public static final int RIGHT = 0x05;
+    public static final int HORIZONTAL_GRAVITY_MASK = 0x07;
+    public static final int RELATIVE_LAYOUT_DIRECTION = 0x00800000;
+    public static final int START = RELATIVE_LAYOUT_DIRECTION | LEFT;
+    public static final int END = RELATIVE_LAYOUT_DIRECTION | RIGHT;
+
+    public static int getAbsoluteGravity(int gravity, int layoutDirection) { throw new RuntimeException("Stub!"); }
+}
@@ -0,0 +1,129 @@
+package android.view;
+
+import android.content.Context;
+import android.content.res.Resources;
+import android.graphics.Rect;
+import android.util.AttributeSet;
+
+public class View {
+    public static final int VISIBLE = 0x00000000;
+    public static final int INVISIBLE = 0x00000004;
+    public static final int GONE = 0x00000008;
+    public static final int MEASURED_SIZE_MASK = 0x00ffffff;
+    public static final int MEASURED_STATE_MASK = 0xff000000;
+    public static final int MEASURED_HEIGHT_STATE_SHIFT = 16;
+
+    public View(Context context) { throw new RuntimeException("Stub!"); }
+
+    public View(Context context, AttributeSet attrs) { throw new RuntimeException("Stub!"); }
+
+    public View(Context context, AttributeSet attrs, int defStyleAttr) { throw new RuntimeException("Stub!"); }
+
+    public Context getContext() { throw new RuntimeException("Stub!"); }
+
+    public Resources getResources() { throw new RuntimeException("Stub!"); }
+
+    public final ViewParent getParent() { throw new RuntimeException("Stub!"); }
+
+    public ViewGroup.LayoutParams getLayoutParams() { throw new RuntimeException("Stub!"); }
+
+    public void setLayoutParams(ViewGroup.LayoutParams params) { throw new RuntimeException("Stub!"); }
+
+    public final void measure(int widthMeasureSpec, int heightMeasureSpec) { throw new RuntimeException("Stub!"); }
+
+    protected void onMeasure(int widthMeasureSpec, int heightMeasureSpec) { throw new RuntimeException("Stub!"); }
+
+    protected final void setMeasuredDimension(int measuredWidth, int measuredHeight) { throw new RuntimeException("Stub!"); }
+
+    public final int getMeasuredWidth() { throw new RuntimeException("Stub!"); }
+
+    public final int getMeasuredHeight() { throw new RuntimeException("Stub!"); }
+
+    public final int getMeasuredState() { throw new RuntimeException("Stub!"); }
+
+    public void layout(int l, int t, int r, int b) { throw new RuntimeException("Stub!"); }
+
+    protected void onLayout(boolean changed, int left, int top, int right, int bottom) { throw new RuntimeException("Stub!"); }
+
+    public void requestLayout() { throw new RuntimeException("Stub!"); }
+
+    public boolean isLayoutRequested() { throw new RuntimeException("Stub!"); }
+
+    public void forceLayout() { throw new RuntimeException("Stub!"); }
+
+    public void invalidate() { throw new RuntimeException("Stub!"); }
+
+    public final int getLeft() { throw new RuntimeException("Stub!"); }
+
+    public final int getTop() { throw new RuntimeException("Stub!"); }
+
+    public final int getRight() { throw new RuntimeException("Stub!"); }
+
+    public final int getBottom() { throw new RuntimeException("Stub!"); }
+
+    public final int getWidth() { throw new RuntimeException("Stub!"); }
+
+    public final int getHeight() { throw new RuntimeException("Stub!"); }
+
+    public void offsetTopAndBottom(int offset) { throw new RuntimeException("Stub!"); }
+
+    public void offsetLeftAndRight(int offset) { throw new RuntimeException("Stub!"); }
+
+    public int getVisibility() { throw new RuntimeException("Stub!"); }
+
+    public void setVisibility(int visibility) { throw new RuntimeException("Stub!"); }
+
+    public int getPaddingLeft() { throw new RuntimeException("Stub!"); }
+
+    public int getPaddingTop() { throw new RuntimeException("Stub!"); }
+
+    public int getPaddingRight() { throw new RuntimeException("Stub!"); }
+
+    public int getPaddingBottom() { throw new RuntimeException("Stub!"); }
+
+    public void setPadding(int left, int top, int right, int bottom) { throw new RuntimeException("Stub!"); }
+
+    public int getLayoutDirection() { throw new RuntimeException("Stub!"); }
+
+    public final boolean getLocalVisibleRect(Rect r) { throw new RuntimeException("Stub!"); }
+
+    public ViewTreeObserver getViewTreeObserver() { throw new RuntimeException("Stub!"); }
+
+    public boolean isAttachedToWindow() { throw new RuntimeException("Stub!"); }
+
+    protected void onAttachedToWindow() { throw new RuntimeException("Stub!"); }
+
+    protected void onDetachedFromWindow() { throw new RuntimeException("Stub!"); }
+
+    public boolean post(Runnable action) { throw new RuntimeException("Stub!"); }
+
+    public boolean removeCallbacks(Runnable action) { throw new RuntimeException("Stub!"); }
+
+    public void setOnClickListener(OnClickListener l) { throw new RuntimeException("Stub!"); }
+
+    protected int getSuggestedMinimumWidth() { throw new RuntimeException("Stub!"); }
+
+    protected int getSuggestedMinimumHeight() { throw new RuntimeException("Stub!"); }
+
+    public static int combineMeasuredStates(int curState, int newState) { throw new RuntimeException("Stub!"); }
+
+    public static int resolveSizeAndState(int size, int measureSpec, int childMeasuredState) { throw new RuntimeException("Stub!"); }
+
+    public static int getDefaultSize(int size, int measureSpec) { throw new RuntimeException("Stub!"); }
+
+    public interface OnClickListener {
+        void onClick(View v);
+    }
+
+    public static class MeasureSpec {
+        public static final int UNSPECIFIED = 0;
+        public static final int EXACTLY = 1 << 30;
+        public static final int AT_MOST = 2 << 30;
+
+        public static int makeMeasureSpec(int size, int mode) { throw new RuntimeException("Stub!"); }
+
+        public static int getMode(int measureSpec) { throw new RuntimeException("Stub!"); }
+
+        public static int getSize(int measureSpec) { throw new RuntimeException("Stub!"); }
+    }
+}
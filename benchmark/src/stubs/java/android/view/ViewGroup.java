@@ -0,0 +1,114 @@
+package android.view;
+
+import android.content.Context;
+import android.util.AttributeSet;
+
+public abstract class ViewGroup extends View implements ViewParent {
+    public ViewGroup(Context context) {
+        super(context);
+        throw new RuntimeException("Stub!");
+    }
+
+    public ViewGroup(Context context, AttributeSet attrs) {
+        super(context);
+        throw new RuntimeException("Stub!");
+    }
+
+    public ViewGroup(Context context, AttributeSet attrs, int defStyleAttr) {
+        super(context);
+        throw new RuntimeException("Stub!");
+    }
+
+    public int getChildCount() { throw new RuntimeException("Stub!"); }
+
+    public View getChildAt(int index) { throw new RuntimeException("Stub!"); }
+
+    public int indexOfChild(View child) { throw new RuntimeException("Stub!"); }
+
+    public void addView(View child) { throw new RuntimeException("Stub!"); }
+
+    public void addView(View child, int index) { throw new RuntimeException("Stub!"); }
+
+    public void addView(View child, LayoutParams params) { throw new RuntimeException("Stub!"); }
+
+    public void addView(View child, int index, LayoutParams params) { throw new RuntimeException("Stub!"); }
+
+    protected boolean addViewInLayout(View child, int index, LayoutParams params) { throw new RuntimeException("Stub!"); }
+
+    public void removeView(View view) { throw new RuntimeException("Stub!"); }
+
+    public void removeViewAt(int index) { throw new RuntimeException("Stub!"); }
+
+    public void removeViewInLayout(View view) { throw new RuntimeException("Stub!"); }
+
+    public void removeViews(int start, int count) { throw new RuntimeException("Stub!"); }
+
+    public void removeAllViews() { throw new RuntimeException("Stub!"); }
+
+    public void removeAllViewsInLayout() { throw new RuntimeException("Stub!"); }
+
+    protected void detachViewFromParent(int index) { throw new RuntimeException("Stub!"); }
+
+    protected void detachViewFromParent(View child) { throw new RuntimeException("Stub!"); }
+
+    protected void detachAllViewsFromParent() { throw new RuntimeException("Stub!"); }
+
+    protected void attachViewToParent(View child, int index, LayoutParams params) { throw new RuntimeException("Stub!"); }
+
+    protected void removeDetachedView(View child, boolean animate) { throw new RuntimeException("Stub!"); }
+
+    protected boolean checkLayoutParams(LayoutParams p) { throw new RuntimeException("Stub!"); }
+
+    protected LayoutParams generateDefaultLayoutParams() { throw new RuntimeException("Stub!"); }
+
+    public LayoutParams generateLayoutParams(AttributeSet attrs) { throw new RuntimeException("Stub!"); }
+
+    protected LayoutParams generateLayoutParams(LayoutParams p) { throw new RuntimeException("Stub!"); }
+
+    public boolean shouldDelayChildPressedState() { throw new RuntimeException("Stub!"); }
+
+    protected void measureChildWithMargins(View child, int parentWidthMeasureSpec, int widthUsed,
+                                           int parentHeightMeasureSpec, int heightUsed) { throw new RuntimeException("Stub!"); }
+
+    public static int getChildMeasureSpec(int spec, int padding, int childDimension) { throw new RuntimeException("Stub!"); }
+
+    public static class LayoutParams {
+        public static final int MATCH_PARENT = -1;
+        public static final int WRAP_CONTENT = -2;
+        public int width;
+        public int height;
+
+        public LayoutParams(Context c, AttributeSet attrs) { throw new RuntimeException("Stub!"); }
+
+        public LayoutParams(int width, int height) { throw new RuntimeException("Stub!"); }
+
+        public LayoutParams(LayoutParams source) { throw new RuntimeException("Stub!"); }
+    }
+
+    public static class MarginLayoutParams extends LayoutParams {
+        public int leftMargin;
+        public int topMargin;
+        public int rightMargin;
+        public int bottomMargin;
+
+        public MarginLayoutParams(Context c, AttributeSet attrs) {
+            super(c, attrs);
+            throw new RuntimeException("Stub!");
+        }
+
+        public MarginLayoutParams(int width, int height) {
+            super(width, height);
+            throw new RuntimeException("Stub!");
+        }
+
+        public MarginLayoutParams(MarginLayoutParams source) {
+            super(source);
+            throw new RuntimeException("Stub!");
+        }
+
+        public MarginLayoutParams(LayoutParams source) {
+            super(source);
+            throw new RuntimeException("Stub!");
+        }
+    }
+}
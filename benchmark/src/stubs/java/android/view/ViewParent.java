@@ -0,0 +1,9 @@
+package android.view;
+
+public interface ViewParent {
+    void requestLayout();
+
+    boolean isLayoutRequested();
+
+    ViewParent getParent();
+}
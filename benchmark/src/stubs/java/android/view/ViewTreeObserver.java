@@ -0,0 +1,13 @@
+package android.view;
+
+public final class ViewTreeObserver {
+    public void addOnScrollChangedListener(OnScrollChangedListener listener) { throw new RuntimeException("Stub!"); }
+
+    public void removeOnScrollChangedListener(OnScrollChangedListener listener) { throw new RuntimeException("Stub!"); }
+
+    public boolean isAlive() { throw new RuntimeException("Stub!"); }
+
+    public interface OnScrollChangedListener {
+        void onScrollChanged();
+    }
+}
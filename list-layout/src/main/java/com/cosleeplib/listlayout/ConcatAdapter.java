@@ -0,0 +1,396 @@
+package com.cosleeplib.listlayout;
+
+import android.view.ViewGroup;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * 把多个Adapter按顺序拼接成一个Adapter，例如头部、列表、加载更多分别用不同的Adapter，再一起设置给ListLayout
+ * <p>
+ * 每个子Adapter的条目类型会映射成拼接后唯一的条目类型，不同子Adapter的条目类型互不冲突，创建、渲染时再换回子Adapter自己的条目类型。
+ * 子Adapter移除后不再持有它，它的条目类型也不会再分配给其它子Adapter。
+ * 子Adapter的起始位置缓存在数组中（前缀和），按位置查找子Adapter时二分查找。子Adapter的数据变化通知，平移成拼接后的位置再转发，
+ * 只刷新对应的范围
+ * <p>
+ * 默认每个子Adapter的ViewHolder只在自己内部复用。shareRecycleKeys为true时，回收池的key使用子Adapter的getRecycleKey()，
+ * 不同子Adapter中key相同的ViewHolder可以互相复用，例如多个MultiTypeAdapter注册了同一种ItemViewBinder
+ * <p>
+ * 注意：ViewHolder.getAdapterPosition()是拼接后的位置，需要子Adapter内的位置时调用getLocalPosition()。
+ * 开启稳定Id时，子Adapter之间的条目Id不能重复
+ */
+public class ConcatAdapter extends ListLayout.Adapter<ListLayout.ViewHolder> {
+    private final boolean mShareRecycleKeys;
+    private final List<AdapterWrapper> mChildren = new ArrayList<>();
+    /**
+     * 每个子Adapter的起始位置，mStarts[i]为前i个子Adapter的条目数量之和，最后一个为条目总数
+     */
+    private int[] mStarts = new int[1];
+    /**
+     * 拼接后的条目类型对应的子Adapter和子Adapter的条目类型，下标为拼接后的条目类型
+     * 子Adapter移除后对应的位置置为null，不再持有子Adapter。拼接后的条目类型不复用，回收池中可能还有按这些类型创建的ViewHolder
+     */
+    private final List<AdapterWrapper> mTypeOwners = new ArrayList<>();
+    private int[] mTypeLocals = new int[8];
+
+    public ConcatAdapter(ListLayout.Adapter<?>... adapters) {
+        this(false, adapters);
+    }
+
+    /**
+     * @param shareRecycleKeys 不同子Adapter之间是否按子Adapter的getRecycleKey()复用ViewHolder
+     */
+    public ConcatAdapter(boolean shareRecycleKeys, ListLayout.Adapter<?>... adapters) {
+        mShareRecycleKeys = shareRecycleKeys;
+        for (ListLayout.Adapter<?> adapter : adapters) {
+            addAdapterInternal(mChildren.size(), adapter);
+        }
+        updateStarts(0);
+    }
+
+    /**
+     * 在末尾添加子Adapter
+     */
+    public void addAdapter(ListLayout.Adapter<?> adapter) {
+        addAdapter(mChildren.size(), adapter);
+    }
+
+    /**
+     * 在指定位置添加子Adapter
+     */
+    public void addAdapter(int index, ListLayout.Adapter<?> adapter) {
+        if (index < 0 || index > mChildren.size()) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + mChildren.size());
+        }
+        AdapterWrapper child = addAdapterInternal(index, adapter);
+        updateStarts(index);
+        if (child.mCount > 0) {
+            notifyItemRangeInserted(mStarts[index], child.mCount);
+        }
+    }
+
+    /**
+     * 移除子Adapter，子Adapter不存在时返回false
+     */
+    public boolean removeAdapter(ListLayout.Adapter<?> adapter) {
+        int index = indexOf(adapter);
+        if (index == -1) {
+            return false;
+        }
+        AdapterWrapper child = mChildren.remove(index);
+        adapter.unregisterAdapterDataObserver(child);
+        child.mIndex = -1;
+        releaseGlobalTypes(child);
+        int positionStart = mStarts[index];
+        updateStarts(index);
+        if (child.mCount > 0) {
+            notifyItemRangeRemoved(positionStart, child.mCount);
+        }
+        return true;
+    }
+
+    /**
+     * 获取所有子Adapter
+     */
+    public List<ListLayout.Adapter<?>> getAdapters() {
+        List<ListLayout.Adapter<?>> adapters = new ArrayList<>(mChildren.size());
+        for (AdapterWrapper child : mChildren) {
+            adapters.add(child.mAdapter);
+        }
+        return adapters;
+    }
+
+    /**
+     * 获取位置对应的子Adapter
+     */
+    public ListLayout.Adapter<?> getAdapterForPosition(int position) {
+        return mChildren.get(findChild(position)).mAdapter;
+    }
+
+    /**
+     * 获取位置在对应的子Adapter内的位置
+     */
+    public int getLocalPosition(int position) {
+        return position - mStarts[findChild(position)];
+    }
+
+    /**
+     * 获取子Adapter第一个条目拼接后的位置，子Adapter不存在时返回NO_POSITION
+     */
+    public int getAdapterStart(ListLayout.Adapter<?> adapter) {
+        int index = indexOf(adapter);
+        return index == -1 ? ListLayout.NO_POSITION : mStarts[index];
+    }
+
+    @Override
+    public ListLayout.ViewHolder onCreateViewHolder(ViewGroup parent, int itemType) {
+        AdapterWrapper owner = mTypeOwners.get(itemType);
+        if (owner == null) {
+            throw new IllegalStateException("条目类型" + itemType + "所属的子Adapter已经被移除");
+        }
+        return owner.mAdapter.onCreateViewHolder(parent, mTypeLocals[itemType]);
+    }
+
+    @Override
+    public void onBindViewHolder(ListLayout.ViewHolder holder, int position) {
+        onBindViewHolder(holder, position, null);
+    }
+
+    /**
+     * 渲染时换回子Adapter的条目类型和位置，子Adapter按自己的条目类型查找渲染方式，例如MultiTypeAdapter
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public void onBindViewHolder(ListLayout.ViewHolder holder, int position, List<Object> payloads) {
+        int index = findChild(position);
+        AdapterWrapper child = mChildren.get(index);
+        int itemViewType = holder.getItemViewType();
+        holder.setItemViewType(mTypeLocals[itemViewType]);
+        try {
+            ListLayout.Adapter<ListLayout.ViewHolder> adapter = (ListLayout.Adapter<ListLayout.ViewHolder>) child.mAdapter;
+            int localPosition = position - mStarts[index];
+            if (payloads == null) {
+                adapter.onBindViewHolder(holder, localPosition);
+            } else {
+                adapter.onBindViewHolder(holder, localPosition, payloads);
+            }
+        } finally {
+            holder.setItemViewType(itemViewType);
+        }
+    }
+
+    @Override
+    public int getItemViewType(int position) {
+        int index = findChild(position);
+        AdapterWrapper child = mChildren.get(index);
+        return child.toGlobalType(child.mAdapter.getItemViewType(position - mStarts[index]));
+    }
+
+    @Override
+    public long getItemId(int position) {
+        int index = findChild(position);
+        return mChildren.get(index).mAdapter.getItemId(position - mStarts[index]);
+    }
+
+    @Override
+    public String getItemViewTypeName(int itemViewType) {
+        AdapterWrapper owner = mTypeOwners.get(itemViewType);
+        if (owner == null) {
+            return super.getItemViewTypeName(itemViewType);
+        }
+        return owner.mAdapter.getItemViewTypeName(mTypeLocals[itemViewType]);
+    }
+
+    /**
+     * 共用时为子Adapter的key，否则为null，按拼接后的条目类型缓存，不同子Adapter的ViewHolder不会互相复用。
+     * 子Adapter的key为null或者子Adapter已经被移除时，同样按拼接后的条目类型缓存
+     */
+    @Override
+    public Object getRecycleKey(int itemViewType) {
+        if (mShareRecycleKeys) {
+            AdapterWrapper owner = mTypeOwners.get(itemViewType);
+            if (owner != null) {
+                return owner.mAdapter.getRecycleKey(mTypeLocals[itemViewType]);
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public int getItemCount() {
+        return mStarts[mChildren.size()];
+    }
+
+    private AdapterWrapper addAdapterInternal(int index, ListLayout.Adapter<?> adapter) {
+        if (adapter == null) {
+            throw new NullPointerException("adapter不能为空");
+        }
+        if (indexOf(adapter) != -1) {
+            throw new IllegalArgumentException("Adapter已经添加过了：" + adapter);
+        }
+        AdapterWrapper child = new AdapterWrapper(adapter);
+        child.mCount = adapter.getItemCount();
+        mChildren.add(index, child);
+        adapter.registerAdapterDataObserver(child);
+        return child;
+    }
+
+    private int indexOf(ListLayout.Adapter<?> adapter) {
+        for (int i = 0; i < mChildren.size(); i++) {
+            if (mChildren.get(i).mAdapter == adapter) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * 从第from个子Adapter开始，重新计算起始位置和子Adapter的下标
+     */
+    private void updateStarts(int from) {
+        int count = mChildren.size();
+        if (mStarts.length < count + 1) {
+            mStarts = Arrays.copyOf(mStarts, Math.max(count + 1, mStarts.length * 2));
+        }
+        for (int i = from; i < count; i++) {
+            AdapterWrapper child = mChildren.get(i);
+            child.mIndex = i;
+            mStarts[i + 1] = mStarts[i] + child.mCount;
+        }
+    }
+
+    /**
+     * 二分查找位置所在的子Adapter，即起始位置不超过position的最后一个子Adapter，没有条目的子Adapter会被跳过
+     */
+    private int findChild(int position) {
+        int count = mChildren.size();
+        if (position < 0 || position >= mStarts[count]) {
+            throw new IndexOutOfBoundsException("Index: " + position + ", Size: " + mStarts[count]);
+        }
+        int low = 0;
+        int high = count - 1;
+        while (low < high) {
+            int middle = (low + high + 1) >>> 1;
+            if (mStarts[middle] <= position) {
+                low = middle;
+            } else {
+                high = middle - 1;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * 分配拼接后的条目类型
+     */
+    private int obtainGlobalType(AdapterWrapper child, int localType) {
+        int globalType = mTypeOwners.size();
+        if (globalType == mTypeLocals.length) {
+            mTypeLocals = Arrays.copyOf(mTypeLocals, globalType * 2);
+        }
+        mTypeOwners.add(child);
+        mTypeLocals[globalType] = localType;
+        return globalType;
+    }
+
+    /**
+     * 子Adapter被移除后，不再持有它的条目类型对应的子Adapter
+     */
+    private void releaseGlobalTypes(AdapterWrapper child) {
+        for (int i = 0; i < child.mTypeCount; i++) {
+            mTypeOwners.set(child.mGlobalTypes[i], null);
+        }
+    }
+
+    /**
+     * 子Adapter，同时作为它的数据观察者，把通知平移成拼接后的位置再转发
+     */
+    private final class AdapterWrapper extends ListLayout.AdapterDataObserver {
+        final ListLayout.Adapter<?> mAdapter;
+        /**
+         * 在mChildren中的下标，子Adapter增删时更新，已经被移除时为-1
+         */
+        int mIndex = -1;
+        /**
+         * 已经通知过的条目数量，按通知维护，和通知的位置保持一致
+         */
+        int mCount;
+        /**
+         * 子Adapter的条目类型和拼接后的条目类型，一般只有几种，顺序查找，避免装箱
+         */
+        private int[] mLocalTypes = new int[4];
+        private int[] mGlobalTypes = new int[4];
+        private int mTypeCount;
+
+        AdapterWrapper(ListLayout.Adapter<?> adapter) {
+            mAdapter = adapter;
+        }
+
+        int toGlobalType(int localType) {
+            for (int i = 0; i < mTypeCount; i++) {
+                if (mLocalTypes[i] == localType) {
+                    return mGlobalTypes[i];
+                }
+            }
+            if (mTypeCount == mLocalTypes.length) {
+                mLocalTypes = Arrays.copyOf(mLocalTypes, mTypeCount * 2);
+                mGlobalTypes = Arrays.copyOf(mGlobalTypes, mTypeCount * 2);
+            }
+            int globalType = obtainGlobalType(this, localType);
+            mLocalTypes[mTypeCount] = localType;
+            mGlobalTypes[mTypeCount] = globalType;
+            mTypeCount++;
+            return globalType;
+        }
+
+        /**
+         * 子Adapter的起始位置，子Adapter已经被移除时返回NO_POSITION
+         */
+        private int getStart() {
+            return mIndex == -1 ? ListLayout.NO_POSITION : mStarts[mIndex];
+        }
+
+        private void updateCount(int count) {
+            mCount = count;
+            updateStarts(mIndex);
+        }
+
+        /**
+         * 子Adapter整体变化时，条目数量可能变了，按新旧数量拆成更新、插入、移除，只影响这个子Adapter的范围
+         */
+        @Override
+        public void onChanged() {
+            int start = getStart();
+            if (start == ListLayout.NO_POSITION) {
+                return;
+            }
+            int oldCount = mCount;
+            int newCount = mAdapter.getItemCount();
+            updateCount(newCount);
+            int changed = Math.min(oldCount, newCount);
+            if (changed > 0) {
+                notifyItemRangeChanged(start, changed);
+            }
+            if (newCount > oldCount) {
+                notifyItemRangeInserted(start + oldCount, newCount - oldCount);
+            } else if (newCount < oldCount) {
+                notifyItemRangeRemoved(start + newCount, oldCount - newCount);
+            }
+        }
+
+        @Override
+        public void onItemRangeChanged(int positionStart, int itemCount, Object payload) {
+            int start = getStart();
+            if (start != ListLayout.NO_POSITION) {
+                notifyItemRangeChanged(start + positionStart, itemCount, payload);
+            }
+        }
+
+        @Override
+        public void onItemRangeInserted(int positionStart, int itemCount) {
+            int start = getStart();
+            if (start != ListLayout.NO_POSITION) {
+                updateCount(mCount + itemCount);
+                notifyItemRangeInserted(start + positionStart, itemCount);
+            }
+        }
+
+        @Override
+        public void onItemRangeRemoved(int positionStart, int itemCount) {
+            int start = getStart();
+            if (start != ListLayout.NO_POSITION) {
+                updateCount(mCount - itemCount);
+                notifyItemRangeRemoved(start + positionStart, itemCount);
+            }
+        }
+
+        @Override
+        public void onItemRangeMoved(int fromPosition, int toPosition, int itemCount) {
+            int start = getStart();
+            if (start != ListLayout.NO_POSITION) {
+                notifyItemMoved(start + fromPosition, start + toPosition);
+            }
+        }
+    }
+}
@@ -0,0 +1,221 @@
+package com.cosleeplib.listlayout;
+
+import java.util.Arrays;
+
+/**
+ * 虚拟化时的条目高度记录，没有测量过的条目使用预估高度：有测量过的条目时为平均高度，否则为默认的预估高度
+ * <p>
+ * 测量过的条目的高度之和、数量分别保存在树状数组（Fenwick树）中，一段范围的高度之和为测量过的高度之和加上没有测量过的数量乘以预估高度，
+ * 求和以及按偏移查找位置都是O(log 条目数量)，测量、失效单个条目时只需要更新树状数组。插入、移除、移动条目时，
+ * 数组本身就要整体平移，树状数组标记为需要重建，下次查询时再按O(条目数量)重建
+ */
+final class ItemHeights {
+    private static final int UNKNOWN = -1;
+    /**
+     * 每个位置的条目高度，没有测量过的为UNKNOWN
+     */
+    private int[] mHeights = new int[0];
+    private int mSize;
+    /**
+     * 树状数组，下标从1开始，mSumTree[i]、mCountTree[i]为第(i - (i & -i))到第(i - 1)个条目中测量过的条目的高度之和、数量
+     */
+    private long[] mSumTree = new long[1];
+    private int[] mCountTree = new int[1];
+    /**
+     * 树状数组是否需要按mHeights重建
+     */
+    private boolean mTreeDirty;
+    /**
+     * 测量过的条目的高度之和，以及数量
+     */
+    private long mKnownSum;
+    private int mKnownCount;
+    /**
+     * 重置前的平均高度，重置后还没有测量过的条目时使用，避免占位高度突变
+     */
+    private int mLastAverage;
+    /**
+     * 默认的预估高度
+     */
+    int mFallbackHeight;
+    /**
+     * 网格模式的列数，默认的预估高度是一行的高度，按列数分摊到每个条目上
+     */
+    int mSpanCount = 1;
+
+    int size() {
+        return mSize;
+    }
+
+    /**
+     * 数据整体变了，所有条目都当作没有测量过
+     */
+    void reset(int size) {
+        if (mKnownCount > 0) {
+            mLastAverage = (int) (mKnownSum / mKnownCount);
+        }
+        if (mHeights.length < size) {
+            mHeights = new int[size];
+        }
+        Arrays.fill(mHeights, 0, size, UNKNOWN);
+        mSize = size;
+        mKnownSum = 0;
+        mKnownCount = 0;
+        mTreeDirty = true;
+    }
+
+    int get(int position) {
+        int height = mHeights[position];
+        return height != UNKNOWN ? height : estimate();
+    }
+
+    void set(int position, int height) {
+        int old = mHeights[position];
+        if (old == height) {
+            return;
+        }
+        if (old != UNKNOWN) {
+            mKnownSum -= old;
+            mKnownCount--;
+            update(position, -old, -1);
+        }
+        mHeights[position] = height;
+        mKnownSum += height;
+        mKnownCount++;
+        update(position, height, 1);
+    }
+
+    /**
+     * 获取[from, to)范围内的条目高度之和
+     */
+    int sum(int from, int to) {
+        return (int) (sumBefore(to) - sumBefore(from));
+    }
+
+    /**
+     * 查找[0, k)范围内的条目高度之和不超过offset的最大的k，offset小于0时返回0
+     * 在树状数组上按二进制位从高到低逐步确定，O(log 条目数量)
+     */
+    int findPosition(int offset) {
+        ensureTree();
+        final int estimate = estimate();
+        int position = 0;
+        long remaining = offset;
+        for (int step = Integer.highestOneBit(mSize); step > 0; step >>= 1) {
+            int next = position + step;
+            if (next <= mSize) {
+                long height = mSumTree[next] + (long) (step - mCountTree[next]) * estimate;
+                if (height <= remaining) {
+                    position = next;
+                    remaining -= height;
+                }
+            }
+        }
+        return position;
+    }
+
+    void insert(int positionStart, int itemCount) {
+        if (mSize + itemCount > mHeights.length) {
+            mHeights = Arrays.copyOf(mHeights, Math.max(mSize + itemCount, mHeights.length * 2));
+        }
+        System.arraycopy(mHeights, positionStart, mHeights, positionStart + itemCount, mSize - positionStart);
+        Arrays.fill(mHeights, positionStart, positionStart + itemCount, UNKNOWN);
+        mSize += itemCount;
+        mTreeDirty = true;
+    }
+
+    void remove(int positionStart, int itemCount) {
+        invalidate(positionStart, itemCount);
+        System.arraycopy(mHeights, positionStart + itemCount, mHeights, positionStart, mSize - positionStart - itemCount);
+        mSize -= itemCount;
+        mTreeDirty = true;
+    }
+
+    void move(int fromPosition, int toPosition) {
+        int height = mHeights[fromPosition];
+        if (fromPosition < toPosition) {
+            System.arraycopy(mHeights, fromPosition + 1, mHeights, fromPosition, toPosition - fromPosition);
+        } else {
+            System.arraycopy(mHeights, toPosition, mHeights, toPosition + 1, fromPosition - toPosition);
+        }
+        mHeights[toPosition] = height;
+        mTreeDirty = true;
+    }
+
+    /**
+     * 把一段条目标记为没有测量过
+     */
+    void invalidate(int positionStart, int itemCount) {
+        for (int position = positionStart; position < positionStart + itemCount; position++) {
+            int old = mHeights[position];
+            if (old != UNKNOWN) {
+                mKnownSum -= old;
+                mKnownCount--;
+                mHeights[position] = UNKNOWN;
+                update(position, -old, -1);
+            }
+        }
+    }
+
+    private int estimate() {
+        if (mKnownCount > 0) {
+            return (int) (mKnownSum / mKnownCount);
+        }
+        return mLastAverage > 0 ? mLastAverage : Math.max(1, mFallbackHeight / mSpanCount);
+    }
+
+    /**
+     * 前position个条目的高度之和
+     */
+    private long sumBefore(int position) {
+        ensureTree();
+        long sum = 0;
+        int known = 0;
+        for (int i = position; i > 0; i -= i & -i) {
+            sum += mSumTree[i];
+            known += mCountTree[i];
+        }
+        return sum + (long) (position - known) * estimate();
+    }
+
+    /**
+     * 条目的测量高度变化，树状数组需要重建时不用更新，重建时会按mHeights计算
+     */
+    private void update(int position, int heightDelta, int countDelta) {
+        if (mTreeDirty) {
+            return;
+        }
+        for (int i = position + 1; i <= mSize; i += i & -i) {
+            mSumTree[i] += heightDelta;
+            mCountTree[i] += countDelta;
+        }
+    }
+
+    /**
+     * 按当前的高度重建树状数组，O(条目数量)
+     */
+    private void ensureTree() {
+        if (!mTreeDirty) {
+            return;
+        }
+        mTreeDirty = false;
+        if (mSumTree.length < mSize + 1) {
+            int length = Math.max(mSize + 1, mSumTree.length * 2);
+            mSumTree = new long[length];
+            mCountTree = new int[length];
+        }
+        for (int i = 1; i <= mSize; i++) {
+            int height = mHeights[i - 1];
+            boolean known = height != UNKNOWN;
+            mSumTree[i] = known ? height : 0;
+            mCountTree[i] = known ? 1 : 0;
+        }
+        for (int i = 1; i <= mSize; i++) {
+            int parent = i + (i & -i);
+            if (parent <= mSize) {
+                mSumTree[parent] += mSumTree[i];
+                mCountTree[parent] += mCountTree[i];
+            }
+        }
+    }
+}
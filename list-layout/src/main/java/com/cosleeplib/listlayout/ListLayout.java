@@ -1,20 +1,71 @@
 package com.cosleeplib.listlayout;
 
 import android.content.Context;
+import android.content.res.TypedArray;
+import android.graphics.Rect;
+import android.os.Handler;
+import android.os.Looper;
+import android.os.MessageQueue;
+import android.os.Trace;
 import android.util.AttributeSet;
+import android.util.LongSparseArray;
+import android.util.SparseArray;
+import android.util.SparseIntArray;
+import android.view.Choreographer;
+import android.view.Gravity;
 import android.view.View;
 import android.view.ViewGroup;
-import android.widget.LinearLayout;
+import android.view.ViewTreeObserver;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
+import java.util.WeakHashMap;
 
 /**
  * 垂直列表布局，支持类似RecyclerView的Adapter、ViewHolder的写法，但没有它的条目复用和滚动能力
  * 为了和其他滚动控件协调滚动的灵活性，所以需要滚动效果时，需要包一层NestScrollView来实现
+ * 条目很多时可以开启虚拟化，只为可见区域以及上下预留范围内的条目创建子View，其余条目用测量过的或者预估的高度占位
+ * 测量和布局是专门为垂直排列实现的：只重新测量请求了重新布局的子View，后面的子View只做平移
+ * Adapter的数据变化通知不会马上处理，同一帧内收到的通知在下一帧开始时合并成一次填充，需要马上生效时调用flushPendingUpdates()
+ * 处理之前ViewHolder.getAdapterPosition()按还没处理的通知换算，离开窗口期间不处理通知，重新添加到窗口后继续
+ * 设置setSpanCount()后为网格模式，子View直接按行、列排列，不需要在条目里再嵌套一层横向的布局
  */
-public class ListLayout extends LinearLayout {
+public class ListLayout extends ViewGroup {
     public static final long NO_ID = -1;
+    public static final int NO_POSITION = -1;
+    public static final int INVALID_TYPE = Integer.MIN_VALUE;
+    /**
+     * 空闲时预创建的ViewHolder总数，默认值
+     */
+    private static final int DEFAULT_IDLE_PREFETCH_BUDGET = 6;
+    /**
+     * 空闲时每种类型最多预创建的ViewHolder数量，默认值
+     */
+    private static final int DEFAULT_IDLE_PREFETCH_MAX_PER_TYPE = 3;
+    /**
+     * 虚拟化时，没有测量过的条目的预估高度，默认值，单位dp
+     */
+    private static final int DEFAULT_ESTIMATED_ITEM_HEIGHT_DP = 48;
+    /**
+     * 分帧填充时，每帧用于填充的时间，默认值，单位纳秒
+     */
+    private static final long DEFAULT_POPULATE_FRAME_BUDGET_NANOS = 4000000L;
+    /**
+     * 测量缓存的最大条目数，默认值，默认不使用缓存，通过setMeasureCacheSize()开启
+     */
+    private static final int DEFAULT_MEASURE_CACHE_SIZE = 0;
+    /**
+     * Trace的名称
+     */
+    private static final String TRACE_POPULATE = "ListLayout.populate";
+    private static final String TRACE_POPULATE_CHUNK = "ListLayout.populateChunk";
+    private static final String TRACE_GET_ITEM_VIEW_TYPE = "ListLayout.getItemViewType";
+    /**
+     * Trace名称的最大长度
+     */
+    private static final int MAX_TRACE_SECTION_NAME_LENGTH = 127;
     /**
      * 适配器
      */
@@ -23,6 +74,216 @@ public class ListLayout extends LinearLayout {
      * 列表数据观察者，当数据notifyChange时，重新填充子View
      */
     private final ListLayoutDataObserver mObserver = new ListLayoutDataObserver();
+    /**
+     * 当前填充的ViewHolder列表，顺序和子View一致
+     */
+    private final List<ViewHolder> mAttachedHolders = new ArrayList<>();
+    /**
+     * mAttachedHolders中，插入了但还没创建ViewHolder的占位数量
+     */
+    private int mPendingSlotCount;
+    /**
+     * 重新填充时，从子View上拆下来的ViewHolder，按条目类型暂存，本次填充优先复用
+     */
+    private final SparseArray<ArrayList<ViewHolder>> mScrapHolders = new SparseArray<>();
+    /**
+     * 有稳定Id时，重新填充前按条目Id记录当前的ViewHolder
+     */
+    private final LongSparseArray<ViewHolder> mHoldersById = new LongSparseArray<>();
+    /**
+     * 有稳定Id时，重新填充时每个位置匹配上的ViewHolder
+     */
+    private final ArrayList<ViewHolder> mMatchedHolders = new ArrayList<>();
+    /**
+     * ViewHolder回收池
+     */
+    private RecycledViewPool mRecycledViewPool = new RecycledViewPool();
+    /**
+     * 当前Adapter填充过的条目类型统计，key为条目类型，value为出现次数
+     */
+    private final SparseIntArray mViewTypeHistogram = new SparseIntArray();
+    /**
+     * 是否在主线程空闲时，按条目类型的出现频率，预创建ViewHolder放入回收池
+     */
+    private boolean mIdlePrefetchEnabled = false;
+    /**
+     * 空闲时预创建的ViewHolder总数，按各类型出现的比例分配
+     */
+    private int mIdlePrefetchBudget = DEFAULT_IDLE_PREFETCH_BUDGET;
+    /**
+     * 空闲时每种类型最多预创建的ViewHolder数量
+     */
+    private int mIdlePrefetchMaxPerType = DEFAULT_IDLE_PREFETCH_MAX_PER_TYPE;
+    /**
+     * 是否已经添加了空闲回调
+     */
+    private boolean mIdlePrefetchScheduled;
+    /**
+     * 空闲回调，每次回调只创建一个ViewHolder，避免占用太长时间
+     */
+    private final MessageQueue.IdleHandler mIdlePrefetcher = new MessageQueue.IdleHandler() {
+        @Override
+        public boolean queueIdle() {
+            boolean hasMore = prefetchOnIdle();
+            if (!hasMore) {
+                mIdlePrefetchScheduled = false;
+            }
+            return hasMore;
+        }
+    };
+    /**
+     * 是否开启虚拟化，开启后只有可见区域以及上下预留范围内的条目才会创建子View
+     */
+    private boolean mVirtualizationEnabled = false;
+    /**
+     * 虚拟化时，可见区域上下各额外保留的高度，小于0时为可见区域的高度，单位px
+     */
+    private int mVirtualizationExtraSpace = -1;
+    /**
+     * 当前填充的第一个ViewHolder对应的条目位置，没有开启虚拟化时一直为0
+     */
+    private int mFirstPosition;
+    /**
+     * 虚拟化时，每个条目的高度记录，没有测量过的条目使用预估高度
+     */
+    private final ItemHeights mItemHeights = new ItemHeights();
+    /**
+     * 虚拟化时，窗口前面、后面的条目的占位高度，测量时计算，布局时使用
+     */
+    private int mSpaceAbove;
+    private int mSpaceBelow;
+    /**
+     * 计算窗口时使用，避免重复创建
+     */
+    private final Rect mVisibleRect = new Rect();
+    private final int[] mTmpRange = new int[2];
+    /**
+     * 注册了滚动监听的ViewTreeObserver
+     */
+    private ViewTreeObserver mScrollObserver;
+    /**
+     * 外层滚动控件滚动时，更新窗口
+     */
+    private final ViewTreeObserver.OnScrollChangedListener mScrollChangedListener = new ViewTreeObserver.OnScrollChangedListener() {
+        @Override
+        public void onScrollChanged() {
+            updateWindow();
+        }
+    };
+    /**
+     * 布局完成后，条目高度或可见区域变了，窗口需要在布局之外更新
+     */
+    private final Runnable mUpdateWindowRunnable = new Runnable() {
+        @Override
+        public void run() {
+            updateWindow();
+        }
+    };
+    /**
+     * 是否开启分帧填充，开启后重新填充时，每帧只在时间预算内创建一部分条目，可见区域的条目优先
+     */
+    private boolean mIncrementalPopulateEnabled = false;
+    /**
+     * 分帧填充时，每帧用于填充的时间，单位纳秒
+     */
+    private long mPopulateFrameBudgetNanos = DEFAULT_POPULATE_FRAME_BUDGET_NANOS;
+    /**
+     * 是否正在分帧填充
+     */
+    private boolean mIncrementalPopulating;
+    /**
+     * 分帧填充时，已经填充的条目在窗口中的范围[mPopulatedStart, mPopulatedEnd)，从可见区域的第一个条目开始向两边扩展
+     */
+    private int mPopulatedStart;
+    private int mPopulatedEnd;
+    /**
+     * 填充进度回调
+     */
+    private OnPopulateListener mOnPopulateListener;
+    /**
+     * 固定的条目高度，不包括上下外边距，大于0时所有条目都按该高度测量，单位px
+     */
+    private int mFixedItemHeight = 0;
+    /**
+     * 网格模式的列数，为1时是普通的列表
+     */
+    private int mSpanCount = 1;
+    /**
+     * 网格模式下每个条目占用的列数
+     */
+    private SpanSizeLookup mSpanSizeLookup = new DefaultSpanSizeLookup();
+    /**
+     * 网格模式下每一列的左边界，相对内容的左边，mSpanBorders[spanCount]为内容宽度
+     */
+    private int[] mSpanBorders = new int[2];
+    /**
+     * 上次测量时的宽高约束和内边距，变了之后所有子View都需要重新测量
+     */
+    private boolean mHasMeasured;
+    private int mLastWidthMeasureSpec;
+    private int mLastHeightMeasureSpec;
+    private int mLastHorizontalPadding;
+    private int mLastVerticalPadding;
+    /**
+     * 子View顶部位置的前缀和，mChildTops[i]为第i个子View（从上外边距算起）相对内容顶部的位置，mChildTops[childCount]为内容总高度
+     */
+    private int[] mChildTops = new int[1];
+    /**
+     * 上次测量时的子View数量
+     */
+    private int mMeasuredChildCount;
+    /**
+     * 条目的测量缓存，按条目Id、条目类型、宽度约束记录测量出的高度
+     */
+    private final MeasureCache mMeasureCache = new MeasureCache(DEFAULT_MEASURE_CACHE_SIZE);
+    /**
+     * 性能指标回调，为空时不做任何统计，也不添加Trace
+     */
+    private ListLayoutMetrics mMetrics;
+    /**
+     * 开始重新填充的时间，用于统计填充耗时，没有设置性能指标回调时为0
+     */
+    private long mPopulateStartNanos;
+    /**
+     * 按条目类型缓存的创建、渲染ViewHolder的Trace名称，避免每次拼接字符串
+     */
+    private final SparseArray<String> mCreateTraceNames = new SparseArray<>();
+    private final SparseArray<String> mBindTraceNames = new SparseArray<>();
+    /**
+     * 分帧填充的帧回调
+     */
+    private final Choreographer.FrameCallback mPopulateFrameCallback = new Choreographer.FrameCallback() {
+        @Override
+        public void doFrame(long frameTimeNanos) {
+            populateNextChunk(mPopulateFrameBudgetNanos);
+        }
+    };
+    /**
+     * 还没处理的条目变化通知，按收到的顺序记录，下一帧开始时一起处理
+     */
+    private final ArrayList<UpdateOp> mPendingUpdates = new ArrayList<>();
+    /**
+     * 处理完的UpdateOp，复用，避免每次通知都创建对象
+     */
+    private final ArrayList<UpdateOp> mUpdateOpPool = new ArrayList<>();
+    /**
+     * 是否收到了还没处理的notifyDataSetChanged()，下一帧直接重新填充，其它通知都不需要单独处理
+     */
+    private boolean mPendingDataSetChanged;
+    /**
+     * 是否已经安排了下一帧处理通知
+     */
+    private boolean mUpdateFrameScheduled;
+    /**
+     * 处理通知的帧回调
+     */
+    private final Choreographer.FrameCallback mUpdateFrameCallback = new Choreographer.FrameCallback() {
+        @Override
+        public void doFrame(long frameTimeNanos) {
+            mUpdateFrameScheduled = false;
+            flushPendingUpdates();
+        }
+    };
 
     public ListLayout(Context context) {
         this(context, null);
@@ -38,8 +299,8 @@ public class ListLayout extends LinearLayout {
     }
 
     private void init(Context context, AttributeSet attrs, int defStyleAttr) {
-        //子View垂直排列
-        setOrientation(LinearLayout.VERTICAL);
+        mItemHeights.mFallbackHeight = (int) (DEFAULT_ESTIMATED_ITEM_HEIGHT_DP
+                * context.getResources().getDisplayMetrics().density + 0.5f);
     }
 
     /**
@@ -50,6 +311,16 @@ public class ListLayout extends LinearLayout {
         if (mAdapter != null) {
             mAdapter.unregisterAdapterDataObserver(mObserver);
         }
+        //条目类型是Adapter定义的，换了Adapter，之前缓存的ViewHolder都不能再用了
+        if (mAdapter != adapter) {
+            removeAndRecycleAllViews();
+            mRecycledViewPool.onAdapterChanged(mAdapter, adapter);
+            mViewTypeHistogram.clear();
+            mMeasureCache.clear();
+            mCreateTraceNames.clear();
+            mBindTraceNames.clear();
+            mSpanSizeLookup.invalidateSpanIndexCache();
+        }
         //新的Adapter设置订阅
         mAdapter = adapter;
         if (adapter != null) {
@@ -67,149 +338,2696 @@ public class ListLayout extends LinearLayout {
     }
 
     /**
-     * 按数据填充视图
+     * 设置ViewHolder回收池，多个ListLayout设置同一个回收池，可以互相复用对方移除的ViewHolder
+     */
+    public void setRecycledViewPool(RecycledViewPool pool) {
+        if (pool == null) {
+            throw new IllegalArgumentException("pool不能为空");
+        }
+        if (pool == mRecycledViewPool) {
+            return;
+        }
+        if (mAdapter != null) {
+            mRecycledViewPool.detach();
+            pool.attach();
+        }
+        mRecycledViewPool = pool;
+        //每个回收池各自分配缓存类型，已经显示的ViewHolder之后要回收到新的回收池中，重新确定缓存类型
+        if (mAdapter != null) {
+            for (ViewHolder holder : mAttachedHolders) {
+                if (holder != null) {
+                    holder.mRecycleKey = pool.getViewType(mAdapter, holder.getItemViewType());
+                }
+            }
+        }
+    }
+
+    /**
+     * 获取ViewHolder回收池
+     */
+    public RecycledViewPool getRecycledViewPool() {
+        return mRecycledViewPool;
+    }
+
+    /**
+     * 设置是否在主线程空闲时，按条目类型的出现频率，预创建ViewHolder放入回收池，下次刷新、加载更多时直接复用
+     */
+    public void setIdlePrefetchEnabled(boolean enabled) {
+        mIdlePrefetchEnabled = enabled;
+        if (enabled) {
+            scheduleIdlePrefetch();
+        } else {
+            cancelIdlePrefetch();
+        }
+    }
+
+    /**
+     * 是否开启了空闲时预创建ViewHolder
+     */
+    public boolean isIdlePrefetchEnabled() {
+        return mIdlePrefetchEnabled;
+    }
+
+    /**
+     * 设置空闲时预创建的ViewHolder数量上限
+     *
+     * @param budget     预创建的总数，按各类型出现的比例分配
+     * @param maxPerType 每种类型最多预创建的数量，同时也受回收池中该类型的最大缓存数量限制
+     */
+    public void setIdlePrefetchLimits(int budget, int maxPerType) {
+        if (budget < 0 || maxPerType < 0) {
+            throw new IllegalArgumentException("budget和maxPerType不能小于0");
+        }
+        mIdlePrefetchBudget = budget;
+        mIdlePrefetchMaxPerType = maxPerType;
+    }
+
+    /**
+     * 获取当前Adapter填充过的条目类型统计，key为条目类型，value为出现次数，返回的是拷贝
+     */
+    public SparseIntArray getViewTypeHistogram() {
+        return mViewTypeHistogram.clone();
+    }
+
+    /**
+     * 设置是否开启虚拟化，开启后只有可见区域以及上下预留范围内的条目才会创建子View，其余条目用高度占位，总高度保持不变
+     * 外层需要是NestedScrollView等可滚动的控件，ListLayout的高度需要是wrap_content
+     * 注意：开启后子View只对应窗口内的条目，getChildAt()的下标不再等于条目位置
+     */
+    public void setVirtualizationEnabled(boolean enabled) {
+        if (mVirtualizationEnabled == enabled) {
+            return;
+        }
+        mVirtualizationEnabled = enabled;
+        if (enabled) {
+            registerScrollListener();
+        } else {
+            unregisterScrollListener();
+            removeCallbacks(mUpdateWindowRunnable);
+        }
+        populate();
+    }
+
+    /**
+     * 是否开启了虚拟化
+     */
+    public boolean isVirtualizationEnabled() {
+        return mVirtualizationEnabled;
+    }
+
+    /**
+     * 设置虚拟化时，可见区域上下各额外保留的高度，滚动时提前创建即将可见的条目，单位px
+     *
+     * @param extraSpace 小于0时为可见区域的高度，默认为-1
+     */
+    public void setVirtualizationExtraSpace(int extraSpace) {
+        mVirtualizationExtraSpace = extraSpace;
+        updateWindow();
+    }
+
+    /**
+     * 设置虚拟化时，还没有测量过的条目的预估高度，有测量过的条目时，使用测量过的条目的平均高度，单位px
+     */
+    public void setEstimatedItemHeight(int estimatedItemHeight) {
+        if (estimatedItemHeight <= 0) {
+            throw new IllegalArgumentException("estimatedItemHeight必须大于0");
+        }
+        mItemHeights.mFallbackHeight = estimatedItemHeight;
+        if (mVirtualizationEnabled) {
+            requestLayout();
+        }
+    }
+
+    /**
+     * 设置是否开启分帧填充，开启后notifyDataSetChanged()等重新填充时，每帧只在时间预算内创建、渲染一部分条目，
+     * 从可见区域的第一个条目开始，先向下再向上填充，剩下的条目在之后的帧中继续填充，避免一次填充太多条目卡住主线程
+     * 填充过程中收到局部刷新通知时，会同步填充完剩下的条目；有稳定Id时重新填充只需要重新渲染，不会分帧
+     */
+    public void setIncrementalPopulateEnabled(boolean enabled) {
+        mIncrementalPopulateEnabled = enabled;
+        if (!enabled) {
+            completeIncrementalPopulate();
+        }
+    }
+
+    /**
+     * 是否开启了分帧填充
+     */
+    public boolean isIncrementalPopulateEnabled() {
+        return mIncrementalPopulateEnabled;
+    }
+
+    /**
+     * 设置分帧填充时，每帧用于填充的时间，每帧至少会填充一个条目
+     *
+     * @param budgetNanos 单位纳秒，默认为4毫秒
+     */
+    public void setPopulateFrameBudgetNanos(long budgetNanos) {
+        if (budgetNanos <= 0) {
+            throw new IllegalArgumentException("budgetNanos必须大于0");
+        }
+        mPopulateFrameBudgetNanos = budgetNanos;
+    }
+
+    /**
+     * 设置填充进度回调
+     */
+    public void setOnPopulateListener(OnPopulateListener listener) {
+        mOnPopulateListener = listener;
+    }
+
+    /**
+     * 是否正在分帧填充
+     */
+    public boolean isPopulating() {
+        return mIncrementalPopulating;
+    }
+
+    /**
+     * 设置固定的条目高度，所有条目都按该高度测量，虚拟化时也按该高度预估没有创建的条目
+     *
+     * @param itemHeight 不包括上下外边距，单位px，小于等于0时取消固定高度，按条目自己的布局参数测量
+     */
+    public void setFixedItemHeight(int itemHeight) {
+        mFixedItemHeight = Math.max(0, itemHeight);
+        if (itemHeight > 0) {
+            mItemHeights.mFallbackHeight = itemHeight;
+        }
+        //所有子View都需要按新的高度重新测量
+        mHasMeasured = false;
+        requestLayout();
+    }
+
+    /**
+     * 设置测量缓存的最大条目数，0为不使用缓存，默认为0，需要主动开启
+     * 有条目Id的条目测量后，按条目Id、条目类型、宽度约束缓存测量出的高度，内容没变的条目重新添加或重新渲染后，
+     * 直接使用缓存的高度，不会因为重新渲染改变高度，也不会影响后面条目的位置。同一个子View重新渲染同一个条目时不再测量，
+     * 换成了别的子View时按缓存的高度精确测量。自适应高度的计算开销较大，例如多行文字时才值得开启
+     * 条目内容的变化需要通过notify系列方法通知，否则缓存的高度会过期；没有重新渲染、子View自己请求重新布局时，
+     * 不使用缓存，按测量出的新高度更新缓存
+     */
+    public void setMeasureCacheSize(int maxSize) {
+        if (maxSize < 0) {
+            throw new IllegalArgumentException("maxSize不能小于0");
+        }
+        mMeasureCache.setMaxSize(maxSize);
+    }
+
+    /**
+     * 获取测量缓存的命中次数
+     */
+    public int getMeasureCacheHitCount() {
+        return mMeasureCache.mHitCount;
+    }
+
+    /**
+     * 获取测量缓存的未命中次数
+     */
+    public int getMeasureCacheMissCount() {
+        return mMeasureCache.mMissCount;
+    }
+
+    /**
+     * 重置测量缓存的命中统计
+     */
+    public void resetMeasureCacheStats() {
+        mMeasureCache.mHitCount = 0;
+        mMeasureCache.mMissCount = 0;
+    }
+
+    /**
+     * 设置性能指标回调，设置后统计填充、创建、渲染ViewHolder的耗时，并添加对应的Trace，传null取消
+     */
+    public void setMetrics(ListLayoutMetrics metrics) {
+        mMetrics = metrics;
+    }
+
+    /**
+     * 获取性能指标回调
+     */
+    public ListLayoutMetrics getMetrics() {
+        return mMetrics;
+    }
+
+    /**
+     * 获取固定的条目高度，没有设置时为0
+     */
+    public int getFixedItemHeight() {
+        return mFixedItemHeight;
+    }
+
+    /**
+     * 设置网格模式的列数，大于1时子View按行排列，每行的列数为spanCount，每个条目占用的列数由SpanSizeLookup决定，
+     * 同一行的条目顶部对齐，行高为这一行最高的条目的高度，高度为match_parent的条目会拉伸到行高
+     * 虚拟化、分帧填充、测量缓存等和列表模式一样可用，虚拟化时窗口按整行扩展
+     * 注意：网格模式下ListLayout的宽度需要是确定的，列宽按宽度平分
+     *
+     * @param spanCount 为1时是普通的列表，默认为1
+     */
+    public void setSpanCount(int spanCount) {
+        if (spanCount <= 0) {
+            throw new IllegalArgumentException("spanCount必须大于0");
+        }
+        if (mSpanCount == spanCount) {
+            return;
+        }
+        mSpanCount = spanCount;
+        mItemHeights.mSpanCount = spanCount;
+        onSpanLayoutChanged();
+    }
+
+    /**
+     * 获取网格模式的列数，普通的列表为1
+     */
+    public int getSpanCount() {
+        return mSpanCount;
+    }
+
+    /**
+     * 设置网格模式下每个条目占用的列数，传null时每个条目占用一列
+     */
+    public void setSpanSizeLookup(SpanSizeLookup spanSizeLookup) {
+        mSpanSizeLookup = spanSizeLookup != null ? spanSizeLookup : new DefaultSpanSizeLookup();
+        onSpanLayoutChanged();
+    }
+
+    /**
+     * 获取网格模式下每个条目占用的列数
+     */
+    public SpanSizeLookup getSpanSizeLookup() {
+        return mSpanSizeLookup;
+    }
+
+    /**
+     * 获取当前创建了子View的第一个条目位置，没有开启虚拟化时为0
+     */
+    public int getFirstAttachedPosition() {
+        return mFirstPosition;
+    }
+
+    /**
+     * 获取当前创建了子View的条目数量，没有开启虚拟化时等于条目总数
+     */
+    public int getAttachedItemCount() {
+        return mAttachedHolders.size();
+    }
+
+    /**
+     * 马上处理还没处理的数据变化通知，一般不需要调用，通知会在下一帧开始时统一处理
+     * 通知之后需要同步测量、读取子View时调用，例如单元测试
+     */
+    public void flushPendingUpdates() {
+        if (mPendingDataSetChanged) {
+            //重新填充时会丢弃其它还没处理的通知
+            populate();
+            return;
+        }
+        if (mPendingUpdates.isEmpty()) {
+            return;
+        }
+        cancelUpdateFrame();
+        //按收到的顺序应用到窗口上，ViewHolder只标记或占位，最后统一创建、渲染
+        for (int i = 0; i < mPendingUpdates.size(); i++) {
+            final UpdateOp op = mPendingUpdates.get(i);
+            switch (op.mCmd) {
+                case UpdateOp.ADD:
+                    applyInsert(op.mPositionStart, op.mItemCount);
+                    break;
+                case UpdateOp.REMOVE:
+                    applyRemove(op.mPositionStart, op.mItemCount);
+                    break;
+                case UpdateOp.UPDATE:
+                    applyUpdate(op.mPositionStart, op.mItemCount, op.mPayload);
+                    break;
+                case UpdateOp.MOVE:
+                    applyMove(op.mPositionStart, op.mItemCount);
+                    break;
+                default:
+                    break;
+            }
+        }
+        recycleUpdateOps();
+        //正在分帧填充时，变化应用到占位上之后，用新数据填充完剩下的占位
+        completeIncrementalPopulate();
+        fillPendingHolders();
+        updateWindow();
+    }
+
+    /**
+     * 是否有还没处理的数据变化通知
+     */
+    public boolean hasPendingUpdates() {
+        return mPendingDataSetChanged || !mPendingUpdates.isEmpty();
+    }
+
+    /**
+     * 按还没处理的通知换算上一次处理通知后的位置，条目被移除或者要重新填充时返回NO_POSITION
+     */
+    int applyPendingUpdatesToPosition(int position) {
+        if (mPendingDataSetChanged) {
+            return NO_POSITION;
+        }
+        for (int i = 0; i < mPendingUpdates.size(); i++) {
+            final UpdateOp op = mPendingUpdates.get(i);
+            switch (op.mCmd) {
+                case UpdateOp.ADD:
+                    if (op.mPositionStart <= position) {
+                        position += op.mItemCount;
+                    }
+                    break;
+                case UpdateOp.REMOVE:
+                    if (op.mPositionStart <= position) {
+                        if (position < op.mPositionStart + op.mItemCount) {
+                            return NO_POSITION;
+                        }
+                        position -= op.mItemCount;
+                    }
+                    break;
+                case UpdateOp.MOVE:
+                    //移动时mItemCount为目标位置
+                    if (position == op.mPositionStart) {
+                        position = op.mItemCount;
+                    } else {
+                        if (op.mPositionStart < position) {
+                            position--;
+                        }
+                        if (op.mItemCount <= position) {
+                            position++;
+                        }
+                    }
+                    break;
+                default:
+                    break;
+            }
+        }
+        return position;
+    }
+
+    @Override
+    protected void onAttachedToWindow() {
+        super.onAttachedToWindow();
+        //离开窗口期间取消的帧回调，重新安排
+        if (hasPendingUpdates()) {
+            scheduleUpdateFrame();
+        }
+        if (mIncrementalPopulating) {
+            Choreographer.getInstance().postFrameCallback(mPopulateFrameCallback);
+        }
+        scheduleIdlePrefetch();
+        if (mVirtualizationEnabled) {
+            registerScrollListener();
+        }
+    }
+
+    @Override
+    protected void onDetachedFromWindow() {
+        super.onDetachedFromWindow();
+        cancelIdlePrefetch();
+        unregisterScrollListener();
+        removeCallbacks(mUpdateWindowRunnable);
+        //不在窗口上时不再处理通知、分帧填充，避免帧回调持有已经离开的ListLayout，重新添加到窗口时继续
+        cancelUpdateFrame();
+        if (mIncrementalPopulating) {
+            Choreographer.getInstance().removeFrameCallback(mPopulateFrameCallback);
+        }
+    }
+
+    @Override
+    protected void onMeasure(int widthMeasureSpec, int heightMeasureSpec) {
+        final int horizontalPadding = getPaddingLeft() + getPaddingRight();
+        final int verticalPadding = getPaddingTop() + getPaddingBottom();
+        //宽高约束或内边距变了，子View的测量约束也会变，需要全部重新测量
+        final boolean remeasureAll = !mHasMeasured
+                || widthMeasureSpec != mLastWidthMeasureSpec
+                || heightMeasureSpec != mLastHeightMeasureSpec
+                || horizontalPadding != mLastHorizontalPadding
+                || verticalPadding != mLastVerticalPadding;
+        if (horizontalPadding != mLastHorizontalPadding) {
+            //子View可用的宽度变了，缓存的高度都不能用了
+            mMeasureCache.invalidateAll();
+        }
+        mHasMeasured = true;
+        mLastWidthMeasureSpec = widthMeasureSpec;
+        mLastHeightMeasureSpec = heightMeasureSpec;
+        mLastHorizontalPadding = horizontalPadding;
+        mLastVerticalPadding = verticalPadding;
+        if (mSpanCount > 1) {
+            measureGrid(widthMeasureSpec, heightMeasureSpec, remeasureAll);
+            return;
+        }
+
+        final int childCount = getChildCount();
+        ensureChildTopsCapacity(childCount);
+        //从第一个高度或位置变了的子View开始，重新计算顶部位置
+        int topsDirtyFrom = Math.min(childCount, mMeasuredChildCount);
+        mMeasuredChildCount = childCount;
+        int maxWidth = 0;
+        int childState = 0;
+        boolean hasMatchParentWidth = false;
+        for (int i = 0; i < childCount; i++) {
+            final View child = getChildAt(i);
+            final LayoutParams lp = (LayoutParams) child.getLayoutParams();
+            int extent = LayoutParams.NO_EXTENT;
+            if (child.getVisibility() != GONE) {
+                //只有请求了重新布局的、还没测量过的子View才需要重新测量
+                if (remeasureAll || lp.mExtent == LayoutParams.NO_EXTENT || child.isLayoutRequested()) {
+                    measureItem(child, lp, widthMeasureSpec, heightMeasureSpec);
+                }
+                extent = child.getMeasuredHeight() + lp.topMargin + lp.bottomMargin;
+                maxWidth = Math.max(maxWidth, child.getMeasuredWidth() + lp.leftMargin + lp.rightMargin);
+                childState = combineMeasuredStates(childState, child.getMeasuredState());
+                hasMatchParentWidth |= lp.width == LayoutParams.MATCH_PARENT;
+            }
+            if (extent != lp.mExtent || lp.mIndex != i) {
+                lp.mExtent = extent;
+                lp.mIndex = i;
+                topsDirtyFrom = Math.min(topsDirtyFrom, i);
+            }
+        }
+        final int widthSizeAndState = resolveSizeAndState(
+                Math.max(maxWidth + horizontalPadding, getSuggestedMinimumWidth()), widthMeasureSpec, childState);
+        //宽度不是确定的值时，match_parent的子View需要按最终的宽度再测量一次，和LinearLayout一致
+        if (hasMatchParentWidth && MeasureSpec.getMode(widthMeasureSpec) != MeasureSpec.EXACTLY) {
+            final int uniformWidthSpec = MeasureSpec.makeMeasureSpec(
+                    widthSizeAndState & MEASURED_SIZE_MASK, MeasureSpec.EXACTLY);
+            for (int i = 0; i < childCount; i++) {
+                final View child = getChildAt(i);
+                final LayoutParams lp = (LayoutParams) child.getLayoutParams();
+                if (child.getVisibility() == GONE || lp.width != LayoutParams.MATCH_PARENT) {
+                    continue;
+                }
+                final int width = (uniformWidthSpec & MEASURED_SIZE_MASK) - horizontalPadding
+                        - lp.leftMargin - lp.rightMargin;
+                if (child.getMeasuredWidth() != width) {
+                    measureItem(child, lp, uniformWidthSpec, heightMeasureSpec);
+                    int extent = child.getMeasuredHeight() + lp.topMargin + lp.bottomMargin;
+                    if (extent != lp.mExtent) {
+                        lp.mExtent = extent;
+                        topsDirtyFrom = Math.min(topsDirtyFrom, i);
+                    }
+                }
+            }
+        }
+        for (int i = topsDirtyFrom; i < childCount; i++) {
+            final LayoutParams lp = (LayoutParams) getChildAt(i).getLayoutParams();
+            mChildTops[i + 1] = mChildTops[i] + (lp.mExtent == LayoutParams.NO_EXTENT ? 0 : lp.mExtent);
+        }
+        if (isVirtualizing()) {
+            //子View都测量过了，记录窗口内条目的真实高度
+            recordItemHeights();
+        }
+        setMeasuredDimensionWithSpace(widthSizeAndState, mChildTops[childCount] + verticalPadding,
+                heightMeasureSpec, childState);
+    }
+
+    /**
+     * 网格模式的测量，子View按所在的行排列，mChildTops[i]为第i个子View所在行的顶部位置
+     * 每个子View按占用的列宽测量，一行都测量完后，行高为其中最大的高度，高度为match_parent的子View再按行高精确测量
+     * 还没处理的通知留给下一帧开始时处理，测量时不改动子View，行的划分按换算后的条目位置查询
+     */
+    private void measureGrid(int widthMeasureSpec, int heightMeasureSpec, boolean remeasureAll) {
+        final int horizontalPadding = getPaddingLeft() + getPaddingRight();
+        final int childCount = getChildCount();
+        ensureChildTopsCapacity(childCount);
+        //切回列表模式时，所有子View的顶部位置都需要重新计算
+        mMeasuredChildCount = 0;
+        final int contentWidth = MeasureSpec.getMode(widthMeasureSpec) == MeasureSpec.UNSPECIFIED
+                ? 0 : Math.max(0, MeasureSpec.getSize(widthMeasureSpec) - horizontalPadding);
+        calculateSpanBorders(contentWidth);
+        //match_parent的子View先按自适应的高度测量，拉伸到行高之前不能受ListLayout高度的限制
+        final int unspecifiedSpec = MeasureSpec.makeMeasureSpec(0, MeasureSpec.UNSPECIFIED);
+        final boolean virtualizing = isVirtualizing();
+        int childState = 0;
+        int rowTop = 0;
+        int rowStart = 0;
+        while (rowStart < childCount) {
+            int rowGroup = NO_POSITION;
+            int rowSpanEnd = 0;
+            int rowExtent = 0;
+            int rowEnd = rowStart;
+            for (; rowEnd < childCount; rowEnd++) {
+                final View child = getChildAt(rowEnd);
+                final LayoutParams lp = (LayoutParams) child.getLayoutParams();
+                //有还没处理的通知时，子View的顺序还是上一次的，按通知换算出当前数据中的位置再查询
+                final int position = lp.mViewHolder != null ? lp.mViewHolder.getAdapterPosition() : rowEnd;
+                final int group;
+                final int spanIndex;
+                final int spanSize;
+                if (position == NO_POSITION) {
+                    //条目已经被移除，或者等待重新填充，沿用上一次的列，下一帧处理通知后会重新测量
+                    group = NO_POSITION;
+                    spanSize = Math.min(lp.mSpanSize, mSpanCount);
+                    spanIndex = Math.min(lp.mSpanIndex, mSpanCount - spanSize);
+                } else {
+                    group = mSpanSizeLookup.getSpanGroupIndex(position, mSpanCount);
+                    spanIndex = mSpanSizeLookup.getSpanIndex(position, mSpanCount);
+                    spanSize = mSpanSizeLookup.getCachedSpanSize(position);
+                }
+                //换算后的位置可能不连续，列和前面的子View重叠时也换行
+                if (rowEnd > rowStart && (spanIndex < rowSpanEnd
+                        || group != NO_POSITION && rowGroup != NO_POSITION && group != rowGroup)) {
+                    break;
+                }
+                if (group != NO_POSITION) {
+                    rowGroup = group;
+                }
+                rowSpanEnd = spanIndex + spanSize;
+                lp.mSpanIndex = spanIndex;
+                lp.mSpanSize = spanSize;
+                lp.mIndex = rowEnd;
+                mChildTops[rowEnd] = rowTop;
+                if (child.getVisibility() == GONE) {
+                    lp.mExtent = LayoutParams.NO_EXTENT;
+                    continue;
+                }
+                final int cellWidth = mSpanBorders[lp.mSpanIndex + lp.mSpanSize] - mSpanBorders[lp.mSpanIndex];
+                //列宽变了的子View也需要重新测量，例如前面有条目增删，换到了不同宽度的列
+                if (remeasureAll || lp.mExtent == LayoutParams.NO_EXTENT || child.isLayoutRequested()
+                        || lp.mCellWidth != cellWidth) {
+                    //宽度约束加上内边距，measureItem()中会减掉
+                    measureItem(child, lp,
+                            MeasureSpec.makeMeasureSpec(cellWidth + horizontalPadding, MeasureSpec.EXACTLY),
+                            lp.height == LayoutParams.MATCH_PARENT ? unspecifiedSpec : heightMeasureSpec);
+                    //记录的是拉伸前的高度，行里其它条目变矮时，行高可以跟着变小
+                    lp.mExtent = child.getMeasuredHeight() + lp.topMargin + lp.bottomMargin;
+                    lp.mCellWidth = cellWidth;
+                }
+                rowExtent = Math.max(rowExtent, lp.mExtent);
+                childState = combineMeasuredStates(childState, child.getMeasuredState());
+            }
+            for (int i = rowStart; i < rowEnd; i++) {
+                final View child = getChildAt(i);
+                final LayoutParams lp = (LayoutParams) child.getLayoutParams();
+                if (virtualizing && lp.mViewHolder != null) {
+                    //行高记在这一行的第一个条目上，其它条目为0，按位置求和时得到的就是行高之和
+                    mItemHeights.set(lp.mViewHolder.getLayoutPosition(), i == rowStart ? rowExtent : 0);
+                }
+                if (child.getVisibility() == GONE || lp.height != LayoutParams.MATCH_PARENT) {
+                    continue;
+                }
+                final int height = Math.max(0, rowExtent - lp.topMargin - lp.bottomMargin);
+                if (child.getMeasuredHeight() != height) {
+                    child.measure(MeasureSpec.makeMeasureSpec(child.getMeasuredWidth(), MeasureSpec.EXACTLY),
+                            MeasureSpec.makeMeasureSpec(height, MeasureSpec.EXACTLY));
+                }
+            }
+            rowTop += rowExtent;
+            rowStart = rowEnd;
+        }
+        mChildTops[childCount] = rowTop;
+        final int widthSizeAndState = resolveSizeAndState(
+                Math.max(contentWidth + horizontalPadding, getSuggestedMinimumWidth()), widthMeasureSpec, childState);
+        setMeasuredDimensionWithSpace(widthSizeAndState, rowTop + getPaddingTop() + getPaddingBottom(),
+                heightMeasureSpec, childState);
+    }
+
+    private void ensureChildTopsCapacity(int childCount) {
+        if (mChildTops.length < childCount + 1) {
+            mChildTops = Arrays.copyOf(mChildTops, Math.max(childCount + 1, mChildTops.length * 2));
+        }
+    }
+
+    /**
+     * 按内容宽度计算每一列的左边界，除不尽的部分分摊到前面的列，和GridLayoutManager一致
+     */
+    private void calculateSpanBorders(int contentWidth) {
+        if (mSpanBorders.length != mSpanCount + 1) {
+            mSpanBorders = new int[mSpanCount + 1];
+        }
+        final int sizePerSpan = contentWidth / mSpanCount;
+        final int sizePerSpanRemainder = contentWidth % mSpanCount;
+        int consumedPixels = 0;
+        int additionalSize = 0;
+        for (int i = 1; i <= mSpanCount; i++) {
+            int itemSize = sizePerSpan;
+            additionalSize += sizePerSpanRemainder;
+            if (additionalSize > 0 && (mSpanCount - additionalSize) < sizePerSpanRemainder) {
+                itemSize += 1;
+                additionalSize -= mSpanCount;
+            }
+            consumedPixels += itemSize;
+            mSpanBorders[i] = consumedPixels;
+        }
+    }
+
+    /**
+     * 设置测量结果，虚拟化时加上窗口外的条目的占位高度，保证总高度和全部创建时一致
+     *
+     * @param contentHeight 子View的高度加上下内边距
+     */
+    private void setMeasuredDimensionWithSpace(int widthSizeAndState, int contentHeight,
+                                               int heightMeasureSpec, int childState) {
+        int height = contentHeight;
+        if (isVirtualizing()) {
+            mSpaceAbove = mItemHeights.sum(0, mFirstPosition);
+            mSpaceBelow = mItemHeights.sum(mFirstPosition + mAttachedHolders.size(), mItemHeights.size());
+            height += mSpaceAbove + mSpaceBelow;
+        } else {
+            mSpaceAbove = 0;
+            mSpaceBelow = 0;
+        }
+        setMeasuredDimension(widthSizeAndState, resolveSizeAndState(
+                Math.max(height, getSuggestedMinimumHeight()), heightMeasureSpec,
+                childState << MEASURED_HEIGHT_STATE_SHIFT));
+    }
+
+    /**
+     * 测量一个条目，宽度按布局参数，高度有固定的条目高度时使用固定高度，测量缓存命中时使用缓存的高度，否则按布局参数
+     * 缓存命中并且子View上一次就是按同一个条目、同样的约束测量的，不再测量，保留上一次测量的尺寸
+     */
+    private void measureItem(View child, LayoutParams lp, int widthMeasureSpec, int heightMeasureSpec) {
+        final int childWidthMeasureSpec = getChildMeasureSpec(widthMeasureSpec,
+                getPaddingLeft() + getPaddingRight() + lp.leftMargin + lp.rightMargin, lp.width);
+        final ViewHolder holder = lp.mViewHolder;
+        if (mFixedItemHeight > 0) {
+            child.measure(childWidthMeasureSpec, MeasureSpec.makeMeasureSpec(mFixedItemHeight, MeasureSpec.EXACTLY));
+            clearMeasuredItem(holder);
+            return;
+        }
+        final int childHeightMeasureSpec = getChildMeasureSpec(heightMeasureSpec,
+                getPaddingTop() + getPaddingBottom() + lp.topMargin + lp.bottomMargin, lp.height);
+        //只有自适应高度、有条目Id的条目才使用测量缓存
+        if (!mMeasureCache.isEnabled() || holder == null || holder.getItemId() == NO_ID
+                || MeasureSpec.getMode(childHeightMeasureSpec) == MeasureSpec.EXACTLY) {
+            child.measure(childWidthMeasureSpec, childHeightMeasureSpec);
+            clearMeasuredItem(holder);
+            return;
+        }
+        final long itemId = holder.getItemId();
+        //没有重新渲染、子View自己请求了重新布局时，内容可能已经变了，不使用缓存
+        if (!holder.mBoundSinceLayout && child.isLayoutRequested()) {
+            child.measure(childWidthMeasureSpec, childHeightMeasureSpec);
+            mMeasureCache.put(itemId, holder.getItemViewType(), widthMeasureSpec, child.getMeasuredHeight());
+            setMeasuredItem(holder, childWidthMeasureSpec, childHeightMeasureSpec);
+            return;
+        }
+        final int cachedHeight = mMeasureCache.get(itemId, holder.getItemViewType(), widthMeasureSpec);
+        if (cachedHeight == MeasureCache.MISS) {
+            child.measure(childWidthMeasureSpec, childHeightMeasureSpec);
+            mMeasureCache.put(itemId, holder.getItemViewType(), widthMeasureSpec, child.getMeasuredHeight());
+            setMeasuredItem(holder, childWidthMeasureSpec, childHeightMeasureSpec);
+            return;
+        }
+        //子View上一次就是按同一个条目、同样的约束测量的，内容没变，测量出的尺寸仍然有效
+        if (holder.mMeasuredItemId == itemId && holder.mMeasuredWidthSpec == childWidthMeasureSpec
+                && holder.mMeasuredHeightSpec == childHeightMeasureSpec && child.getMeasuredHeight() == cachedHeight) {
+            return;
+        }
+        //子View上一次测量的是别的条目，按缓存的高度精确测量
+        child.measure(childWidthMeasureSpec, MeasureSpec.makeMeasureSpec(cachedHeight, MeasureSpec.EXACTLY));
+        setMeasuredItem(holder, childWidthMeasureSpec, childHeightMeasureSpec);
+    }
+
+    /**
+     * 记录子View最后一次测量时对应的条目和测量约束
+     */
+    private static void setMeasuredItem(ViewHolder holder, int childWidthMeasureSpec, int childHeightMeasureSpec) {
+        holder.mMeasuredItemId = holder.getItemId();
+        holder.mMeasuredWidthSpec = childWidthMeasureSpec;
+        holder.mMeasuredHeightSpec = childHeightMeasureSpec;
+    }
+
+    /**
+     * 不经过测量缓存测量后，子View的尺寸不再和缓存对应
+     */
+    private static void clearMeasuredItem(ViewHolder holder) {
+        if (holder != null) {
+            holder.mMeasuredItemId = NO_ID;
+        }
+    }
+
+    @Override
+    protected void onLayout(boolean changed, int l, int t, int r, int b) {
+        final int paddingLeft = getPaddingLeft();
+        final int childSpace = r - l - paddingLeft - getPaddingRight();
+        //窗口前面的条目的占位高度，没有开启虚拟化时为0
+        final int contentTop = getPaddingTop() + mSpaceAbove;
+        final int childCount = getChildCount();
+        for (int i = 0; i < childCount; i++) {
+            final View child = getChildAt(i);
+            if (child.getVisibility() == GONE) {
+                continue;
+            }
+            final LayoutParams lp = (LayoutParams) child.getLayoutParams();
+            if (lp.mViewHolder != null) {
+                //布局之后子View再请求重新布局，是自己的内容变了
+                lp.mViewHolder.mBoundSinceLayout = false;
+            }
+            final int width = child.getMeasuredWidth();
+            final int height = child.getMeasuredHeight();
+            final int childLeft = mSpanCount > 1
+                    //网格模式下在所在的列中对齐
+                    ? getChildLeft(lp, width, paddingLeft + mSpanBorders[lp.mSpanIndex],
+                    mSpanBorders[lp.mSpanIndex + lp.mSpanSize] - mSpanBorders[lp.mSpanIndex])
+                    : getChildLeft(lp, width, paddingLeft, childSpace);
+            final int childTop = contentTop + mChildTops[i] + lp.topMargin;
+            if (!child.isLayoutRequested() && child.getLeft() == childLeft
+                    && child.getWidth() == width && child.getHeight() == height) {
+                //大小没变，只是前面的子View高度变了，平移即可，不需要重新布局
+                if (child.getTop() != childTop) {
+                    child.offsetTopAndBottom(childTop - child.getTop());
+                }
+            } else {
+                child.layout(childLeft, childTop, childLeft + width, childTop + height);
+            }
+        }
+        if (isVirtualizing()) {
+            //条目高度、可见区域可能变了，布局过程中不能增删子View，布局完再检查窗口
+            removeCallbacks(mUpdateWindowRunnable);
+            post(mUpdateWindowRunnable);
+        }
+    }
+
+    /**
+     * 按子View的layout_gravity，计算水平方向的位置
+     */
+    private int getChildLeft(LayoutParams lp, int width, int paddingLeft, int childSpace) {
+        final int gravity = lp.gravity < 0 ? Gravity.START : lp.gravity;
+        switch (Gravity.getAbsoluteGravity(gravity, getLayoutDirection()) & Gravity.HORIZONTAL_GRAVITY_MASK) {
+            case Gravity.CENTER_HORIZONTAL:
+                return paddingLeft + (childSpace - width) / 2 + lp.leftMargin - lp.rightMargin;
+            case Gravity.RIGHT:
+                return paddingLeft + childSpace - width - lp.rightMargin;
+            default:
+                return paddingLeft + lp.leftMargin;
+        }
+    }
+
+    @Override
+    protected boolean checkLayoutParams(ViewGroup.LayoutParams p) {
+        return p instanceof LayoutParams;
+    }
+
+    @Override
+    protected LayoutParams generateDefaultLayoutParams() {
+        return new LayoutParams(LayoutParams.MATCH_PARENT, LayoutParams.WRAP_CONTENT);
+    }
+
+    @Override
+    public LayoutParams generateLayoutParams(AttributeSet attrs) {
+        return new LayoutParams(getContext(), attrs);
+    }
+
+    @Override
+    protected LayoutParams generateLayoutParams(ViewGroup.LayoutParams p) {
+        if (p instanceof LayoutParams) {
+            return new LayoutParams((LayoutParams) p);
+        } else if (p instanceof MarginLayoutParams) {
+            return new LayoutParams((MarginLayoutParams) p);
+        }
+        return new LayoutParams(p);
+    }
+
+    @Override
+    public boolean shouldDelayChildPressedState() {
+        return false;
+    }
+
+    /**
+     * 列数或每个条目占用的列数变了，行的划分都变了，所有子View按新的列宽重新测量，记录的高度也都不能用了
+     */
+    private void onSpanLayoutChanged() {
+        mSpanSizeLookup.invalidateSpanIndexCache();
+        mItemHeights.invalidate(0, mItemHeights.size());
+        mHasMeasured = false;
+        requestLayout();
+    }
+
+    /**
+     * 是否正在虚拟化
+     */
+    private boolean isVirtualizing() {
+        return mVirtualizationEnabled && mAdapter != null;
+    }
+
+    /**
+     * 注册外层滚动的监听
+     */
+    private void registerScrollListener() {
+        if (mScrollObserver != null || !isAttachedToWindow()) {
+            return;
+        }
+        mScrollObserver = getViewTreeObserver();
+        mScrollObserver.addOnScrollChangedListener(mScrollChangedListener);
+    }
+
+    /**
+     * 取消外层滚动的监听
+     */
+    private void unregisterScrollListener() {
+        if (mScrollObserver == null) {
+            return;
+        }
+        if (mScrollObserver.isAlive()) {
+            mScrollObserver.removeOnScrollChangedListener(mScrollChangedListener);
+        }
+        mScrollObserver = null;
+    }
+
+    /**
+     * 记录窗口内条目测量后的高度，包括上下外边距，隐藏的条目高度为0
+     */
+    private void recordItemHeights() {
+        final int size = mAttachedHolders.size();
+        for (int slot = 0; slot < size; slot++) {
+            ViewHolder holder = mAttachedHolders.get(slot);
+            if (holder == null) {
+                continue;
+            }
+            LayoutParams lp = (LayoutParams) holder.itemView.getLayoutParams();
+            mItemHeights.set(mFirstPosition + slot, lp.mExtent == LayoutParams.NO_EXTENT ? 0 : lp.mExtent);
+        }
+    }
+
+    /**
+     * 计算需要创建子View的条目范围，结果放到outRange中，[0]为第一个条目位置，[1]为最后一个条目位置+1
+     * 没有开启虚拟化时为全部条目；开启时为和可见区域以及上下预留范围相交的条目
+     */
+    private void computeWindow(int[] outRange) {
+        final int itemCount = mAdapter.getItemCount();
+        if (!mVirtualizationEnabled) {
+            outRange[0] = 0;
+            outRange[1] = itemCount;
+            return;
+        }
+        int visibleTop;
+        int visibleBottom;
+        if (getLocalVisibleRect(mVisibleRect)) {
+            visibleTop = mVisibleRect.top;
+            visibleBottom = mVisibleRect.bottom;
+        } else if (getHeight() > 0) {
+            //已经布局过，但整个被滚出了屏幕，保持当前的窗口
+            outRange[0] = Math.min(mFirstPosition, itemCount);
+            outRange[1] = Math.min(mFirstPosition + mAttachedHolders.size(), itemCount);
+            return;
+        } else {
+            //还没有布局过，按一屏的高度计算
+            visibleTop = 0;
+            visibleBottom = getResources().getDisplayMetrics().heightPixels;
+        }
+        int extraSpace = mVirtualizationExtraSpace >= 0 ? mVirtualizationExtraSpace : visibleBottom - visibleTop;
+        int top = visibleTop - extraSpace;
+        int bottom = visibleBottom + extraSpace;
+        //第一个底部在范围内的条目，即底部不超过top的条目数量
+        final int paddingTop = getPaddingTop();
+        int first = top < paddingTop ? 0 : Math.min(mItemHeights.findPosition(top - paddingTop), itemCount);
+        //第一个顶部超出范围的条目，即顶部在bottom之前的条目数量
+        int last = bottom <= paddingTop ? 0 : Math.min(mItemHeights.findPosition(bottom - paddingTop - 1) + 1, itemCount);
+        last = Math.max(first, last);
+        //至少保留一个条目，避免预估高度不准时窗口为空
+        if (first == last && itemCount > 0) {
+            first = Math.min(first, itemCount - 1);
+            last = first + 1;
+        }
+        if (mSpanCount > 1 && first < last) {
+            //网格模式下按整行扩展，行的第一个条目记录着行高，窗口从行首开始时，前面的占位高度才是完整的行高之和
+            while (first > 0 && mSpanSizeLookup.getSpanIndex(first, mSpanCount) > 0) {
+                first--;
+            }
+            while (last < itemCount && mSpanSizeLookup.getSpanIndex(last, mSpanCount) > 0) {
+                last++;
+            }
+        }
+        outRange[0] = first;
+        outRange[1] = last;
+    }
+
+    /**
+     * 虚拟化时，按当前可见区域更新窗口，移出窗口的条目放入回收池，进入窗口的条目创建并渲染
+     */
+    private void updateWindow() {
+        //有还没处理的通知时，窗口和数据对不上，处理通知时会再更新窗口
+        if (!isVirtualizing() || mPendingSlotCount != 0 || hasPendingUpdates()) {
+            return;
+        }
+        computeWindow(mTmpRange);
+        final int first = mTmpRange[0];
+        final int last = mTmpRange[1];
+        final int oldFirst = mFirstPosition;
+        final int oldLast = oldFirst + mAttachedHolders.size();
+        if (first == oldFirst && last == oldLast) {
+            return;
+        }
+        //移除窗口外的条目，ViewHolder先放到暂存区，新进入窗口的条目优先复用
+        for (int slot = mAttachedHolders.size() - 1; slot >= 0; slot--) {
+            int position = oldFirst + slot;
+            if (position < first || position >= last) {
+                removeViewAt(slot);
+                addToScrap(mAttachedHolders.remove(slot));
+            }
+        }
+        //保留下来的条目范围，和新窗口没有交集时全部重新创建
+        int keptFirst = Math.max(oldFirst, first);
+        int keptLast = Math.min(oldLast, last);
+        if (keptFirst >= keptLast) {
+            keptFirst = first;
+            keptLast = first;
+        }
+        //新进入窗口的条目先占位，再统一创建
+        mFirstPosition = first;
+        for (int position = first; position < keptFirst; position++) {
+            mAttachedHolders.add(position - first, null);
+        }
+        for (int position = keptLast; position < last; position++) {
+            mAttachedHolders.add(null);
+        }
+        mPendingSlotCount += (keptFirst - first) + (last - keptLast);
+        fillPendingHolders();
+        //没有用上的ViewHolder，放到回收池
+        recycleScrapHolders();
+    }
+
+    /**
+     * 添加空闲回调，开始预创建
+     */
+    private void scheduleIdlePrefetch() {
+        if (!mIdlePrefetchEnabled || mIdlePrefetchScheduled || mAdapter == null
+                || !isAttachedToWindow() || mViewTypeHistogram.size() == 0) {
+            return;
+        }
+        mIdlePrefetchScheduled = true;
+        Looper.myQueue().addIdleHandler(mIdlePrefetcher);
+    }
+
+    /**
+     * 移除空闲回调
+     */
+    private void cancelIdlePrefetch() {
+        if (mIdlePrefetchScheduled) {
+            mIdlePrefetchScheduled = false;
+            Looper.myQueue().removeIdleHandler(mIdlePrefetcher);
+        }
+    }
+
+    /**
+     * 找出回收池中缓存数量离目标最远的类型，预创建一个ViewHolder
+     *
+     * @return 是否还需要继续预创建
+     */
+    private boolean prefetchOnIdle() {
+        if (!mIdlePrefetchEnabled || mAdapter == null) {
+            return false;
+        }
+        int itemViewType = findTypeToPrefetch();
+        if (itemViewType == INVALID_TYPE) {
+            return false;
+        }
+        int recycleKey = mRecycledViewPool.getViewType(mAdapter, itemViewType);
+        int before = mRecycledViewPool.getRecycledViewCount(recycleKey);
+        ViewHolder holder = createViewHolder(itemViewType);
+        holder.setItemViewType(itemViewType);
+        holder.mRecycleKey = recycleKey;
+        mRecycledViewPool.putRecycledView(holder);
+        //回收池放不下了，不再继续
+        return mRecycledViewPool.getRecycledViewCount(recycleKey) > before;
+    }
+
+    /**
+     * 按出现频率分配预创建数量，返回出现最多、并且回收池中还没达到分配数量的类型，没有则返回INVALID_TYPE
+     */
+    private int findTypeToPrefetch() {
+        int total = 0;
+        for (int i = 0; i < mViewTypeHistogram.size(); i++) {
+            total += mViewTypeHistogram.valueAt(i);
+        }
+        if (total == 0) {
+            return INVALID_TYPE;
+        }
+        int bestType = INVALID_TYPE;
+        int bestCount = 0;
+        for (int i = 0; i < mViewTypeHistogram.size(); i++) {
+            int itemViewType = mViewTypeHistogram.keyAt(i);
+            int count = mViewTypeHistogram.valueAt(i);
+            int viewType = mRecycledViewPool.getViewType(mAdapter, itemViewType);
+            //回收池放不下的不创建，避免创建出来就被丢弃
+            int target = Math.min(Math.min(mIdlePrefetchMaxPerType, mRecycledViewPool.getMaxRecycledViews(viewType)),
+                    (int) Math.ceil((double) mIdlePrefetchBudget * count / total));
+            int cached = mRecycledViewPool.getRecycledViewCount(viewType);
+            if (cached < target && count > bestCount) {
+                bestType = itemViewType;
+                bestCount = count;
+            }
+        }
+        return bestType;
+    }
+
+    /**
+     * 按数据填充视图
+     */
+    private void populate() {
+        if (mMetrics == null) {
+            mPopulateStartNanos = 0;
+            populateInternal();
+            return;
+        }
+        Trace.beginSection(TRACE_POPULATE);
+        try {
+            mPopulateStartNanos = System.nanoTime();
+            populateInternal();
+        } finally {
+            Trace.endSection();
+        }
+    }
+
+    private void populateInternal() {
+        //按当前的数据重新填充，还没处理的通知都不需要了
+        discardPendingUpdates();
+        //上一次的分帧填充还没完成，直接按新数据重新填充
+        cancelIncrementalPopulate();
+        //有稳定Id时，按Id匹配复用原来的ViewHolder
+        if (mAdapter != null && mAdapter.hasStableIds()) {
+            populateWithStableIds();
+            return;
+        }
+        //分帧填充时，从可见区域的第一个条目开始填充，需要在拆下子View之前找到它
+        final int anchorPosition = mIncrementalPopulateEnabled ? findAnchorPosition() : 0;
+        //把之前的子View拆下来，ViewHolder放到暂存区，等待复用
+        scrapAttachedHolders();
+        if (mAdapter == null) {
+            mFirstPosition = 0;
+            mItemHeights.reset(0);
+            recycleScrapHolders();
+            dispatchPopulateComplete();
+            return;
+        }
+        //计算需要创建子View的条目范围，没有开启虚拟化时为全部条目
+        mItemHeights.reset(mVirtualizationEnabled ? mAdapter.getItemCount() : 0);
+        computeWindow(mTmpRange);
+        final int first = mTmpRange[0];
+        final int last = mTmpRange[1];
+        mFirstPosition = first;
+        if (mIncrementalPopulateEnabled && last > first) {
+            //先全部占位，再从锚点开始分帧填充，第一部分马上填充
+            for (int position = first; position < last; position++) {
+                mAttachedHolders.add(null);
+            }
+            mPendingSlotCount = last - first;
+            mPopulatedStart = Math.max(first, Math.min(anchorPosition, last - 1)) - first;
+            mPopulatedEnd = mPopulatedStart;
+            mIncrementalPopulating = true;
+            populateNextChunk(mPopulateFrameBudgetNanos);
+            return;
+        }
+        //开始填充子View
+        for (int position = first; position < last; position++) {
+            mAttachedHolders.add(createAndAddViewHolder(position, position - first));
+        }
+        //本次没有用上的ViewHolder，放到回收池
+        recycleScrapHolders();
+        scheduleIdlePrefetch();
+        dispatchPopulateComplete();
+    }
+
+    /**
+     * 分帧填充，在时间预算内从锚点开始向下填充，下面填充完了再向上填充，至少填充一个条目，没填充完时在下一帧继续
+     */
+    private void populateNextChunk(long budgetNanos) {
+        if (!mIncrementalPopulating) {
+            return;
+        }
+        if (hasPendingUpdates()) {
+            //剩下的占位对应的位置可能已经变了，先处理通知，再用新数据填充
+            flushPendingUpdates();
+            return;
+        }
+        if (mMetrics == null) {
+            populateNextChunkInternal(budgetNanos);
+            return;
+        }
+        Trace.beginSection(TRACE_POPULATE_CHUNK);
+        try {
+            populateNextChunkInternal(budgetNanos);
+        } finally {
+            Trace.endSection();
+        }
+    }
+
+    private void populateNextChunkInternal(long budgetNanos) {
+        final long startNanos = System.nanoTime();
+        final int size = mAttachedHolders.size();
+        do {
+            //已经填充的条目是连续的，对应的子View下标可以直接算出来
+            int slot;
+            int childIndex;
+            if (mPopulatedEnd < size) {
+                slot = mPopulatedEnd++;
+                childIndex = slot - mPopulatedStart;
+            } else {
+                slot = --mPopulatedStart;
+                childIndex = 0;
+            }
+            mAttachedHolders.set(slot, createAndAddViewHolder(mFirstPosition + slot, childIndex));
+            mPendingSlotCount--;
+        } while (mPendingSlotCount > 0 && System.nanoTime() - startNanos < budgetNanos);
+        if (mPendingSlotCount > 0) {
+            if (mOnPopulateListener != null) {
+                mOnPopulateListener.onPopulateProgress(size - mPendingSlotCount, size);
+            }
+            if (isAttachedToWindow()) {
+                Choreographer.getInstance().postFrameCallback(mPopulateFrameCallback);
+            }
+            return;
+        }
+        onIncrementalPopulateFinished();
+    }
+
+    /**
+     * 正在分帧填充时，同步填充完剩下的占位
+     * 收到局部刷新通知时，数据已经变了，需要先把局部刷新应用到占位上，再调用该方法用新数据填充
+     */
+    private void completeIncrementalPopulate() {
+        if (mIncrementalPopulating) {
+            Choreographer.getInstance().removeFrameCallback(mPopulateFrameCallback);
+            fillPendingHolders();
+            onIncrementalPopulateFinished();
+        }
+    }
+
+    /**
+     * 分帧填充完成
+     */
+    private void onIncrementalPopulateFinished() {
+        mIncrementalPopulating = false;
+        recycleScrapHolders();
+        scheduleIdlePrefetch();
+        if (mOnPopulateListener != null) {
+            final int size = mAttachedHolders.size();
+            mOnPopulateListener.onPopulateProgress(size, size);
+        }
+        dispatchPopulateComplete();
+        //填充期间没有更新窗口，按最新的可见区域更新一次
+        updateWindow();
+    }
+
+    /**
+     * 取消正在进行的分帧填充，剩下的占位留给之后的重新填充处理
+     */
+    private void cancelIncrementalPopulate() {
+        if (mIncrementalPopulating) {
+            mIncrementalPopulating = false;
+            Choreographer.getInstance().removeFrameCallback(mPopulateFrameCallback);
+        }
+    }
+
+    /**
+     * 找到可见区域的第一个条目位置，没有可见的子View时返回当前窗口的第一个条目位置
+     */
+    private int findAnchorPosition() {
+        if (getChildCount() == 0 || !getLocalVisibleRect(mVisibleRect)) {
+            return mFirstPosition;
+        }
+        final int size = mAttachedHolders.size();
+        for (int slot = 0; slot < size; slot++) {
+            ViewHolder holder = mAttachedHolders.get(slot);
+            if (holder != null && holder.itemView.getBottom() > mVisibleRect.top) {
+                return mFirstPosition + slot;
+            }
+        }
+        return mFirstPosition;
+    }
+
+    /**
+     * 回调填充完成
+     */
+    private void dispatchPopulateComplete() {
+        if (mMetrics != null && mPopulateStartNanos != 0) {
+            mMetrics.onPopulate(System.nanoTime() - mPopulateStartNanos, getChildCount(),
+                    mAdapter != null ? mAdapter.getItemCount() : 0);
+            mPopulateStartNanos = 0;
+        }
+        if (mOnPopulateListener != null) {
+            mOnPopulateListener.onPopulateComplete();
+        }
+    }
+
+    /**
+     * 有稳定Id时填充视图，条目Id和类型都没变的ViewHolder直接挪到新的位置上重新渲染，不需要移除再添加
+     */
+    private void populateWithStableIds() {
+        //按条目Id记录当前的ViewHolder，用下标遍历，避免创建迭代器
+        for (int i = 0; i < mAttachedHolders.size(); i++) {
+            ViewHolder holder = mAttachedHolders.get(i);
+            if (holder != null && holder.getItemId() != NO_ID && mHoldersById.get(holder.getItemId()) == null) {
+                mHoldersById.put(holder.getItemId(), holder);
+            }
+        }
+        //计算需要创建子View的条目范围，没有开启虚拟化时为全部条目
+        mItemHeights.reset(mVirtualizationEnabled ? mAdapter.getItemCount() : 0);
+        computeWindow(mTmpRange);
+        final int first = mTmpRange[0];
+        final int last = mTmpRange[1];
+        //按新数据的条目Id，匹配原来的ViewHolder
+        for (int position = first; position < last; position++) {
+            ViewHolder matched = null;
+            long itemId = mAdapter.getItemId(position);
+            if (itemId != NO_ID) {
+                ViewHolder holder = mHoldersById.get(itemId);
+                if (holder != null && holder.getItemViewType() == getItemViewType(position)) {
+                    mHoldersById.remove(itemId);
+                    holder.addFlags(ViewHolder.FLAG_STABLE_MATCHED);
+                    matched = holder;
+                }
+            }
+            mMatchedHolders.add(matched);
+        }
+        mHoldersById.clear();
+        //先把子View都拆下来，没匹配上的彻底移除，放到暂存区
+        detachAllViewsFromParent();
+        for (int i = 0; i < mAttachedHolders.size(); i++) {
+            ViewHolder holder = mAttachedHolders.get(i);
+            if (holder == null) {
+                continue;
+            }
+            if (holder.hasFlags(ViewHolder.FLAG_STABLE_MATCHED)) {
+                holder.mFlags &= ~ViewHolder.FLAG_STABLE_MATCHED;
+            } else {
+                removeDetachedView(holder.itemView, false);
+                addToScrap(holder);
+            }
+        }
+        mAttachedHolders.clear();
+        mPendingSlotCount = 0;
+        mFirstPosition = first;
+        //按新的顺序放回去，匹配上的重新渲染后挂回原来的View，没匹配上的复用暂存区或者新建
+        for (int position = first; position < last; position++) {
+            final int childIndex = position - first;
+            ViewHolder holder = mMatchedHolders.get(childIndex);
+            if (holder != null) {
+                mViewTypeHistogram.put(holder.getItemViewType(), mViewTypeHistogram.get(holder.getItemViewType()) + 1);
+                bindViewHolder(holder, position);
+                attachViewToParent(holder.itemView, childIndex, holder.itemView.getLayoutParams());
+            } else {
+                holder = createAndAddViewHolder(position, childIndex);
+            }
+            mAttachedHolders.add(holder);
+        }
+        mMatchedHolders.clear();
+        recycleScrapHolders();
+        requestLayout();
+        invalidate();
+        scheduleIdlePrefetch();
+        dispatchPopulateComplete();
+    }
+
+    /**
+     * 获取并渲染指定位置的ViewHolder，添加到指定的子View位置上
+     */
+    private ViewHolder createAndAddViewHolder(int position, int childIndex) {
+        int itemViewType = getItemViewType(position);
+        mViewTypeHistogram.put(itemViewType, mViewTypeHistogram.get(itemViewType) + 1);
+        //获取ViewHolder，优先复用，没有可复用的才创建
+        ViewHolder viewHolder = obtainViewHolder(itemViewType);
+        //设置Item的布局参数
+        ViewGroup.LayoutParams itemLp = viewHolder.itemView.getLayoutParams();
+        if (itemLp == null) {
+            itemLp = new ListLayout.LayoutParams(
+                    ListLayout.LayoutParams.MATCH_PARENT,
+                    ListLayout.LayoutParams.WRAP_CONTENT
+            );
+        } else if (itemLp instanceof ListLayout.LayoutParams) {
+            //复用的ViewHolder可能在其他ListLayout中按不同的约束测量过，需要重新测量
+            ((ListLayout.LayoutParams) itemLp).mExtent = ListLayout.LayoutParams.NO_EXTENT;
+        }
+        viewHolder.setItemViewType(itemViewType);
+        bindViewHolder(viewHolder, position);
+        //添加子View
+        addView(viewHolder.itemView, childIndex, itemLp);
+        ((ListLayout.LayoutParams) viewHolder.itemView.getLayoutParams()).mViewHolder = viewHolder;
+        return viewHolder;
+    }
+
+    /**
+     * 渲染ViewHolder
+     */
+    @SuppressWarnings("unchecked")
+    private void bindViewHolder(ViewHolder viewHolder, int position) {
+        //设置相关属性
+        viewHolder.setAdapter(mAdapter);
+        viewHolder.mOwner = this;
+        viewHolder.setAdapterPosition(position);
+        viewHolder.setItemId(mAdapter.getItemId(position));
+        //渲染ViewHolder，内部会渲染布局，有payload时只做局部更新
+        final ListLayoutMetrics metrics = mMetrics;
+        if (metrics == null) {
+            mAdapter.onBindViewHolder(viewHolder, position, viewHolder.getUnmodifiedPayloads());
+        } else {
+            final int itemViewType = viewHolder.getItemViewType();
+            Trace.beginSection(getTraceName(mBindTraceNames, "bind ", itemViewType));
+            try {
+                final long startNanos = System.nanoTime();
+                mAdapter.onBindViewHolder(viewHolder, position, viewHolder.getUnmodifiedPayloads());
+                metrics.onBindViewHolder(itemViewType, System.nanoTime() - startNanos);
+            } finally {
+                Trace.endSection();
+            }
+        }
+        viewHolder.clearPayload();
+        viewHolder.clearFlags();
+        viewHolder.mBoundSinceLayout = true;
+    }
+
+    /**
+     * 获取条目类型，设置了性能指标回调时统计耗时
+     */
+    private int getItemViewType(int position) {
+        final ListLayoutMetrics metrics = mMetrics;
+        if (metrics == null) {
+            return mAdapter.getItemViewType(position);
+        }
+        Trace.beginSection(TRACE_GET_ITEM_VIEW_TYPE);
+        try {
+            final long startNanos = System.nanoTime();
+            final int itemViewType = mAdapter.getItemViewType(position);
+            metrics.onGetItemViewType(itemViewType, System.nanoTime() - startNanos);
+            return itemViewType;
+        } finally {
+            Trace.endSection();
+        }
+    }
+
+    /**
+     * 创建ViewHolder，设置了性能指标回调时统计耗时
+     */
+    private ViewHolder createViewHolder(int itemViewType) {
+        final ListLayoutMetrics metrics = mMetrics;
+        if (metrics == null) {
+            return mAdapter.onCreateViewHolder(this, itemViewType);
+        }
+        Trace.beginSection(getTraceName(mCreateTraceNames, "create ", itemViewType));
+        try {
+            final long startNanos = System.nanoTime();
+            final ViewHolder holder = mAdapter.onCreateViewHolder(this, itemViewType);
+            metrics.onCreateViewHolder(itemViewType, System.nanoTime() - startNanos);
+            return holder;
+        } finally {
+            Trace.endSection();
+        }
+    }
+
+    /**
+     * 获取条目类型对应的Trace名称，第一次获取时拼接并缓存
+     */
+    private String getTraceName(SparseArray<String> cache, String prefix, int itemViewType) {
+        String name = cache.get(itemViewType);
+        if (name == null) {
+            name = prefix + mAdapter.getItemViewTypeName(itemViewType);
+            if (name.length() > MAX_TRACE_SECTION_NAME_LENGTH) {
+                name = name.substring(0, MAX_TRACE_SECTION_NAME_LENGTH);
+            }
+            cache.put(itemViewType, name);
+        }
+        return name;
+    }
+
+    /**
+     * 记录一个条目变化通知，等下一帧一起处理
+     */
+    private void addUpdateOp(int cmd, int positionStart, int itemCount, Object payload) {
+        if (mPendingDataSetChanged) {
+            //下一帧会重新填充
+            return;
+        }
+        //相邻的局部刷新合并成一个，例如循环调用notifyItemChanged()
+        final int size = mPendingUpdates.size();
+        if (cmd == UpdateOp.UPDATE && size > 0) {
+            final UpdateOp last = mPendingUpdates.get(size - 1);
+            if (last.mCmd == UpdateOp.UPDATE && last.mPayload == payload
+                    && last.mPositionStart + last.mItemCount == positionStart) {
+                last.mItemCount += itemCount;
+                return;
+            }
+        }
+        final UpdateOp op = mUpdateOpPool.isEmpty()
+                ? new UpdateOp() : mUpdateOpPool.remove(mUpdateOpPool.size() - 1);
+        op.mCmd = cmd;
+        op.mPositionStart = positionStart;
+        op.mItemCount = itemCount;
+        op.mPayload = payload;
+        mPendingUpdates.add(op);
+        scheduleUpdateFrame();
+    }
+
+    /**
+     * 安排下一帧处理通知
+     */
+    private void scheduleUpdateFrame() {
+        //不在窗口上时等添加到窗口时再安排
+        if (!mUpdateFrameScheduled && isAttachedToWindow()) {
+            mUpdateFrameScheduled = true;
+            Choreographer.getInstance().postFrameCallback(mUpdateFrameCallback);
+        }
+    }
+
+    private void cancelUpdateFrame() {
+        if (mUpdateFrameScheduled) {
+            mUpdateFrameScheduled = false;
+            Choreographer.getInstance().removeFrameCallback(mUpdateFrameCallback);
+        }
+    }
+
+    /**
+     * 丢弃还没处理的通知
+     */
+    private void discardPendingUpdates() {
+        mPendingDataSetChanged = false;
+        recycleUpdateOps();
+        cancelUpdateFrame();
+    }
+
+    /**
+     * 处理完的UpdateOp放回复用池
+     */
+    private void recycleUpdateOps() {
+        for (int i = mPendingUpdates.size() - 1; i >= 0; i--) {
+            final UpdateOp op = mPendingUpdates.remove(i);
+            op.mPayload = null;
+            mUpdateOpPool.add(op);
+        }
+    }
+
+    /**
+     * 有条目插入，先占位，等待fillPendingHolders()时再创建
+     */
+    private void applyInsert(int positionStart, int itemCount) {
+        if (mVirtualizationEnabled) {
+            mItemHeights.insert(positionStart, itemCount);
+        }
+        insertIntoWindow(positionStart, itemCount);
+    }
+
+    /**
+     * 有条目移除，移除对应的子View，ViewHolder放入回收池
+     */
+    private void applyRemove(int positionStart, int itemCount) {
+        if (mVirtualizationEnabled) {
+            mItemHeights.remove(positionStart, itemCount);
+        }
+        removeFromWindow(positionStart, itemCount);
+    }
+
+    /**
+     * 有条目更新，标记对应的ViewHolder需要重新渲染，并记录payload
+     */
+    private void applyUpdate(int positionStart, int itemCount, Object payload) {
+        if (mVirtualizationEnabled) {
+            //内容变了，高度需要重新测量
+            mItemHeights.invalidate(positionStart, itemCount);
+        }
+        final int start = Math.max(positionStart, mFirstPosition);
+        final int end = Math.min(positionStart + itemCount, mFirstPosition + mAttachedHolders.size());
+        for (int position = start; position < end; position++) {
+            ViewHolder holder = mAttachedHolders.get(position - mFirstPosition);
+            if (holder != null) {
+                holder.addFlags(ViewHolder.FLAG_UPDATE);
+                holder.addChangePayload(payload);
+            }
+        }
+    }
+
+    /**
+     * 有条目移动，把对应的子View挪到新的位置上
+     */
+    private void applyMove(int fromPosition, int toPosition) {
+        if (fromPosition == toPosition) {
+            return;
+        }
+        if (mVirtualizationEnabled) {
+            mItemHeights.move(fromPosition, toPosition);
+        }
+        final int fromSlot = fromPosition - mFirstPosition;
+        final int toSlot = toPosition - mFirstPosition;
+        final int size = mAttachedHolders.size();
+        //移出或移入了窗口，按先移除再插入处理
+        if (fromSlot < 0 || fromSlot >= size || toSlot < 0 || toSlot >= size) {
+            removeFromWindow(fromPosition, 1);
+            insertIntoWindow(toPosition, 1);
+            return;
+        }
+        ViewHolder holder = mAttachedHolders.get(fromSlot);
+        if (holder != null) {
+            removeViewAt(getChildIndexForSlot(fromSlot));
+        }
+        mAttachedHolders.remove(fromSlot);
+        mAttachedHolders.add(toSlot, holder);
+        if (holder != null) {
+            addView(holder.itemView, getChildIndexForSlot(toSlot), holder.itemView.getLayoutParams());
+        }
+        updateAdapterPositions(Math.min(fromSlot, toSlot));
+    }
+
+    /**
+     * 让一段条目的测量缓存失效，需要在收到通知时马上调用，这时的条目位置和数据是对应的
+     */
+    private void invalidateMeasureCache(int positionStart, int itemCount) {
+        if (mMeasureCache.size() == 0) {
+            return;
+        }
+        for (int position = positionStart; position < positionStart + itemCount; position++) {
+            long itemId = mAdapter.getItemId(position);
+            if (itemId != NO_ID) {
+                mMeasureCache.invalidate(itemId);
+            }
+        }
+    }
+
+    /**
+     * 在窗口中插入条目的占位，插入位置在窗口前面时，窗口整体后移，在窗口后面时不需要处理
+     */
+    private void insertIntoWindow(int positionStart, int itemCount) {
+        if (positionStart < mFirstPosition) {
+            mFirstPosition += itemCount;
+            updateAdapterPositions(0);
+            return;
+        }
+        final int slotStart = positionStart - mFirstPosition;
+        if (slotStart > mAttachedHolders.size()) {
+            return;
+        }
+        for (int i = 0; i < itemCount; i++) {
+            mAttachedHolders.add(slotStart + i, null);
+        }
+        mPendingSlotCount += itemCount;
+        updateAdapterPositions(slotStart + itemCount);
+    }
+
+    /**
+     * 从窗口中移除条目，窗口内的子View移除并把ViewHolder放入回收池，窗口前面的条目被移除时，窗口整体前移
+     */
+    private void removeFromWindow(int positionStart, int itemCount) {
+        final int positionEnd = positionStart + itemCount;
+        final int windowStart = mFirstPosition;
+        final int windowEnd = windowStart + mAttachedHolders.size();
+        final int removeStart = Math.max(positionStart, windowStart);
+        final int removeEnd = Math.min(positionEnd, windowEnd);
+        for (int slot = removeEnd - windowStart - 1; slot >= removeStart - windowStart; slot--) {
+            ViewHolder holder = mAttachedHolders.remove(slot);
+            if (holder == null) {
+                mPendingSlotCount--;
+                continue;
+            }
+            removeViewAt(getChildIndexForSlot(slot));
+            mRecycledViewPool.putRecycledView(holder);
+        }
+        //窗口前面被移除的条目数量
+        final int removedAbove = Math.max(0, Math.min(positionEnd, windowStart) - positionStart);
+        if (removedAbove > 0) {
+            mFirstPosition -= removedAbove;
+            updateAdapterPositions(0);
+        } else {
+            updateAdapterPositions(Math.max(0, Math.min(positionStart - windowStart, mAttachedHolders.size())));
+        }
+    }
+
+    /**
+     * 处理占位和被标记更新的ViewHolder：占位的创建新的ViewHolder，被标记的重新渲染，类型变了的换成新类型的ViewHolder
+     */
+    private void fillPendingHolders() {
+        final int size = mAttachedHolders.size();
+        for (int slot = 0; slot < size; slot++) {
+            final int position = mFirstPosition + slot;
+            ViewHolder holder = mAttachedHolders.get(slot);
+            if (holder == null) {
+                mAttachedHolders.set(slot, createAndAddViewHolder(position, slot));
+                mPendingSlotCount--;
+            } else if (holder.hasFlags(ViewHolder.FLAG_UPDATE)) {
+                if (holder.getItemViewType() == getItemViewType(position)) {
+                    bindViewHolder(holder, position);
+                } else {
+                    removeViewAt(slot);
+                    mRecycledViewPool.putRecycledView(holder);
+                    mAttachedHolders.set(slot, createAndAddViewHolder(position, slot));
+                }
+            }
+        }
+        scheduleIdlePrefetch();
+    }
+
+    /**
+     * 从窗口中指定的下标开始，把ViewHolder的位置更新为它在列表中的位置
+     */
+    private void updateAdapterPositions(int fromSlot) {
+        final int size = mAttachedHolders.size();
+        for (int slot = fromSlot; slot < size; slot++) {
+            ViewHolder holder = mAttachedHolders.get(slot);
+            if (holder != null) {
+                holder.setAdapterPosition(mFirstPosition + slot);
+            }
+        }
+    }
+
+    /**
+     * 获取某个位置对应的子View下标，前面有还没创建的占位时，需要减去占位数量
+     */
+    private int getChildIndexForSlot(int slot) {
+        if (mPendingSlotCount == 0) {
+            return slot;
+        }
+        int childIndex = 0;
+        for (int i = 0; i < slot; i++) {
+            if (mAttachedHolders.get(i) != null) {
+                childIndex++;
+            }
+        }
+        return childIndex;
+    }
+
+    /**
+     * 获取一个指定类型的ViewHolder，查找顺序：暂存区 -> 回收池 -> 新建
+     */
+    private ViewHolder obtainViewHolder(int itemViewType) {
+        ViewHolder viewHolder = null;
+        ArrayList<ViewHolder> scrap = mScrapHolders.get(itemViewType);
+        if (scrap != null && !scrap.isEmpty()) {
+            viewHolder = scrap.remove(scrap.size() - 1);
+        }
+        final int recycleKey = mRecycledViewPool.getViewType(mAdapter, itemViewType);
+        if (viewHolder == null) {
+            viewHolder = mRecycledViewPool.getRecycledView(recycleKey);
+        }
+        if (viewHolder != null) {
+            mRecycledViewPool.mHitCount++;
+            if (mMetrics != null) {
+                mMetrics.onObtainViewHolder(itemViewType, true);
+            }
+            return viewHolder;
+        }
+        mRecycledViewPool.mMissCount++;
+        if (mMetrics != null) {
+            mMetrics.onObtainViewHolder(itemViewType, false);
+        }
+        viewHolder = createViewHolder(itemViewType);
+        viewHolder.mRecycleKey = recycleKey;
+        return viewHolder;
+    }
+
+    /**
+     * 移除所有子View，ViewHolder按类型放入暂存区
+     */
+    private void scrapAttachedHolders() {
+        removeAllViews();
+        for (int i = 0; i < mAttachedHolders.size(); i++) {
+            ViewHolder holder = mAttachedHolders.get(i);
+            if (holder != null) {
+                addToScrap(holder);
+            }
+        }
+        mAttachedHolders.clear();
+        mPendingSlotCount = 0;
+    }
+
+    /**
+     * ViewHolder按类型放入暂存区
+     */
+    private void addToScrap(ViewHolder holder) {
+        ArrayList<ViewHolder> scrap = mScrapHolders.get(holder.getItemViewType());
+        if (scrap == null) {
+            scrap = new ArrayList<>();
+            mScrapHolders.put(holder.getItemViewType(), scrap);
+        }
+        scrap.add(holder);
+    }
+
+    /**
+     * 把暂存区中剩余的ViewHolder放入回收池
+     */
+    private void recycleScrapHolders() {
+        for (int i = 0; i < mScrapHolders.size(); i++) {
+            ArrayList<ViewHolder> scrap = mScrapHolders.valueAt(i);
+            for (int j = 0; j < scrap.size(); j++) {
+                mRecycledViewPool.putRecycledView(scrap.get(j));
+            }
+            scrap.clear();
+        }
+    }
+
+    /**
+     * 移除所有子View，并把ViewHolder放入回收池
+     */
+    private void removeAndRecycleAllViews() {
+        scrapAttachedHolders();
+        recycleScrapHolders();
+    }
+
+    /**
+     * 子View的布局参数，支持上下左右外边距，以及水平方向的layout_gravity
+     */
+    public static class LayoutParams extends MarginLayoutParams {
+        private static final int[] LAYOUT_ATTRS = new int[]{
+                android.R.attr.layout_gravity
+        };
+        /**
+         * 还没有测量过，或者是GONE
+         */
+        static final int NO_EXTENT = -1;
+        /**
+         * 水平方向的对齐方式，和LinearLayout的layout_gravity一致，默认靠左
+         */
+        public int gravity = -1;
+        /**
+         * 上次测量时子View占用的高度，包括上下外边距
+         */
+        int mExtent = NO_EXTENT;
+        /**
+         * 上次测量时子View的下标，变了说明前面有子View增删，顶部位置需要重新计算
+         */
+        int mIndex = NO_POSITION;
+        /**
+         * 子View对应的ViewHolder
+         */
+        ViewHolder mViewHolder;
+        /**
+         * 网格模式下所在的列，以及占用的列数，测量时确定
+         */
+        int mSpanIndex;
+        int mSpanSize = 1;
+        /**
+         * 网格模式下上次测量时的列宽，变了需要重新测量
+         */
+        int mCellWidth = -1;
+
+        public LayoutParams(Context c, AttributeSet attrs) {
+            super(c, attrs);
+            TypedArray a = c.obtainStyledAttributes(attrs, LAYOUT_ATTRS);
+            gravity = a.getInt(0, -1);
+            a.recycle();
+        }
+
+        public LayoutParams(int width, int height) {
+            super(width, height);
+        }
+
+        public LayoutParams(int width, int height, int gravity) {
+            super(width, height);
+            this.gravity = gravity;
+        }
+
+        public LayoutParams(ViewGroup.LayoutParams source) {
+            super(source);
+        }
+
+        public LayoutParams(MarginLayoutParams source) {
+            super(source);
+        }
+
+        public LayoutParams(LayoutParams source) {
+            super(source);
+            this.gravity = source.gravity;
+        }
+
+        /**
+         * 网格模式下所在的列，列表模式下为0
+         */
+        public int getSpanIndex() {
+            return mSpanIndex;
+        }
+
+        /**
+         * 网格模式下占用的列数，列表模式下为1
+         */
+        public int getSpanSize() {
+            return mSpanSize;
+        }
+    }
+
+    /**
+     * 网格模式下每个条目占用的列数，和GridLayoutManager.SpanSizeLookup一致
+     * 条目按顺序排列，当前行剩下的列放不下时换到下一行。每个条目所在的列和行按位置缓存，从上次缓存到的位置继续计算，
+     * 数据变化时，ListLayout会让变化的位置之后的缓存失效；占用的列数在没有通知数据变化时变了，需要调用invalidateSpanIndexCache()
+     */
+    public abstract static class SpanSizeLookup {
+        private int[] mSpanSizeCache = new int[0];
+        private int[] mSpanIndexCache = new int[0];
+        private int[] mSpanGroupIndexCache = new int[0];
+        /**
+         * [0, mCachedCount)范围内的缓存是有效的
+         */
+        private int mCachedCount;
+        private int mCachedSpanCount;
+
+        /**
+         * 获取条目占用的列数，需要在1到spanCount之间
+         */
+        public abstract int getSpanSize(int position);
+
+        /**
+         * 获取条目所在的列
+         */
+        public int getSpanIndex(int position, int spanCount) {
+            ensureCached(position, spanCount);
+            return mSpanIndexCache[position];
+        }
+
+        /**
+         * 获取条目所在的行
+         */
+        public int getSpanGroupIndex(int position, int spanCount) {
+            ensureCached(position, spanCount);
+            return mSpanGroupIndexCache[position];
+        }
+
+        /**
+         * 让所有缓存失效
+         */
+        public void invalidateSpanIndexCache() {
+            mCachedCount = 0;
+        }
+
+        /**
+         * 让position及之后的缓存失效
+         */
+        void invalidateSpanIndexCache(int position) {
+            mCachedCount = Math.min(mCachedCount, Math.max(0, position));
+        }
+
+        /**
+         * 获取缓存的占用列数，需要先调用getSpanIndex()或getSpanGroupIndex()
+         */
+        int getCachedSpanSize(int position) {
+            return mSpanSizeCache[position];
+        }
+
+        private void ensureCached(int position, int spanCount) {
+            if (spanCount != mCachedSpanCount) {
+                mCachedSpanCount = spanCount;
+                mCachedCount = 0;
+            }
+            if (position < mCachedCount) {
+                return;
+            }
+            if (position >= mSpanIndexCache.length) {
+                int capacity = Math.max(position + 1, mSpanIndexCache.length * 2);
+                mSpanSizeCache = Arrays.copyOf(mSpanSizeCache, capacity);
+                mSpanIndexCache = Arrays.copyOf(mSpanIndexCache, capacity);
+                mSpanGroupIndexCache = Arrays.copyOf(mSpanGroupIndexCache, capacity);
+            }
+            for (int i = mCachedCount; i <= position; i++) {
+                final int spanSize = getSpanSize(i);
+                if (spanSize <= 0 || spanSize > spanCount) {
+                    throw new IllegalArgumentException("条目" + i + "占用的列数" + spanSize + "需要在1到" + spanCount + "之间");
+                }
+                int spanIndex = 0;
+                int spanGroupIndex = 0;
+                if (i > 0) {
+                    spanIndex = mSpanIndexCache[i - 1] + mSpanSizeCache[i - 1];
+                    spanGroupIndex = mSpanGroupIndexCache[i - 1];
+                    if (spanIndex + spanSize > spanCount) {
+                        spanIndex = 0;
+                        spanGroupIndex++;
+                    }
+                }
+                mSpanSizeCache[i] = spanSize;
+                mSpanIndexCache[i] = spanIndex;
+                mSpanGroupIndexCache[i] = spanGroupIndex;
+            }
+            mCachedCount = position + 1;
+        }
+    }
+
+    /**
+     * 默认每个条目占用一列
+     */
+    public static final class DefaultSpanSizeLookup extends SpanSizeLookup {
+        @Override
+        public int getSpanSize(int position) {
+            return 1;
+        }
+    }
+
+    /**
+     * 填充进度回调
+     */
+    public interface OnPopulateListener {
+        /**
+         * 分帧填充时，每帧填充后回调
+         *
+         * @param populatedCount 已经填充的条目数量
+         * @param totalCount     需要填充的条目总数
+         */
+        void onPopulateProgress(int populatedCount, int totalCount);
+
+        /**
+         * 重新填充完成，不分帧时填充后马上回调
+         */
+        void onPopulateComplete();
+    }
+
+    /**
+     * 条目的测量缓存，按条目Id记录，每个条目只记录最后一次测量时的条目类型、宽度约束和测量出的高度
+     * 超过最大数量时，移除最久没有使用的条目
+     */
+    private static final class MeasureCache {
+        static final int MISS = -1;
+        private final LongSparseArray<Entry> mEntries = new LongSparseArray<>();
+        private int mMaxSize;
+        /**
+         * 每次访问加1，用于找出最久没有使用的条目
+         */
+        private long mClock;
+        int mHitCount;
+        int mMissCount;
+
+        MeasureCache(int maxSize) {
+            mMaxSize = maxSize;
+        }
+
+        boolean isEnabled() {
+            return mMaxSize > 0;
+        }
+
+        int size() {
+            return mEntries.size();
+        }
+
+        void setMaxSize(int maxSize) {
+            mMaxSize = maxSize;
+            while (mEntries.size() > maxSize) {
+                mEntries.removeAt(findEldestIndex());
+            }
+        }
+
+        /**
+         * 获取缓存的高度，没有缓存或者条目类型、宽度约束不一致时返回MISS
+         */
+        int get(long itemId, int itemViewType, int widthMeasureSpec) {
+            Entry entry = mEntries.get(itemId);
+            if (entry == null || entry.mMeasuredHeight == MISS
+                    || entry.mItemViewType != itemViewType || entry.mWidthMeasureSpec != widthMeasureSpec) {
+                mMissCount++;
+                return MISS;
+            }
+            mHitCount++;
+            entry.mLastUsed = ++mClock;
+            return entry.mMeasuredHeight;
+        }
+
+        void put(long itemId, int itemViewType, int widthMeasureSpec, int measuredHeight) {
+            if (mMaxSize <= 0) {
+                return;
+            }
+            Entry entry = mEntries.get(itemId);
+            if (entry == null) {
+                if (mEntries.size() >= mMaxSize) {
+                    //满了，复用最久没有使用的条目
+                    int eldest = findEldestIndex();
+                    entry = mEntries.valueAt(eldest);
+                    mEntries.removeAt(eldest);
+                } else {
+                    entry = new Entry();
+                }
+                mEntries.put(itemId, entry);
+            }
+            entry.mItemViewType = itemViewType;
+            entry.mWidthMeasureSpec = widthMeasureSpec;
+            entry.mMeasuredHeight = measuredHeight;
+            entry.mLastUsed = ++mClock;
+        }
+
+        /**
+         * 让条目的缓存失效，保留Entry对象，重新测量后直接复用，避免每次刷新都创建新的对象
+         */
+        void invalidate(long itemId) {
+            Entry entry = mEntries.get(itemId);
+            if (entry != null) {
+                entry.mMeasuredHeight = MISS;
+            }
+        }
+
+        /**
+         * 让所有条目的缓存失效，同样保留Entry对象
+         */
+        void invalidateAll() {
+            for (int i = 0; i < mEntries.size(); i++) {
+                mEntries.valueAt(i).mMeasuredHeight = MISS;
+            }
+        }
+
+        void clear() {
+            mEntries.clear();
+        }
+
+        private int findEldestIndex() {
+            int eldest = 0;
+            for (int i = 1; i < mEntries.size(); i++) {
+                if (mEntries.valueAt(i).mLastUsed < mEntries.valueAt(eldest).mLastUsed) {
+                    eldest = i;
+                }
+            }
+            return eldest;
+        }
+
+        private static final class Entry {
+            int mItemViewType;
+            int mWidthMeasureSpec;
+            int mMeasuredHeight;
+            long mLastUsed;
+        }
+    }
+
+    public abstract static class Adapter<VH extends ViewHolder> {
+        private final AdapterDataObservable mObservable = new AdapterDataObservable();
+        /**
+         * 条目Id是否稳定
+         */
+        private boolean mHasStableIds = false;
+
+        public abstract VH onCreateViewHolder(ViewGroup parent, int itemType);
+
+        public abstract void onBindViewHolder(VH holder, int position);
+
+        /**
+         * 渲染条目，payloads不为空时，说明是notifyItemChanged(position, payload)触发的局部更新，可以只更新变化的部分
+         */
+        public void onBindViewHolder(VH holder, int position, List<Object> payloads) {
+            onBindViewHolder(holder, position);
+        }
+
+        public int getItemViewType(int position) {
+            return 0;
+        }
+
+        public long getItemId(int position) {
+            return NO_ID;
+        }
+
+        /**
+         * 条目类型的名称，用于性能指标统计时添加的Trace，默认为"ViewType"加条目类型
+         */
+        public String getItemViewTypeName(int itemViewType) {
+            return "ViewType" + itemViewType;
+        }
+
+        /**
+         * 条目类型在回收池中的key，默认为null，直接按条目类型缓存
+         * 多个ListLayout共用一个RecycledViewPool时，不同Adapter之间能互相复用的条目需要返回equals()相等的key，
+         * 不能复用的返回不相等的key。回收池只弱引用key，返回的对象需要一直被持有，例如ItemViewBinder、Class或者常量
+         */
+        public Object getRecycleKey(int itemViewType) {
+            return null;
+        }
+
+        public abstract int getItemCount();
+
+        /**
+         * 设置条目Id是否稳定，即同一个条目的Id不会变，不同条目的Id不会重复
+         * 开启后，notifyDataSetChanged()时会按Id复用原来的ViewHolder，只重新渲染，不会重新创建
+         * 需要在设置给ListLayout之前调用
+         */
+        public void setHasStableIds(boolean hasStableIds) {
+            if (hasObservers()) {
+                throw new IllegalStateException("Adapter已经有观察者，不能再修改条目Id是否稳定，需要在设置给ListLayout之前调用");
+            }
+            mHasStableIds = hasStableIds;
+        }
+
+        /**
+         * 条目Id是否稳定
+         */
+        public final boolean hasStableIds() {
+            return mHasStableIds;
+        }
+
+        /**
+         * 是否有观察者
+         */
+        public final boolean hasObservers() {
+            return mObservable.hasObservers();
+        }
+
+        /**
+         * 设置内部观察者，在registerAdapterDataObserver()注册的观察者之前收到通知，不计入hasObservers()
+         * 子类用来维护和条目位置一一对应的缓存，保证ListLayout收到通知时缓存已经是最新的，例如MultiTypeAdapter缓存的条目类型和Id
+         */
+        protected final void setInternalDataObserver(AdapterDataObserver observer) {
+            mObservable.mInternalObserver = observer;
+        }
+
+        /**
+         * 注册列表数据观察者
+         */
+        public void registerAdapterDataObserver(AdapterDataObserver observer) {
+            mObservable.registerObserver(observer);
+        }
+
+        /**
+         * 取消注册数据观察者
+         */
+        public void unregisterAdapterDataObserver(AdapterDataObserver observer) {
+            mObservable.unregisterObserver(observer);
+        }
+
+        /**
+         * 提交数据修改，在notify系列方法之前调用：在主线程或者没有观察者时马上执行
+         * 在其它线程时先暂存，和之后的第一个通知一起切换到主线程，先修改数据再分发通知，ListLayout不会读到还没通知的数据
+         * 例如MultiTypeAdapter.setItems()，在后台线程替换数据后直接调用notifyXxx()即可
+         */
+        protected final void commitData(Runnable commit) {
+            if (commit == null) {
+                throw new IllegalArgumentException("commit不能为空");
+            }
+            mObservable.commit(commit);
+        }
+
+        /**
+         * 在主线程执行一组数据修改和通知：在主线程调用时马上执行，在其它线程调用时切换到主线程，整体在同一个任务里执行
+         * 一次修改对应多个通知时使用，例如先替换数据再分发DiffUtil的差异结果，中间不会插入布局
+         */
+        public final void postUpdate(Runnable update) {
+            if (update == null) {
+                throw new IllegalArgumentException("update不能为空");
+            }
+            mObservable.runOnMainThread(update);
+        }
+
+        /**
+         * 通知数据更新，notify系列方法可以在任意线程调用，不在主线程时会和commitData()暂存的数据修改一起切换到主线程再通知ListLayout
+         * 没有观察者时不切换线程
+         */
+        public final void notifyDataSetChanged() {
+            mObservable.notifyChanged();
+        }
+
+        /**
+         * 通知某个条目更新
+         */
+        public final void notifyItemChanged(int position) {
+            mObservable.notifyItemRangeChanged(position, 1);
+        }
+
+        /**
+         * 通知一段条目更新
+         */
+        public final void notifyItemRangeChanged(int positionStart, int itemCount) {
+            mObservable.notifyItemRangeChanged(positionStart, itemCount);
+        }
+
+        /**
+         * 通知某个条目局部更新，payload会传给onBindViewHolder(holder, position, payloads)
+         */
+        public final void notifyItemChanged(int position, Object payload) {
+            mObservable.notifyItemRangeChanged(position, 1, payload);
+        }
+
+        /**
+         * 通知一段条目局部更新，payload会传给onBindViewHolder(holder, position, payloads)
+         */
+        public final void notifyItemRangeChanged(int positionStart, int itemCount, Object payload) {
+            mObservable.notifyItemRangeChanged(positionStart, itemCount, payload);
+        }
+
+        /**
+         * 通知插入了一个条目
+         */
+        public final void notifyItemInserted(int position) {
+            mObservable.notifyItemRangeInserted(position, 1);
+        }
+
+        /**
+         * 通知某个条目从fromPosition移动到了toPosition
+         */
+        public final void notifyItemMoved(int fromPosition, int toPosition) {
+            mObservable.notifyItemMoved(fromPosition, toPosition);
+        }
+
+        /**
+         * 通知插入了一段条目
+         */
+        public final void notifyItemRangeInserted(int positionStart, int itemCount) {
+            mObservable.notifyItemRangeInserted(positionStart, itemCount);
+        }
+
+        /**
+         * 通知移除了一个条目
+         */
+        public final void notifyItemRemoved(int position) {
+            mObservable.notifyItemRangeRemoved(position, 1);
+        }
+
+        /**
+         * 通知移除了一段条目
+         */
+        public final void notifyItemRangeRemoved(int positionStart, int itemCount) {
+            mObservable.notifyItemRangeRemoved(positionStart, itemCount);
+        }
+    }
+
+    public abstract static class ViewHolder {
+        /**
+         * 数据有更新，需要重新渲染
+         */
+        static final int FLAG_UPDATE = 1;
+        /**
+         * 有不带payload的更新，需要完整渲染，忽略其他payload
+         */
+        static final int FLAG_ADAPTER_FULLUPDATE = 1 << 1;
+        /**
+         * 有稳定Id时，重新填充过程中，标记已经匹配上新位置
+         */
+        static final int FLAG_STABLE_MATCHED = 1 << 2;
+        private static final List<Object> FULLUPDATE_PAYLOADS = Collections.emptyList();
+
+        long mItemId = NO_ID;
+        /**
+         * 在回收池中的缓存类型，创建时由RecycledViewPool.getViewType()确定
+         */
+        int mRecycleKey;
+        /**
+         * 状态标记
+         */
+        int mFlags;
+        /**
+         * 渲染后还没有布局过，这期间的重新布局请求来自渲染，测量时可以使用测量缓存
+         */
+        boolean mBoundSinceLayout;
+        /**
+         * 子View最后一次经过测量缓存测量时对应的条目Id和测量约束，没有时为NO_ID
+         */
+        long mMeasuredItemId = NO_ID;
+        int mMeasuredWidthSpec;
+        int mMeasuredHeightSpec;
+        /**
+         * 局部更新的payload，多次更新会合并在一起
+         */
+        List<Object> mPayloads = null;
+        List<Object> mUnmodifiedPayloads = null;
+
+        /**
+         * 适配器
+         */
+        private Adapter adapter;
+        /**
+         * 条目View
+         */
+        public final View itemView;
+        /**
+         * 条目类型
+         */
+        private int mItemViewType;
+        /**
+         * 上一次处理通知后的位置
+         */
+        private int adapterPosition;
+        /**
+         * 渲染该ViewHolder的ListLayout，用来按还没处理的通知换算位置，放回回收池时清空
+         */
+        ListLayout mOwner;
+        /**
+         * 条目Id
+         */
+        private long itemId;
+
+        public ViewHolder(View itemView) {
+            this.itemView = itemView;
+        }
+
+        public void setItemViewType(int itemViewType) {
+            mItemViewType = itemViewType;
+        }
+
+        public int getItemViewType() {
+            return mItemViewType;
+        }
+
+        /**
+         * 获取在回收池中的缓存类型
+         */
+        public int getRecycleKey() {
+            return mRecycleKey;
+        }
+
+        public void setAdapter(Adapter adapter) {
+            this.adapter = adapter;
+        }
+
+        public Adapter getAdapter() {
+            return adapter;
+        }
+
+        public void setAdapterPosition(int adapterPosition) {
+            this.adapterPosition = adapterPosition;
+        }
+
+        /**
+         * 获取条目在Adapter中的当前位置，有还没处理的通知时按通知换算
+         * 条目已经被移除，或者收到了还没处理的notifyDataSetChanged()时返回NO_POSITION，例如点击事件里需要检查
+         */
+        public int getAdapterPosition() {
+            if (mOwner == null || adapterPosition == NO_POSITION) {
+                return adapterPosition;
+            }
+            return mOwner.applyPendingUpdatesToPosition(adapterPosition);
+        }
+
+        /**
+         * 获取上一次处理通知后的位置，和子View的顺序一致，不计入还没处理的通知
+         */
+        public int getLayoutPosition() {
+            return adapterPosition;
+        }
+
+        public void setItemId(long itemId) {
+            this.mItemId = itemId;
+        }
+
+        public long getItemId() {
+            return mItemId;
+        }
+
+        void addFlags(int flags) {
+            mFlags |= flags;
+        }
+
+        boolean hasFlags(int flags) {
+            return (mFlags & flags) != 0;
+        }
+
+        void clearFlags() {
+            mFlags = 0;
+        }
+
+        /**
+         * 添加局部更新的payload，payload为null时，说明需要完整渲染
+         */
+        void addChangePayload(Object payload) {
+            if (payload == null) {
+                addFlags(FLAG_ADAPTER_FULLUPDATE);
+            } else if ((mFlags & FLAG_ADAPTER_FULLUPDATE) == 0) {
+                createPayloadsIfNeeded();
+                mPayloads.add(payload);
+            }
+        }
+
+        private void createPayloadsIfNeeded() {
+            if (mPayloads == null) {
+                mPayloads = new ArrayList<Object>();
+                mUnmodifiedPayloads = Collections.unmodifiableList(mPayloads);
+            }
+        }
+
+        void clearPayload() {
+            if (mPayloads != null) {
+                mPayloads.clear();
+            }
+            mFlags = mFlags & ~FLAG_ADAPTER_FULLUPDATE;
+        }
+
+        /**
+         * 获取合并后的payload列表，需要完整渲染时返回空列表
+         */
+        List<Object> getUnmodifiedPayloads() {
+            if ((mFlags & FLAG_ADAPTER_FULLUPDATE) == 0) {
+                if (mPayloads == null || mPayloads.size() == 0) {
+                    return FULLUPDATE_PAYLOADS;
+                }
+                return mUnmodifiedPayloads;
+            } else {
+                return FULLUPDATE_PAYLOADS;
+            }
+        }
+    }
+
+    /**
+     * ViewHolder回收池，按条目类型缓存不再显示的ViewHolder，下次填充时复用，避免重复inflate布局
+     * 可以通过setRecycledViewPool()让多个ListLayout共用一个回收池，Adapter.getRecycleKey()不为null时，
+     * 回收池给每个key分配一个缓存类型，不同Adapter的key相等的条目互相复用，MultiTypeAdapter按ItemViewBinder.getRecycleKey()处理
      */
-    private void populate() {
-        //清除掉之前的子View
-        removeAllViews();
-        //开始新建子View
-        int itemCount = mAdapter.getItemCount();
-        for (int position = 0; position < itemCount; position++) {
-            long itemId = mAdapter.getItemId(position);
-            int itemViewType = mAdapter.getItemViewType(position);
-            //创建ViewHolder
-            ViewHolder viewHolder = mAdapter.onCreateViewHolder(this, itemViewType);
-            //设置Item的布局参数
-            ViewGroup.LayoutParams itemLp = viewHolder.itemView.getLayoutParams();
-            if (itemLp == null) {
-                itemLp = new ListLayout.LayoutParams(
-                        ListLayout.LayoutParams.MATCH_PARENT,
-                        ListLayout.LayoutParams.WRAP_CONTENT
-                );
-            }
-            //设置相关属性
-            viewHolder.setAdapter(mAdapter);
-            viewHolder.setItemViewType(itemViewType);
-            viewHolder.setAdapterPosition(position);
-            viewHolder.setItemId(itemId);
-            //渲染ViewHolder，内部会渲染布局
-            mAdapter.onBindViewHolder(viewHolder, position);
-            //添加子View
-            addView(viewHolder.itemView, itemLp);
-        }
-    }
+    public static class RecycledViewPool {
+        /**
+         * 每种类型默认最多缓存的ViewHolder数量
+         */
+        private static final int DEFAULT_MAX_SCRAP = 5;
+        /**
+         * 按类型缓存的ViewHolder
+         */
+        private final SparseArray<ScrapData> mScrap = new SparseArray<>();
+        /**
+         * 所有类型加起来最多缓存的ViewHolder数量
+         */
+        private int mMaxPoolSize = Integer.MAX_VALUE;
+        /**
+         * 当前缓存的ViewHolder总数
+         */
+        private int mPoolSize;
+        /**
+         * 第一个按key分配的缓存类型，和Adapter直接使用的条目类型错开
+         */
+        private static final int FIRST_KEYED_VIEW_TYPE = 1 << 16;
+        /**
+         * Adapter.getRecycleKey()返回的key对应的缓存类型，key不再被持有时自动移除
+         */
+        private final WeakHashMap<Object, Integer> mKeyedViewTypes = new WeakHashMap<>();
+        /**
+         * 下一个分配的缓存类型，只增不减，移除的key对应的类型不会分给别的key
+         */
+        private int mNextKeyedViewType = FIRST_KEYED_VIEW_TYPE;
+        /**
+         * 使用该回收池的ListLayout数量
+         */
+        private int mAttachCount = 0;
+        /**
+         * 复用命中次数
+         */
+        long mHitCount;
+        /**
+         * 未命中，需要新建ViewHolder的次数
+         */
+        long mMissCount;
 
-    public abstract static class Adapter<VH extends ViewHolder> {
-        private final AdapterDataObservable mObservable = new AdapterDataObservable();
+        /**
+         * 某种类型的缓存数据
+         */
+        private static class ScrapData {
+            final ArrayList<ViewHolder> mScrapHeap = new ArrayList<>();
+            int mMaxScrap = DEFAULT_MAX_SCRAP;
+        }
 
-        public abstract VH onCreateViewHolder(ViewGroup parent, int itemType);
+        /**
+         * 设置某种类型最多缓存的ViewHolder数量
+         *
+         * @param viewType 缓存类型，即getViewType()，Adapter.getRecycleKey()为null时就是条目类型
+         */
+        public void setMaxRecycledViews(int viewType, int max) {
+            ScrapData scrapData = getScrapDataForType(viewType);
+            scrapData.mMaxScrap = max;
+            final ArrayList<ViewHolder> scrapHeap = scrapData.mScrapHeap;
+            while (scrapHeap.size() > max) {
+                scrapHeap.remove(scrapHeap.size() - 1);
+                mPoolSize--;
+            }
+        }
 
-        public abstract void onBindViewHolder(VH holder, int position);
+        /**
+         * 获取某种类型最多缓存的ViewHolder数量
+         */
+        public int getMaxRecycledViews(int viewType) {
+            final ScrapData scrapData = mScrap.get(viewType);
+            return scrapData != null ? scrapData.mMaxScrap : DEFAULT_MAX_SCRAP;
+        }
 
-        public int getItemViewType(int position) {
-            return 0;
+        /**
+         * 设置整个回收池最多缓存的ViewHolder数量，满了之后，从缓存最多的类型中淘汰
+         */
+        public void setMaxPoolSize(int maxPoolSize) {
+            if (maxPoolSize < 0) {
+                throw new IllegalArgumentException("maxPoolSize不能小于0");
+            }
+            mMaxPoolSize = maxPoolSize;
+            while (mPoolSize > mMaxPoolSize) {
+                evictFromLargestHeap();
+            }
         }
 
-        public long getItemId(int position) {
-            return NO_ID;
+        /**
+         * 获取Adapter的条目类型在该回收池中的缓存类型，Adapter.getRecycleKey()为null时就是条目类型本身，
+         * 否则为该回收池给key分配的类型
+         */
+        public int getViewType(Adapter<?> adapter, int itemViewType) {
+            final Object recycleKey = adapter.getRecycleKey(itemViewType);
+            if (recycleKey == null) {
+                return itemViewType;
+            }
+            Integer viewType = mKeyedViewTypes.get(recycleKey);
+            if (viewType == null) {
+                viewType = mNextKeyedViewType++;
+                mKeyedViewTypes.put(recycleKey, viewType);
+            }
+            return viewType;
         }
 
-        public abstract int getItemCount();
+        /**
+         * 获取整个回收池最多缓存的ViewHolder数量
+         */
+        public int getMaxPoolSize() {
+            return mMaxPoolSize;
+        }
 
         /**
-         * 是否有观察者
+         * 获取整个回收池当前缓存的ViewHolder数量
          */
-        public final boolean hasObservers() {
-            return mObservable.hasObservers();
+        public int getPoolSize() {
+            return mPoolSize;
         }
 
         /**
-         * 注册列表数据观察者
+         * 获取某种类型缓存的ViewHolder数量
          */
-        public void registerAdapterDataObserver(AdapterDataObserver observer) {
-            mObservable.registerObserver(observer);
+        public int getRecycledViewCount(int viewType) {
+            return getScrapDataForType(viewType).mScrapHeap.size();
         }
 
         /**
-         * 取消注册数据观察者
+         * 取出一个指定类型的ViewHolder，没有则返回null
          */
-        public void unregisterAdapterDataObserver(AdapterDataObserver observer) {
-            mObservable.unregisterObserver(observer);
+        public ViewHolder getRecycledView(int viewType) {
+            final ScrapData scrapData = mScrap.get(viewType);
+            if (scrapData != null && !scrapData.mScrapHeap.isEmpty()) {
+                final ArrayList<ViewHolder> scrapHeap = scrapData.mScrapHeap;
+                mPoolSize--;
+                return scrapHeap.remove(scrapHeap.size() - 1);
+            }
+            return null;
         }
 
         /**
-         * 通知数据更新
+         * 放入一个ViewHolder，超过该类型的最大缓存数量时丢弃，超过整个回收池的最大数量时，淘汰缓存最多的类型
          */
-        public final void notifyDataSetChanged() {
-            if (hasObservers()) {
-                mObservable.notifyChanged();
+        public void putRecycledView(ViewHolder scrap) {
+            final int viewType = scrap.getRecycleKey();
+            final ScrapData scrapData = getScrapDataForType(viewType);
+            final ArrayList<ViewHolder> scrapHeap = scrapData.mScrapHeap;
+            if (scrapData.mMaxScrap <= scrapHeap.size()) {
+                return;
             }
+            if (mPoolSize >= mMaxPoolSize) {
+                //自己就是缓存最多的类型时，直接丢弃
+                if (!evictFromLargestHeap(scrapHeap.size())) {
+                    return;
+                }
+            }
+            scrap.setAdapterPosition(NO_POSITION);
+            scrap.mOwner = null;
+            scrap.setItemId(NO_ID);
+            scrap.clearPayload();
+            scrap.clearFlags();
+            scrapHeap.add(scrap);
+            mPoolSize++;
         }
-    }
 
-    public abstract static class ViewHolder {
-        long mItemId = NO_ID;
+        /**
+         * 清空缓存
+         */
+        public void clear() {
+            for (int i = 0; i < mScrap.size(); i++) {
+                ScrapData data = mScrap.valueAt(i);
+                data.mScrapHeap.clear();
+            }
+            mPoolSize = 0;
+        }
 
         /**
-         * 适配器
+         * 复用命中次数，包括从回收池和重新填充时拆下的ViewHolder中复用的次数
          */
-        private Adapter adapter;
+        public long getHitCount() {
+            return mHitCount;
+        }
+
         /**
-         * 条目View
+         * 未命中次数，即调用Adapter.onCreateViewHolder()新建ViewHolder的次数
          */
-        public final View itemView;
+        public long getMissCount() {
+            return mMissCount;
+        }
+
         /**
-         * 条目类型
+         * 重置命中统计
          */
-        private int mItemViewType;
+        public void resetStats() {
+            mHitCount = 0;
+            mMissCount = 0;
+        }
+
         /**
-         * 位置
+         * ListLayout开始使用该回收池
          */
-        private int adapterPosition;
+        void attach() {
+            mAttachCount++;
+        }
+
         /**
-         * 条目Id
+         * ListLayout不再使用该回收池
          */
-        private long itemId;
+        void detach() {
+            mAttachCount--;
+        }
 
-        public ViewHolder(View itemView) {
-            this.itemView = itemView;
+        /**
+         * ListLayout更换了Adapter，没有其他ListLayout在使用时，旧Adapter的ViewHolder不能再用了，清空缓存
+         * 共用时，缓存类型由Adapter.getRecycleKey()保证不会冲突，保留缓存
+         */
+        void onAdapterChanged(Adapter<?> oldAdapter, Adapter<?> newAdapter) {
+            if (oldAdapter != null) {
+                detach();
+            }
+            if (mAttachCount == 0) {
+                clear();
+            }
+            if (newAdapter != null) {
+                attach();
+            }
         }
 
-        public void setItemViewType(int itemViewType) {
-            mItemViewType = itemViewType;
+        private void evictFromLargestHeap() {
+            evictFromLargestHeap(-1);
         }
 
-        public int getItemViewType() {
-            return mItemViewType;
+        /**
+         * 从缓存最多的类型中淘汰一个，缓存最多的类型的数量不超过minSize时不淘汰
+         *
+         * @return 是否淘汰了
+         */
+        private boolean evictFromLargestHeap(int minSize) {
+            ArrayList<ViewHolder> largest = null;
+            for (int i = 0; i < mScrap.size(); i++) {
+                ArrayList<ViewHolder> scrapHeap = mScrap.valueAt(i).mScrapHeap;
+                if (largest == null || scrapHeap.size() > largest.size()) {
+                    largest = scrapHeap;
+                }
+            }
+            if (largest == null || largest.size() <= minSize || largest.isEmpty()) {
+                return false;
+            }
+            largest.remove(largest.size() - 1);
+            mPoolSize--;
+            return true;
         }
 
-        public void setAdapter(Adapter adapter) {
-            this.adapter = adapter;
+        private ScrapData getScrapDataForType(int viewType) {
+            ScrapData scrapData = mScrap.get(viewType);
+            if (scrapData == null) {
+                scrapData = new ScrapData();
+                mScrap.put(viewType, scrapData);
+            }
+            return scrapData;
         }
+    }
 
-        public Adapter getAdapter() {
-            return adapter;
+    public abstract static class AdapterDataObserver {
+        public void onChanged() {
         }
 
-        public void setAdapterPosition(int adapterPosition) {
-            this.adapterPosition = adapterPosition;
+        public void onItemRangeChanged(int positionStart, int itemCount) {
         }
 
-        public int getAdapterPosition() {
-            return adapterPosition;
+        public void onItemRangeChanged(int positionStart, int itemCount, Object payload) {
+            onItemRangeChanged(positionStart, itemCount);
         }
 
-        public void setItemId(long itemId) {
-            this.mItemId = itemId;
+        public void onItemRangeInserted(int positionStart, int itemCount) {
         }
 
-        public long getItemId() {
-            return mItemId;
+        public void onItemRangeRemoved(int positionStart, int itemCount) {
         }
-    }
 
-    public abstract static class AdapterDataObserver {
-        public void onChanged() {
+        public void onItemRangeMoved(int fromPosition, int toPosition, int itemCount) {
         }
     }
 
@@ -223,40 +3041,353 @@ public class ListLayout extends LinearLayout {
         @Override
         public void onChanged() {
             super.onChanged();
-            //数据更新，重新填充子View
-            populate();
+            //所有条目的内容都可能变了，测量缓存全部失效
+            mMeasureCache.invalidateAll();
+            mSpanSizeLookup.invalidateSpanIndexCache();
+            //下一帧重新填充子View，之前记录的通知都不需要了
+            recycleUpdateOps();
+            mPendingDataSetChanged = true;
+            scheduleUpdateFrame();
+        }
+
+        @Override
+        public void onItemRangeChanged(int positionStart, int itemCount, Object payload) {
+            invalidateMeasureCache(positionStart, itemCount);
+            //占用的列数可能变了
+            mSpanSizeLookup.invalidateSpanIndexCache(positionStart);
+            addUpdateOp(UpdateOp.UPDATE, positionStart, itemCount, payload);
+        }
+
+        @Override
+        public void onItemRangeInserted(int positionStart, int itemCount) {
+            super.onItemRangeInserted(positionStart, itemCount);
+            //插入的条目可能和之前移除的条目Id相同，但内容不同
+            invalidateMeasureCache(positionStart, itemCount);
+            mSpanSizeLookup.invalidateSpanIndexCache(positionStart);
+            addUpdateOp(UpdateOp.ADD, positionStart, itemCount, null);
+        }
+
+        @Override
+        public void onItemRangeRemoved(int positionStart, int itemCount) {
+            super.onItemRangeRemoved(positionStart, itemCount);
+            mSpanSizeLookup.invalidateSpanIndexCache(positionStart);
+            addUpdateOp(UpdateOp.REMOVE, positionStart, itemCount, null);
         }
+
+        @Override
+        public void onItemRangeMoved(int fromPosition, int toPosition, int itemCount) {
+            super.onItemRangeMoved(fromPosition, toPosition, itemCount);
+            if (itemCount != 1) {
+                throw new IllegalArgumentException("暂不支持一次移动多个条目：" + itemCount);
+            }
+            mSpanSizeLookup.invalidateSpanIndexCache(Math.min(fromPosition, toPosition));
+            //移动时mItemCount记录目标位置
+            addUpdateOp(UpdateOp.MOVE, fromPosition, toPosition, null);
+        }
+    }
+
+    /**
+     * 一个还没处理的条目变化通知
+     */
+    private static final class UpdateOp {
+        static final int ADD = 1;
+        static final int REMOVE = 2;
+        static final int UPDATE = 3;
+        static final int MOVE = 4;
+
+        int mCmd;
+        int mPositionStart;
+        /**
+         * 条目数量，移动时为目标位置
+         */
+        int mItemCount;
+        Object mPayload;
     }
 
     /**
-     * 适配器被观察者
+     * 适配器被观察者，通知可以在任意线程发出，不在主线程并且有观察者时，和之前暂存的数据修改一起切换到主线程，先修改数据再按顺序分发
+     * 没有观察者时不切换线程，直接在当前线程更新内部观察者
      */
     private static class AdapterDataObservable extends Observable<AdapterDataObserver> {
+        private static final int NOTIFY_CHANGED = 0;
+        private static final int NOTIFY_RANGE_CHANGED = 1;
+        private static final int NOTIFY_RANGE_INSERTED = 2;
+        private static final int NOTIFY_RANGE_REMOVED = 3;
+        private static final int NOTIFY_MOVED = 4;
+
+        /**
+         * 主线程的Handler，第一次在其它线程通知时创建，所有Adapter共用
+         */
+        private static volatile Handler sMainHandler;
+
+        /**
+         * 内部观察者，最先收到通知
+         */
+        AdapterDataObserver mInternalObserver;
+        /**
+         * 其它线程暂存的数据修改，和之后的第一个通知一起切换到主线程，在分发通知之前执行
+         */
+        private final ArrayList<Runnable> mPendingCommits = new ArrayList<>();
+        /**
+         * 是否有暂存的数据修改，没有时不需要加锁
+         */
+        private volatile boolean mHasPendingCommits;
+
         /**
          * 是否有观察者
          */
         public boolean hasObservers() {
-            return !mObservers.isEmpty();
+            return mObservers.length != 0;
+        }
+
+        /**
+         * 提交数据修改，没有观察者或者在主线程时马上执行，否则暂存，等之后的通知一起切换到主线程
+         */
+        void commit(Runnable commit) {
+            if (!hasObservers()) {
+                runPendingCommits();
+                commit.run();
+                return;
+            }
+            if (isMainThread()) {
+                commit.run();
+                return;
+            }
+            synchronized (mPendingCommits) {
+                mPendingCommits.add(commit);
+                mHasPendingCommits = true;
+            }
+        }
+
+        /**
+         * 在主线程执行数据修改和通知，已经在主线程时马上执行，否则和暂存的数据修改一起通过Handler按提交的顺序执行
+         */
+        void runOnMainThread(final Runnable update) {
+            if (isMainThread()) {
+                update.run();
+                return;
+            }
+            final Runnable[] commits = takePendingCommits();
+            getMainHandler().post(new Runnable() {
+                @Override
+                public void run() {
+                    runCommits(commits);
+                    update.run();
+                }
+            });
         }
 
         /**
          * 通知观察者数据改变
          */
         public void notifyChanged() {
-            for (int i = mObservers.size() - 1; i >= 0; i--) {
-                mObservers.get(i).onChanged();
+            if (postToMainThreadIfNeeded(NOTIFY_CHANGED, 0, 0, null)) {
+                return;
+            }
+            dispatchChanged();
+        }
+
+        /**
+         * 通知观察者一段条目更新
+         */
+        public void notifyItemRangeChanged(int positionStart, int itemCount) {
+            notifyItemRangeChanged(positionStart, itemCount, null);
+        }
+
+        /**
+         * 通知观察者一段条目局部更新
+         */
+        public void notifyItemRangeChanged(int positionStart, int itemCount, Object payload) {
+            if (postToMainThreadIfNeeded(NOTIFY_RANGE_CHANGED, positionStart, itemCount, payload)) {
+                return;
+            }
+            dispatchItemRangeChanged(positionStart, itemCount, payload);
+        }
+
+        /**
+         * 通知观察者插入了一段条目
+         */
+        public void notifyItemRangeInserted(int positionStart, int itemCount) {
+            if (postToMainThreadIfNeeded(NOTIFY_RANGE_INSERTED, positionStart, itemCount, null)) {
+                return;
+            }
+            dispatchItemRangeInserted(positionStart, itemCount);
+        }
+
+        /**
+         * 通知观察者移除了一段条目
+         */
+        public void notifyItemRangeRemoved(int positionStart, int itemCount) {
+            if (postToMainThreadIfNeeded(NOTIFY_RANGE_REMOVED, positionStart, itemCount, null)) {
+                return;
+            }
+            dispatchItemRangeRemoved(positionStart, itemCount);
+        }
+
+        /**
+         * 通知观察者条目移动
+         */
+        public void notifyItemMoved(int fromPosition, int toPosition) {
+            if (postToMainThreadIfNeeded(NOTIFY_MOVED, fromPosition, toPosition, null)) {
+                return;
+            }
+            dispatchItemMoved(fromPosition, toPosition);
+        }
+
+        private void dispatchChanged() {
+            if (mInternalObserver != null) {
+                mInternalObserver.onChanged();
+            }
+            Object[] observers = mObservers;
+            for (int i = observers.length - 1; i >= 0; i--) {
+                ((AdapterDataObserver) observers[i]).onChanged();
+            }
+        }
+
+        private void dispatchItemRangeChanged(int positionStart, int itemCount, Object payload) {
+            if (mInternalObserver != null) {
+                mInternalObserver.onItemRangeChanged(positionStart, itemCount, payload);
+            }
+            Object[] observers = mObservers;
+            for (int i = observers.length - 1; i >= 0; i--) {
+                ((AdapterDataObserver) observers[i]).onItemRangeChanged(positionStart, itemCount, payload);
+            }
+        }
+
+        private void dispatchItemRangeInserted(int positionStart, int itemCount) {
+            if (mInternalObserver != null) {
+                mInternalObserver.onItemRangeInserted(positionStart, itemCount);
+            }
+            Object[] observers = mObservers;
+            for (int i = observers.length - 1; i >= 0; i--) {
+                ((AdapterDataObserver) observers[i]).onItemRangeInserted(positionStart, itemCount);
+            }
+        }
+
+        private void dispatchItemRangeRemoved(int positionStart, int itemCount) {
+            if (mInternalObserver != null) {
+                mInternalObserver.onItemRangeRemoved(positionStart, itemCount);
+            }
+            Object[] observers = mObservers;
+            for (int i = observers.length - 1; i >= 0; i--) {
+                ((AdapterDataObserver) observers[i]).onItemRangeRemoved(positionStart, itemCount);
+            }
+        }
+
+        private void dispatchItemMoved(int fromPosition, int toPosition) {
+            if (mInternalObserver != null) {
+                mInternalObserver.onItemRangeMoved(fromPosition, toPosition, 1);
+            }
+            Object[] observers = mObservers;
+            for (int i = observers.length - 1; i >= 0; i--) {
+                ((AdapterDataObserver) observers[i]).onItemRangeMoved(fromPosition, toPosition, 1);
+            }
+        }
+
+        /**
+         * 是否在主线程，没有Looper的环境（例如JVM单元测试）当作主线程，直接分发
+         */
+        private static boolean isMainThread() {
+            return Looper.myLooper() == Looper.getMainLooper();
+        }
+
+        /**
+         * 不在主线程并且有观察者时，把通知和暂存的数据修改一起切换到主线程，返回true
+         * 没有观察者时和原来一样不切换，先执行暂存的数据修改，再在当前线程通知内部观察者
+         */
+        private boolean postToMainThreadIfNeeded(final int type, final int first, final int second,
+                                                 final Object payload) {
+            if (!hasObservers()) {
+                runPendingCommits();
+                return false;
+            }
+            if (isMainThread()) {
+                return false;
+            }
+            final Runnable[] commits = takePendingCommits();
+            getMainHandler().post(new Runnable() {
+                @Override
+                public void run() {
+                    //先修改数据，再分发通知，主线程上读到的数据和收到的通知始终一致
+                    runCommits(commits);
+                    switch (type) {
+                        case NOTIFY_CHANGED:
+                            dispatchChanged();
+                            break;
+                        case NOTIFY_RANGE_CHANGED:
+                            dispatchItemRangeChanged(first, second, payload);
+                            break;
+                        case NOTIFY_RANGE_INSERTED:
+                            dispatchItemRangeInserted(first, second);
+                            break;
+                        case NOTIFY_RANGE_REMOVED:
+                            dispatchItemRangeRemoved(first, second);
+                            break;
+                        case NOTIFY_MOVED:
+                            dispatchItemMoved(first, second);
+                            break;
+                        default:
+                            break;
+                    }
+                }
+            });
+            return true;
+        }
+
+        /**
+         * 取出暂存的数据修改，没有时返回null
+         */
+        private Runnable[] takePendingCommits() {
+            if (!mHasPendingCommits) {
+                return null;
+            }
+            synchronized (mPendingCommits) {
+                Runnable[] commits = mPendingCommits.toArray(new Runnable[0]);
+                mPendingCommits.clear();
+                mHasPendingCommits = false;
+                return commits;
             }
         }
+
+        private void runPendingCommits() {
+            runCommits(takePendingCommits());
+        }
+
+        private static void runCommits(Runnable[] commits) {
+            if (commits == null) {
+                return;
+            }
+            for (Runnable commit : commits) {
+                commit.run();
+            }
+        }
+
+        private static Handler getMainHandler() {
+            Handler handler = sMainHandler;
+            if (handler == null) {
+                synchronized (AdapterDataObservable.class) {
+                    handler = sMainHandler;
+                    if (handler == null) {
+                        handler = new Handler(Looper.getMainLooper());
+                        sMainHandler = handler;
+                    }
+                }
+            }
+            return handler;
+        }
     }
 
     /**
-     * 被观察者
+     * 被观察者，观察者列表为写时复制的数组，注册、取消注册时加锁复制一份新数组，通知时直接遍历当前数组，不加锁也不分配对象
+     * 通知过程中注册、取消注册观察者，不影响这次通知
      */
     private static class Observable<T> {
+        private static final Object[] EMPTY = new Object[0];
+
         /**
-         * 观察者列表
+         * 观察者列表，只整体替换，不修改
          */
-        protected final List<T> mObservers = new ArrayList<T>();
+        protected volatile Object[] mObservers = EMPTY;
 
         /**
          * 注册观察者
@@ -265,10 +3396,14 @@ public class ListLayout extends LinearLayout {
             if (observer == null) {
                 throw new IllegalArgumentException("observer不能为空");
             }
-            synchronized (mObservers) {
-                if (!mObservers.contains(observer)) {
-                    mObservers.add(observer);
+            synchronized (this) {
+                Object[] observers = mObservers;
+                if (indexOf(observers, observer) != -1) {
+                    return;
                 }
+                Object[] newObservers = Arrays.copyOf(observers, observers.length + 1);
+                newObservers[observers.length] = observer;
+                mObservers = newObservers;
             }
         }
 
@@ -279,8 +3414,16 @@ public class ListLayout extends LinearLayout {
             if (observer == null) {
                 throw new IllegalArgumentException("observer不能为空");
             }
-            synchronized (mObservers) {
-                mObservers.remove(observer);
+            synchronized (this) {
+                Object[] observers = mObservers;
+                int index = indexOf(observers, observer);
+                if (index == -1) {
+                    return;
+                }
+                Object[] newObservers = new Object[observers.length - 1];
+                System.arraycopy(observers, 0, newObservers, 0, index);
+                System.arraycopy(observers, index + 1, newObservers, index, observers.length - index - 1);
+                mObservers = newObservers;
             }
         }
 
@@ -288,9 +3431,18 @@ public class ListLayout extends LinearLayout {
          * 取消订阅所有观察者
          */
         public void unregisterAll() {
-            synchronized (mObservers) {
-                mObservers.clear();
+            synchronized (this) {
+                mObservers = EMPTY;
+            }
+        }
+
+        private static int indexOf(Object[] observers, Object observer) {
+            for (int i = 0; i < observers.length; i++) {
+                if (observers[i].equals(observer)) {
+                    return i;
+                }
             }
+            return -1;
         }
     }
 }
\ No newline at end of file
@@ -0,0 +1,205 @@
+package com.cosleeplib.listlayout;
+
+import android.util.SparseArray;
+
+/**
+ * ListLayout的性能指标回调，通过ListLayout.setMetrics()设置
+ * 设置后，ListLayout会统计填充、创建、渲染ViewHolder等阶段的耗时，并用android.os.Trace包裹这些阶段，
+ * Trace的名称为Adapter.getItemViewTypeName()返回的条目类型名称，MultiTypeAdapter为ItemViewBinder的类名，
+ * 方便和Perfetto、Systrace抓到的数据对应。没有设置时，不做任何统计，也不会添加Trace
+ * 所有回调都在主线程调用，耗时单位都是纳秒
+ */
+public abstract class ListLayoutMetrics {
+    /**
+     * 获取了条目类型，包括MultiTypeAdapter中按模型类查找ItemViewBinder的耗时
+     */
+    public void onGetItemViewType(int itemViewType, long durationNanos) {
+    }
+
+    /**
+     * 获取ViewHolder，优先从暂存区、回收池中复用
+     *
+     * @param recycled 是否为复用的ViewHolder，false为新建
+     */
+    public void onObtainViewHolder(int itemViewType, boolean recycled) {
+    }
+
+    /**
+     * 新建了ViewHolder，包括空闲时预创建的ViewHolder
+     */
+    public void onCreateViewHolder(int itemViewType, long durationNanos) {
+    }
+
+    /**
+     * 渲染了ViewHolder
+     */
+    public void onBindViewHolder(int itemViewType, long durationNanos) {
+    }
+
+    /**
+     * 重新填充完成，分帧填充时为从开始填充到填充完成的时间
+     *
+     * @param childCount 填充后的子View数量
+     * @param itemCount  条目总数
+     */
+    public void onPopulate(long durationNanos, int childCount, int itemCount) {
+    }
+
+    /**
+     * 按条目类型汇总各项指标的实现，可以直接使用，也可以作为自定义实现的参考
+     */
+    public static class Recorder extends ListLayoutMetrics {
+        /**
+         * 各条目类型的统计，key为条目类型
+         */
+        private final SparseArray<TypeStats> mTypeStats = new SparseArray<>();
+        private int mPopulateCount;
+        private long mPopulateNanos;
+        private int mLastChildCount;
+        private int mLastItemCount;
+
+        @Override
+        public void onGetItemViewType(int itemViewType, long durationNanos) {
+            TypeStats stats = obtainTypeStats(itemViewType);
+            stats.resolveCount++;
+            stats.resolveNanos += durationNanos;
+        }
+
+        @Override
+        public void onObtainViewHolder(int itemViewType, boolean recycled) {
+            TypeStats stats = obtainTypeStats(itemViewType);
+            if (recycled) {
+                stats.poolHitCount++;
+            } else {
+                stats.poolMissCount++;
+            }
+        }
+
+        @Override
+        public void onCreateViewHolder(int itemViewType, long durationNanos) {
+            TypeStats stats = obtainTypeStats(itemViewType);
+            stats.createCount++;
+            stats.createNanos += durationNanos;
+        }
+
+        @Override
+        public void onBindViewHolder(int itemViewType, long durationNanos) {
+            TypeStats stats = obtainTypeStats(itemViewType);
+            stats.bindCount++;
+            stats.bindNanos += durationNanos;
+        }
+
+        @Override
+        public void onPopulate(long durationNanos, int childCount, int itemCount) {
+            mPopulateCount++;
+            mPopulateNanos += durationNanos;
+            mLastChildCount = childCount;
+            mLastItemCount = itemCount;
+        }
+
+        /**
+         * 获取某个条目类型的统计，没有时返回null
+         */
+        public TypeStats getTypeStats(int itemViewType) {
+            return mTypeStats.get(itemViewType);
+        }
+
+        /**
+         * 获取统计过的条目类型数量，配合getTypeStatsAt()遍历
+         */
+        public int getTypeCount() {
+            return mTypeStats.size();
+        }
+
+        public TypeStats getTypeStatsAt(int index) {
+            return mTypeStats.valueAt(index);
+        }
+
+        /**
+         * 重新填充的次数
+         */
+        public int getPopulateCount() {
+            return mPopulateCount;
+        }
+
+        /**
+         * 重新填充的总耗时
+         */
+        public long getPopulateNanos() {
+            return mPopulateNanos;
+        }
+
+        /**
+         * 最后一次重新填充后的子View数量
+         */
+        public int getLastChildCount() {
+            return mLastChildCount;
+        }
+
+        /**
+         * 最后一次重新填充时的条目总数
+         */
+        public int getLastItemCount() {
+            return mLastItemCount;
+        }
+
+        /**
+         * 清空统计
+         */
+        public void reset() {
+            mTypeStats.clear();
+            mPopulateCount = 0;
+            mPopulateNanos = 0;
+            mLastChildCount = 0;
+            mLastItemCount = 0;
+        }
+
+        private TypeStats obtainTypeStats(int itemViewType) {
+            TypeStats stats = mTypeStats.get(itemViewType);
+            if (stats == null) {
+                stats = new TypeStats(itemViewType);
+                mTypeStats.put(itemViewType, stats);
+            }
+            return stats;
+        }
+
+        @Override
+        public String toString() {
+            StringBuilder builder = new StringBuilder("ListLayoutMetrics{populate=")
+                    .append(mPopulateCount).append('/').append(mPopulateNanos / 1000).append("us")
+                    .append(", children=").append(mLastChildCount).append('/').append(mLastItemCount);
+            for (int i = 0; i < mTypeStats.size(); i++) {
+                builder.append(", ").append(mTypeStats.valueAt(i));
+            }
+            return builder.append('}').toString();
+        }
+    }
+
+    /**
+     * 某个条目类型的统计
+     */
+    public static class TypeStats {
+        public final int itemViewType;
+        public int resolveCount;
+        public long resolveNanos;
+        public int createCount;
+        public long createNanos;
+        public int bindCount;
+        public long bindNanos;
+        public int poolHitCount;
+        public int poolMissCount;
+
+        TypeStats(int itemViewType) {
+            this.itemViewType = itemViewType;
+        }
+
+        @Override
+        public String toString() {
+            return "type" + itemViewType
+                    + "{create=" + createCount + '/' + createNanos / 1000 + "us"
+                    + ", bind=" + bindCount + '/' + bindNanos / 1000 + "us"
+                    + ", resolve=" + resolveCount + '/' + resolveNanos / 1000 + "us"
+                    + ", pool=" + poolHitCount + '/' + (poolHitCount + poolMissCount) + '}';
+        }
+    }
+}
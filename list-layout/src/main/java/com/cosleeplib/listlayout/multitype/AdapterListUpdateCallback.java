@@ -0,0 +1,34 @@
+package com.cosleeplib.listlayout.multitype;
+
+import com.cosleeplib.listlayout.ListLayout;
+
+/**
+ * 把列表更新分发给Adapter的回调，最终会通知到ListLayout局部刷新
+ */
+public final class AdapterListUpdateCallback implements ListUpdateCallback {
+    private final ListLayout.Adapter<?> mAdapter;
+
+    public AdapterListUpdateCallback(ListLayout.Adapter<?> adapter) {
+        mAdapter = adapter;
+    }
+
+    @Override
+    public void onInserted(int position, int count) {
+        mAdapter.notifyItemRangeInserted(position, count);
+    }
+
+    @Override
+    public void onRemoved(int position, int count) {
+        mAdapter.notifyItemRangeRemoved(position, count);
+    }
+
+    @Override
+    public void onMoved(int fromPosition, int toPosition) {
+        mAdapter.notifyItemMoved(fromPosition, toPosition);
+    }
+
+    @Override
+    public void onChanged(int position, int count, Object payload) {
+        mAdapter.notifyItemRangeChanged(position, count, payload);
+    }
+}
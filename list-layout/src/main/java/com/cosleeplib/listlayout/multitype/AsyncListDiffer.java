@@ -0,0 +1,142 @@
+package com.cosleeplib.listlayout.multitype;
+
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static com.cosleeplib.listlayout.multitype.Preconditions.checkNotNull;
+
+/**
+ * 异步差异对比，在后台线程计算新旧数据的差异，再回到主线程一起提交新数据和局部刷新
+ * 连续提交多次时，只有最后一次提交的结果会生效，之前还没算完的结果会被丢弃
+ * 注意：submitList()需要在主线程调用，提交的列表提交后不能再修改，PersistentItems本身不可变，可以直接提交
+ */
+public class AsyncListDiffer {
+    /**
+     * 默认的后台线程池，所有AsyncListDiffer共用
+     */
+    private static final Object sExecutorLock = new Object();
+    private static ExecutorService sDiffExecutor = null;
+
+    private final MultiTypeAdapter mAdapter;
+    private final Executor mBackgroundExecutor;
+    private final Executor mMainThreadExecutor;
+    private final boolean mDetectMoves;
+    /**
+     * 当前生效的数据
+     */
+    private List<?> mList;
+    /**
+     * 提交的次数，后台计算完时和它对比，不一致说明已经有更新的提交了，结果直接丢弃
+     */
+    private int mMaxScheduledGeneration;
+
+    public AsyncListDiffer(MultiTypeAdapter adapter) {
+        this(adapter, getDefaultDiffExecutor());
+    }
+
+    public AsyncListDiffer(MultiTypeAdapter adapter, Executor backgroundExecutor) {
+        this(adapter, backgroundExecutor, new MainThreadExecutor(), true);
+    }
+
+    /**
+     * @param backgroundExecutor 计算差异的线程池
+     * @param mainThreadExecutor 提交结果的线程池，一般为主线程，单元测试时可以传同步执行的Executor
+     * @param detectMoves        是否检测条目移动
+     */
+    public AsyncListDiffer(MultiTypeAdapter adapter, Executor backgroundExecutor,
+                           Executor mainThreadExecutor, boolean detectMoves) {
+        checkNotNull(adapter);
+        checkNotNull(backgroundExecutor);
+        checkNotNull(mainThreadExecutor);
+        mAdapter = adapter;
+        mBackgroundExecutor = backgroundExecutor;
+        mMainThreadExecutor = mainThreadExecutor;
+        mDetectMoves = detectMoves;
+        mList = adapter.getItems();
+    }
+
+    /**
+     * 获取当前生效的数据
+     */
+    public List<?> getCurrentList() {
+        return mList;
+    }
+
+    /**
+     * 提交新数据
+     */
+    public void submitList(List<?> newList) {
+        submitList(newList, null);
+    }
+
+    /**
+     * 提交新数据
+     *
+     * @param commitCallback 新数据提交到Adapter之后回调，提交被后来的数据覆盖时不会回调
+     */
+    public void submitList(final List<?> newList, final Runnable commitCallback) {
+        checkNotNull(newList);
+        final int runGeneration = ++mMaxScheduledGeneration;
+        if (newList == mList) {
+            //同一个列表，没有差异
+            if (commitCallback != null) {
+                commitCallback.run();
+            }
+            return;
+        }
+        final List<?> oldList = mList;
+        //新旧数据有一个为空时，不需要计算差异，直接提交
+        if (oldList.isEmpty() || newList.isEmpty()) {
+            mList = newList;
+            mAdapter.setItems(newList);
+            if (!oldList.isEmpty()) {
+                mAdapter.notifyItemRangeRemoved(0, oldList.size());
+            } else if (!newList.isEmpty()) {
+                mAdapter.notifyItemRangeInserted(0, newList.size());
+            }
+            if (commitCallback != null) {
+                commitCallback.run();
+            }
+            return;
+        }
+        mBackgroundExecutor.execute(new Runnable() {
+            @Override
+            public void run() {
+                final DiffUtil.DiffResult result = DiffUtil.calculateDiff(
+                        new ItemDiffCallback(mAdapter, oldList, newList), mDetectMoves);
+                mMainThreadExecutor.execute(new Runnable() {
+                    @Override
+                    public void run() {
+                        //计算期间又有新的提交，丢弃这次的结果
+                        if (mMaxScheduledGeneration == runGeneration) {
+                            latchList(newList, result, commitCallback);
+                        }
+                    }
+                });
+            }
+        });
+    }
+
+    /**
+     * 在主线程中，提交新数据，并分发差异
+     */
+    private void latchList(List<?> newList, DiffUtil.DiffResult result, Runnable commitCallback) {
+        mList = newList;
+        mAdapter.setItems(newList);
+        result.dispatchUpdatesTo(mAdapter);
+        if (commitCallback != null) {
+            commitCallback.run();
+        }
+    }
+
+    private static Executor getDefaultDiffExecutor() {
+        synchronized (sExecutorLock) {
+            if (sDiffExecutor == null) {
+                sDiffExecutor = Executors.newFixedThreadPool(2);
+            }
+        }
+        return sDiffExecutor;
+    }
+}
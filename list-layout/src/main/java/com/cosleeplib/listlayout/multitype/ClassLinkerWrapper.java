@@ -18,6 +18,7 @@ package com.cosleeplib.listlayout.multitype;
 
 
 import java.util.Arrays;
+import java.util.IdentityHashMap;
 
 /**
  * @author drakeet
@@ -28,6 +29,11 @@ final class ClassLinkerWrapper<T> implements Linker<T> {
     ClassLinker<T> classLinker;
     private final
     ItemViewBinder<T, ?>[] binders;
+    /**
+     * binder的Class到它在binders中第一次出现的位置，避免每次都遍历binders
+     */
+    private final
+    IdentityHashMap<Class<?>, Integer> indexes;
 
 
     private ClassLinkerWrapper(
@@ -35,6 +41,13 @@ final class ClassLinkerWrapper<T> implements Linker<T> {
             ItemViewBinder<T, ?>[] binders) {
         this.classLinker = classLinker;
         this.binders = binders;
+        this.indexes = new IdentityHashMap<>(binders.length);
+        for (int i = 0; i < binders.length; i++) {
+            Class<?> binderClass = binders[i].getClass();
+            if (!indexes.containsKey(binderClass)) {
+                indexes.put(binderClass, i);
+            }
+        }
     }
 
     static <T> ClassLinkerWrapper<T> wrap(
@@ -46,10 +59,9 @@ final class ClassLinkerWrapper<T> implements Linker<T> {
     @Override
     public int index(int position, T t) {
         Class<?> userIndexClass = classLinker.index(position, t);
-        for (int i = 0; i < binders.length; i++) {
-            if (binders[i].getClass().equals(userIndexClass)) {
-                return i;
-            }
+        Integer index = indexes.get(userIndexClass);
+        if (index != null) {
+            return index;
         }
         throw new IndexOutOfBoundsException(
                 String.format("%s is out of your registered binders'(%s) bounds.",
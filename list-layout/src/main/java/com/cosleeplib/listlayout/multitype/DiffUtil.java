@@ -0,0 +1,402 @@
+package com.cosleeplib.listlayout.multitype;
+
+import com.cosleeplib.listlayout.ListLayout;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+
+/**
+ * 列表差异计算工具，基于Myers差分算法，计算出新旧列表之间最少的插入、移除、更新操作，可选检测条目移动
+ * 计算结果通过DiffResult分发给Adapter，ListLayout只会处理变化了的条目
+ */
+public final class DiffUtil {
+    private DiffUtil() {
+    }
+
+    /**
+     * 差异计算的回调，提供新旧列表的信息
+     */
+    public abstract static class Callback {
+        /**
+         * 旧列表的条目数量
+         */
+        public abstract int getOldListSize();
+
+        /**
+         * 新列表的条目数量
+         */
+        public abstract int getNewListSize();
+
+        /**
+         * 新旧两个条目是否是同一个条目，一般比较Id
+         */
+        public abstract boolean areItemsTheSame(int oldItemPosition, int newItemPosition);
+
+        /**
+         * 同一个条目的内容是否有变化，只有areItemsTheSame()返回true时才会调用
+         */
+        public abstract boolean areContentsTheSame(int oldItemPosition, int newItemPosition);
+
+        /**
+         * 条目内容有变化时，返回局部更新的payload，返回null则完整渲染
+         */
+        public Object getChangePayload(int oldItemPosition, int newItemPosition) {
+            return null;
+        }
+    }
+
+    /**
+     * 计算差异，会检测条目移动
+     */
+    public static DiffResult calculateDiff(Callback cb) {
+        return calculateDiff(cb, true);
+    }
+
+    /**
+     * 计算差异
+     *
+     * @param detectMoves 是否检测条目移动，不检测时，移动的条目会变成一次移除和一次插入
+     */
+    public static DiffResult calculateDiff(Callback cb, boolean detectMoves) {
+        final int oldSize = cb.getOldListSize();
+        final int newSize = cb.getNewListSize();
+        final int[] oldToNew = new int[oldSize];
+        final int[] newToOld = new int[newSize];
+        Arrays.fill(oldToNew, ListLayout.NO_POSITION);
+        Arrays.fill(newToOld, ListLayout.NO_POSITION);
+        //对角线数组，正向和反向各一个，每次求中间蛇时复用
+        final int[] forward = new int[oldSize + newSize + 4];
+        final int[] backward = new int[oldSize + newSize + 4];
+        //待处理的区间，每个区间为{oldStart, oldEnd, newStart, newEnd}，用栈代替递归，避免列表很长时栈溢出
+        final ArrayList<int[]> stack = new ArrayList<>();
+        stack.add(new int[]{0, oldSize, 0, newSize});
+        while (!stack.isEmpty()) {
+            int[] range = stack.remove(stack.size() - 1);
+            int oldStart = range[0];
+            int oldEnd = range[1];
+            int newStart = range[2];
+            int newEnd = range[3];
+            //先跳过相同的头和尾，大部分列表更新只改了其中一小段
+            while (oldStart < oldEnd && newStart < newEnd && cb.areItemsTheSame(oldStart, newStart)) {
+                oldToNew[oldStart] = newStart;
+                newToOld[newStart] = oldStart;
+                oldStart++;
+                newStart++;
+            }
+            while (oldStart < oldEnd && newStart < newEnd && cb.areItemsTheSame(oldEnd - 1, newEnd - 1)) {
+                oldToNew[oldEnd - 1] = newEnd - 1;
+                newToOld[newEnd - 1] = oldEnd - 1;
+                oldEnd--;
+                newEnd--;
+            }
+            if (oldStart == oldEnd || newStart == newEnd) {
+                continue;
+            }
+            int[] split = midPoint(cb, oldStart, oldEnd, newStart, newEnd, forward, backward, oldToNew, newToOld);
+            stack.add(new int[]{oldStart, split[0], newStart, split[1]});
+            stack.add(new int[]{split[2], oldEnd, split[3], newEnd});
+        }
+        boolean[] moved = null;
+        if (detectMoves) {
+            moved = findMoves(cb, oldToNew, newToOld);
+        }
+        return new DiffResult(cb, oldToNew, newToOld, moved);
+    }
+
+    /**
+     * 查找中间蛇，把找到的对角线记录为相同条目，返回中间蛇两侧剩下的区间{leftOldEnd, leftNewEnd, rightOldStart, rightNewStart}
+     * 调用前已经去掉了相同的头尾，所以编辑距离至少为1
+     */
+    private static int[] midPoint(Callback cb, int oldStart, int oldEnd, int newStart, int newEnd,
+                                  int[] forward, int[] backward, int[] oldToNew, int[] newToOld) {
+        final int n = oldEnd - oldStart;
+        final int m = newEnd - newStart;
+        final int delta = n - m;
+        final boolean checkInForward = (delta & 1) != 0;
+        final int maxD = (n + m + 1) / 2;
+        final int offset = maxD + 1;
+        forward[offset + 1] = 0;
+        backward[offset + 1] = 0;
+        for (int d = 0; d <= maxD; d++) {
+            //正向搜索
+            for (int k = -d; k <= d; k += 2) {
+                int x;
+                int prevX;
+                int prevY;
+                if (k == -d || (k != d && forward[offset + k - 1] < forward[offset + k + 1])) {
+                    //向下走一步，即插入
+                    x = forward[offset + k + 1];
+                    prevX = x;
+                    prevY = x - k - 1;
+                } else {
+                    //向右走一步，即移除
+                    prevX = forward[offset + k - 1];
+                    prevY = prevX - k + 1;
+                    x = prevX + 1;
+                }
+                int y = x - k;
+                final int startX = x;
+                final int startY = y;
+                while (x < n && y < m && cb.areItemsTheSame(oldStart + x, newStart + y)) {
+                    x++;
+                    y++;
+                }
+                forward[offset + k] = x;
+                if (checkInForward) {
+                    int backwardK = delta - k;
+                    if (backwardK >= -d + 1 && backwardK <= d - 1 && x + backward[offset + backwardK] >= n) {
+                        recordSnake(oldStart + startX, newStart + startY, x - startX, oldToNew, newToOld);
+                        return new int[]{oldStart + prevX, newStart + prevY, oldStart + x, newStart + y};
+                    }
+                }
+            }
+            //反向搜索，坐标从尾部往前算
+            for (int k = -d; k <= d; k += 2) {
+                int x;
+                int prevX;
+                int prevY;
+                if (k == -d || (k != d && backward[offset + k - 1] < backward[offset + k + 1])) {
+                    x = backward[offset + k + 1];
+                    prevX = x;
+                    prevY = x - k - 1;
+                } else {
+                    prevX = backward[offset + k - 1];
+                    prevY = prevX - k + 1;
+                    x = prevX + 1;
+                }
+                int y = x - k;
+                final int startX = x;
+                final int startY = y;
+                while (x < n && y < m && cb.areItemsTheSame(oldEnd - 1 - x, newEnd - 1 - y)) {
+                    x++;
+                    y++;
+                }
+                backward[offset + k] = x;
+                if (!checkInForward) {
+                    int forwardK = delta - k;
+                    if (forwardK >= -d && forwardK <= d && x + forward[offset + forwardK] >= n) {
+                        recordSnake(oldEnd - x, newEnd - y, x - startX, oldToNew, newToOld);
+                        return new int[]{oldEnd - x, newEnd - y, oldEnd - prevX, newEnd - prevY};
+                    }
+                }
+            }
+        }
+        //编辑距离内一定能找到中间蛇，找不到说明计算过程中Callback返回的结果前后不一致
+        throw new IllegalStateException("没有找到中间蛇，请检查计算差异的过程中新旧列表是否被修改，"
+                + "以及areItemsTheSame()对同一对条目是否总是返回相同的结果");
+    }
+
+    /**
+     * 记录一段对角线，即连续的相同条目
+     */
+    private static void recordSnake(int oldPosition, int newPosition, int size, int[] oldToNew, int[] newToOld) {
+        for (int i = 0; i < size; i++) {
+            oldToNew[oldPosition + i] = newPosition + i;
+            newToOld[newPosition + i] = oldPosition + i;
+        }
+    }
+
+    /**
+     * 在被移除和被插入的条目中，查找相同的条目，视为移动
+     */
+    private static boolean[] findMoves(Callback cb, int[] oldToNew, int[] newToOld) {
+        boolean[] moved = new boolean[oldToNew.length];
+        for (int oldPosition = 0; oldPosition < oldToNew.length; oldPosition++) {
+            if (oldToNew[oldPosition] != ListLayout.NO_POSITION) {
+                continue;
+            }
+            for (int newPosition = 0; newPosition < newToOld.length; newPosition++) {
+                if (newToOld[newPosition] == ListLayout.NO_POSITION
+                        && cb.areItemsTheSame(oldPosition, newPosition)) {
+                    oldToNew[oldPosition] = newPosition;
+                    newToOld[newPosition] = oldPosition;
+                    moved[oldPosition] = true;
+                    break;
+                }
+            }
+        }
+        return moved;
+    }
+
+    /**
+     * 差异计算结果
+     */
+    public static final class DiffResult {
+        private final int[] mOldToNew;
+        private final int[] mNewToOld;
+        /**
+         * 旧列表中，被移动了的条目
+         */
+        private final boolean[] mMoved;
+        /**
+         * 新列表中，内容有变化的条目
+         */
+        private final boolean[] mChanged;
+        /**
+         * 新列表中，内容有变化的条目的payload，都没有payload时为null
+         */
+        private Object[] mPayloads;
+
+        DiffResult(Callback cb, int[] oldToNew, int[] newToOld, boolean[] moved) {
+            mOldToNew = oldToNew;
+            mNewToOld = newToOld;
+            mMoved = moved;
+            mChanged = new boolean[newToOld.length];
+            //相同条目的内容是否变化，在计算时就确定下来，分发时不再回调Callback
+            for (int newPosition = 0; newPosition < newToOld.length; newPosition++) {
+                int oldPosition = newToOld[newPosition];
+                if (oldPosition == ListLayout.NO_POSITION || cb.areContentsTheSame(oldPosition, newPosition)) {
+                    continue;
+                }
+                mChanged[newPosition] = true;
+                Object payload = cb.getChangePayload(oldPosition, newPosition);
+                if (payload != null) {
+                    if (mPayloads == null) {
+                        mPayloads = new Object[newToOld.length];
+                    }
+                    mPayloads[newPosition] = payload;
+                }
+            }
+        }
+
+        /**
+         * 旧列表的位置转换为新列表的位置，条目被移除时返回NO_POSITION
+         */
+        public int convertOldPositionToNew(int oldListPosition) {
+            return mOldToNew[oldListPosition];
+        }
+
+        /**
+         * 新列表的位置转换为旧列表的位置，条目是新插入时返回NO_POSITION
+         */
+        public int convertNewPositionToOld(int newListPosition) {
+            return mNewToOld[newListPosition];
+        }
+
+        /**
+         * 把差异分发给Adapter
+         */
+        public void dispatchUpdatesTo(ListLayout.Adapter<?> adapter) {
+            dispatchUpdatesTo(new AdapterListUpdateCallback(adapter));
+        }
+
+        /**
+         * 按移除、移动、插入、更新的顺序分发差异，每一步的位置都是基于上一步执行后的列表
+         */
+        public void dispatchUpdatesTo(ListUpdateCallback updateCallback) {
+            dispatchRemovals(updateCallback);
+            dispatchMoves(updateCallback);
+            dispatchInsertions(updateCallback);
+            dispatchChanges(updateCallback);
+        }
+
+        /**
+         * 从后往前分发移除，前面的条目位置不受影响
+         */
+        private void dispatchRemovals(ListUpdateCallback updateCallback) {
+            int oldPosition = mOldToNew.length - 1;
+            while (oldPosition >= 0) {
+                if (mOldToNew[oldPosition] != ListLayout.NO_POSITION) {
+                    oldPosition--;
+                    continue;
+                }
+                int end = oldPosition;
+                while (oldPosition >= 0 && mOldToNew[oldPosition] == ListLayout.NO_POSITION) {
+                    oldPosition--;
+                }
+                updateCallback.onRemoved(oldPosition + 1, end - oldPosition);
+            }
+        }
+
+        /**
+         * 按新位置从前往后，把被移动的条目挪到它在新列表中的前一个条目后面
+         */
+        private void dispatchMoves(ListUpdateCallback updateCallback) {
+            if (mMoved == null) {
+                return;
+            }
+            //移除之后的列表，记录的是旧位置
+            int[] current = new int[mOldToNew.length];
+            int size = 0;
+            for (int oldPosition = 0; oldPosition < mOldToNew.length; oldPosition++) {
+                if (mOldToNew[oldPosition] != ListLayout.NO_POSITION) {
+                    current[size++] = oldPosition;
+                }
+            }
+            for (int newPosition = 0; newPosition < mNewToOld.length; newPosition++) {
+                int oldPosition = mNewToOld[newPosition];
+                if (oldPosition == ListLayout.NO_POSITION || !mMoved[oldPosition]) {
+                    continue;
+                }
+                int from = indexOf(current, size, oldPosition);
+                System.arraycopy(current, from + 1, current, from, size - from - 1);
+                size--;
+                //新列表中排在它前面的条目都已经就位，插到离它最近的那个后面
+                int to = 0;
+                for (int prev = newPosition - 1; prev >= 0; prev--) {
+                    if (mNewToOld[prev] != ListLayout.NO_POSITION) {
+                        to = indexOf(current, size, mNewToOld[prev]) + 1;
+                        break;
+                    }
+                }
+                System.arraycopy(current, to, current, to + 1, size - to);
+                current[to] = oldPosition;
+                size++;
+                if (from != to) {
+                    updateCallback.onMoved(from, to);
+                }
+            }
+        }
+
+        /**
+         * 从前往后分发插入，此时前面的条目都已经和新列表一致
+         */
+        private void dispatchInsertions(ListUpdateCallback updateCallback) {
+            int newPosition = 0;
+            while (newPosition < mNewToOld.length) {
+                if (mNewToOld[newPosition] != ListLayout.NO_POSITION) {
+                    newPosition++;
+                    continue;
+                }
+                int start = newPosition;
+                while (newPosition < mNewToOld.length && mNewToOld[newPosition] == ListLayout.NO_POSITION) {
+                    newPosition++;
+                }
+                updateCallback.onInserted(start, newPosition - start);
+            }
+        }
+
+        /**
+         * 分发内容更新，相邻并且payload相同的条目合并成一次
+         */
+        private void dispatchChanges(ListUpdateCallback updateCallback) {
+            int newPosition = 0;
+            while (newPosition < mChanged.length) {
+                if (!mChanged[newPosition]) {
+                    newPosition++;
+                    continue;
+                }
+                int start = newPosition;
+                Object payload = getPayload(start);
+                newPosition++;
+                while (newPosition < mChanged.length && mChanged[newPosition] && getPayload(newPosition) == payload) {
+                    newPosition++;
+                }
+                updateCallback.onChanged(start, newPosition - start, payload);
+            }
+        }
+
+        private Object getPayload(int newPosition) {
+            return mPayloads == null ? null : mPayloads[newPosition];
+        }
+
+        private static int indexOf(int[] array, int size, int value) {
+            for (int i = 0; i < size; i++) {
+                if (array[i] == value) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+    }
+}
@@ -0,0 +1,200 @@
+package com.cosleeplib.listlayout.multitype;
+
+import java.util.HashMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static com.cosleeplib.listlayout.multitype.Preconditions.checkNotNull;
+
+/**
+ * 基于哈希索引的TypePool实现，查找结果和MultiTypePool完全一致
+ * MultiTypePool每次查找都要线性遍历，该实现在第一次查找某个Class时，按MultiTypePool的规则解析一次并缓存，
+ * 之后同一个Class的查找都是O(1)，注册和解注册时清空缓存
+ * 查找可以在多个线程同时进行，例如AsyncListDiffer在后台线程计算差异时也会查找；注册和解注册需要在开始使用之前完成
+ */
+public class IndexedTypePool implements TypePool {
+    private static final int DEFAULT_CAPACITY = 8;
+    /**
+     * 模型类数组
+     */
+    private Class<?>[] classes;
+    /**
+     * ItemViewBinder数组
+     */
+    private ItemViewBinder<?, ?>[] binders;
+    /**
+     * 一对多链接器数组
+     */
+    private Linker<?>[] linkers;
+    /**
+     * 注册的数量
+     */
+    private int size;
+    /**
+     * 注册的模型类，在数组中第一次出现的位置
+     */
+    private final HashMap<Class<?>, Integer> firstIndexes = new HashMap<>();
+    /**
+     * 查找过的Class的结果缓存，包括父类、接口的解析结果，以及没找到的-1
+     * 主线程和后台线程都会在查找时写入，同一个Class解析出的结果相同，重复写入没有影响
+     */
+    private final ConcurrentHashMap<Class<?>, Integer> resolvedIndexes = new ConcurrentHashMap<>();
+
+    public IndexedTypePool() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * 创建类型池，并指定初始化大小
+     */
+    public IndexedTypePool(int initialCapacity) {
+        if (initialCapacity < 0) {
+            throw new IllegalArgumentException("Illegal Capacity: " + initialCapacity);
+        }
+        this.classes = new Class<?>[initialCapacity];
+        this.binders = new ItemViewBinder<?, ?>[initialCapacity];
+        this.linkers = new Linker<?>[initialCapacity];
+    }
+
+    /**
+     * 注册，模型类和对应的ItemViewBinder，以及链接器
+     */
+    @Override
+    public <T> void register(
+            Class<? extends T> clazz,
+            ItemViewBinder<T, ?> binder,
+            Linker<T> linker) {
+        checkNotNull(clazz);
+        checkNotNull(binder);
+        checkNotNull(linker);
+        ensureCapacity(size + 1);
+        classes[size] = clazz;
+        binders[size] = binder;
+        linkers[size] = linker;
+        if (!firstIndexes.containsKey(clazz)) {
+            firstIndexes.put(clazz, size);
+        }
+        size++;
+        resolvedIndexes.clear();
+    }
+
+    /**
+     * 解注册，移除该模型类的所有注册信息
+     */
+    @Override
+    public boolean unregister(Class<?> clazz) {
+        checkNotNull(clazz);
+        if (!firstIndexes.containsKey(clazz)) {
+            return false;
+        }
+        int newSize = 0;
+        for (int i = 0; i < size; i++) {
+            if (classes[i].equals(clazz)) {
+                continue;
+            }
+            classes[newSize] = classes[i];
+            binders[newSize] = binders[i];
+            linkers[newSize] = linkers[i];
+            newSize++;
+        }
+        for (int i = newSize; i < size; i++) {
+            classes[i] = null;
+            binders[i] = null;
+            linkers[i] = null;
+        }
+        size = newSize;
+        //位置都变了，重建索引
+        firstIndexes.clear();
+        for (int i = 0; i < size; i++) {
+            if (!firstIndexes.containsKey(classes[i])) {
+                firstIndexes.put(classes[i], i);
+            }
+        }
+        resolvedIndexes.clear();
+        return true;
+    }
+
+    /**
+     * 返回注册的类型个数
+     */
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public int firstIndexOf(final Class<?> clazz) {
+        checkNotNull(clazz);
+        Integer resolved = resolvedIndexes.get(clazz);
+        if (resolved != null) {
+            return resolved;
+        }
+        int index = resolve(clazz);
+        resolvedIndexes.put(clazz, index);
+        return index;
+    }
+
+    /**
+     * 按MultiTypePool的规则解析：先找注册的模型类本身，没找到再按注册顺序找第一个父类或接口
+     */
+    private int resolve(Class<?> clazz) {
+        Integer index = firstIndexes.get(clazz);
+        if (index != null) {
+            return index;
+        }
+        for (int i = 0; i < size; i++) {
+            if (classes[i].isAssignableFrom(clazz)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * 根据位置，查找注册的模型类
+     */
+    @Override
+    public Class<?> getClass(int index) {
+        checkIndex(index);
+        return classes[index];
+    }
+
+    /**
+     * 根据位置，查找注册的ItemViewBinder
+     */
+    @Override
+    public ItemViewBinder<?, ?> getItemViewBinder(int index) {
+        checkIndex(index);
+        return binders[index];
+    }
+
+    /**
+     * 根据位置，查找链接器
+     */
+    @Override
+    public Linker<?> getLinker(int index) {
+        checkIndex(index);
+        return linkers[index];
+    }
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        }
+    }
+
+    private void ensureCapacity(int minCapacity) {
+        if (minCapacity <= classes.length) {
+            return;
+        }
+        int newCapacity = Math.max(minCapacity, classes.length * 2);
+        Class<?>[] newClasses = new Class<?>[newCapacity];
+        ItemViewBinder<?, ?>[] newBinders = new ItemViewBinder<?, ?>[newCapacity];
+        Linker<?>[] newLinkers = new Linker<?>[newCapacity];
+        System.arraycopy(classes, 0, newClasses, 0, size);
+        System.arraycopy(binders, 0, newBinders, 0, size);
+        System.arraycopy(linkers, 0, newLinkers, 0, size);
+        classes = newClasses;
+        binders = newBinders;
+        linkers = newLinkers;
+    }
+}
@@ -0,0 +1,78 @@
+package com.cosleeplib.listlayout.multitype;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * MultiTypeAdapter的差异对比回调，条目类型相同时，交给对应的ItemViewBinder判断是否相同
+ */
+final class ItemDiffCallback extends DiffUtil.Callback {
+    private final MultiTypeAdapter adapter;
+    private final List<?> oldItems;
+    private final List<?> newItems;
+
+    ItemDiffCallback(MultiTypeAdapter adapter, List<?> oldItems, List<?> newItems) {
+        this.adapter = adapter;
+        this.oldItems = toRandomAccess(oldItems);
+        this.newItems = toRandomAccess(newItems);
+    }
+
+    /**
+     * 差异对比时会反复按位置读取条目，PersistentItems按位置读取是O(log n)，先展开成数组
+     */
+    private static List<?> toRandomAccess(List<?> items) {
+        if (items instanceof PersistentItems) {
+            return Arrays.asList(items.toArray());
+        }
+        return items;
+    }
+
+    @Override
+    public int getOldListSize() {
+        return oldItems.size();
+    }
+
+    @Override
+    public int getNewListSize() {
+        return newItems.size();
+    }
+
+    @Override
+    public boolean areItemsTheSame(int oldItemPosition, int newItemPosition) {
+        Object oldItem = oldItems.get(oldItemPosition);
+        Object newItem = newItems.get(newItemPosition);
+        if (oldItem.getClass() != newItem.getClass()) {
+            return false;
+        }
+        int itemViewType = adapter.indexInTypesOf(oldItemPosition, oldItem);
+        if (itemViewType != adapter.indexInTypesOf(newItemPosition, newItem)) {
+            return false;
+        }
+        return getBinderOfType(itemViewType).areItemsTheSame(oldItem, newItem);
+    }
+
+    @Override
+    public boolean areContentsTheSame(int oldItemPosition, int newItemPosition) {
+        Object newItem = newItems.get(newItemPosition);
+        return getBinder(newItemPosition, newItem).areContentsTheSame(oldItems.get(oldItemPosition), newItem);
+    }
+
+    @Override
+    public Object getChangePayload(int oldItemPosition, int newItemPosition) {
+        Object newItem = newItems.get(newItemPosition);
+        return getBinder(newItemPosition, newItem).getChangePayload(oldItems.get(oldItemPosition), newItem);
+    }
+
+    private ItemViewBinder<Object, ?> getBinder(int position, Object item) {
+        return getBinderOfType(adapter.indexInTypesOf(position, item));
+    }
+
+    /**
+     * 条目类型相同的条目都是同一个ItemViewBinder注册的类型，可以按Object传给它
+     */
+    private ItemViewBinder<Object, ?> getBinderOfType(int itemViewType) {
+        @SuppressWarnings("unchecked")
+        ItemViewBinder<Object, ?> binder = (ItemViewBinder<Object, ?>) adapter.getTypePool().getItemViewBinder(itemViewType);
+        return binder;
+    }
+}
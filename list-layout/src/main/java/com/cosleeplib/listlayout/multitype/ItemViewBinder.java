@@ -65,10 +65,44 @@ public abstract class ItemViewBinder<T, VH extends ListLayout.ViewHolder> {
         return adapter;
     }
 
+    /**
+     * 在回收池中的key，多个ListLayout共用回收池时，key相等的ItemViewBinder创建的ViewHolder互相复用
+     * 默认为ItemViewBinder的类型，同一个类的不同实例创建的ViewHolder结构不同时，需要返回能区分它们的key，
+     * 例如ItemViewBinder自身。回收池只弱引用key，不能每次返回新建的对象
+     */
+    protected Object getRecycleKey() {
+        return getClass();
+    }
+
     /**
      * 返回条目Id，默认为-1
      */
     protected long getItemId(T item) {
         return ListLayout.NO_ID;
     }
+
+    /**
+     * 差异对比时，判断新旧两个条目是否是同一个条目，默认有条目Id时比较Id，否则使用equals()比较
+     */
+    protected boolean areItemsTheSame(T oldItem, T newItem) {
+        long oldItemId = getItemId(oldItem);
+        if (oldItemId != ListLayout.NO_ID) {
+            return oldItemId == getItemId(newItem);
+        }
+        return oldItem.equals(newItem);
+    }
+
+    /**
+     * 差异对比时，判断同一个条目的内容是否有变化，默认使用equals()比较
+     */
+    protected boolean areContentsTheSame(T oldItem, T newItem) {
+        return oldItem.equals(newItem);
+    }
+
+    /**
+     * 差异对比时，同一个条目的内容有变化，返回局部更新的payload，默认为null，即完整渲染
+     */
+    protected Object getChangePayload(T oldItem, T newItem) {
+        return null;
+    }
 }
\ No newline at end of file
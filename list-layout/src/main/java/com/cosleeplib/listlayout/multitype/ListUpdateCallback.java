@@ -0,0 +1,26 @@
+package com.cosleeplib.listlayout.multitype;
+
+/**
+ * 列表更新回调，DiffUtil计算出来的差异，通过该接口分发出去
+ */
+public interface ListUpdateCallback {
+    /**
+     * 插入了一段条目
+     */
+    void onInserted(int position, int count);
+
+    /**
+     * 移除了一段条目
+     */
+    void onRemoved(int position, int count);
+
+    /**
+     * 条目从fromPosition移动到了toPosition
+     */
+    void onMoved(int fromPosition, int toPosition);
+
+    /**
+     * 一段条目内容有更新
+     */
+    void onChanged(int position, int count, Object payload);
+}
@@ -0,0 +1,18 @@
+package com.cosleeplib.listlayout.multitype;
+
+import android.os.Handler;
+import android.os.Looper;
+
+import java.util.concurrent.Executor;
+
+/**
+ * 主线程执行器，后台任务完成后，把结果切回主线程提交
+ */
+class MainThreadExecutor implements Executor {
+    private final Handler mHandler = new Handler(Looper.getMainLooper());
+
+    @Override
+    public void execute(Runnable command) {
+        mHandler.post(command);
+    }
+}
@@ -41,17 +41,22 @@ public class MultiTypeAdapter extends ListLayout.Adapter<ListLayout.ViewHolder>
     List<?> items;
     private
     TypePool typePool;
+    /**
+     * 解析过的条目类型和Id，getItemViewType()、getItemId()每个条目只解析一次
+     */
+    private final
+    TypeIdTable typeIdTable = new TypeIdTable();
 
     public MultiTypeAdapter() {
         this(Collections.emptyList());
     }
 
     public MultiTypeAdapter(List<?> items) {
-        this(items, new MultiTypePool());
+        this(items, new IndexedTypePool());
     }
 
     public MultiTypeAdapter(List<?> items, int initialCapacity) {
-        this(items, new MultiTypePool(initialCapacity));
+        this(items, new IndexedTypePool(initialCapacity));
     }
 
     public MultiTypeAdapter(List<?> items, TypePool pool) {
@@ -59,6 +64,7 @@ public class MultiTypeAdapter extends ListLayout.Adapter<ListLayout.ViewHolder>
         checkNotNull(pool);
         this.items = items;
         this.typePool = pool;
+        setInternalDataObserver(typeIdTable);
     }
 
     /**
@@ -80,6 +86,7 @@ public class MultiTypeAdapter extends ListLayout.Adapter<ListLayout.ViewHolder>
             Linker<T> linker) {
         typePool.register(clazz, binder, linker);
         binder.adapter = this;
+        typeIdTable.invalidateAll();
     }
 
     /**
@@ -109,10 +116,69 @@ public class MultiTypeAdapter extends ListLayout.Adapter<ListLayout.ViewHolder>
 
     /**
      * 设置Adapter的数据
+     * 可以在后台线程调用，数据会和之后的第一个通知一起切换到主线程再替换，传入的列表之后不能再修改
      */
-    public void setItems(List<?> items) {
+    public void setItems(final List<?> items) {
         checkNotNull(items);
-        this.items = items;
+        commitData(new Runnable() {
+            @Override
+            public void run() {
+                MultiTypeAdapter.this.items = items;
+                typeIdTable.invalidateAll();
+            }
+        });
+    }
+
+    /**
+     * 换成修改后的新数据，已解析的条目类型和Id保留，调用方需要按变化调用notifyItemXxx()
+     * 用于PersistentItems这类每次修改都返回新实例的数据，只有变化的条目会重新解析
+     * 可以在后台线程调用，和setItems()一样随之后的通知一起切换到主线程
+     */
+    public void swapItems(final List<?> items) {
+        checkNotNull(items);
+        commitData(new Runnable() {
+            @Override
+            public void run() {
+                MultiTypeAdapter.this.items = items;
+            }
+        });
+    }
+
+    /**
+     * 设置新的数据，和当前数据做差异对比，只通知变化了的条目，会检测条目移动
+     * 注意：传入的列表必须是新的列表实例，不能是修改后的当前列表，使用PersistentItems时每次修改都会返回新的实例
+     */
+    public void submitItems(List<?> newItems) {
+        submitItems(newItems, true);
+    }
+
+    /**
+     * 设置新的数据，和当前数据做差异对比，只通知变化了的条目
+     *
+     * @param detectMoves 是否检测条目移动
+     */
+    public void submitItems(final List<?> newItems, boolean detectMoves) {
+        //差异在当前线程计算，后台线程调用时替换数据和分发差异在主线程的同一个任务里执行
+        final DiffUtil.DiffResult result = calculateDiff(newItems, detectMoves);
+        postUpdate(new Runnable() {
+            @Override
+            public void run() {
+                setItems(newItems);
+                result.dispatchUpdatesTo(MultiTypeAdapter.this);
+            }
+        });
+    }
+
+    /**
+     * 计算当前数据和新数据的差异，条目是否相同由对应的ItemViewBinder判断
+     */
+    public DiffUtil.DiffResult calculateDiff(List<?> newItems, boolean detectMoves) {
+        checkNotNull(newItems);
+        if (newItems == items) {
+            throw new IllegalArgumentException("newItems必须是新的列表实例，" +
+                    "不能和当前的列表自己计算差异");
+        }
+        return DiffUtil.calculateDiff(new ItemDiffCallback(this, items, newItems), detectMoves);
     }
 
     /**
@@ -122,12 +188,21 @@ public class MultiTypeAdapter extends ListLayout.Adapter<ListLayout.ViewHolder>
         return items;
     }
 
+    /**
+     * 获取当前数据的不可变快照，可以直接交给后台线程使用
+     * 数据是PersistentItems时直接返回，不需要复制；否则复制一份
+     */
+    public PersistentItems snapshotItems() {
+        return PersistentItems.copyOf(items);
+    }
+
     /**
      * 绑定一个TypePool
      */
     public void setTypePool(TypePool typePool) {
         checkNotNull(typePool);
         this.typePool = typePool;
+        typeIdTable.invalidateAll();
     }
 
     /**
@@ -142,8 +217,8 @@ public class MultiTypeAdapter extends ListLayout.Adapter<ListLayout.ViewHolder>
      */
     @Override
     public final int getItemViewType(int position) {
-        Object item = items.get(position);
-        return indexInTypesOf(position, item);
+        resolve(position);
+        return typeIdTable.getType(position);
     }
 
     @Override
@@ -164,12 +239,17 @@ public class MultiTypeAdapter extends ListLayout.Adapter<ListLayout.ViewHolder>
     }
 
     /**
-     * 渲染条目时调用
+     * 渲染条目时调用，payloads不为空时为局部更新
      */
+    @Override
     @SuppressWarnings("unchecked")
-    public final void onBindViewHolder(ListLayout.ViewHolder holder, int position, List<?> payloads) {
+    public final void onBindViewHolder(ListLayout.ViewHolder holder, int position, List<Object> payloads) {
         //获取条目数据
         Object item = items.get(position);
+        //通知数据列表渲染的位置，例如分页加载时预加载附近的页
+        if (items instanceof OnBindPositionListener) {
+            ((OnBindPositionListener) items).onBindPosition(position);
+        }
         //从类型池中，通过type类型，查找对应的ItemViewBinder实例
         ItemViewBinder binder = typePool.getItemViewBinder(holder.getItemViewType());
         //通知ItemViewBinder渲染条目
@@ -190,10 +270,42 @@ public class MultiTypeAdapter extends ListLayout.Adapter<ListLayout.ViewHolder>
     @Override
     @SuppressWarnings("unchecked")
     public final long getItemId(int position) {
+        resolve(position);
+        return typeIdTable.getId(position);
+    }
+
+    /**
+     * 解析条目的类型和Id，已经解析过的直接使用缓存，ClassLinker等链接器每个条目只调用一次
+     */
+    @SuppressWarnings("unchecked")
+    private void resolve(int position) {
+        if (typeIdTable.isResolved(position, items.size())) {
+            return;
+        }
         Object item = items.get(position);
-        int itemViewType = getItemViewType(position);
+        int itemViewType = indexInTypesOf(position, item);
         ItemViewBinder binder = typePool.getItemViewBinder(itemViewType);
-        return binder.getItemId(item);
+        typeIdTable.put(position, itemViewType, binder.getItemId(item));
+    }
+
+    /**
+     * 获取条目类型在回收池中的key，即对应的ItemViewBinder.getRecycleKey()，
+     * 多个ListLayout共用回收池时，key相等的ItemViewBinder创建的ViewHolder可以互相复用
+     */
+    @Override
+    public Object getRecycleKey(int itemViewType) {
+        return typePool.getItemViewBinder(itemViewType).getRecycleKey();
+    }
+
+    /**
+     * 获取条目类型的名称，为对应的ItemViewBinder的类名，性能指标统计时作为Trace的名称
+     */
+    @Override
+    public String getItemViewTypeName(int itemViewType) {
+        Class<?> binderClass = typePool.getItemViewBinder(itemViewType).getClass();
+        String name = binderClass.getSimpleName();
+        //匿名类没有简单类名
+        return name.isEmpty() ? binderClass.getName() : name;
     }
 
     /**
@@ -221,6 +333,7 @@ public class MultiTypeAdapter extends ListLayout.Adapter<ListLayout.ViewHolder>
      */
     private void checkAndRemoveAllTypesIfNeeded(Class<?> clazz) {
         if (typePool.unregister(clazz)) {
+            typeIdTable.invalidateAll();
             Log.w(TAG, "You have registered the " + clazz.getSimpleName() + " type. " +
                     "It will override the original binder(s).");
         }
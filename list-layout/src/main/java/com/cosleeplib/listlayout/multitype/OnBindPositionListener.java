@@ -0,0 +1,11 @@
+package com.cosleeplib.listlayout.multitype;
+
+/**
+ * 由MultiTypeAdapter的数据列表实现，渲染条目时，MultiTypeAdapter会通知渲染的位置，例如PagedList通过它预加载附近的页
+ */
+public interface OnBindPositionListener {
+    /**
+     * 渲染条目时在主线程调用，position为渲染的条目位置
+     */
+    void onBindPosition(int position);
+}
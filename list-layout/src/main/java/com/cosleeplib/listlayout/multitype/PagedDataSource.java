@@ -0,0 +1,19 @@
+package com.cosleeplib.listlayout.multitype;
+
+import java.util.List;
+
+/**
+ * 分页数据源，PagedList通过它按位置分页加载条目
+ * 注意：方法都在后台线程调用，可以直接做网络请求、读数据库等耗时操作
+ */
+public interface PagedDataSource<T> {
+    /**
+     * 加载条目总数，还没加载的位置显示占位条目
+     */
+    int loadCount();
+
+    /**
+     * 加载从startPosition开始的count个条目，返回的条目数量必须等于count
+     */
+    List<T> loadRange(int startPosition, int count);
+}
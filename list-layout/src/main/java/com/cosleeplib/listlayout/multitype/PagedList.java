@@ -0,0 +1,334 @@
+package com.cosleeplib.listlayout.multitype;
+
+import android.util.Log;
+
+import java.util.AbstractList;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static com.cosleeplib.listlayout.multitype.Preconditions.checkNotNull;
+
+/**
+ * 分页加载的条目列表，作为MultiTypeAdapter的数据使用，条目总数先确定，还没加载的位置返回Placeholder占位条目
+ * 渲染条目时，MultiTypeAdapter会通知最后渲染的位置，前后prefetchDistance范围内还没加载的页，在后台线程通过PagedDataSource加载，
+ * 加载完成后切回主线程，替换占位条目并局部刷新。已加载的条目超出maxLoadedItems时，丢弃离最后渲染位置最远的页，重新显示为占位条目
+ * <p>
+ * 使用方式：
+ * adapter.register(Placeholder.class, new PlaceholderViewBinder(height));
+ * new PagedList<>(adapter, dataSource, 20).loadInitial();
+ * <p>
+ * 注意：所有方法都需要在主线程调用。ListLayout需要开启虚拟化，否则所有条目都会被渲染，所有页都会被加载
+ */
+public class PagedList<T> extends AbstractList<Object> implements OnBindPositionListener {
+    private static final String TAG = PagedList.class.getSimpleName();
+    /**
+     * 不限制已加载的条目数量
+     */
+    public static final int UNBOUNDED = Integer.MAX_VALUE;
+
+    /**
+     * 默认的后台线程池，所有PagedList共用
+     */
+    private static final Object sExecutorLock = new Object();
+    private static ExecutorService sLoadExecutor = null;
+
+    private final MultiTypeAdapter mAdapter;
+    private final PagedDataSource<T> mDataSource;
+    private final int mPageSize;
+    private final int mPrefetchDistance;
+    private final int mMaxLoadedPages;
+    private final Executor mBackgroundExecutor;
+    private final Executor mMainThreadExecutor;
+    /**
+     * 条目总数
+     */
+    private int mSize;
+    /**
+     * 按页保存已加载的条目，没加载或已丢弃的页为null
+     */
+    private Object[] mPages = new Object[0];
+    /**
+     * 正在加载的页
+     */
+    private boolean[] mLoading = new boolean[0];
+    private int mLoadedPageCount;
+    /**
+     * 最后渲染的位置
+     */
+    private int mLastPosition;
+    /**
+     * 是否已经安排了加载，同一帧中渲染多个条目时，只在渲染结束后处理一次
+     */
+    private boolean mDispatchScheduled;
+    /**
+     * 重新加载的次数，后台加载完时和它对比，不一致说明数据已经重新加载了，结果直接丢弃
+     */
+    private int mGeneration;
+
+    private final Runnable mDispatchRunnable = new Runnable() {
+        @Override
+        public void run() {
+            mDispatchScheduled = false;
+            dispatchLoads();
+        }
+    };
+
+    public PagedList(MultiTypeAdapter adapter, PagedDataSource<T> dataSource, int pageSize) {
+        this(adapter, dataSource, pageSize, pageSize, UNBOUNDED);
+    }
+
+    public PagedList(MultiTypeAdapter adapter, PagedDataSource<T> dataSource,
+                     int pageSize, int prefetchDistance, int maxLoadedItems) {
+        this(adapter, dataSource, pageSize, prefetchDistance, maxLoadedItems,
+                getDefaultLoadExecutor(), new MainThreadExecutor());
+    }
+
+    /**
+     * @param pageSize           每页的条目数量
+     * @param prefetchDistance   预加载距离，最后渲染的位置前后这么多个条目都会被加载
+     * @param maxLoadedItems     最多保留的已加载条目数量，超出时丢弃离最后渲染位置最远的页，至少为pageSize + 2 * prefetchDistance，不限制时传UNBOUNDED
+     * @param backgroundExecutor 加载数据的线程池
+     * @param mainThreadExecutor 提交结果的线程池，一般为主线程，单元测试时可以传手动执行的Executor
+     */
+    public PagedList(MultiTypeAdapter adapter, PagedDataSource<T> dataSource,
+                     int pageSize, int prefetchDistance, int maxLoadedItems,
+                     Executor backgroundExecutor, Executor mainThreadExecutor) {
+        checkNotNull(adapter);
+        checkNotNull(dataSource);
+        checkNotNull(backgroundExecutor);
+        checkNotNull(mainThreadExecutor);
+        if (pageSize <= 0) {
+            throw new IllegalArgumentException("pageSize必须大于0：" + pageSize);
+        }
+        if (prefetchDistance < 0) {
+            throw new IllegalArgumentException("prefetchDistance不能小于0：" + prefetchDistance);
+        }
+        if (maxLoadedItems != UNBOUNDED && maxLoadedItems < pageSize + 2 * prefetchDistance) {
+            throw new IllegalArgumentException("maxLoadedItems不能小于pageSize + 2 * prefetchDistance，" +
+                    "否则最后渲染的位置附近的页会被丢弃后再重新加载");
+        }
+        mAdapter = adapter;
+        mDataSource = dataSource;
+        mPageSize = pageSize;
+        mPrefetchDistance = prefetchDistance;
+        mMaxLoadedPages = maxLoadedItems == UNBOUNDED ? UNBOUNDED : maxLoadedItems / pageSize;
+        mBackgroundExecutor = backgroundExecutor;
+        mMainThreadExecutor = mainThreadExecutor;
+    }
+
+    /**
+     * 加载条目总数，完成后设置为Adapter的数据，并开始加载第一个位置附近的页，重复调用时为重新加载，丢弃所有已加载的页
+     */
+    public void loadInitial() {
+        final int generation = ++mGeneration;
+        mBackgroundExecutor.execute(new Runnable() {
+            @Override
+            public void run() {
+                final int count;
+                try {
+                    count = mDataSource.loadCount();
+                } catch (RuntimeException e) {
+                    Log.e(TAG, "加载条目数量失败", e);
+                    return;
+                }
+                mMainThreadExecutor.execute(new Runnable() {
+                    @Override
+                    public void run() {
+                        if (generation == mGeneration) {
+                            latchCount(count);
+                        }
+                    }
+                });
+            }
+        });
+    }
+
+    /**
+     * 渲染条目时由MultiTypeAdapter调用，等同于loadAround()
+     */
+    @Override
+    public void onBindPosition(int position) {
+        loadAround(position);
+    }
+
+    /**
+     * 通知最后渲染的位置，加载在当前渲染结束后进行
+     */
+    public void loadAround(int position) {
+        if (position < 0 || position >= mSize) {
+            return;
+        }
+        mLastPosition = position;
+        if (!mDispatchScheduled) {
+            mDispatchScheduled = true;
+            mMainThreadExecutor.execute(mDispatchRunnable);
+        }
+    }
+
+    /**
+     * 获取条目，还没加载的位置返回Placeholder.INSTANCE
+     */
+    @Override
+    public Object get(int position) {
+        if (position < 0 || position >= mSize) {
+            throw new IndexOutOfBoundsException("位置越界：" + position + "，条目数量：" + mSize);
+        }
+        List<?> page = (List<?>) mPages[position / mPageSize];
+        return page == null ? Placeholder.INSTANCE : page.get(position % mPageSize);
+    }
+
+    @Override
+    public int size() {
+        return mSize;
+    }
+
+    /**
+     * 位置上的条目是否已经加载
+     */
+    public boolean isLoaded(int position) {
+        return mPages[position / mPageSize] != null;
+    }
+
+    /**
+     * 获取已加载的页数
+     */
+    public int getLoadedPageCount() {
+        return mLoadedPageCount;
+    }
+
+    /**
+     * 在主线程中，确定条目总数，所有位置先显示为占位条目
+     */
+    private void latchCount(int count) {
+        int pageCount = (count + mPageSize - 1) / mPageSize;
+        mSize = count;
+        mPages = new Object[pageCount];
+        mLoading = new boolean[pageCount];
+        mLoadedPageCount = 0;
+        mLastPosition = 0;
+        mAdapter.setItems(this);
+        mAdapter.notifyDataSetChanged();
+        dispatchLoads();
+    }
+
+    /**
+     * 加载最后渲染位置附近还没加载的页，再按内存预算丢弃远处的页
+     */
+    private void dispatchLoads() {
+        if (mSize == 0) {
+            return;
+        }
+        int firstPage = getFirstWindowPage();
+        int lastPage = getLastWindowPage();
+        for (int page = firstPage; page <= lastPage; page++) {
+            if (mPages[page] == null && !mLoading[page]) {
+                loadPage(page);
+            }
+        }
+        dropPages();
+    }
+
+    private void loadPage(final int page) {
+        final int generation = mGeneration;
+        final int startPosition = page * mPageSize;
+        final int count = Math.min(mPageSize, mSize - startPosition);
+        mLoading[page] = true;
+        mBackgroundExecutor.execute(new Runnable() {
+            @Override
+            public void run() {
+                List<T> items;
+                try {
+                    items = mDataSource.loadRange(startPosition, count);
+                    if (items.size() != count) {
+                        throw new IllegalStateException("loadRange(" + startPosition + ", " + count + ")返回了"
+                                + items.size() + "个条目");
+                    }
+                } catch (RuntimeException e) {
+                    Log.e(TAG, "加载第" + page + "页失败", e);
+                    items = null;
+                }
+                final List<T> result = items;
+                mMainThreadExecutor.execute(new Runnable() {
+                    @Override
+                    public void run() {
+                        if (generation == mGeneration) {
+                            latchPage(page, result);
+                        }
+                    }
+                });
+            }
+        });
+    }
+
+    /**
+     * 在主线程中，替换占位条目并局部刷新，加载失败时result为null，下次渲染附近的条目时重试
+     */
+    private void latchPage(int page, List<T> result) {
+        mLoading[page] = false;
+        if (result == null) {
+            return;
+        }
+        mPages[page] = result;
+        mLoadedPageCount++;
+        notifyItemRangeChanged(page * mPageSize, result.size());
+        dropPages();
+    }
+
+    /**
+     * 已加载的页超出预算时，丢弃预加载范围之外、离最后渲染位置最远的页
+     */
+    private void dropPages() {
+        int firstPage = getFirstWindowPage();
+        int lastPage = getLastWindowPage();
+        int lastBoundPage = mLastPosition / mPageSize;
+        while (mLoadedPageCount > mMaxLoadedPages) {
+            int farthestPage = -1;
+            int farthestDistance = -1;
+            for (int page = 0; page < mPages.length; page++) {
+                if (mPages[page] == null || (page >= firstPage && page <= lastPage)) {
+                    continue;
+                }
+                int distance = Math.abs(page - lastBoundPage);
+                if (distance > farthestDistance) {
+                    farthestPage = page;
+                    farthestDistance = distance;
+                }
+            }
+            if (farthestPage == -1) {
+                return;
+            }
+            int count = ((List<?>) mPages[farthestPage]).size();
+            mPages[farthestPage] = null;
+            mLoadedPageCount--;
+            notifyItemRangeChanged(farthestPage * mPageSize, count);
+        }
+    }
+
+    /**
+     * Adapter已经换成其它数据时，不再通知
+     */
+    private void notifyItemRangeChanged(int positionStart, int itemCount) {
+        if (mAdapter.getItems() == this) {
+            mAdapter.notifyItemRangeChanged(positionStart, itemCount);
+        }
+    }
+
+    private int getFirstWindowPage() {
+        return Math.max(0, mLastPosition - mPrefetchDistance) / mPageSize;
+    }
+
+    private int getLastWindowPage() {
+        return Math.min(mSize - 1, mLastPosition + mPrefetchDistance) / mPageSize;
+    }
+
+    private static Executor getDefaultLoadExecutor() {
+        synchronized (sExecutorLock) {
+            if (sLoadExecutor == null) {
+                sLoadExecutor = Executors.newFixedThreadPool(2);
+            }
+        }
+        return sLoadExecutor;
+    }
+}
@@ -0,0 +1,426 @@
+package com.cosleeplib.listlayout.multitype;
+
+import java.util.AbstractList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+import static com.cosleeplib.listlayout.multitype.Preconditions.checkNotNull;
+
+/**
+ * 不可变的条目列表，可以直接作为MultiTypeAdapter的数据
+ * 修改方法（append、insert、removeAt、update）都返回一个新的列表，原来的列表不变，新旧列表共用没有修改的部分，
+ * 所以拿到的列表本身就是快照，可以直接交给后台线程做差异对比等操作，不需要复制
+ * <p>
+ * 内部是按位置索引的AVL树，每个节点记录子树的条目数量，按位置查找、插入、移除、替换都是O(log n)
+ * 批量修改时使用Builder，Builder创建的节点在build()之前直接原地修改，不需要每次都复制路径
+ * <p>
+ * 注意：条目不能为null
+ */
+public final class PersistentItems extends AbstractList<Object> {
+    private static final PersistentItems EMPTY = new PersistentItems(null);
+
+    private final Node mRoot;
+
+    private PersistentItems(Node root) {
+        mRoot = root;
+    }
+
+    /**
+     * 获取空列表
+     */
+    public static PersistentItems empty() {
+        return EMPTY;
+    }
+
+    /**
+     * 创建包含指定条目的列表，items本身是PersistentItems时直接返回
+     */
+    public static PersistentItems copyOf(Collection<?> items) {
+        checkNotNull(items);
+        if (items instanceof PersistentItems) {
+            return (PersistentItems) items;
+        }
+        if (items.isEmpty()) {
+            return EMPTY;
+        }
+        Object[] array = items.toArray();
+        for (Object item : array) {
+            checkNotNull(item);
+        }
+        return new PersistentItems(buildBalanced(null, array, 0, array.length));
+    }
+
+    @Override
+    public Object get(int index) {
+        return get(mRoot, index);
+    }
+
+    @Override
+    public int size() {
+        return size(mRoot);
+    }
+
+    /**
+     * 在末尾添加条目，返回新的列表
+     */
+    public PersistentItems append(Object item) {
+        return insert(size(), item);
+    }
+
+    /**
+     * 在末尾添加多个条目，返回新的列表
+     */
+    public PersistentItems appendAll(Collection<?> items) {
+        if (items.isEmpty()) {
+            return this;
+        }
+        if (mRoot == null) {
+            return copyOf(items);
+        }
+        return builder().addAll(items).build();
+    }
+
+    /**
+     * 在指定位置插入条目，返回新的列表
+     */
+    public PersistentItems insert(int index, Object item) {
+        checkNotNull(item);
+        checkPositionIndex(index, size());
+        return new PersistentItems(insert(null, mRoot, index, item));
+    }
+
+    /**
+     * 移除指定位置的条目，返回新的列表
+     */
+    public PersistentItems removeAt(int index) {
+        checkElementIndex(index, size());
+        return new PersistentItems(remove(null, mRoot, index));
+    }
+
+    /**
+     * 替换指定位置的条目，返回新的列表
+     */
+    public PersistentItems update(int index, Object item) {
+        checkNotNull(item);
+        checkElementIndex(index, size());
+        return new PersistentItems(update(null, mRoot, index, item));
+    }
+
+    /**
+     * 创建以当前列表为初始内容的Builder，用于批量修改
+     */
+    public Builder builder() {
+        return new Builder(mRoot);
+    }
+
+    @Override
+    public Iterator<Object> iterator() {
+        return new ItemsIterator(mRoot);
+    }
+
+    @Override
+    public Object[] toArray() {
+        Object[] array = new Object[size()];
+        fill(mRoot, array, 0);
+        return array;
+    }
+
+    /**
+     * 批量修改PersistentItems，修改过程中创建的节点直接原地修改，build()后生成不可变的列表
+     * build()之后可以继续使用，之后的修改不会影响已经生成的列表
+     * 注意：Builder不是线程安全的
+     */
+    public static final class Builder {
+        /**
+         * 节点的所有者标记，节点的所有者和它相同时可以原地修改，build()时换成新的标记
+         */
+        private Object mEdit = new Object();
+        private Node mRoot;
+
+        private Builder(Node root) {
+            mRoot = root;
+        }
+
+        public int size() {
+            return PersistentItems.size(mRoot);
+        }
+
+        public Object get(int index) {
+            return PersistentItems.get(mRoot, index);
+        }
+
+        public Builder add(Object item) {
+            return add(size(), item);
+        }
+
+        public Builder add(int index, Object item) {
+            checkNotNull(item);
+            checkPositionIndex(index, size());
+            mRoot = insert(mEdit, mRoot, index, item);
+            return this;
+        }
+
+        public Builder addAll(Collection<?> items) {
+            for (Object item : items) {
+                add(item);
+            }
+            return this;
+        }
+
+        public Builder set(int index, Object item) {
+            checkNotNull(item);
+            checkElementIndex(index, size());
+            mRoot = update(mEdit, mRoot, index, item);
+            return this;
+        }
+
+        public Builder removeAt(int index) {
+            checkElementIndex(index, size());
+            mRoot = remove(mEdit, mRoot, index);
+            return this;
+        }
+
+        public Builder clear() {
+            mRoot = null;
+            return this;
+        }
+
+        /**
+         * 生成不可变的列表
+         */
+        public PersistentItems build() {
+            if (mRoot == null) {
+                return EMPTY;
+            }
+            //之后的修改不能再原地修改已经交出去的节点
+            mEdit = new Object();
+            return new PersistentItems(mRoot);
+        }
+    }
+
+    /**
+     * 树的节点，所有者为null或者不是当前的Builder时不可修改
+     */
+    private static final class Node {
+        final Object mOwner;
+        Object mValue;
+        Node mLeft;
+        Node mRight;
+        /**
+         * 子树的条目数量
+         */
+        int mSize;
+        /**
+         * 子树的高度，叶子节点为1
+         */
+        int mHeight;
+
+        Node(Object owner, Object value, Node left, Node right) {
+            mOwner = owner;
+            mValue = value;
+            mLeft = left;
+            mRight = right;
+            update();
+        }
+
+        void update() {
+            mSize = size(mLeft) + size(mRight) + 1;
+            mHeight = Math.max(height(mLeft), height(mRight)) + 1;
+        }
+    }
+
+    /**
+     * 中序遍历的迭代器，每个条目均摊O(1)
+     */
+    private static final class ItemsIterator implements Iterator<Object> {
+        private final Node[] mStack;
+        private int mDepth;
+
+        ItemsIterator(Node root) {
+            mStack = new Node[height(root)];
+            pushLeft(root);
+        }
+
+        @Override
+        public boolean hasNext() {
+            return mDepth > 0;
+        }
+
+        @Override
+        public Object next() {
+            if (mDepth == 0) {
+                throw new NoSuchElementException();
+            }
+            Node node = mStack[--mDepth];
+            pushLeft(node.mRight);
+            return node.mValue;
+        }
+
+        private void pushLeft(Node node) {
+            while (node != null) {
+                mStack[mDepth++] = node;
+                node = node.mLeft;
+            }
+        }
+    }
+
+    private static int size(Node node) {
+        return node == null ? 0 : node.mSize;
+    }
+
+    private static int height(Node node) {
+        return node == null ? 0 : node.mHeight;
+    }
+
+    private static Object get(Node root, int index) {
+        checkElementIndex(index, size(root));
+        Node node = root;
+        while (true) {
+            int leftSize = size(node.mLeft);
+            if (index < leftSize) {
+                node = node.mLeft;
+            } else if (index > leftSize) {
+                index -= leftSize + 1;
+                node = node.mRight;
+            } else {
+                return node.mValue;
+            }
+        }
+    }
+
+    private static Node insert(Object edit, Node node, int index, Object item) {
+        if (node == null) {
+            return new Node(edit, item, null, null);
+        }
+        int leftSize = size(node.mLeft);
+        if (index <= leftSize) {
+            return balance(edit, node, insert(edit, node.mLeft, index, item), node.mRight);
+        }
+        return balance(edit, node, node.mLeft, insert(edit, node.mRight, index - leftSize - 1, item));
+    }
+
+    private static Node remove(Object edit, Node node, int index) {
+        int leftSize = size(node.mLeft);
+        if (index < leftSize) {
+            return balance(edit, node, remove(edit, node.mLeft, index), node.mRight);
+        }
+        if (index > leftSize) {
+            return balance(edit, node, node.mLeft, remove(edit, node.mRight, index - leftSize - 1));
+        }
+        if (node.mLeft == null) {
+            return node.mRight;
+        }
+        if (node.mRight == null) {
+            return node.mLeft;
+        }
+        //用右子树的第一个条目替换被移除的条目
+        Node first = node.mRight;
+        while (first.mLeft != null) {
+            first = first.mLeft;
+        }
+        Node replacement = withValue(edit, node, first.mValue);
+        return balance(edit, replacement, node.mLeft, remove(edit, node.mRight, 0));
+    }
+
+    private static Node update(Object edit, Node node, int index, Object item) {
+        int leftSize = size(node.mLeft);
+        if (index < leftSize) {
+            return with(edit, node, update(edit, node.mLeft, index, item), node.mRight);
+        }
+        if (index > leftSize) {
+            return with(edit, node, node.mLeft, update(edit, node.mRight, index - leftSize - 1, item));
+        }
+        return withValue(edit, node, item);
+    }
+
+    /**
+     * 设置节点的左右子树，再按AVL的规则旋转，保证左右子树的高度差不超过1
+     */
+    private static Node balance(Object edit, Node node, Node left, Node right) {
+        int leftHeight = height(left);
+        int rightHeight = height(right);
+        if (leftHeight > rightHeight + 1) {
+            if (height(left.mLeft) >= height(left.mRight)) {
+                return with(edit, left, left.mLeft, with(edit, node, left.mRight, right));
+            }
+            Node leftRight = left.mRight;
+            return with(edit, leftRight,
+                    with(edit, left, left.mLeft, leftRight.mLeft),
+                    with(edit, node, leftRight.mRight, right));
+        }
+        if (rightHeight > leftHeight + 1) {
+            if (height(right.mRight) >= height(right.mLeft)) {
+                return with(edit, right, with(edit, node, left, right.mLeft), right.mRight);
+            }
+            Node rightLeft = right.mLeft;
+            return with(edit, rightLeft,
+                    with(edit, node, left, rightLeft.mLeft),
+                    with(edit, right, rightLeft.mRight, right.mRight));
+        }
+        return with(edit, node, left, right);
+    }
+
+    /**
+     * 返回子树换成left、right的节点，节点属于当前的Builder时原地修改，否则复制
+     */
+    private static Node with(Object edit, Node node, Node left, Node right) {
+        if (edit != null && node.mOwner == edit) {
+            node.mLeft = left;
+            node.mRight = right;
+            node.update();
+            return node;
+        }
+        if (node.mLeft == left && node.mRight == right) {
+            return node;
+        }
+        return new Node(edit, node.mValue, left, right);
+    }
+
+    /**
+     * 返回条目换成value的节点，节点属于当前的Builder时原地修改，否则复制
+     */
+    private static Node withValue(Object edit, Node node, Object value) {
+        if (edit != null && node.mOwner == edit) {
+            node.mValue = value;
+            return node;
+        }
+        return new Node(edit, value, node.mLeft, node.mRight);
+    }
+
+    /**
+     * 按数组创建平衡的树，O(n)
+     */
+    private static Node buildBalanced(Object edit, Object[] array, int from, int to) {
+        if (from >= to) {
+            return null;
+        }
+        int middle = (from + to) >>> 1;
+        return new Node(edit, array[middle],
+                buildBalanced(edit, array, from, middle), buildBalanced(edit, array, middle + 1, to));
+    }
+
+    /**
+     * 中序遍历，把条目依次填到数组中，返回下一个位置
+     */
+    private static int fill(Node node, Object[] array, int offset) {
+        if (node == null) {
+            return offset;
+        }
+        offset = fill(node.mLeft, array, offset);
+        array[offset++] = node.mValue;
+        return fill(node.mRight, array, offset);
+    }
+
+    private static void checkElementIndex(int index, int size) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        }
+    }
+
+    private static void checkPositionIndex(int index, int size) {
+        if (index < 0 || index > size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        }
+    }
+}
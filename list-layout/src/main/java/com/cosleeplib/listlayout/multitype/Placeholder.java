@@ -0,0 +1,19 @@
+package com.cosleeplib.listlayout.multitype;
+
+/**
+ * 占位条目，PagedList中还没有加载的位置返回它，需要注册PlaceholderViewBinder或者其子类来渲染
+ */
+public final class Placeholder {
+    /**
+     * 所有位置共用一个实例，不额外占用内存
+     */
+    public static final Placeholder INSTANCE = new Placeholder();
+
+    private Placeholder() {
+    }
+
+    @Override
+    public String toString() {
+        return "Placeholder";
+    }
+}
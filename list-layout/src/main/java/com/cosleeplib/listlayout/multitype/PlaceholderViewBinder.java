@@ -0,0 +1,34 @@
+package com.cosleeplib.listlayout.multitype;
+
+import android.view.LayoutInflater;
+import android.view.View;
+import android.view.ViewGroup;
+
+import com.cosleeplib.listlayout.ListLayout;
+
+/**
+ * 占位条目的ItemViewBinder，默认为一个固定高度的空View，不需要inflate布局，创建、渲染都很轻
+ * 需要骨架屏等效果时，继承并重写onCreateViewHolder()
+ */
+public class PlaceholderViewBinder extends ItemViewBinder<Placeholder, ListLayout.ViewHolder> {
+    private final int mHeight;
+
+    /**
+     * @param height 占位条目的高度，单位为px，一般和真实条目的高度接近，避免加载完成后列表跳动
+     */
+    public PlaceholderViewBinder(int height) {
+        mHeight = height;
+    }
+
+    @Override
+    protected ListLayout.ViewHolder onCreateViewHolder(LayoutInflater inflater, ViewGroup parent) {
+        View itemView = new View(parent.getContext());
+        itemView.setLayoutParams(new ListLayout.LayoutParams(ListLayout.LayoutParams.MATCH_PARENT, mHeight));
+        return new ListLayout.ViewHolder(itemView) {
+        };
+    }
+
+    @Override
+    protected void onBindViewHolder(ListLayout.ViewHolder holder, Placeholder item) {
+    }
+}
@@ -0,0 +1,386 @@
+package com.cosleeplib.listlayout.multitype;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import static com.cosleeplib.listlayout.multitype.Preconditions.checkNotNull;
+
+/**
+ * 分组的条目列表，作为MultiTypeAdapter的数据使用，每个分组由一个可选的头部条目和组内的条目组成，按顺序展开成一个列表
+ * 分组内的修改会换算成展开后的位置，通知Adapter局部刷新，修改一个分组不影响其它分组，不需要重新展开整个列表
+ * <p>
+ * 每个分组展开后的条目数量保存在树状数组（Fenwick树）中，位置和（分组，组内位置）的互相换算都是O(log 分组数量)，
+ * 分组内插入、移除条目时只需要更新树状数组，也是O(log 分组数量)。添加、移除分组时重建树状数组，为O(分组数量)
+ * <p>
+ * 使用方式：
+ * SectionedItems items = new SectionedItems(adapter);
+ * items.addSection(new DateModel(today), todayItems);
+ * adapter.setItems(items);
+ * <p>
+ * 注意：所有方法都需要在主线程调用，头部条目和组内条目都需要在Adapter中注册对应的ItemViewBinder，条目不能为null
+ */
+public class SectionedItems extends AbstractList<Object> {
+    /**
+     * 头部条目在分组内的位置
+     */
+    public static final int HEADER = -1;
+
+    private final MultiTypeAdapter mAdapter;
+    private final ArrayList<Section> mSections = new ArrayList<>();
+    /**
+     * 树状数组，下标从1开始，mTree[i]为第(i - (i & -i))到第(i - 1)个分组展开后的条目数量之和
+     */
+    private int[] mTree = new int[1];
+    /**
+     * 展开后的条目总数
+     */
+    private int mSize;
+
+    public SectionedItems(MultiTypeAdapter adapter) {
+        checkNotNull(adapter);
+        mAdapter = adapter;
+    }
+
+    @Override
+    public Object get(int position) {
+        checkElementIndex(position, mSize);
+        int section = findSection(position);
+        return mSections.get(section).get(position - sumBefore(section));
+    }
+
+    @Override
+    public int size() {
+        return mSize;
+    }
+
+    /**
+     * 获取分组数量
+     */
+    public int getSectionCount() {
+        return mSections.size();
+    }
+
+    /**
+     * 在末尾添加分组，返回分组的位置
+     *
+     * @param header 头部条目，为null时没有头部
+     */
+    public int addSection(Object header, Collection<?> items) {
+        int section = mSections.size();
+        insertSection(section, header, items);
+        return section;
+    }
+
+    /**
+     * 在指定位置插入分组
+     *
+     * @param header 头部条目，为null时没有头部
+     */
+    public void insertSection(int section, Object header, Collection<?> items) {
+        checkPositionIndex(section, mSections.size());
+        Section newSection = new Section(header, checkItems(items));
+        int positionStart = getSectionStart(section);
+        mSections.add(section, newSection);
+        rebuildTree();
+        notifyItemRangeInserted(positionStart, newSection.size());
+    }
+
+    /**
+     * 移除分组
+     */
+    public void removeSection(int section) {
+        checkElementIndex(section, mSections.size());
+        int positionStart = getSectionStart(section);
+        Section removed = mSections.remove(section);
+        rebuildTree();
+        notifyItemRangeRemoved(positionStart, removed.size());
+    }
+
+    /**
+     * 移除所有分组
+     */
+    public void clearSections() {
+        if (mSections.isEmpty()) {
+            return;
+        }
+        int count = mSize;
+        mSections.clear();
+        rebuildTree();
+        notifyItemRangeRemoved(0, count);
+    }
+
+    /**
+     * 获取分组的头部条目，没有头部时返回null
+     */
+    public Object getHeader(int section) {
+        return mSections.get(section).mHeader;
+    }
+
+    /**
+     * 设置分组的头部条目，为null时移除头部
+     */
+    public void setHeader(int section, Object header) {
+        Section target = mSections.get(section);
+        int position = getSectionStart(section);
+        Object oldHeader = target.mHeader;
+        target.mHeader = header;
+        if (oldHeader != null && header != null) {
+            notifyItemRangeChanged(position, 1);
+        } else if (header != null) {
+            add(section, 1);
+            notifyItemRangeInserted(position, 1);
+        } else if (oldHeader != null) {
+            add(section, -1);
+            notifyItemRangeRemoved(position, 1);
+        }
+    }
+
+    /**
+     * 获取分组内的条目数量，不包括头部
+     */
+    public int getItemCount(int section) {
+        return mSections.get(section).mItems.size();
+    }
+
+    /**
+     * 获取分组内的条目
+     */
+    public Object getItem(int section, int offset) {
+        return mSections.get(section).mItems.get(offset);
+    }
+
+    /**
+     * 在分组末尾添加条目
+     */
+    public void addItems(int section, Collection<?> items) {
+        insertItems(section, getItemCount(section), items);
+    }
+
+    /**
+     * 在分组内的指定位置插入条目
+     */
+    public void insertItem(int section, int offset, Object item) {
+        checkNotNull(item);
+        Section target = mSections.get(section);
+        checkPositionIndex(offset, target.mItems.size());
+        target.mItems.add(offset, item);
+        add(section, 1);
+        notifyItemRangeInserted(getPosition(section, offset), 1);
+    }
+
+    /**
+     * 在分组内的指定位置插入多个条目
+     */
+    public void insertItems(int section, int offset, Collection<?> items) {
+        Section target = mSections.get(section);
+        checkPositionIndex(offset, target.mItems.size());
+        List<Object> newItems = checkItems(items);
+        if (newItems.isEmpty()) {
+            return;
+        }
+        target.mItems.addAll(offset, newItems);
+        add(section, newItems.size());
+        notifyItemRangeInserted(getPosition(section, offset), newItems.size());
+    }
+
+    /**
+     * 替换分组内的条目
+     */
+    public void setItem(int section, int offset, Object item) {
+        checkNotNull(item);
+        mSections.get(section).mItems.set(offset, item);
+        notifyItemRangeChanged(getPosition(section, offset), 1);
+    }
+
+    /**
+     * 移除分组内从offset开始的count个条目
+     */
+    public void removeItems(int section, int offset, int count) {
+        Section target = mSections.get(section);
+        if (offset < 0 || count < 0 || offset + count > target.mItems.size()) {
+            throw new IndexOutOfBoundsException("移除的范围越界，offset：" + offset + "，count：" + count
+                    + "，分组内的条目数量：" + target.mItems.size());
+        }
+        if (count == 0) {
+            return;
+        }
+        int positionStart = getPosition(section, offset);
+        target.mItems.subList(offset, offset + count).clear();
+        add(section, -count);
+        notifyItemRangeRemoved(positionStart, count);
+    }
+
+    /**
+     * 获取位置所在的分组
+     */
+    public int getSectionForPosition(int position) {
+        checkElementIndex(position, mSize);
+        return findSection(position);
+    }
+
+    /**
+     * 获取位置在分组内的位置，头部条目返回HEADER
+     */
+    public int getOffsetInSection(int position) {
+        int section = getSectionForPosition(position);
+        int offset = position - sumBefore(section);
+        return mSections.get(section).mHeader == null ? offset : offset - 1;
+    }
+
+    /**
+     * 获取分组的第一个条目（有头部时为头部）展开后的位置
+     */
+    public int getSectionStart(int section) {
+        checkPositionIndex(section, mSections.size());
+        return sumBefore(section);
+    }
+
+    /**
+     * 获取分组内的条目展开后的位置，offset为HEADER时获取头部的位置
+     */
+    public int getPosition(int section, int offset) {
+        Section target = mSections.get(section);
+        int start = sumBefore(section);
+        if (offset == HEADER) {
+            if (target.mHeader == null) {
+                throw new IllegalArgumentException("分组" + section + "没有头部");
+            }
+            return start;
+        }
+        return target.mHeader == null ? start + offset : start + offset + 1;
+    }
+
+    /**
+     * 前section个分组展开后的条目数量之和
+     */
+    private int sumBefore(int section) {
+        int sum = 0;
+        for (int i = section; i > 0; i -= i & -i) {
+            sum += mTree[i];
+        }
+        return sum;
+    }
+
+    /**
+     * 分组展开后的条目数量变化delta
+     */
+    private void add(int section, int delta) {
+        int count = mSections.size();
+        for (int i = section + 1; i <= count; i += i & -i) {
+            mTree[i] += delta;
+        }
+        mSize += delta;
+    }
+
+    /**
+     * 查找位置所在的分组，即前缀和不超过position的最后一个分组，展开后没有条目的分组会被跳过
+     * 在树状数组上按二进制位从高到低逐步确定，O(log 分组数量)
+     */
+    private int findSection(int position) {
+        int count = mSections.size();
+        int section = 0;
+        int remaining = position;
+        for (int step = Integer.highestOneBit(count); step > 0; step >>= 1) {
+            int next = section + step;
+            if (next <= count && mTree[next] <= remaining) {
+                section = next;
+                remaining -= mTree[next];
+            }
+        }
+        return section;
+    }
+
+    /**
+     * 按当前的分组重建树状数组，O(分组数量)
+     */
+    private void rebuildTree() {
+        int count = mSections.size();
+        if (mTree.length < count + 1) {
+            mTree = new int[Math.max(count + 1, mTree.length * 2)];
+        }
+        int size = 0;
+        for (int i = 1; i <= count; i++) {
+            int sectionSize = mSections.get(i - 1).size();
+            mTree[i] = sectionSize;
+            size += sectionSize;
+        }
+        for (int i = 1; i <= count; i++) {
+            int parent = i + (i & -i);
+            if (parent <= count) {
+                mTree[parent] += mTree[i];
+            }
+        }
+        mSize = size;
+    }
+
+    private static ArrayList<Object> checkItems(Collection<?> items) {
+        checkNotNull(items);
+        ArrayList<Object> result = new ArrayList<>(items);
+        for (Object item : result) {
+            checkNotNull(item);
+        }
+        return result;
+    }
+
+    /**
+     * Adapter已经换成其它数据时，不再通知
+     */
+    private void notifyItemRangeInserted(int positionStart, int itemCount) {
+        if (itemCount > 0 && mAdapter.getItems() == this) {
+            mAdapter.notifyItemRangeInserted(positionStart, itemCount);
+        }
+    }
+
+    private void notifyItemRangeRemoved(int positionStart, int itemCount) {
+        if (itemCount > 0 && mAdapter.getItems() == this) {
+            mAdapter.notifyItemRangeRemoved(positionStart, itemCount);
+        }
+    }
+
+    private void notifyItemRangeChanged(int positionStart, int itemCount) {
+        if (mAdapter.getItems() == this) {
+            mAdapter.notifyItemRangeChanged(positionStart, itemCount);
+        }
+    }
+
+    private static void checkElementIndex(int index, int size) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("位置越界：" + index + "，数量：" + size);
+        }
+    }
+
+    private static void checkPositionIndex(int index, int size) {
+        if (index < 0 || index > size) {
+            throw new IndexOutOfBoundsException("位置越界：" + index + "，数量：" + size);
+        }
+    }
+
+    private static final class Section {
+        Object mHeader;
+        final ArrayList<Object> mItems;
+
+        Section(Object header, ArrayList<Object> items) {
+            mHeader = header;
+            mItems = items;
+        }
+
+        /**
+         * 展开后的条目数量
+         */
+        int size() {
+            return mHeader == null ? mItems.size() : mItems.size() + 1;
+        }
+
+        /**
+         * 获取展开后分组内的条目，有头部时第0个为头部
+         */
+        Object get(int index) {
+            if (mHeader == null) {
+                return mItems.get(index);
+            }
+            return index == 0 ? mHeader : mItems.get(index - 1);
+        }
+    }
+}
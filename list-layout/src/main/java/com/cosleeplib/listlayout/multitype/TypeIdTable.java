@@ -0,0 +1,133 @@
+package com.cosleeplib.listlayout.multitype;
+
+import com.cosleeplib.listlayout.ListLayout;
+
+import java.util.Arrays;
+
+/**
+ * 按条目位置缓存解析过的条目类型和Id，每个条目只通过TypePool、Linker解析一次
+ * 作为Adapter的内部观察者，在ListLayout之前收到数据变化的通知，变化的条目重新解析，插入、移除、移动时整体平移，
+ * 末尾追加时只需要解析新的条目。数组只扩容不缩小，多次填充之间复用
+ * 注意：条目数量和数据不一致时，说明数据修改后没有通知，所有条目都重新解析
+ */
+final class TypeIdTable extends ListLayout.AdapterDataObserver {
+    /**
+     * 还没有解析的条目类型
+     */
+    private static final int UNRESOLVED = -1;
+    private static final int DEFAULT_CAPACITY = 16;
+
+    private int[] types = new int[0];
+    private long[] ids = new long[0];
+    /**
+     * 表中的条目数量
+     */
+    private int size;
+
+    /**
+     * 条目是否已经解析过，itemCount为当前的条目数量
+     */
+    boolean isResolved(int position, int itemCount) {
+        if (size != itemCount) {
+            reset(itemCount);
+            return false;
+        }
+        return types[position] != UNRESOLVED;
+    }
+
+    void put(int position, int type, long id) {
+        types[position] = type;
+        ids[position] = id;
+    }
+
+    int getType(int position) {
+        return types[position];
+    }
+
+    long getId(int position) {
+        return ids[position];
+    }
+
+    /**
+     * 所有条目都需要重新解析
+     */
+    void invalidateAll() {
+        //size为-1时已经对不上，下次访问时整体重建
+        if (size > 0) {
+            Arrays.fill(types, 0, size, UNRESOLVED);
+        }
+    }
+
+    @Override
+    public void onChanged() {
+        invalidateAll();
+    }
+
+    @Override
+    public void onItemRangeChanged(int positionStart, int itemCount) {
+        int end = Math.min(positionStart + itemCount, size);
+        if (positionStart < end) {
+            Arrays.fill(types, positionStart, end, UNRESOLVED);
+        }
+    }
+
+    @Override
+    public void onItemRangeInserted(int positionStart, int itemCount) {
+        if (positionStart > size) {
+            //和数据已经对不上了，下次访问时重建
+            size = -1;
+            return;
+        }
+        ensureCapacity(size + itemCount);
+        System.arraycopy(types, positionStart, types, positionStart + itemCount, size - positionStart);
+        System.arraycopy(ids, positionStart, ids, positionStart + itemCount, size - positionStart);
+        Arrays.fill(types, positionStart, positionStart + itemCount, UNRESOLVED);
+        size += itemCount;
+    }
+
+    @Override
+    public void onItemRangeRemoved(int positionStart, int itemCount) {
+        if (positionStart + itemCount > size) {
+            size = -1;
+            return;
+        }
+        int end = positionStart + itemCount;
+        System.arraycopy(types, end, types, positionStart, size - end);
+        System.arraycopy(ids, end, ids, positionStart, size - end);
+        size -= itemCount;
+    }
+
+    @Override
+    public void onItemRangeMoved(int fromPosition, int toPosition, int itemCount) {
+        if (fromPosition >= size || toPosition >= size) {
+            size = -1;
+            return;
+        }
+        int type = types[fromPosition];
+        long id = ids[fromPosition];
+        if (fromPosition < toPosition) {
+            System.arraycopy(types, fromPosition + 1, types, fromPosition, toPosition - fromPosition);
+            System.arraycopy(ids, fromPosition + 1, ids, fromPosition, toPosition - fromPosition);
+        } else {
+            System.arraycopy(types, toPosition, types, toPosition + 1, fromPosition - toPosition);
+            System.arraycopy(ids, toPosition, ids, toPosition + 1, fromPosition - toPosition);
+        }
+        types[toPosition] = type;
+        ids[toPosition] = id;
+    }
+
+    private void reset(int itemCount) {
+        ensureCapacity(itemCount);
+        size = itemCount;
+        invalidateAll();
+    }
+
+    private void ensureCapacity(int minCapacity) {
+        if (minCapacity <= types.length) {
+            return;
+        }
+        int newCapacity = Math.max(minCapacity, Math.max(DEFAULT_CAPACITY, types.length * 2));
+        types = Arrays.copyOf(types, newCapacity);
+        ids = Arrays.copyOf(ids, newCapacity);
+    }
+}
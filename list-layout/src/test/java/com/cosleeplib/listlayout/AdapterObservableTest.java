@@ -0,0 +1,104 @@
+package com.cosleeplib.listlayout;
+
+import android.view.ViewGroup;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Adapter观察者列表的单元测试，通知过程中注册、取消注册观察者
+ */
+public class AdapterObservableTest {
+    private TestAdapter adapter;
+    private List<String> events;
+
+    @Before
+    public void setUp() {
+        adapter = new TestAdapter();
+        events = new ArrayList<>();
+    }
+
+    @Test
+    public void unregisterDuringNotifyDoesNotSkipOthers() {
+        final RecordingObserver first = new RecordingObserver("first");
+        RecordingObserver second = new RecordingObserver("second") {
+            @Override
+            public void onChanged() {
+                super.onChanged();
+                adapter.unregisterAdapterDataObserver(this);
+                adapter.unregisterAdapterDataObserver(first);
+            }
+        };
+        adapter.registerAdapterDataObserver(first);
+        adapter.registerAdapterDataObserver(second);
+        adapter.notifyDataSetChanged();
+        assertEquals(2, events.size());
+        assertTrue(events.contains("first"));
+        assertTrue(events.contains("second"));
+        assertFalse(adapter.hasObservers());
+
+        adapter.notifyDataSetChanged();
+        assertEquals(2, events.size());
+    }
+
+    @Test
+    public void registerDuringNotifyTakesEffectNextTime() {
+        final RecordingObserver late = new RecordingObserver("late");
+        adapter.registerAdapterDataObserver(new RecordingObserver("first") {
+            @Override
+            public void onChanged() {
+                super.onChanged();
+                adapter.registerAdapterDataObserver(late);
+            }
+        });
+        adapter.notifyDataSetChanged();
+        assertEquals(1, events.size());
+
+        adapter.notifyDataSetChanged();
+        assertEquals(3, events.size());
+        assertTrue(events.contains("late"));
+    }
+
+    @Test
+    public void registerTwiceNotifiesOnce() {
+        RecordingObserver observer = new RecordingObserver("observer");
+        adapter.registerAdapterDataObserver(observer);
+        adapter.registerAdapterDataObserver(observer);
+        adapter.notifyDataSetChanged();
+        assertEquals(1, events.size());
+    }
+
+    private class RecordingObserver extends ListLayout.AdapterDataObserver {
+        private final String name;
+
+        RecordingObserver(String name) {
+            this.name = name;
+        }
+
+        @Override
+        public void onChanged() {
+            events.add(name);
+        }
+    }
+
+    private static class TestAdapter extends ListLayout.Adapter<ListLayout.ViewHolder> {
+        @Override
+        public ListLayout.ViewHolder onCreateViewHolder(ViewGroup parent, int itemType) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void onBindViewHolder(ListLayout.ViewHolder holder, int position) {
+        }
+
+        @Override
+        public int getItemCount() {
+            return 0;
+        }
+    }
+}
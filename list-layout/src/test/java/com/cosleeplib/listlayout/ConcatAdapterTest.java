@@ -0,0 +1,246 @@
+package com.cosleeplib.listlayout;
+
+import android.view.LayoutInflater;
+import android.view.ViewGroup;
+
+import com.cosleeplib.listlayout.multitype.ItemViewBinder;
+import com.cosleeplib.listlayout.multitype.MultiTypeAdapter;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * ConcatAdapter的单元测试，子Adapter都是MultiTypeAdapter
+ */
+public class ConcatAdapterTest {
+    private final List<String> bound = new ArrayList<>();
+    private List<Object> headerItems;
+    private List<Object> feedItems;
+    private MultiTypeAdapter header;
+    private MultiTypeAdapter feed;
+    private MultiTypeAdapter footer;
+    private RecordingObserver observer;
+
+    @Before
+    public void setUp() {
+        headerItems = new ArrayList<Object>(Arrays.asList("h0", "h1"));
+        feedItems = new ArrayList<Object>(Arrays.asList("f0", "f1", "f2"));
+        header = new MultiTypeAdapter(headerItems);
+        header.register(String.class, new RecordingBinder("header"));
+        feed = new MultiTypeAdapter(feedItems);
+        feed.register(Integer.class, new IntegerBinder());
+        feed.register(String.class, new RecordingBinder("feed"));
+        footer = new MultiTypeAdapter(Collections.singletonList("more"));
+        footer.register(String.class, new RecordingBinder("footer"));
+        observer = new RecordingObserver();
+    }
+
+    @Test
+    public void mapsPositionsAcrossAdapters() {
+        MultiTypeAdapter empty = new MultiTypeAdapter();
+        ConcatAdapter adapter = new ConcatAdapter(header, empty, feed, footer);
+        assertEquals(6, adapter.getItemCount());
+        assertSame(header, adapter.getAdapterForPosition(1));
+        //没有条目的子Adapter被跳过
+        assertSame(feed, adapter.getAdapterForPosition(2));
+        assertEquals(0, adapter.getLocalPosition(2));
+        assertSame(footer, adapter.getAdapterForPosition(5));
+        assertEquals(2, adapter.getAdapterStart(empty));
+        assertEquals(5, adapter.getAdapterStart(footer));
+    }
+
+    @Test
+    public void isolatesViewTypesAndBindsWithLocalTypes() {
+        ConcatAdapter adapter = new ConcatAdapter(header, feed, footer);
+        int headerType = adapter.getItemViewType(0);
+        int feedType = adapter.getItemViewType(2);
+        int footerType = adapter.getItemViewType(5);
+        //三个子Adapter中String的条目类型不同，拼接后互不冲突
+        assertNotEquals(headerType, feedType);
+        assertNotEquals(feedType, footerType);
+        assertEquals(headerType, adapter.getItemViewType(1));
+        assertEquals(feedType, adapter.getItemViewType(4));
+        ListLayout.RecycledViewPool pool = new ListLayout.RecycledViewPool();
+        assertNotEquals(pool.getViewType(adapter, headerType), pool.getViewType(adapter, feedType));
+        assertEquals("RecordingBinder", adapter.getItemViewTypeName(feedType));
+
+        bind(adapter, 1);
+        bind(adapter, 3);
+        bind(adapter, 5);
+        assertEquals(Arrays.asList("header:h1", "feed:f1", "footer:more"), bound);
+    }
+
+    @Test
+    public void sharesRecycleKeysBetweenIdenticalBinders() {
+        ConcatAdapter adapter = new ConcatAdapter(true, header, feed);
+        int headerType = adapter.getItemViewType(0);
+        int feedType = adapter.getItemViewType(2);
+        assertNotEquals(headerType, feedType);
+        ListLayout.RecycledViewPool pool = new ListLayout.RecycledViewPool();
+        assertEquals(pool.getViewType(adapter, headerType), pool.getViewType(adapter, feedType));
+    }
+
+    @Test
+    public void binderCanSeparateInstancesOfTheSameClass() {
+        //同一个类的不同实例创建不同结构的ViewHolder时，用实例自身作为key
+        MultiTypeAdapter other = new MultiTypeAdapter(Collections.singletonList("other"));
+        other.register(String.class, new RecordingBinder("other") {
+            @Override
+            protected Object getRecycleKey() {
+                return this;
+            }
+        });
+        ConcatAdapter adapter = new ConcatAdapter(true, header, other);
+        ListLayout.RecycledViewPool pool = new ListLayout.RecycledViewPool();
+        assertNotEquals(pool.getViewType(adapter, adapter.getItemViewType(0)),
+                pool.getViewType(adapter, adapter.getItemViewType(2)));
+    }
+
+    @Test
+    public void forwardsShiftedRangeNotifications() {
+        ConcatAdapter adapter = new ConcatAdapter(header, feed, footer);
+        adapter.registerAdapterDataObserver(observer);
+
+        feedItems.add(1, "x");
+        feed.notifyItemInserted(1);
+        feedItems.remove(0);
+        feed.notifyItemRemoved(0);
+        feed.notifyItemMoved(0, 2);
+        feed.notifyItemChanged(1, "payload");
+        headerItems.add("h2");
+        header.notifyItemInserted(2);
+        assertEquals(Arrays.asList("insert 3+1", "remove 2+1", "move 2->4", "change 3+1 payload", "insert 2+1"),
+                observer.events);
+        assertEquals(7, adapter.getItemCount());
+        assertSame(footer, adapter.getAdapterForPosition(6));
+    }
+
+    @Test
+    public void splitsChildDataSetChangeIntoRanges() {
+        ConcatAdapter adapter = new ConcatAdapter(header, feed, footer);
+        adapter.registerAdapterDataObserver(observer);
+        feedItems.add("f3");
+        feedItems.add("f4");
+        feed.notifyDataSetChanged();
+        headerItems.clear();
+        header.notifyDataSetChanged();
+        assertEquals(Arrays.asList("change 2+3 null", "insert 5+2", "remove 0+2"), observer.events);
+        assertEquals(6, adapter.getItemCount());
+    }
+
+    @Test
+    public void addsAndRemovesAdapters() {
+        ConcatAdapter adapter = new ConcatAdapter(header, feed);
+        adapter.registerAdapterDataObserver(observer);
+        adapter.addAdapter(footer);
+        assertTrue(adapter.removeAdapter(header));
+        assertFalse(adapter.removeAdapter(header));
+        assertEquals(Arrays.asList("insert 5+1", "remove 0+2"), observer.events);
+        assertEquals(4, adapter.getItemCount());
+
+        //移除后不再转发
+        observer.events.clear();
+        header.notifyItemChanged(0);
+        assertTrue(observer.events.isEmpty());
+    }
+
+    @Test
+    public void removedAdapterIsReleased() {
+        ConcatAdapter adapter = new ConcatAdapter(true, header, feed, footer);
+        adapter.registerAdapterDataObserver(observer);
+        int headerType = adapter.getItemViewType(0);
+        assertNotNull(adapter.getRecycleKey(headerType));
+        assertTrue(adapter.removeAdapter(header));
+        //不再持有被移除的子Adapter，条目类型按默认方式处理
+        assertNull(adapter.getRecycleKey(headerType));
+        assertEquals("ViewType" + headerType, adapter.getItemViewTypeName(headerType));
+
+        //后面的子Adapter的起始位置随之更新
+        feedItems.add("f3");
+        feed.notifyItemInserted(3);
+        footer.notifyItemChanged(0);
+        assertEquals(Arrays.asList("remove 0+2", "insert 3+1", "change 4+1 null"), observer.events);
+
+        //被移除的条目类型不会再分配给新的子Adapter
+        MultiTypeAdapter other = new MultiTypeAdapter(Collections.singletonList("other"));
+        other.register(String.class, new RecordingBinder("other"));
+        adapter.addAdapter(0, other);
+        assertNotEquals(headerType, adapter.getItemViewType(0));
+        assertEquals(5, adapter.getAdapterStart(footer));
+    }
+
+    private void bind(ConcatAdapter adapter, int position) {
+        int itemViewType = adapter.getItemViewType(position);
+        ListLayout.ViewHolder holder = new ListLayout.ViewHolder(null) {
+        };
+        holder.setItemViewType(itemViewType);
+        adapter.onBindViewHolder(holder, position, Collections.emptyList());
+        assertEquals(itemViewType, holder.getItemViewType());
+    }
+
+    private class RecordingBinder extends ItemViewBinder<String, ListLayout.ViewHolder> {
+        private final String name;
+
+        RecordingBinder(String name) {
+            this.name = name;
+        }
+
+        @Override
+        protected ListLayout.ViewHolder onCreateViewHolder(LayoutInflater inflater, ViewGroup parent) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        protected void onBindViewHolder(ListLayout.ViewHolder holder, String item) {
+            bound.add(name + ":" + item);
+        }
+    }
+
+    private static class IntegerBinder extends ItemViewBinder<Integer, ListLayout.ViewHolder> {
+        @Override
+        protected ListLayout.ViewHolder onCreateViewHolder(LayoutInflater inflater, ViewGroup parent) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        protected void onBindViewHolder(ListLayout.ViewHolder holder, Integer item) {
+            throw new AssertionError("Bound with the wrong binder");
+        }
+    }
+
+    private static class RecordingObserver extends ListLayout.AdapterDataObserver {
+        final List<String> events = new ArrayList<>();
+
+        @Override
+        public void onChanged() {
+            events.add("changed");
+        }
+
+        @Override
+        public void onItemRangeChanged(int positionStart, int itemCount, Object payload) {
+            events.add("change " + positionStart + "+" + itemCount + " " + payload);
+        }
+
+        @Override
+        public void onItemRangeInserted(int positionStart, int itemCount) {
+            events.add("insert " + positionStart + "+" + itemCount);
+        }
+
+        @Override
+        public void onItemRangeRemoved(int positionStart, int itemCount) {
+            events.add("remove " + positionStart + "+" + itemCount);
+        }
+
+        @Override
+        public void onItemRangeMoved(int fromPosition, int toPosition, int itemCount) {
+            events.add("move " + fromPosition + "->" + toPosition);
+        }
+    }
+}
@@ -0,0 +1,129 @@
+package com.cosleeplib.listlayout;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * ItemHeights的单元测试，和逐个累加的结果对比
+ */
+public class ItemHeightsTest {
+
+    @Test
+    public void unknownHeightsUseFallbackUntilMeasured() {
+        ItemHeights heights = new ItemHeights();
+        heights.mFallbackHeight = 50;
+        heights.reset(4);
+        assertEquals(200, heights.sum(0, 4));
+        heights.set(0, 10);
+        heights.set(1, 30);
+        //没有测量过的条目使用平均高度
+        assertEquals(80, heights.sum(0, 4));
+        assertEquals(20, heights.get(3));
+        heights.invalidate(0, 1);
+        assertEquals(120, heights.sum(0, 4));
+    }
+
+    @Test
+    public void resetKeepsLastAverage() {
+        ItemHeights heights = new ItemHeights();
+        heights.mFallbackHeight = 50;
+        heights.reset(2);
+        heights.set(0, 10);
+        heights.set(1, 30);
+        heights.reset(3);
+        assertEquals(60, heights.sum(0, 3));
+    }
+
+    @Test
+    public void findPositionReturnsItemsEndingAtOrBeforeOffset() {
+        ItemHeights heights = new ItemHeights();
+        heights.reset(4);
+        heights.set(0, 10);
+        heights.set(1, 20);
+        heights.set(2, 0);
+        heights.set(3, 30);
+        assertEquals(0, heights.findPosition(-1));
+        assertEquals(0, heights.findPosition(9));
+        assertEquals(1, heights.findPosition(10));
+        assertEquals(1, heights.findPosition(29));
+        //高度为0的条目和前一个条目的底部重合
+        assertEquals(3, heights.findPosition(30));
+        assertEquals(4, heights.findPosition(60));
+        assertEquals(4, heights.findPosition(1000));
+    }
+
+    @Test
+    public void matchesLinearSumsForRandomOperations() {
+        Random random = new Random(11);
+        ItemHeights heights = new ItemHeights();
+        heights.mFallbackHeight = 40;
+        List<Integer> expected = new ArrayList<>();
+        heights.reset(0);
+        for (int round = 0; round < 2000; round++) {
+            int size = expected.size();
+            int operation = random.nextInt(6);
+            if (operation == 0 || size == 0) {
+                int position = random.nextInt(size + 1);
+                int count = 1 + random.nextInt(5);
+                heights.insert(position, count);
+                expected.addAll(position, Collections.nCopies(count, (Integer) null));
+            } else if (operation == 1) {
+                int position = random.nextInt(size);
+                int count = 1 + random.nextInt(Math.min(3, size - position));
+                heights.remove(position, count);
+                expected.subList(position, position + count).clear();
+            } else if (operation == 2) {
+                int from = random.nextInt(size);
+                int to = random.nextInt(size);
+                heights.move(from, to);
+                expected.add(to, expected.remove(from));
+            } else if (operation == 3) {
+                int position = random.nextInt(size);
+                int count = 1 + random.nextInt(Math.min(3, size - position));
+                heights.invalidate(position, count);
+                for (int i = position; i < position + count; i++) {
+                    expected.set(i, null);
+                }
+            } else {
+                int position = random.nextInt(size);
+                int height = random.nextInt(100);
+                heights.set(position, height);
+                expected.set(position, height);
+            }
+            assertMatches(expected, heights, random);
+        }
+    }
+
+    private static void assertMatches(List<Integer> expected, ItemHeights heights, Random random) {
+        assertEquals(expected.size(), heights.size());
+        long knownSum = 0;
+        int knownCount = 0;
+        for (Integer height : expected) {
+            if (height != null) {
+                knownSum += height;
+                knownCount++;
+            }
+        }
+        int estimate = knownCount > 0 ? (int) (knownSum / knownCount) : 40;
+        int[] prefix = new int[expected.size() + 1];
+        for (int i = 0; i < expected.size(); i++) {
+            Integer height = expected.get(i);
+            prefix[i + 1] = prefix[i] + (height != null ? height : estimate);
+        }
+        int from = random.nextInt(expected.size() + 1);
+        int to = from + random.nextInt(expected.size() - from + 1);
+        assertEquals(prefix[to] - prefix[from], heights.sum(from, to));
+        int offset = random.nextInt(prefix[expected.size()] + 10);
+        int position = 0;
+        while (position < expected.size() && prefix[position + 1] <= offset) {
+            position++;
+        }
+        assertEquals(position, heights.findPosition(offset));
+    }
+}
@@ -0,0 +1,65 @@
+package com.cosleeplib.listlayout;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * 网格模式下SpanSizeLookup计算列和行的单元测试
+ */
+public class SpanSizeLookupTest {
+
+    @Test
+    public void fillsRowsGreedily() {
+        ListSpanSizeLookup lookup = new ListSpanSizeLookup(1, 2, 1, 3, 1, 1, 2);
+        //第2个条目放不下，换到下一行
+        int[] spanIndices = {0, 1, 0, 0, 0, 1, 0};
+        int[] groupIndices = {0, 0, 1, 2, 3, 3, 4};
+        for (int i = 0; i < spanIndices.length; i++) {
+            assertEquals(spanIndices[i], lookup.getSpanIndex(i, 3));
+            assertEquals(groupIndices[i], lookup.getSpanGroupIndex(i, 3));
+        }
+    }
+
+    @Test
+    public void cachesUntilInvalidated() {
+        ListSpanSizeLookup lookup = new ListSpanSizeLookup(1, 1, 1, 1);
+        assertEquals(1, lookup.getSpanGroupIndex(3, 2));
+        assertEquals(0, lookup.getSpanIndex(2, 2));
+        assertEquals(4, lookup.calls);
+
+        //只重新计算失效位置之后的条目
+        lookup.spanSizes.set(2, 2);
+        lookup.invalidateSpanIndexCache(2);
+        assertEquals(2, lookup.getSpanGroupIndex(3, 2));
+        assertEquals(6, lookup.calls);
+
+        //列数变化时全部重新计算
+        assertEquals(1, lookup.getSpanGroupIndex(3, 3));
+        assertEquals(10, lookup.calls);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsSpanSizeLargerThanSpanCount() {
+        new ListSpanSizeLookup(1, 4).getSpanIndex(1, 3);
+    }
+
+    private static class ListSpanSizeLookup extends ListLayout.SpanSizeLookup {
+        final List<Integer> spanSizes;
+        int calls;
+
+        ListSpanSizeLookup(Integer... spanSizes) {
+            this.spanSizes = new ArrayList<>(Arrays.asList(spanSizes));
+        }
+
+        @Override
+        public int getSpanSize(int position) {
+            calls++;
+            return spanSizes.get(position);
+        }
+    }
+}
@@ -0,0 +1,162 @@
+package com.cosleeplib.listlayout.multitype;
+
+import android.view.LayoutInflater;
+import android.view.ViewGroup;
+
+import com.cosleeplib.listlayout.ListLayout;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Executor;
+
+import static org.junit.Assert.*;
+
+/**
+ * AsyncListDiffer的单元测试，用同步或手动执行的Executor代替后台线程和主线程
+ */
+public class AsyncListDifferTest {
+    private static final Executor SYNC = new Executor() {
+        @Override
+        public void execute(Runnable command) {
+            command.run();
+        }
+    };
+
+    private MultiTypeAdapter adapter;
+    private RecordingObserver observer;
+
+    @Before
+    public void setUp() {
+        adapter = new MultiTypeAdapter();
+        adapter.register(String.class, new StringBinder());
+        observer = new RecordingObserver();
+        adapter.registerAdapterDataObserver(observer);
+    }
+
+    @Test
+    public void submitList_dispatchesMinimalUpdates() {
+        AsyncListDiffer differ = new AsyncListDiffer(adapter, SYNC, SYNC, true);
+        differ.submitList(Arrays.asList("a", "b", "c"));
+        assertEquals(Collections.singletonList("insert 0 3"), observer.ops);
+        observer.ops.clear();
+
+        List<String> newList = Arrays.asList("a", "c", "d");
+        final boolean[] committed = new boolean[1];
+        differ.submitList(newList, new Runnable() {
+            @Override
+            public void run() {
+                committed[0] = true;
+            }
+        });
+        assertTrue(committed[0]);
+        assertSame(newList, differ.getCurrentList());
+        assertSame(newList, adapter.getItems());
+        assertEquals(Arrays.asList("remove 1 1", "insert 2 1"), observer.ops);
+    }
+
+    @Test
+    public void submitList_detectsMoves() {
+        AsyncListDiffer differ = new AsyncListDiffer(adapter, SYNC, SYNC, true);
+        differ.submitList(Arrays.asList("a", "b", "c", "d"));
+        observer.ops.clear();
+
+        differ.submitList(Arrays.asList("b", "c", "d", "a"));
+        assertEquals(Collections.singletonList("move 0 3"), observer.ops);
+    }
+
+    @Test
+    public void submitList_discardsStaleResult() {
+        ManualExecutor background = new ManualExecutor();
+        AsyncListDiffer differ = new AsyncListDiffer(adapter, background, SYNC, true);
+        differ.submitList(Arrays.asList("a", "b"));
+        observer.ops.clear();
+
+        final int[] commits = new int[1];
+        Runnable countCommit = new Runnable() {
+            @Override
+            public void run() {
+                commits[0]++;
+            }
+        };
+        List<String> first = Arrays.asList("a", "b", "c");
+        List<String> second = Arrays.asList("x", "a", "b");
+        differ.submitList(first, countCommit);
+        differ.submitList(second, countCommit);
+        assertTrue(observer.ops.isEmpty());
+
+        background.runAll();
+        assertEquals(1, commits[0]);
+        assertSame(second, differ.getCurrentList());
+        assertEquals(Collections.singletonList("insert 0 1"), observer.ops);
+    }
+
+    @Test
+    public void submitList_sameContentDispatchesNothing() {
+        AsyncListDiffer differ = new AsyncListDiffer(adapter, SYNC, SYNC, true);
+        differ.submitList(Arrays.asList("a", "b"));
+        observer.ops.clear();
+
+        differ.submitList(new ArrayList<>(Arrays.asList("a", "b")));
+        assertTrue(observer.ops.isEmpty());
+    }
+
+    private static class ManualExecutor implements Executor {
+        private final List<Runnable> tasks = new ArrayList<>();
+
+        @Override
+        public void execute(Runnable command) {
+            tasks.add(command);
+        }
+
+        void runAll() {
+            while (!tasks.isEmpty()) {
+                tasks.remove(0).run();
+            }
+        }
+    }
+
+    private static class RecordingObserver extends ListLayout.AdapterDataObserver {
+        final List<String> ops = new ArrayList<>();
+
+        @Override
+        public void onChanged() {
+            ops.add("changed");
+        }
+
+        @Override
+        public void onItemRangeChanged(int positionStart, int itemCount, Object payload) {
+            ops.add("change " + positionStart + " " + itemCount);
+        }
+
+        @Override
+        public void onItemRangeInserted(int positionStart, int itemCount) {
+            ops.add("insert " + positionStart + " " + itemCount);
+        }
+
+        @Override
+        public void onItemRangeRemoved(int positionStart, int itemCount) {
+            ops.add("remove " + positionStart + " " + itemCount);
+        }
+
+        @Override
+        public void onItemRangeMoved(int fromPosition, int toPosition, int itemCount) {
+            ops.add("move " + fromPosition + " " + toPosition);
+        }
+    }
+
+    private static class StringBinder extends ItemViewBinder<String, ListLayout.ViewHolder> {
+        @Override
+        protected ListLayout.ViewHolder onCreateViewHolder(LayoutInflater inflater, ViewGroup parent) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        protected void onBindViewHolder(ListLayout.ViewHolder holder, String item) {
+        }
+    }
+}
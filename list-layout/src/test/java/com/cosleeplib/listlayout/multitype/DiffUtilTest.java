@@ -0,0 +1,257 @@
+package com.cosleeplib.listlayout.multitype;
+
+import com.cosleeplib.listlayout.ListLayout;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * DiffUtil的单元测试，条目为"Id:内容"格式的字符串，Id相同为同一个条目，内容不同时有变化
+ */
+public class DiffUtilTest {
+
+    @Test
+    public void identicalListsProduceNoUpdates() {
+        List<String> items = Arrays.asList("a:1", "b:1", "c:1");
+        assertEquals(Collections.<String>emptyList(), dispatch(items, items, true));
+    }
+
+    @Test
+    public void removalsAndInsertionsAreMinimal() {
+        List<String> oldItems = Arrays.asList("a:1", "b:1", "c:1", "d:1", "e:1", "f:1");
+        List<String> newItems = Arrays.asList("a:1", "x:1", "b:1", "d:1", "f:1", "y:1");
+        //c、e被移除，x、y被插入，其余条目不动
+        assertEquals(Arrays.asList("remove 4,1", "remove 2,1", "insert 1,1", "insert 5,1"),
+                dispatch(oldItems, newItems, true));
+    }
+
+    @Test
+    public void adjacentUpdatesAreDispatchedAsRanges() {
+        List<String> oldItems = Arrays.asList("a:1", "b:1", "c:1", "d:1");
+        List<String> newItems = Arrays.asList("x:1", "y:1", "c:1", "d:1");
+        assertEquals(Arrays.asList("remove 0,2", "insert 0,2"), dispatch(oldItems, newItems, true));
+    }
+
+    @Test
+    public void scriptIsMinimalForRandomLists() {
+        Random random = new Random(42);
+        for (int round = 0; round < 200; round++) {
+            List<String> oldItems = randomItems(random);
+            List<String> newItems = randomItems(random);
+            List<String> updates = dispatch(oldItems, newItems, false);
+            int removed = 0;
+            int inserted = 0;
+            for (String update : updates) {
+                String[] parts = update.split("[ ,]");
+                if (parts[0].equals("remove")) {
+                    removed += Integer.parseInt(parts[2]);
+                } else if (parts[0].equals("insert")) {
+                    inserted += Integer.parseInt(parts[2]);
+                }
+            }
+            //不检测移动时，移除加插入的条目数就是编辑距离，等于两个列表长度之和减去两倍的最长公共子序列
+            int lcs = longestCommonSubsequence(oldItems, newItems);
+            assertEquals(oldItems + " -> " + newItems,
+                    oldItems.size() + newItems.size() - 2 * lcs, removed + inserted);
+        }
+    }
+
+    @Test
+    public void applyingUpdatesProducesNewListForRandomLists() {
+        Random random = new Random(7);
+        for (int round = 0; round < 200; round++) {
+            List<String> oldItems = randomItems(random);
+            List<String> newItems = randomItems(random);
+            assertAppliesTo(oldItems, newItems, true);
+            assertAppliesTo(oldItems, newItems, false);
+        }
+    }
+
+    @Test
+    public void movesAreDetected() {
+        List<String> oldItems = Arrays.asList("a:1", "b:1", "c:1", "d:1", "e:1");
+        List<String> newItems = Arrays.asList("e:1", "a:1", "b:1", "c:1", "d:1");
+        assertEquals(Collections.singletonList("move 4,0"), dispatch(oldItems, newItems, true));
+        //不检测时变成一次移除和一次插入
+        assertEquals(Arrays.asList("remove 4,1", "insert 0,1"), dispatch(oldItems, newItems, false));
+    }
+
+    @Test
+    public void movedItemWithNewContentIsAlsoChanged() {
+        List<String> oldItems = Arrays.asList("a:1", "b:1", "c:1");
+        List<String> newItems = Arrays.asList("c:2", "a:1", "b:1");
+        assertEquals(Arrays.asList("move 2,0", "change 0,1,payload c"), dispatch(oldItems, newItems, true));
+    }
+
+    @Test
+    public void changedItemsCarryPayloads() {
+        List<String> oldItems = Arrays.asList("a:1", "b:1", "c:1", "d:1");
+        List<String> newItems = Arrays.asList("a:2", "b:1", "c:2", "d:2");
+        assertEquals(Arrays.asList("change 0,1,payload a", "change 2,1,payload c", "change 3,1,payload d"),
+                dispatch(oldItems, newItems, true));
+    }
+
+    @Test
+    public void adjacentChangesWithSamePayloadAreMerged() {
+        List<String> oldItems = Arrays.asList("a:1", "b:1", "c:1", "d:1");
+        List<String> newItems = Arrays.asList("a:1", "b:2", "c:2", "d:2");
+        assertEquals(Collections.singletonList("change 1,3,null"),
+                dispatch(new StringCallback(oldItems, newItems, false), true));
+    }
+
+    @Test
+    public void convertsPositionsBetweenLists() {
+        List<String> oldItems = Arrays.asList("a:1", "b:1", "c:1");
+        List<String> newItems = Arrays.asList("c:1", "x:1", "a:1");
+        DiffUtil.DiffResult result = DiffUtil.calculateDiff(new StringCallback(oldItems, newItems, true));
+        assertEquals(2, result.convertOldPositionToNew(0));
+        assertEquals(ListLayout.NO_POSITION, result.convertOldPositionToNew(1));
+        assertEquals(0, result.convertOldPositionToNew(2));
+        assertEquals(ListLayout.NO_POSITION, result.convertNewPositionToOld(1));
+        assertEquals(0, result.convertNewPositionToOld(2));
+    }
+
+    /**
+     * 按分发的顺序把差异应用到旧列表上，插入的位置用新列表的条目填充，更新的位置换成新内容，结果需要和新列表一致
+     */
+    private static void assertAppliesTo(List<String> oldItems, final List<String> newItems, boolean detectMoves) {
+        final List<String> current = new ArrayList<>(oldItems);
+        DiffUtil.calculateDiff(new StringCallback(oldItems, newItems, true), detectMoves)
+                .dispatchUpdatesTo(new ListUpdateCallback() {
+                    @Override
+                    public void onInserted(int position, int count) {
+                        for (int i = 0; i < count; i++) {
+                            current.add(position + i, newItems.get(position + i));
+                        }
+                    }
+
+                    @Override
+                    public void onRemoved(int position, int count) {
+                        current.subList(position, position + count).clear();
+                    }
+
+                    @Override
+                    public void onMoved(int fromPosition, int toPosition) {
+                        current.add(toPosition, current.remove(fromPosition));
+                    }
+
+                    @Override
+                    public void onChanged(int position, int count, Object payload) {
+                        for (int i = 0; i < count; i++) {
+                            assertNotEquals(newItems.get(position + i), current.get(position + i));
+                            current.set(position + i, newItems.get(position + i));
+                        }
+                    }
+                });
+        assertEquals(oldItems + " -> " + newItems, newItems, current);
+    }
+
+    private static List<String> dispatch(List<String> oldItems, List<String> newItems, boolean detectMoves) {
+        return dispatch(new StringCallback(oldItems, newItems, true), detectMoves);
+    }
+
+    private static List<String> dispatch(DiffUtil.Callback callback, boolean detectMoves) {
+        final List<String> updates = new ArrayList<>();
+        DiffUtil.calculateDiff(callback, detectMoves).dispatchUpdatesTo(new ListUpdateCallback() {
+            @Override
+            public void onInserted(int position, int count) {
+                updates.add("insert " + position + "," + count);
+            }
+
+            @Override
+            public void onRemoved(int position, int count) {
+                updates.add("remove " + position + "," + count);
+            }
+
+            @Override
+            public void onMoved(int fromPosition, int toPosition) {
+                updates.add("move " + fromPosition + "," + toPosition);
+            }
+
+            @Override
+            public void onChanged(int position, int count, Object payload) {
+                updates.add("change " + position + "," + count + "," + payload);
+            }
+        });
+        return updates;
+    }
+
+    /**
+     * 随机生成不重复的Id，从较小的范围里取，新旧列表之间有足够多的相同条目
+     */
+    private static List<String> randomItems(Random random) {
+        List<String> ids = new ArrayList<>();
+        for (char id = 'a'; id <= 'p'; id++) {
+            ids.add(String.valueOf(id));
+        }
+        Collections.shuffle(ids, random);
+        List<String> items = new ArrayList<>();
+        int size = random.nextInt(ids.size());
+        for (int i = 0; i < size; i++) {
+            items.add(ids.get(i) + ":" + random.nextInt(2));
+        }
+        return items;
+    }
+
+    private static int longestCommonSubsequence(List<String> oldItems, List<String> newItems) {
+        int[][] lengths = new int[oldItems.size() + 1][newItems.size() + 1];
+        for (int i = 1; i <= oldItems.size(); i++) {
+            for (int j = 1; j <= newItems.size(); j++) {
+                if (idOf(oldItems.get(i - 1)).equals(idOf(newItems.get(j - 1)))) {
+                    lengths[i][j] = lengths[i - 1][j - 1] + 1;
+                } else {
+                    lengths[i][j] = Math.max(lengths[i - 1][j], lengths[i][j - 1]);
+                }
+            }
+        }
+        return lengths[oldItems.size()][newItems.size()];
+    }
+
+    private static String idOf(String item) {
+        return item.substring(0, item.indexOf(':'));
+    }
+
+    private static final class StringCallback extends DiffUtil.Callback {
+        private final List<String> oldItems;
+        private final List<String> newItems;
+        private final boolean withPayloads;
+
+        StringCallback(List<String> oldItems, List<String> newItems, boolean withPayloads) {
+            this.oldItems = oldItems;
+            this.newItems = newItems;
+            this.withPayloads = withPayloads;
+        }
+
+        @Override
+        public int getOldListSize() {
+            return oldItems.size();
+        }
+
+        @Override
+        public int getNewListSize() {
+            return newItems.size();
+        }
+
+        @Override
+        public boolean areItemsTheSame(int oldItemPosition, int newItemPosition) {
+            return idOf(oldItems.get(oldItemPosition)).equals(idOf(newItems.get(newItemPosition)));
+        }
+
+        @Override
+        public boolean areContentsTheSame(int oldItemPosition, int newItemPosition) {
+            return oldItems.get(oldItemPosition).equals(newItems.get(newItemPosition));
+        }
+
+        @Override
+        public Object getChangePayload(int oldItemPosition, int newItemPosition) {
+            return withPayloads ? "payload " + idOf(newItems.get(newItemPosition)) : null;
+        }
+    }
+}
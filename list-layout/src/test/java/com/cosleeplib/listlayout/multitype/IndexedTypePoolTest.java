@@ -0,0 +1,190 @@
+package com.cosleeplib.listlayout.multitype;
+
+import android.view.LayoutInflater;
+import android.view.ViewGroup;
+
+import com.cosleeplib.listlayout.ListLayout;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+/**
+ * IndexedTypePool的单元测试，查找结果需要和MultiTypePool保持一致
+ */
+public class IndexedTypePoolTest {
+    private interface Shape {
+    }
+
+    private static class Base implements Shape {
+    }
+
+    private static class Child extends Base {
+    }
+
+    private static class GrandChild extends Child {
+    }
+
+    private static class Other {
+    }
+
+    private static final Class<?>[] CLASSES = {
+            Object.class, Shape.class, Base.class, Child.class, GrandChild.class, Other.class, String.class
+    };
+
+    @Test
+    public void firstIndexOf_resolvesSubclassesLikeMultiTypePool() {
+        IndexedTypePool indexed = new IndexedTypePool();
+        MultiTypePool list = new MultiTypePool();
+        register(indexed, list, Child.class);
+        register(indexed, list, Shape.class);
+        register(indexed, list, Child.class);
+
+        assertSameLookups(indexed, list);
+        assertEquals(0, indexed.firstIndexOf(GrandChild.class));
+        assertEquals(1, indexed.firstIndexOf(Base.class));
+        assertEquals(-1, indexed.firstIndexOf(Other.class));
+    }
+
+    @Test
+    public void unregister_invalidatesResolvedIndexes() {
+        IndexedTypePool indexed = new IndexedTypePool();
+        MultiTypePool list = new MultiTypePool();
+        register(indexed, list, Child.class);
+        register(indexed, list, Other.class);
+        register(indexed, list, Base.class);
+        assertEquals(0, indexed.firstIndexOf(GrandChild.class));
+
+        assertTrue(indexed.unregister(Child.class));
+        assertTrue(list.unregister(Child.class));
+        assertFalse(indexed.unregister(Child.class));
+        assertEquals(1, indexed.firstIndexOf(GrandChild.class));
+        assertSameLookups(indexed, list);
+    }
+
+    @Test
+    public void randomOperations_matchMultiTypePool() {
+        Random random = new Random(42);
+        IndexedTypePool indexed = new IndexedTypePool(1);
+        MultiTypePool list = new MultiTypePool();
+        for (int i = 0; i < 2000; i++) {
+            Class<?> clazz = CLASSES[random.nextInt(CLASSES.length)];
+            if (random.nextInt(3) == 0) {
+                assertEquals(list.unregister(clazz), indexed.unregister(clazz));
+            } else {
+                register(indexed, list, clazz);
+            }
+            assertSameLookups(indexed, list);
+        }
+    }
+
+    @Test
+    public void concurrentLookups_matchMultiTypePool() throws InterruptedException {
+        //大量没解析过的Class，多个线程同时查找，都会写入解析结果的缓存
+        final List<Class<?>> lookups = new ArrayList<>(Arrays.asList(CLASSES));
+        lookups.addAll(Arrays.<Class<?>>asList(Integer.class, Long.class, Double.class, StringBuilder.class,
+                ArrayList.class, java.util.LinkedList.class, java.util.HashMap.class, java.util.TreeMap.class,
+                java.util.HashSet.class, java.util.TreeSet.class, java.util.ArrayDeque.class, Thread.class,
+                Random.class, CountDownLatch.class, java.math.BigInteger.class, java.math.BigDecimal.class,
+                java.util.concurrent.atomic.AtomicInteger.class, java.util.concurrent.atomic.AtomicLong.class));
+        final int threadCount = 8;
+        for (int round = 0; round < 20; round++) {
+            final IndexedTypePool indexed = new IndexedTypePool();
+            final MultiTypePool list = new MultiTypePool();
+            register(indexed, list, Number.class);
+            register(indexed, list, CharSequence.class);
+            register(indexed, list, java.util.Collection.class);
+            register(indexed, list, Base.class);
+            register(indexed, list, java.util.Map.class);
+            final CountDownLatch start = new CountDownLatch(1);
+            final CountDownLatch done = new CountDownLatch(threadCount);
+            final ConcurrentLinkedQueue<String> mismatches = new ConcurrentLinkedQueue<>();
+            for (int t = 0; t < threadCount; t++) {
+                final List<Class<?>> order = new ArrayList<>(lookups);
+                Collections.shuffle(order, new Random(round * threadCount + t));
+                new Thread(new Runnable() {
+                    @Override
+                    public void run() {
+                        try {
+                            start.await();
+                            for (Class<?> clazz : order) {
+                                int expected = list.firstIndexOf(clazz);
+                                int actual = indexed.firstIndexOf(clazz);
+                                if (expected != actual) {
+                                    mismatches.add(clazz.getName() + ": " + actual + " != " + expected);
+                                }
+                            }
+                        } catch (RuntimeException | InterruptedException e) {
+                            mismatches.add(e.toString());
+                        } finally {
+                            done.countDown();
+                        }
+                    }
+                }).start();
+            }
+            start.countDown();
+            assertTrue("lookups did not finish", done.await(10, TimeUnit.SECONDS));
+            assertTrue(mismatches.toString(), mismatches.isEmpty());
+        }
+    }
+
+    @Test
+    public void classLinker_resolvesFirstBinderOfClass() {
+        final TestBinder first = new TestBinder();
+        final TestBinder second = new TestBinder();
+        final OtherBinder other = new OtherBinder();
+        @SuppressWarnings("unchecked")
+        ItemViewBinder<Object, ?>[] binders = new ItemViewBinder[]{first, other, second};
+        ClassLinkerWrapper<Object> linker = ClassLinkerWrapper.wrap(new ClassLinker<Object>() {
+            @Override
+            public Class<? extends ItemViewBinder<Object, ?>> index(int position, Object o) {
+                return position == 0 ? TestBinder.class : OtherBinder.class;
+            }
+        }, binders);
+        assertEquals(0, linker.index(0, "a"));
+        assertEquals(1, linker.index(1, "a"));
+    }
+
+    @SuppressWarnings("unchecked")
+    private static void register(IndexedTypePool indexed, MultiTypePool list, Class<?> clazz) {
+        TestBinder binder = new TestBinder();
+        DefaultLinker<Object> linker = new DefaultLinker<>();
+        indexed.register((Class<Object>) clazz, binder, linker);
+        list.register((Class<Object>) clazz, binder, linker);
+    }
+
+    private static void assertSameLookups(IndexedTypePool indexed, MultiTypePool list) {
+        assertEquals(list.size(), indexed.size());
+        for (int i = 0; i < list.size(); i++) {
+            assertSame(list.getClass(i), indexed.getClass(i));
+            assertSame(list.getItemViewBinder(i), indexed.getItemViewBinder(i));
+            assertSame(list.getLinker(i), indexed.getLinker(i));
+        }
+        for (Class<?> clazz : CLASSES) {
+            assertEquals(clazz.getName(), list.firstIndexOf(clazz), indexed.firstIndexOf(clazz));
+        }
+    }
+
+    private static class TestBinder extends ItemViewBinder<Object, ListLayout.ViewHolder> {
+        @Override
+        protected ListLayout.ViewHolder onCreateViewHolder(LayoutInflater inflater, ViewGroup parent) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        protected void onBindViewHolder(ListLayout.ViewHolder holder, Object item) {
+        }
+    }
+
+    private static class OtherBinder extends TestBinder {
+    }
+}
@@ -0,0 +1,230 @@
+package com.cosleeplib.listlayout.multitype;
+
+import android.view.LayoutInflater;
+import android.view.ViewGroup;
+
+import com.cosleeplib.listlayout.ListLayout;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * MultiTypeAdapter缓存条目类型和Id的单元测试
+ */
+public class MultiTypeAdapterTest {
+    private List<Item> items;
+    private MultiTypeAdapter adapter;
+    private CountingLinker linker;
+    private int nextId;
+
+    @Before
+    public void setUp() {
+        items = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            items.add(newItem(i % 3 == 0));
+        }
+        adapter = new MultiTypeAdapter(items);
+        linker = new CountingLinker();
+        adapter.register(Item.class).to(new LeftBinder(), new RightBinder()).withClassLinker(linker);
+    }
+
+    @Test
+    public void resolvesEachItemOnce() {
+        for (int pass = 0; pass < 3; pass++) {
+            for (int i = 0; i < items.size(); i++) {
+                adapter.getItemViewType(i);
+                adapter.getItemId(i);
+            }
+        }
+        assertEquals(items.size(), linker.count);
+    }
+
+    @Test
+    public void appendResolvesOnlyNewItems() {
+        resolveAll();
+        linker.count = 0;
+        int positionStart = items.size();
+        for (int i = 0; i < 5; i++) {
+            items.add(newItem(i % 2 == 0));
+        }
+        adapter.notifyItemRangeInserted(positionStart, 5);
+        assertResolvedLikeFreshAdapter();
+        assertEquals(5, linker.count);
+    }
+
+    @Test
+    public void swapPersistentItemsResolvesOnlyNewItems() {
+        PersistentItems persistent = PersistentItems.copyOf(items);
+        adapter.setItems(persistent);
+        resolveAll();
+        linker.count = 0;
+        PersistentItems.Builder builder = persistent.builder();
+        for (int i = 0; i < 5; i++) {
+            Item item = newItem(i % 2 == 0);
+            builder.add(item);
+            items.add(item);
+        }
+        adapter.swapItems(builder.build());
+        adapter.notifyItemRangeInserted(persistent.size(), 5);
+        assertResolvedLikeFreshAdapter();
+        assertEquals(5, linker.count);
+        assertSame(adapter.getItems(), adapter.snapshotItems());
+    }
+
+    @Test
+    public void notifyDataSetChangedResolvesAgain() {
+        resolveAll();
+        linker.count = 0;
+        items.set(0, newItem(!items.get(0).left));
+        adapter.notifyDataSetChanged();
+        assertResolvedLikeFreshAdapter();
+        assertEquals(items.size(), linker.count);
+    }
+
+    @Test
+    public void randomUpdatesMatchFreshResolution() {
+        Random random = new Random(42);
+        for (int step = 0; step < 500; step++) {
+            resolveAll();
+            int size = items.size();
+            switch (random.nextInt(4)) {
+                case 0: {
+                    int positionStart = random.nextInt(size + 1);
+                    int count = 1 + random.nextInt(3);
+                    for (int i = 0; i < count; i++) {
+                        items.add(positionStart + i, newItem(random.nextBoolean()));
+                    }
+                    adapter.notifyItemRangeInserted(positionStart, count);
+                    break;
+                }
+                case 1: {
+                    if (size == 0) {
+                        continue;
+                    }
+                    int positionStart = random.nextInt(size);
+                    int count = 1 + random.nextInt(Math.min(3, size - positionStart));
+                    for (int i = 0; i < count; i++) {
+                        items.remove(positionStart);
+                    }
+                    adapter.notifyItemRangeRemoved(positionStart, count);
+                    break;
+                }
+                case 2: {
+                    if (size == 0) {
+                        continue;
+                    }
+                    int from = random.nextInt(size);
+                    int to = random.nextInt(size);
+                    items.add(to, items.remove(from));
+                    adapter.notifyItemMoved(from, to);
+                    break;
+                }
+                default: {
+                    if (size == 0) {
+                        continue;
+                    }
+                    int position = random.nextInt(size);
+                    items.set(position, newItem(random.nextBoolean()));
+                    adapter.notifyItemChanged(position);
+                    break;
+                }
+            }
+            assertResolvedLikeFreshAdapter();
+        }
+    }
+
+    @Test
+    public void bindNotifiesListOfBoundPosition() {
+        BindRecordingList list = new BindRecordingList();
+        list.addAll(items);
+        adapter.setItems(list);
+        for (int position : new int[]{3, 0, 7}) {
+            ListLayout.ViewHolder holder = new ListLayout.ViewHolder(null) {
+            };
+            holder.setItemViewType(adapter.getItemViewType(position));
+            adapter.onBindViewHolder(holder, position);
+        }
+        assertEquals(3, list.boundPositions.size());
+        assertEquals(Integer.valueOf(3), list.boundPositions.get(0));
+        assertEquals(Integer.valueOf(0), list.boundPositions.get(1));
+        assertEquals(Integer.valueOf(7), list.boundPositions.get(2));
+    }
+
+    private void resolveAll() {
+        for (int i = 0; i < items.size(); i++) {
+            adapter.getItemId(i);
+        }
+    }
+
+    private void assertResolvedLikeFreshAdapter() {
+        MultiTypeAdapter fresh = new MultiTypeAdapter(new ArrayList<>(items));
+        fresh.register(Item.class).to(new LeftBinder(), new RightBinder()).withClassLinker(new CountingLinker());
+        assertEquals(fresh.getItemCount(), adapter.getItemCount());
+        for (int i = 0; i < items.size(); i++) {
+            assertEquals(fresh.getItemViewType(i), adapter.getItemViewType(i));
+            assertEquals(fresh.getItemId(i), adapter.getItemId(i));
+        }
+    }
+
+    private Item newItem(boolean left) {
+        return new Item(nextId++, left);
+    }
+
+    private static class Item {
+        final long id;
+        final boolean left;
+
+        Item(long id, boolean left) {
+            this.id = id;
+            this.left = left;
+        }
+    }
+
+    private static class BindRecordingList extends ArrayList<Item> implements OnBindPositionListener {
+        final List<Integer> boundPositions = new ArrayList<>();
+
+        @Override
+        public void onBindPosition(int position) {
+            boundPositions.add(position);
+        }
+    }
+
+    private static class CountingLinker implements ClassLinker<Item> {
+        int count;
+
+        @Override
+        public Class<? extends ItemViewBinder<Item, ?>> index(int position, Item item) {
+            count++;
+            return item.left ? LeftBinder.class : RightBinder.class;
+        }
+    }
+
+    private static class LeftBinder extends ItemViewBinder<Item, ListLayout.ViewHolder> {
+        @Override
+        protected ListLayout.ViewHolder onCreateViewHolder(LayoutInflater inflater, ViewGroup parent) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        protected void onBindViewHolder(ListLayout.ViewHolder holder, Item item) {
+        }
+
+        @Override
+        protected long getItemId(Item item) {
+            return item.id;
+        }
+    }
+
+    private static class RightBinder extends LeftBinder {
+        @Override
+        protected long getItemId(Item item) {
+            return -item.id - 1;
+        }
+    }
+}
@@ -0,0 +1,234 @@
+package com.cosleeplib.listlayout.multitype;
+
+import android.view.LayoutInflater;
+import android.view.ViewGroup;
+
+import com.cosleeplib.listlayout.ListLayout;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.Executor;
+
+import static org.junit.Assert.*;
+
+/**
+ * PagedList的单元测试，用本地的假数据源，后台线程和主线程都换成手动执行的Executor
+ */
+public class PagedListTest {
+    private static final int COUNT = 100;
+    private static final int PAGE_SIZE = 10;
+
+    private ManualExecutor background;
+    private ManualExecutor main;
+    private FakeDataSource dataSource;
+    private MultiTypeAdapter adapter;
+    private ChangeObserver observer;
+
+    @Before
+    public void setUp() {
+        background = new ManualExecutor();
+        main = new ManualExecutor();
+        dataSource = new FakeDataSource(COUNT);
+        adapter = new MultiTypeAdapter();
+        adapter.register(Placeholder.class, new PlaceholderViewBinder(10));
+        adapter.register(String.class, new StringBinder());
+        observer = new ChangeObserver();
+        adapter.registerAdapterDataObserver(observer);
+    }
+
+    @Test
+    public void loadInitialShowsPlaceholdersThenFirstPages() {
+        PagedList<String> list = create(5, PagedList.UNBOUNDED);
+        list.loadInitial();
+        assertEquals(0, adapter.getItemCount());
+        background.runAll();
+        main.runAll();
+        assertSame(list, adapter.getItems());
+        assertEquals(COUNT, adapter.getItemCount());
+        assertSame(Placeholder.INSTANCE, list.get(0));
+        int placeholderType = adapter.getItemViewType(0);
+
+        background.runAll();
+        main.runAll();
+        assertEquals("Item 0", list.get(0));
+        assertTrue(list.isLoaded(PAGE_SIZE - 1));
+        assertFalse(list.isLoaded(PAGE_SIZE));
+        assertNotEquals(placeholderType, adapter.getItemViewType(0));
+        assertEquals(Collections.singletonList(0), observer.changedStarts);
+    }
+
+    @Test
+    public void bindingLoadsWithinPrefetchDistance() {
+        PagedList<String> list = loadInitial(5, PagedList.UNBOUNDED);
+        bind(34);
+        bind(35);
+        //同一次渲染中多次通知，只安排一次加载
+        assertEquals(1, main.size());
+        main.runAll();
+        background.runAll();
+        main.runAll();
+        //35前后5个条目，在第3、4页
+        assertEquals(3, list.getLoadedPageCount());
+        assertTrue(list.isLoaded(30));
+        assertTrue(list.isLoaded(40));
+        assertFalse(list.isLoaded(20));
+        assertEquals("Item 40", list.get(40));
+        assertEquals(3, dataSource.loadRangeCount);
+    }
+
+    @Test
+    public void dropsFarthestPagesOverBudget() {
+        PagedList<String> list = loadInitial(0, 3 * PAGE_SIZE);
+        for (int position = 0; position < COUNT; position += PAGE_SIZE) {
+            bind(position);
+            main.runAll();
+            background.runAll();
+            main.runAll();
+            assertTrue(list.getLoadedPageCount() <= 3);
+            assertTrue(list.isLoaded(position));
+        }
+        assertSame(Placeholder.INSTANCE, list.get(0));
+        assertTrue(observer.changedStarts.contains(0));
+    }
+
+    @Test
+    public void failedPageIsLoadedAgain() {
+        PagedList<String> list = create(0, PagedList.UNBOUNDED);
+        list.loadInitial();
+        background.runAll();
+        dataSource.failing = true;
+        main.runAll();
+        background.runAll();
+        main.runAll();
+        assertFalse(list.isLoaded(0));
+
+        dataSource.failing = false;
+        bind(0);
+        main.runAll();
+        background.runAll();
+        main.runAll();
+        assertTrue(list.isLoaded(0));
+    }
+
+    @Test
+    public void reloadDiscardsStaleResults() {
+        PagedList<String> list = loadInitial(0, PagedList.UNBOUNDED);
+        bind(50);
+        main.runAll();
+        list.loadInitial();
+        dataSource.count = 20;
+        background.runAll();
+        main.runAll();
+        assertEquals(20, list.size());
+        assertEquals(0, list.getLoadedPageCount());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void budgetMustCoverPrefetchWindow() {
+        create(10, PAGE_SIZE);
+    }
+
+    private PagedList<String> create(int prefetchDistance, int maxLoadedItems) {
+        return new PagedList<>(adapter, dataSource, PAGE_SIZE, prefetchDistance, maxLoadedItems, background, main);
+    }
+
+    /**
+     * 创建并加载完条目总数和第一页
+     */
+    private PagedList<String> loadInitial(int prefetchDistance, int maxLoadedItems) {
+        PagedList<String> list = create(prefetchDistance, maxLoadedItems);
+        list.loadInitial();
+        background.runAll();
+        main.runAll();
+        background.runAll();
+        main.runAll();
+        observer.changedStarts.clear();
+        return list;
+    }
+
+    /**
+     * 和ListLayout一样通过Adapter渲染条目
+     */
+    private void bind(int position) {
+        ListLayout.ViewHolder holder = new ListLayout.ViewHolder(null) {
+        };
+        holder.setItemViewType(adapter.getItemViewType(position));
+        adapter.onBindViewHolder(holder, position);
+    }
+
+    private static class FakeDataSource implements PagedDataSource<String> {
+        int count;
+        int loadRangeCount;
+        boolean failing;
+
+        FakeDataSource(int count) {
+            this.count = count;
+        }
+
+        @Override
+        public int loadCount() {
+            return count;
+        }
+
+        @Override
+        public List<String> loadRange(int startPosition, int count) {
+            loadRangeCount++;
+            if (failing) {
+                throw new IllegalStateException("Network error");
+            }
+            List<String> items = new ArrayList<>();
+            for (int i = startPosition; i < startPosition + count; i++) {
+                items.add("Item " + i);
+            }
+            return items;
+        }
+    }
+
+    private static class ManualExecutor implements Executor {
+        private final Queue<Runnable> tasks = new ArrayDeque<>();
+
+        @Override
+        public void execute(Runnable command) {
+            tasks.add(command);
+        }
+
+        int size() {
+            return tasks.size();
+        }
+
+        /**
+         * 执行当前排队的任务，执行中新加入的任务留到下一次
+         */
+        void runAll() {
+            for (int i = tasks.size(); i > 0; i--) {
+                tasks.poll().run();
+            }
+        }
+    }
+
+    private static class ChangeObserver extends ListLayout.AdapterDataObserver {
+        final List<Integer> changedStarts = new ArrayList<>();
+
+        @Override
+        public void onItemRangeChanged(int positionStart, int itemCount) {
+            changedStarts.add(positionStart);
+        }
+    }
+
+    private static class StringBinder extends ItemViewBinder<String, ListLayout.ViewHolder> {
+        @Override
+        protected ListLayout.ViewHolder onCreateViewHolder(LayoutInflater inflater, ViewGroup parent) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        protected void onBindViewHolder(ListLayout.ViewHolder holder, String item) {
+        }
+    }
+}
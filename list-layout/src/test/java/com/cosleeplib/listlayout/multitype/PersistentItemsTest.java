@@ -0,0 +1,124 @@
+package com.cosleeplib.listlayout.multitype;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * PersistentItems的单元测试，和ArrayList对比修改结果，并检查旧的版本不受影响
+ */
+public class PersistentItemsTest {
+
+    @Test
+    public void randomOperationsMatchArrayList() {
+        Random random = new Random(7);
+        PersistentItems items = PersistentItems.empty();
+        List<Object> expected = new ArrayList<>();
+        List<PersistentItems> versions = new ArrayList<>();
+        List<List<Object>> expectedVersions = new ArrayList<>();
+        for (int step = 0; step < 2000; step++) {
+            int size = expected.size();
+            int operation = size == 0 ? 0 : random.nextInt(4);
+            if (operation == 0) {
+                int index = random.nextInt(size + 1);
+                items = items.insert(index, step);
+                expected.add(index, step);
+            } else if (operation == 1) {
+                int index = random.nextInt(size);
+                items = items.removeAt(index);
+                expected.remove(index);
+            } else if (operation == 2) {
+                int index = random.nextInt(size);
+                items = items.update(index, -step);
+                expected.set(index, -step);
+            } else {
+                items = items.append(step);
+                expected.add(step);
+            }
+            assertEquals(expected.size(), items.size());
+            if (step % 100 == 0) {
+                assertEquals(expected, items);
+                versions.add(items);
+                expectedVersions.add(new ArrayList<>(expected));
+            }
+        }
+        assertEquals(expected, items);
+        //旧的版本都没有变化
+        for (int i = 0; i < versions.size(); i++) {
+            assertEquals(expectedVersions.get(i), versions.get(i));
+        }
+    }
+
+    @Test
+    public void builderDoesNotAffectBuiltLists() {
+        PersistentItems original = PersistentItems.copyOf(Arrays.asList(0, 1, 2, 3, 4));
+        PersistentItems.Builder builder = original.builder();
+        builder.add(5).add(0, -1).set(3, 20).removeAt(1);
+        PersistentItems first = builder.build();
+        assertEquals(Arrays.<Object>asList(-1, 1, 20, 3, 4, 5), first);
+
+        builder.add(6).set(0, -10).removeAt(1);
+        PersistentItems second = builder.build();
+        assertEquals(Arrays.<Object>asList(-10, 20, 3, 4, 5, 6), second);
+        assertEquals(Arrays.<Object>asList(-1, 1, 20, 3, 4, 5), first);
+        assertEquals(Arrays.<Object>asList(0, 1, 2, 3, 4), original);
+
+        assertSame(PersistentItems.empty(), builder.clear().build());
+    }
+
+    @Test
+    public void appendAllSharesOriginal() {
+        PersistentItems items = PersistentItems.empty().appendAll(Arrays.asList("a", "b"));
+        PersistentItems more = items.appendAll(Arrays.asList("c", "d", "e"));
+        assertEquals(Arrays.<Object>asList("a", "b"), items);
+        assertEquals(Arrays.<Object>asList("a", "b", "c", "d", "e"), more);
+        assertSame(items, items.appendAll(Collections.emptyList()));
+        assertSame(more, PersistentItems.copyOf(more));
+    }
+
+    @Test
+    public void iteratorAndToArrayFollowOrder() {
+        List<Object> expected = new ArrayList<>();
+        PersistentItems.Builder builder = PersistentItems.empty().builder();
+        for (int i = 0; i < 1000; i++) {
+            builder.add(i);
+            expected.add(i);
+        }
+        PersistentItems items = builder.build();
+        List<Object> iterated = new ArrayList<>();
+        for (Object item : items) {
+            iterated.add(item);
+        }
+        assertEquals(expected, iterated);
+        assertArrayEquals(expected.toArray(), items.toArray());
+    }
+
+    @Test
+    public void staysBalanced() {
+        PersistentItems items = PersistentItems.empty();
+        for (int i = 0; i < 4096; i++) {
+            items = items.append(i);
+        }
+        //AVL树的高度不超过1.44 * log2(n + 2)，迭代器的栈深度等于树高，超出时会越界
+        for (Object ignored : items) {
+            assertNotNull(ignored);
+        }
+        assertEquals(4095, items.get(4095));
+    }
+
+    @Test(expected = NullPointerException.class)
+    public void rejectsNullItems() {
+        PersistentItems.empty().append(null);
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void rejectsInvalidIndex() {
+        PersistentItems.copyOf(Arrays.asList(1, 2)).get(2);
+    }
+}
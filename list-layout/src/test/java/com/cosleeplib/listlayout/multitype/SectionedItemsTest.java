@@ -0,0 +1,215 @@
+package com.cosleeplib.listlayout.multitype;
+
+import com.cosleeplib.listlayout.ListLayout;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * SectionedItems的单元测试，按收到的通知维护一份镜像列表，和直接展开的结果对比
+ */
+public class SectionedItemsTest {
+    private MultiTypeAdapter adapter;
+    private SectionedItems items;
+    private MirrorObserver mirror;
+
+    @Before
+    public void setUp() {
+        adapter = new MultiTypeAdapter();
+        items = new SectionedItems(adapter);
+        adapter.setItems(items);
+        mirror = new MirrorObserver();
+        adapter.registerAdapterDataObserver(mirror);
+    }
+
+    @Test
+    public void mapsPositionsToSections() {
+        items.addSection("A", Arrays.asList("a0", "a1"));
+        items.addSection(null, Collections.emptyList());
+        items.addSection(null, Arrays.asList("c0"));
+        items.addSection("D", Arrays.asList("d0", "d1", "d2"));
+        assertEquals(Arrays.<Object>asList("A", "a0", "a1", "c0", "D", "d0", "d1", "d2"), items);
+
+        assertEquals(0, items.getSectionForPosition(0));
+        assertEquals(SectionedItems.HEADER, items.getOffsetInSection(0));
+        assertEquals(1, items.getOffsetInSection(2));
+        //空的分组被跳过
+        assertEquals(2, items.getSectionForPosition(3));
+        assertEquals(0, items.getOffsetInSection(3));
+        assertEquals(3, items.getSectionForPosition(7));
+        assertEquals(2, items.getOffsetInSection(7));
+
+        assertEquals(3, items.getSectionStart(1));
+        assertEquals(3, items.getSectionStart(2));
+        assertEquals(4, items.getPosition(3, SectionedItems.HEADER));
+        assertEquals(6, items.getPosition(3, 1));
+        assertEquals(8, items.getSectionStart(4));
+    }
+
+    @Test
+    public void sectionChangeOnlyNotifiesItsRange() {
+        items.addSection("A", Arrays.asList("a0", "a1"));
+        items.addSection("B", Arrays.asList("b0", "b1"));
+        mirror.reset();
+        items.insertItems(1, 1, Arrays.asList("x", "y"));
+        assertEquals(Collections.singletonList("insert 5+2"), mirror.events);
+        mirror.reset();
+        items.removeItems(0, 0, 1);
+        assertEquals(Collections.singletonList("remove 1+1"), mirror.events);
+        mirror.reset();
+        items.setHeader(1, null);
+        assertEquals(Collections.singletonList("remove 2+1"), mirror.events);
+    }
+
+    @Test
+    public void randomOperationsMatchFlattenedSections() {
+        Random random = new Random(23);
+        List<Object> headers = new ArrayList<>();
+        List<List<Object>> sections = new ArrayList<>();
+        int next = 0;
+        for (int step = 0; step < 3000; step++) {
+            int sectionCount = sections.size();
+            int operation = sectionCount == 0 ? 0 : random.nextInt(7);
+            if (operation == 0) {
+                int section = random.nextInt(sectionCount + 1);
+                Object header = random.nextBoolean() ? "H" + next++ : null;
+                List<Object> sectionItems = new ArrayList<>();
+                for (int i = random.nextInt(4); i > 0; i--) {
+                    sectionItems.add(next++);
+                }
+                items.insertSection(section, header, sectionItems);
+                headers.add(section, header);
+                sections.add(section, sectionItems);
+            } else if (operation == 1) {
+                int section = random.nextInt(sectionCount);
+                items.removeSection(section);
+                headers.remove(section);
+                sections.remove(section);
+            } else if (operation == 2) {
+                int section = random.nextInt(sectionCount);
+                Object header = random.nextBoolean() ? "H" + next++ : null;
+                items.setHeader(section, header);
+                headers.set(section, header);
+            } else if (operation == 3) {
+                int section = random.nextInt(sectionCount);
+                int offset = random.nextInt(sections.get(section).size() + 1);
+                List<Object> newItems = Arrays.<Object>asList(next++, next++);
+                items.insertItems(section, offset, newItems);
+                sections.get(section).addAll(offset, newItems);
+            } else if (operation == 4) {
+                int section = random.nextInt(sectionCount);
+                int size = sections.get(section).size();
+                if (size == 0) {
+                    continue;
+                }
+                int offset = random.nextInt(size);
+                int count = 1 + random.nextInt(size - offset);
+                items.removeItems(section, offset, count);
+                sections.get(section).subList(offset, offset + count).clear();
+            } else if (operation == 5) {
+                int section = random.nextInt(sectionCount);
+                int size = sections.get(section).size();
+                if (size == 0) {
+                    continue;
+                }
+                int offset = random.nextInt(size);
+                items.setItem(section, offset, next);
+                sections.get(section).set(offset, next++);
+            } else {
+                int section = random.nextInt(sectionCount);
+                int offset = random.nextInt(sections.get(section).size() + 1);
+                items.insertItem(section, offset, next);
+                sections.get(section).add(offset, next++);
+            }
+            List<Object> expected = flatten(headers, sections);
+            assertEquals(expected, items);
+            assertEquals(expected, mirror.items);
+            assertPositionMapping(headers, sections);
+        }
+    }
+
+    @Test
+    public void doesNotNotifyWhenAdapterUsesOtherItems() {
+        adapter.setItems(Collections.emptyList());
+        items.addSection("A", Arrays.asList("a0"));
+        assertTrue(mirror.events.isEmpty());
+    }
+
+    private void assertPositionMapping(List<Object> headers, List<List<Object>> sections) {
+        int position = 0;
+        for (int section = 0; section < sections.size(); section++) {
+            assertEquals(position, items.getSectionStart(section));
+            if (headers.get(section) != null) {
+                assertEquals(section, items.getSectionForPosition(position));
+                assertEquals(SectionedItems.HEADER, items.getOffsetInSection(position));
+                position++;
+            }
+            for (int offset = 0; offset < sections.get(section).size(); offset++) {
+                assertEquals(position, items.getPosition(section, offset));
+                assertEquals(section, items.getSectionForPosition(position));
+                assertEquals(offset, items.getOffsetInSection(position));
+                position++;
+            }
+        }
+        assertEquals(position, items.getSectionStart(sections.size()));
+    }
+
+    private static List<Object> flatten(List<Object> headers, List<List<Object>> sections) {
+        List<Object> result = new ArrayList<>();
+        for (int section = 0; section < sections.size(); section++) {
+            if (headers.get(section) != null) {
+                result.add(headers.get(section));
+            }
+            result.addAll(sections.get(section));
+        }
+        return result;
+    }
+
+    /**
+     * 按收到的通知，从SectionedItems中取出对应的条目，维护一份镜像列表
+     */
+    private class MirrorObserver extends ListLayout.AdapterDataObserver {
+        final List<Object> items = new ArrayList<>();
+        final List<String> events = new ArrayList<>();
+
+        void reset() {
+            events.clear();
+        }
+
+        @Override
+        public void onChanged() {
+            items.clear();
+            items.addAll(SectionedItemsTest.this.items);
+        }
+
+        @Override
+        public void onItemRangeChanged(int positionStart, int itemCount) {
+            events.add("change " + positionStart + "+" + itemCount);
+            for (int i = positionStart; i < positionStart + itemCount; i++) {
+                items.set(i, SectionedItemsTest.this.items.get(i));
+            }
+        }
+
+        @Override
+        public void onItemRangeInserted(int positionStart, int itemCount) {
+            events.add("insert " + positionStart + "+" + itemCount);
+            for (int i = positionStart; i < positionStart + itemCount; i++) {
+                items.add(i, SectionedItemsTest.this.items.get(i));
+            }
+        }
+
+        @Override
+        public void onItemRangeRemoved(int positionStart, int itemCount) {
+            events.add("remove " + positionStart + "+" + itemCount);
+            items.subList(positionStart, positionStart + itemCount).clear();
+        }
+    }
+}